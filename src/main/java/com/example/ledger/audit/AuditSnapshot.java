@@ -0,0 +1,14 @@
+package com.example.ledger.audit;
+
+import com.example.ledger.model.AccountView;
+
+/**
+ * An account's balance and history together with the digests of exactly that history,
+ * taken at the same point.
+ */
+public record AuditSnapshot(AccountView view, HistoryDigest.Snapshot digests) {
+
+    public static AuditSnapshot empty(String accountId) {
+        return new AuditSnapshot(AccountView.empty(accountId), HistoryDigest.Snapshot.empty());
+    }
+}
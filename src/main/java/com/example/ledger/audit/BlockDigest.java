@@ -0,0 +1,138 @@
+package com.example.ledger.audit;
+
+import com.example.ledger.model.Transaction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SHA-256 over one block of an account's history: {@code 0x00 || accountId || block},
+ * followed by every transaction of the block in order. The digest of a full block is the
+ * block's leaf in the account's {@link MerkleTree}; the {@code 0x00} prefix keeps leaves apart
+ * from the tree's interior nodes, and the account id and block number stop a block from being
+ * passed off as another.
+ *
+ * A transaction is hashed in a fixed binary form: sequence, type, amount as scale and unscaled
+ * value, timestamp as UTC epoch second and nanosecond, and id, the variable-length fields
+ * prefixed with their length. The amount keeps its scale, so {@code 10.5} and {@code 10.50}
+ * hash differently, as they read back differently.
+ *
+ * Transactions are streamed into the digest, so the 80-odd bytes of one cost a little over
+ * one SHA-256 compression, and the digest and encoding buffer are reused, so nothing is
+ * allocated beyond {@link BigDecimal#unscaledValue()}. Not thread-safe.
+ */
+public final class BlockDigest {
+
+    private static final byte LEAF = 0x00;
+
+    private final MessageDigest digest = MerkleTree.sha256();
+    private final byte[] accountId;
+    private byte[] buffer = new byte[128];
+
+    public BlockDigest(String accountId) {
+        this.accountId = accountId.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Digest of a whole block, computed from its transactions.
+     */
+    public static byte[] of(String accountId, long block, List<Transaction> transactions) {
+        BlockDigest digest = new BlockDigest(accountId);
+        digest.start(block);
+        for (int i = 0, n = transactions.size(); i < n; i++) {
+            digest.add(transactions.get(i));
+        }
+        return digest.value();
+    }
+
+    /**
+     * Starts the given block, dropping any transactions added before.
+     */
+    public void start(long block) {
+        digest.reset();
+        ensure(1 + 4 + accountId.length + 8);
+        int position = 0;
+        buffer[position++] = LEAF;
+        position = putBytes(accountId, position);
+        position = putLong(block, position);
+        digest.update(buffer, 0, position);
+    }
+
+    public void add(Transaction transaction) {
+        BigDecimal amount = transaction.getAmount();
+        BigInteger unscaled = amount.unscaledValue();
+        byte[] large = unscaled.bitLength() < 64 ? null : unscaled.toByteArray();
+        String id = transaction.getId();
+        ensure(8 + 1 + 4 + 4 + (large == null ? 8 : large.length) + 8 + 4 + 4 + id.length() * 3);
+
+        int position = putLong(transaction.getSequence(), 0);
+        buffer[position++] = (byte) transaction.getType().ordinal();
+        position = putInt(amount.scale(), position);
+        if (large == null) {
+            position = putInt(8, position);
+            position = putLong(unscaled.longValue(), position);
+        } else {
+            position = putBytes(large, position);
+        }
+        position = putLong(transaction.getTimestamp().toEpochSecond(ZoneOffset.UTC), position);
+        position = putInt(transaction.getTimestamp().getNano(), position);
+        position = putString(id, position);
+        digest.update(buffer, 0, position);
+    }
+
+    /**
+     * Digest of the block as it stands, leaving it open for more transactions.
+     */
+    public byte[] value() {
+        try {
+            return ((MessageDigest) digest.clone()).digest();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be cloned", e);
+        }
+    }
+
+    private int putString(String value, int position) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            if (value.charAt(i) >= 0x80) {
+                // Three bytes per char, as reserved by the caller, covers UTF-8 including surrogate pairs.
+                return putBytes(value.getBytes(StandardCharsets.UTF_8), position);
+            }
+        }
+        position = putInt(value.length(), position);
+        for (int i = 0, n = value.length(); i < n; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+        return position;
+    }
+
+    private int putBytes(byte[] bytes, int position) {
+        position = putInt(bytes.length, position);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    private int putLong(long value, int position) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return position;
+    }
+
+    private int putInt(int value, int position) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return position;
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.length < bytes) {
+            buffer = Arrays.copyOf(buffer, Math.max(bytes, buffer.length * 2));
+        }
+    }
+}
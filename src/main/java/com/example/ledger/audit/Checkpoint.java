@@ -0,0 +1,13 @@
+package com.example.ledger.audit;
+
+import java.math.BigDecimal;
+
+/**
+ * Signed statement of an account's state: its first {@code transactions} transactions, cut
+ * into {@code blocks} blocks of {@code blockSize}, have the Merkle root {@code root}, and
+ * leave the balance {@code balance}. The signature is an HMAC-SHA256 over those fields with
+ * the ledger's audit key (see {@link LedgerAuditor}).
+ */
+public record Checkpoint(String accountId, long transactions, BigDecimal balance, int blockSize, int blocks,
+                         byte[] root, byte[] signature) {
+}
@@ -0,0 +1,72 @@
+package com.example.ledger.audit;
+
+import com.example.ledger.model.Transaction;
+
+/**
+ * Tamper-evident digest of an account's history, kept up to date as transactions are
+ * appended: history is cut into blocks of {@link #BLOCK_SIZE} transactions, each hashed by a
+ * {@link BlockDigest}, and the digest of every full block is added to a {@link MerkleTree}.
+ * An append hashes one transaction, plus the tree's O(log n) nodes once per block.
+ *
+ * Written by the owner of the account lock only, and read with that lock held through
+ * {@link #snapshot()}.
+ */
+public final class HistoryDigest {
+
+    public static final int BLOCK_SIZE = 1024;
+
+    private final BlockDigest open;
+    private final MerkleTree sealed = new MerkleTree();
+    private long size;
+
+    public HistoryDigest(String accountId) {
+        this.open = new BlockDigest(accountId);
+        open.start(0);
+    }
+
+    /**
+     * Adds the next transaction of the account.
+     */
+    public void append(Transaction transaction) {
+        open.add(transaction);
+        size++;
+        if (size % BLOCK_SIZE == 0) {
+            sealed.add(open.value());
+            open.start(size / BLOCK_SIZE);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * The digests as of now: a tree of the sealed blocks with the open one, if it holds any
+     * transactions, as its last leaf.
+     */
+    public Snapshot snapshot() {
+        MerkleTree tree = sealed.copy();
+        if (size % BLOCK_SIZE != 0) {
+            tree.add(open.value());
+        }
+        return new Snapshot(size, tree);
+    }
+
+    /**
+     * Digests of the first {@code size} transactions of an account; leaf {@code i} of
+     * {@code tree} is the digest of block {@code i}.
+     */
+    public record Snapshot(long size, MerkleTree tree) {
+
+        public static Snapshot empty() {
+            return new Snapshot(0, new MerkleTree());
+        }
+
+        /**
+         * Number of transactions in the given block.
+         */
+        public int blockLength(long block) {
+            return (int) Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.ledger.audit;
+
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.AuditSupport;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Audits the ledger against the {@link HistoryDigest}s its engine keeps.
+ *
+ * <ul>
+ *   <li>{@link #checkpoint} signs an account's transaction count, balance and Merkle root.</li>
+ *   <li>{@link #prove} re-hashes the blocks holding a range of transactions and checks each
+ *       against the root along its audit path: O(block size + log n) per block, whatever the
+ *       length of the history.</li>
+ *   <li>{@link #reconcile} checks every account: balance against the sum of the history, and
+ *       every block against its recorded digest. Accounts are read from snapshots, each
+ *       taken under the account lock only long enough to copy its digests, and the blocks
+ *       are folded in parallel on a fork-join pool, so writers are never held up by it.</li>
+ * </ul>
+ */
+public class LedgerAuditor implements AutoCloseable {
+
+    public static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+
+    /**
+     * Most blocks a single range proof may cover.
+     */
+    public static final int MAX_PROOF_BLOCKS = 64;
+
+    /**
+     * Blocks a reconciliation task folds itself rather than splitting further.
+     */
+    private static final int BLOCKS_PER_TASK = 4;
+
+    private final AuditSupport ledger;
+    private final SecretKeySpec key;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param key         HMAC key checkpoints are signed with
+     * @param parallelism threads folding blocks during reconciliation
+     */
+    public LedgerAuditor(AuditSupport ledger, byte[] key, int parallelism) {
+        if (key.length == 0) {
+            throw new IllegalArgumentException("Audit key must not be empty.");
+        }
+        this.ledger = ledger;
+        this.key = new SecretKeySpec(key, SIGNATURE_ALGORITHM);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Signed checkpoint of an account's current state.
+     */
+    public Checkpoint checkpoint(String accountId) {
+        return checkpoint(ledger.auditSnapshot(accountId));
+    }
+
+    /**
+     * Proof for transactions {@code from} to {@code to}, by sequence and inclusive, against a
+     * checkpoint of the account's current state.
+     *
+     * @throws IllegalArgumentException if the range is empty, beyond the history, or spans
+     *                                  more than {@link #MAX_PROOF_BLOCKS} blocks
+     */
+    public RangeProof prove(String accountId, long from, long to) {
+        if (from < 1 || to < from) {
+            throw new IllegalArgumentException("Range must satisfy 1 <= from <= to.");
+        }
+        long firstBlock = (from - 1) / HistoryDigest.BLOCK_SIZE;
+        long lastBlock = (to - 1) / HistoryDigest.BLOCK_SIZE;
+        if (lastBlock - firstBlock >= MAX_PROOF_BLOCKS) {
+            throw new IllegalArgumentException("Range may span at most " + MAX_PROOF_BLOCKS + " blocks of "
+                    + HistoryDigest.BLOCK_SIZE + " transactions.");
+        }
+        AuditSnapshot snapshot = ledger.auditSnapshot(accountId);
+        HistoryDigest.Snapshot digests = snapshot.digests();
+        if (to > digests.size()) {
+            throw new IllegalArgumentException("Account " + accountId + " has " + digests.size() + " transactions.");
+        }
+
+        Checkpoint checkpoint = checkpoint(snapshot);
+        MerkleTree tree = digests.tree();
+        List<RangeProof.Block> blocks = new ArrayList<>((int) (lastBlock - firstBlock + 1));
+        for (int block = (int) firstBlock; block <= lastBlock; block++) {
+            byte[] digest = tree.leaf(block);
+            List<byte[]> path = tree.path(block);
+            boolean intact = MessageDigest.isEqual(digest, recompute(snapshot, block))
+                    && MerkleTree.verify(digest, block, tree.size(), path, checkpoint.root());
+            long firstSequence = (long) block * HistoryDigest.BLOCK_SIZE + 1;
+            blocks.add(new RangeProof.Block(block, firstSequence, firstSequence + digests.blockLength(block) - 1,
+                    digest, path, intact));
+        }
+        return new RangeProof(from, to, checkpoint, blocks);
+    }
+
+    /**
+     * Reconciles every account. Each account is checked as of its own snapshot; accounts
+     * written to during the run are checked as they were when reached.
+     */
+    public ReconciliationReport reconcile() {
+        long start = System.nanoTime();
+        List<AuditSnapshot> snapshots = new ArrayList<>();
+        for (String accountId : ledger.accountIds()) {
+            snapshots.add(ledger.auditSnapshot(accountId));
+        }
+        List<ReconciliationReport.Mismatch> mismatches = pool.invoke(new Reconcile(snapshots));
+
+        long transactions = 0;
+        long blocks = 0;
+        for (AuditSnapshot snapshot : snapshots) {
+            transactions += snapshot.digests().size();
+            blocks += snapshot.digests().tree().size();
+        }
+        return new ReconciliationReport(snapshots.size(), transactions, blocks,
+                Duration.ofNanos(System.nanoTime() - start), mismatches);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private Checkpoint checkpoint(AuditSnapshot snapshot) {
+        AccountView view = snapshot.view();
+        HistoryDigest.Snapshot digests = snapshot.digests();
+        byte[] root = digests.tree().root();
+        return new Checkpoint(view.getAccountId(), digests.size(), view.getBalance(), HistoryDigest.BLOCK_SIZE,
+                digests.tree().size(), root, sign(view.getAccountId(), digests.size(), view.getBalance(), root));
+    }
+
+    private byte[] sign(String accountId, long transactions, BigDecimal balance, byte[] root) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(key);
+            byte[] id = accountId.getBytes(StandardCharsets.UTF_8);
+            byte[] amount = balance.toString().getBytes(StandardCharsets.US_ASCII);
+            mac.update(intBytes(id.length));
+            mac.update(id);
+            mac.update(longBytes(transactions));
+            mac.update(intBytes(amount.length));
+            mac.update(amount);
+            mac.update(intBytes(HistoryDigest.BLOCK_SIZE));
+            mac.update(root);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign checkpoint", e);
+        }
+    }
+
+    private static byte[] recompute(AuditSnapshot snapshot, int block) {
+        int first = block * HistoryDigest.BLOCK_SIZE;
+        List<Transaction> transactions = snapshot.view().getTransactions()
+                .subList(first, first + snapshot.digests().blockLength(block));
+        return BlockDigest.of(snapshot.view().getAccountId(), block, transactions);
+    }
+
+    private static byte[] intBytes(int value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    private static byte[] longBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (value >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    /**
+     * Folds every account in parallel and compares the results with the snapshots.
+     */
+    private static final class Reconcile extends RecursiveTask<List<ReconciliationReport.Mismatch>> {
+
+        private final List<AuditSnapshot> snapshots;
+
+        Reconcile(List<AuditSnapshot> snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        @Override
+        protected List<ReconciliationReport.Mismatch> compute() {
+            List<Fold> folds = new ArrayList<>(snapshots.size());
+            for (AuditSnapshot snapshot : snapshots) {
+                folds.add(new Fold(snapshot, 0, snapshot.digests().tree().size()));
+            }
+            ForkJoinTask.invokeAll(folds);
+
+            List<ReconciliationReport.Mismatch> mismatches = new ArrayList<>();
+            for (int i = 0; i < folds.size(); i++) {
+                Folded folded = folds.get(i).join();
+                AccountView view = snapshots.get(i).view();
+                if (folded.sum().compareTo(view.getBalance()) != 0 || !folded.tampered().isEmpty()) {
+                    mismatches.add(new ReconciliationReport.Mismatch(view.getAccountId(), view.getBalance(),
+                            folded.sum(), folded.tampered()));
+                }
+            }
+            return mismatches;
+        }
+    }
+
+    /**
+     * Sums the signed amounts of blocks {@code [from, to)} of an account and re-hashes each,
+     * splitting in halves down to {@link #BLOCKS_PER_TASK} blocks.
+     */
+    private static final class Fold extends RecursiveTask<Folded> {
+
+        private final AuditSnapshot snapshot;
+        private final int from;
+        private final int to;
+
+        Fold(AuditSnapshot snapshot, int from, int to) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Folded compute() {
+            if (to - from > BLOCKS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                Fold left = new Fold(snapshot, from, middle);
+                left.fork();
+                Folded right = new Fold(snapshot, middle, to).compute();
+                return left.join().combine(right);
+            }
+            List<Transaction> history = snapshot.view().getTransactions();
+            BlockDigest digest = new BlockDigest(snapshot.view().getAccountId());
+            BigDecimal sum = BigDecimal.ZERO;
+            List<Integer> tampered = new ArrayList<>(0);
+            for (int block = from; block < to; block++) {
+                int first = block * HistoryDigest.BLOCK_SIZE;
+                int last = first + snapshot.digests().blockLength(block);
+                digest.start(block);
+                for (int i = first; i < last; i++) {
+                    Transaction transaction = history.get(i);
+                    digest.add(transaction);
+                    sum = transaction.getType() == TransactionType.WITHDRAWAL
+                            ? sum.subtract(transaction.getAmount())
+                            : sum.add(transaction.getAmount());
+                }
+                if (!MessageDigest.isEqual(digest.value(), snapshot.digests().tree().leaf(block))) {
+                    tampered.add(block);
+                }
+            }
+            return new Folded(sum, tampered);
+        }
+    }
+
+    private record Folded(BigDecimal sum, List<Integer> tampered) {
+
+        Folded combine(Folded right) {
+            if (right.tampered.isEmpty()) {
+                return new Folded(sum.add(right.sum), tampered);
+            }
+            List<Integer> blocks = new ArrayList<>(tampered);
+            blocks.addAll(right.tampered);
+            return new Folded(sum.add(right.sum), blocks);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.ledger.audit;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only Merkle tree over 32-byte leaf hashes, shaped and hashed as in RFC 6962: an
+ * interior node is {@code SHA-256(0x01 || left || right)}, and a tree of {@code n} leaves
+ * splits at the largest power of two below {@code n}. Leaves are added as they are, so
+ * callers hash and domain-separate them.
+ *
+ * The root of every complete, aligned subtree is kept as the tree grows ({@code levels[k]}
+ * holds those of {@code 2^k} leaves), so an append hashes at most {@code log n} nodes, and
+ * the root or the audit path of a leaf is assembled from O(log n) stored roots.
+ *
+ * Not thread-safe; {@link #copy()} gives readers a tree of their own.
+ */
+public final class MerkleTree {
+
+    private static final byte NODE = 0x01;
+
+    private final List<List<byte[]>> levels;
+    private int size;
+
+    public MerkleTree() {
+        this.levels = new ArrayList<>();
+    }
+
+    private MerkleTree(List<List<byte[]>> levels, int size) {
+        this.levels = levels;
+        this.size = size;
+    }
+
+    public void add(byte[] leaf) {
+        if (leaf.length != 32) {
+            throw new IllegalArgumentException("Leaves are 32-byte hashes.");
+        }
+        byte[] node = leaf;
+        for (int level = 0; ; level++) {
+            if (levels.size() == level) {
+                levels.add(new ArrayList<>());
+            }
+            List<byte[]> nodes = levels.get(level);
+            nodes.add(node);
+            if ((nodes.size() & 1) == 1) {
+                break;
+            }
+            node = node(nodes.get(nodes.size() - 2), node);
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] leaf(int index) {
+        return levels.get(0).get(index);
+    }
+
+    /**
+     * Root of the tree; the hash of nothing when it is empty.
+     */
+    public byte[] root() {
+        return size == 0 ? sha256().digest() : subtree(0, size);
+    }
+
+    /**
+     * Audit path of a leaf: the sibling roots from the leaf up to the root, as RFC 6962 orders them.
+     */
+    public List<byte[]> path(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Leaf " + index + " of " + size);
+        }
+        List<byte[]> path = new ArrayList<>();
+        path(index, 0, size, path);
+        return path;
+    }
+
+    public MerkleTree copy() {
+        List<List<byte[]>> copied = new ArrayList<>(levels.size());
+        for (List<byte[]> nodes : levels) {
+            copied.add(new ArrayList<>(nodes));
+        }
+        return new MerkleTree(copied, size);
+    }
+
+    /**
+     * Whether {@code path} leads from {@code leaf}, at {@code index} of a tree of {@code size}
+     * leaves, to {@code root} (RFC 9162, section 2.1.3.2).
+     */
+    public static boolean verify(byte[] leaf, int index, int size, List<byte[]> path, byte[] root) {
+        if (index < 0 || index >= size) {
+            return false;
+        }
+        long fn = index;
+        long sn = size - 1L;
+        byte[] hash = leaf;
+        for (byte[] sibling : path) {
+            if (sn == 0) {
+                return false;
+            }
+            if ((fn & 1) == 1 || fn == sn) {
+                hash = node(sibling, hash);
+                while ((fn & 1) == 0 && fn != 0) {
+                    fn >>= 1;
+                    sn >>= 1;
+                }
+            } else {
+                hash = node(hash, sibling);
+            }
+            fn >>= 1;
+            sn >>= 1;
+        }
+        return sn == 0 && MessageDigest.isEqual(hash, root);
+    }
+
+    private void path(int index, int from, int to, List<byte[]> path) {
+        int count = to - from;
+        if (count == 1) {
+            return;
+        }
+        int split = Integer.highestOneBit(count - 1);
+        if (index < from + split) {
+            path(index, from, from + split, path);
+            path.add(subtree(from + split, to));
+        } else {
+            path(index, from + split, to, path);
+            path.add(subtree(from, from + split));
+        }
+    }
+
+    /**
+     * Root of leaves {@code [from, to)}. The left part of every split is a complete, aligned
+     * subtree, so only the right edge is hashed here.
+     */
+    private byte[] subtree(int from, int to) {
+        int count = to - from;
+        if (Integer.bitCount(count) == 1 && from % count == 0) {
+            return levels.get(Integer.numberOfTrailingZeros(count)).get(from / count);
+        }
+        int split = Integer.highestOneBit(count - 1);
+        return node(subtree(from, from + split), subtree(from + split, to));
+    }
+
+    static byte[] node(byte[] left, byte[] right) {
+        MessageDigest digest = sha256();
+        digest.update(NODE);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
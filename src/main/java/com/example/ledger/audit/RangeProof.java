@@ -0,0 +1,23 @@
+package com.example.ledger.audit;
+
+import java.util.List;
+
+/**
+ * Proof that transactions {@code from} to {@code to} of an account are part of the history a
+ * checkpoint signs: the blocks holding them, each with its audit path to the checkpoint's root.
+ */
+public record RangeProof(long from, long to, Checkpoint checkpoint, List<Block> blocks) {
+
+    public boolean intact() {
+        return blocks.stream().allMatch(Block::intact);
+    }
+
+    /**
+     * A block of the range, covering sequences {@code firstSequence} to {@code lastSequence}.
+     * {@code intact} tells whether its transactions, as read back now, hash to the recorded
+     * {@code digest} and the digest leads to the root along {@code path}.
+     */
+    public record Block(int index, long firstSequence, long lastSequence, byte[] digest, List<byte[]> path,
+                        boolean intact) {
+    }
+}
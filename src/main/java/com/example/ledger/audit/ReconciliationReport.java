@@ -0,0 +1,24 @@
+package com.example.ledger.audit;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a reconciliation of every account: how much was checked, how long it took, and
+ * the accounts that did not reconcile.
+ */
+public record ReconciliationReport(int accounts, long transactions, long blocks, Duration elapsed,
+                                   List<Mismatch> mismatches) {
+
+    public boolean consistent() {
+        return mismatches.isEmpty();
+    }
+
+    /**
+     * An account whose balance differs from the sum of its history, or with blocks whose
+     * transactions no longer hash to the digests recorded when they were appended.
+     */
+    public record Mismatch(String accountId, BigDecimal balance, BigDecimal historySum, List<Integer> tamperedBlocks) {
+    }
+}
@@ -0,0 +1,444 @@
+package com.example.ledger.bulk;
+
+import com.example.ledger.exception.BatchRejectedException;
+import com.example.ledger.exception.ImportFailedException;
+import com.example.ledger.id.IdIndex;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.TransactionCommand;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.LedgerService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads history in bulk from a stream of {@link TransferFormat CSV or NDJSON} records.
+ *
+ * The input is read line by line on the calling thread and cut into batches of
+ * {@code batchSize} records. Batches are parsed and validated on {@code parallelism} threads,
+ * a few ahead of the one being recorded, and recorded in input order, each as one
+ * {@link BatchMode#ATOMIC atomic} batch: one journal record and one sync, or one slot of the
+ * sequencer's ring. Transactions keep their original timestamps, which must not go back in
+ * time within an account, nor before what it already holds.
+ *
+ * Transactions keep their original id when it is a UUID or Snowflake id. Any other record
+ * gets an id derived from the import id and its record number, so the ids journaled with each
+ * batch double as the import's watermark: records whose id is already in the ledger are
+ * counted as duplicates and not recorded again. Sending the same input again under the same
+ * import id, whole or from a {@code skip}, therefore never records a transaction twice.
+ *
+ * A batch that cannot be recorded stops the import with an {@link ImportFailedException};
+ * the batches before it are durable, and the exception tells from which record to resume.
+ */
+public class BulkImporter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImporter.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final long LOG_INTERVAL_NANOS = Duration.ofSeconds(10).toNanos();
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final LedgerService ledger;
+    private final int batchSize;
+    private final int parallelism;
+    private final ExecutorService parsers;
+    private final ConcurrentMap<String, Job> running = new ConcurrentHashMap<>();
+
+    /**
+     * @param batchSize   records per recorded batch
+     * @param parallelism threads parsing batches
+     */
+    public BulkImporter(LedgerService ledger, int batchSize, int parallelism) {
+        if (batchSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Batch size and parallelism must be positive.");
+        }
+        this.ledger = ledger;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        AtomicInteger threads = new AtomicInteger();
+        this.parsers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ledger-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports every record of {@code in} after the first {@code skip}, which are read past
+     * without being parsed. Returns once the last batch is durable.
+     *
+     * @throws ImportFailedException if a record cannot be parsed or recorded
+     */
+    public ImportProgress importFrom(InputStream in, TransferFormat format, long skip) {
+        return importFrom(in, format, skip, null);
+    }
+
+    /**
+     * Same as {@link #importFrom(InputStream, TransferFormat, long)} under {@code importId},
+     * which keys the ids of records that bring none of their own; null for a new one. Pass the
+     * id of an earlier attempt to resume it.
+     *
+     * @throws IllegalArgumentException if an import with that id is running
+     */
+    public ImportProgress importFrom(InputStream in, TransferFormat format, long skip, String importId) {
+        if (skip < 0) {
+            throw new IllegalArgumentException("Records to skip must not be negative.");
+        }
+        if (importId != null && importId.isBlank()) {
+            throw new IllegalArgumentException("Import id must not be blank.");
+        }
+        Job job = new Job(importId != null ? importId : UUID.randomUUID().toString(), format, skip);
+        if (running.putIfAbsent(job.id, job) != null) {
+            throw new IllegalArgumentException("Import " + job.id + " is already running.");
+        }
+        try {
+            run(job, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16));
+            ImportProgress progress = job.progress();
+            log.info("Import {}: {} records imported in {} batches, {} already in the ledger, in {} ms", job.id,
+                    progress.imported(), progress.batches(), progress.duplicates(), progress.elapsed().toMillis());
+            return progress;
+        } catch (IOException e) {
+            log.warn("Import {} stopped reading its input; resume with skip={}", job.id, job.progress().resumeFrom());
+            throw new UncheckedIOException("Failed to read import", e);
+        } finally {
+            running.remove(job.id);
+        }
+    }
+
+    /**
+     * Progress of the imports running now.
+     */
+    public List<ImportProgress> running() {
+        return running.values().stream().map(Job::progress).toList();
+    }
+
+    @Override
+    public void close() {
+        parsers.shutdownNow();
+    }
+
+    private void run(Job job, BufferedReader reader) throws IOException {
+        RecordParser parser = NdjsonParser.INSTANCE;
+        if (job.format == TransferFormat.CSV) {
+            String header = nextLine(reader);
+            if (header == null) {
+                return;
+            }
+            parser = CsvParser.of(header);
+        }
+
+        Deque<Batch> parsing = new ArrayDeque<>();
+        try {
+            long record = 0;
+            List<String> lines = new ArrayList<>(batchSize);
+            String line;
+            while ((line = nextLine(reader)) != null) {
+                if (record++ < job.skipped) {
+                    continue;
+                }
+                lines.add(line);
+                if (lines.size() == batchSize) {
+                    parsing.add(parse(job, parser, lines, record - lines.size() + 1));
+                    lines = new ArrayList<>(batchSize);
+                    // Parse ahead of the batch being recorded, but no further than the threads can keep up.
+                    if (parsing.size() > parallelism) {
+                        record(job, parsing.poll());
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                parsing.add(parse(job, parser, lines, record - lines.size() + 1));
+            }
+            while (!parsing.isEmpty()) {
+                record(job, parsing.poll());
+            }
+        } finally {
+            for (Batch batch : parsing) {
+                batch.commands.cancel(true);
+            }
+        }
+    }
+
+    private Batch parse(Job job, RecordParser parser, List<String> lines, long firstRecord) {
+        return new Batch(firstRecord, parsers.submit(() -> {
+            List<TransactionCommand> commands = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                try {
+                    TransactionCommand command = parser.parse(lines.get(i));
+                    if (command.id() == null || !IdIndex.isIndexable(command.id())) {
+                        command = new TransactionCommand(command.accountId(), command.amount(), command.type(),
+                                command.timestamp(), recordId(job.id, firstRecord + i));
+                    }
+                    commands.add(command);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    throw new InvalidRecordException(firstRecord + i, e.getMessage());
+                }
+            }
+            return commands;
+        }));
+    }
+
+    private void record(Job job, Batch batch) {
+        List<TransactionCommand> commands;
+        try {
+            commands = batch.commands.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing import", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InvalidRecordException invalid) {
+                throw new ImportFailedException(job.progress(), invalid.record, invalid.getMessage());
+            }
+            throw new IllegalStateException("Failed to parse import", e.getCause());
+        }
+
+        // Records of an earlier attempt at this import are in the ledger under the same ids.
+        List<TransactionCommand> fresh = new ArrayList<>(commands.size());
+        int[] positions = new int[commands.size()];
+        for (int i = 0; i < commands.size(); i++) {
+            if (ledger.findTransaction(commands.get(i).id()).isEmpty()) {
+                positions[fresh.size()] = i;
+                fresh.add(commands.get(i));
+            }
+        }
+
+        if (!fresh.isEmpty()) {
+            try {
+                ledger.recordBatch(fresh, BatchMode.ATOMIC);
+            } catch (BatchRejectedException e) {
+                throw new ImportFailedException(job.progress(), batch.firstRecord + positions[e.getIndex()],
+                        e.getReason());
+            } catch (RuntimeException e) {
+                log.warn("Import {} failed to record a batch; resume with skip={}", job.id,
+                        job.progress().resumeFrom());
+                throw e;
+            }
+            job.batches++;
+        }
+        job.imported += fresh.size();
+        job.duplicates += commands.size() - fresh.size();
+
+        long now = System.nanoTime();
+        if (now - job.loggedAt >= LOG_INTERVAL_NANOS) {
+            job.loggedAt = now;
+            log.info("Import {}: {} records imported", job.id, job.imported);
+        }
+    }
+
+    private static String nextLine(BufferedReader reader) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    /**
+     * Id of a record that brings no UUID or Snowflake id of its own: the same for the same
+     * record of the same import, whichever attempt reads it.
+     */
+    static String recordId(String importId, long record) {
+        return UUID.nameUUIDFromBytes((importId + "/" + record).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static TransactionCommand command(String accountId, String type, String amount, String timestamp,
+                                              String id) {
+        if (accountId == null || type == null || amount == null || timestamp == null) {
+            throw new IllegalArgumentException("accountId, type, amount and timestamp are required.");
+        }
+        BigDecimal value;
+        try {
+            value = new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount '" + amount + "'.");
+        }
+        TransactionType transactionType;
+        try {
+            transactionType = TransactionType.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid type '" + type + "'.");
+        }
+        if (value.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than zero.");
+        }
+        return new TransactionCommand(accountId, value, transactionType, LocalDateTime.parse(timestamp), id);
+    }
+
+    /**
+     * Parses one line into a command; thread-safe.
+     */
+    private interface RecordParser {
+        TransactionCommand parse(String line);
+    }
+
+    private record CsvParser(int columns, int accountId, int type, int amount, int timestamp, int id)
+            implements RecordParser {
+
+        static CsvParser of(String header) {
+            List<String> names = fields(header, -1);
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                positions.put(names.get(i).trim(), i);
+            }
+            for (String required : List.of("accountId", "type", "amount", "timestamp")) {
+                if (!positions.containsKey(required)) {
+                    throw new IllegalArgumentException("CSV header has no '" + required + "' column.");
+                }
+            }
+            return new CsvParser(names.size(), positions.get("accountId"), positions.get("type"),
+                    positions.get("amount"), positions.get("timestamp"), positions.getOrDefault("id", -1));
+        }
+
+        @Override
+        public TransactionCommand parse(String line) {
+            List<String> fields = fields(line, columns);
+            if (fields.size() != columns) {
+                throw new IllegalArgumentException("Expected " + columns + " fields, found " + fields.size() + ".");
+            }
+            return command(fields.get(accountId), fields.get(type), fields.get(amount), fields.get(timestamp),
+                    id >= 0 ? fields.get(id) : null);
+        }
+
+        /**
+         * Splits a line into its fields, unquoting quoted ones. Records do not span lines, so
+         * a line break inside a quoted field is not supported.
+         */
+        static List<String> fields(String line, int expected) {
+            List<String> fields = new ArrayList<>(Math.max(expected, 4));
+            int i = 0;
+            int length = line.length();
+            while (true) {
+                if (i < length && line.charAt(i) == '"') {
+                    StringBuilder field = new StringBuilder();
+                    i++;
+                    while (true) {
+                        int quote = line.indexOf('"', i);
+                        if (quote < 0) {
+                            throw new IllegalArgumentException("Unterminated quoted field.");
+                        }
+                        field.append(line, i, quote);
+                        i = quote + 1;
+                        if (i < length && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    fields.add(field.toString());
+                    if (i < length && line.charAt(i) != ',') {
+                        throw new IllegalArgumentException("Unexpected character after quoted field.");
+                    }
+                } else {
+                    int comma = line.indexOf(',', i);
+                    int end = comma < 0 ? length : comma;
+                    fields.add(line.substring(i, end));
+                    i = end;
+                }
+                if (i >= length) {
+                    return fields;
+                }
+                i++;
+            }
+        }
+    }
+
+    private enum NdjsonParser implements RecordParser {
+        INSTANCE;
+
+        @Override
+        public TransactionCommand parse(String line) {
+            String accountId = null;
+            String type = null;
+            String amount = null;
+            String timestamp = null;
+            String id = null;
+            try (JsonParser parser = JSON.createParser(line)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Expected a JSON object.");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    switch (name) {
+                        case "accountId" -> accountId = parser.getValueAsString();
+                        case "type" -> type = parser.getValueAsString();
+                        case "amount" -> amount = value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT
+                                ? parser.getDecimalValue().toString()
+                                : parser.getValueAsString();
+                        case "timestamp" -> timestamp = parser.getValueAsString();
+                        case "id" -> id = parser.getValueAsString();
+                        default -> parser.skipChildren();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return command(accountId, type, amount, timestamp, id);
+        }
+    }
+
+    private record Batch(long firstRecord, Future<List<TransactionCommand>> commands) {
+    }
+
+    private static final class InvalidRecordException extends RuntimeException {
+        final long record;
+
+        InvalidRecordException(long record, String message) {
+            super(message, null, false, false);
+            this.record = record;
+        }
+    }
+
+    private static final class Job {
+        final String id;
+        final TransferFormat format;
+        final long skipped;
+        final long startedAt = System.nanoTime();
+        volatile long imported;
+        volatile long duplicates;
+        volatile long batches;
+        long loggedAt = startedAt;
+
+        Job(String id, TransferFormat format, long skipped) {
+            this.id = id;
+            this.format = format;
+            this.skipped = skipped;
+        }
+
+        ImportProgress progress() {
+            return new ImportProgress(id, format, skipped, imported, duplicates, batches,
+                    Duration.ofNanos(System.nanoTime() - startedAt));
+        }
+    }
+}
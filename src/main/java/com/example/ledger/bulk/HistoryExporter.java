@@ -0,0 +1,144 @@
+package com.example.ledger.bulk;
+
+import com.example.ledger.dto.TransactionJsonWriter;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.service.LedgerService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Writes account history in a {@link TransferFormat} that {@link BulkImporter} reads back.
+ *
+ * History is read from the account's store a page at a time, each page a view rather than
+ * a copy, and written as it is read, so memory use does not depend on the length of the
+ * history. An account is exported as of the start of its export: transactions recorded
+ * meanwhile are left out.
+ */
+public class HistoryExporter {
+
+    static final int PAGE_SIZE = 10_000;
+    static final String CSV_HEADER = "accountId,type,amount,timestamp,id,sequence";
+
+    private final LedgerService ledger;
+
+    public HistoryExporter(LedgerService ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Writes the history of each account in turn to {@code out}, leaving it open.
+     *
+     * @return number of transactions written
+     */
+    public long export(List<String> accountIds, TransferFormat format, OutputStream out) throws IOException {
+        if (format == TransferFormat.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            long written = 0;
+            for (String accountId : accountIds) {
+                for (List<Transaction> page : pages(accountId)) {
+                    for (Transaction transaction : page) {
+                        writeCsv(transaction, writer);
+                    }
+                    written += page.size();
+                }
+            }
+            writer.flush();
+            return written;
+        }
+
+        TransactionJsonWriter writer = new TransactionJsonWriter(out);
+        long written = 0;
+        for (String accountId : accountIds) {
+            for (List<Transaction> page : pages(accountId)) {
+                for (Transaction transaction : page) {
+                    writer.writeLine(transaction);
+                }
+                written += page.size();
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    /**
+     * Writes the history of the accounts to {@code file}, replacing it only once complete.
+     *
+     * @return number of transactions written
+     */
+    public long export(List<String> accountIds, TransferFormat format, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long written;
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            written = export(accountIds, format, out);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return written;
+    }
+
+    /**
+     * Pages of the account's history up to its version when called.
+     */
+    private Iterable<List<Transaction>> pages(String accountId) {
+        long last = ledger.getVersion(accountId);
+        return () -> new Iterator<>() {
+            private long after;
+
+            @Override
+            public boolean hasNext() {
+                return after < last;
+            }
+
+            @Override
+            public List<Transaction> next() {
+                int limit = (int) Math.min(PAGE_SIZE, last - after);
+                List<Transaction> page = ledger.getTransactionHistory(accountId, after, limit);
+                after = page.isEmpty() ? last : page.get(page.size() - 1).getSequence();
+                return page;
+            }
+        };
+    }
+
+    private static void writeCsv(Transaction transaction, Writer writer) throws IOException {
+        writeCsvField(transaction.getAccountId(), writer);
+        writer.write(',');
+        writer.write(transaction.getType().name());
+        writer.write(',');
+        writer.write(transaction.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(transaction.getTimestamp()));
+        writer.write(',');
+        writeCsvField(transaction.getId(), writer);
+        writer.write(',');
+        writer.write(Long.toString(transaction.getSequence()));
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(String value, Writer writer) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
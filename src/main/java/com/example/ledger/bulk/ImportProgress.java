@@ -0,0 +1,26 @@
+package com.example.ledger.bulk;
+
+import java.time.Duration;
+
+/**
+ * Where an import stands. Records are counted from the start of the input, header and blank
+ * lines aside, so {@link #resumeFrom()} is what to pass as {@code skip}, with the same
+ * {@code id}, to pick up where it left off.
+ *
+ * @param id         the import id, which keys the ids of records that bring none
+ * @param skipped    records skipped at the start, as asked
+ * @param imported   records recorded and durable since
+ * @param duplicates records read since that were already in the ledger, e.g. from an earlier
+ *                   attempt, and not recorded again
+ * @param batches    batches they were recorded in
+ */
+public record ImportProgress(String id, TransferFormat format, long skipped, long imported, long duplicates,
+                             long batches, Duration elapsed) {
+
+    /**
+     * Records of the input that are in the ledger.
+     */
+    public long resumeFrom() {
+        return skipped + imported + duplicates;
+    }
+}
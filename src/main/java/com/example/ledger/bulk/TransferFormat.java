@@ -0,0 +1,31 @@
+package com.example.ledger.bulk;
+
+/**
+ * File formats of bulk imports and exports. Both carry the same fields: {@code accountId},
+ * {@code type}, {@code amount} and {@code timestamp} (ISO-8601 local date-time), which an
+ * import reads, and {@code id} and {@code sequence}, which an export adds and an import
+ * ignores, as the ledger assigns its own. An export can therefore be imported as it is.
+ */
+public enum TransferFormat {
+
+    /**
+     * Comma-separated values under a header row naming the columns, in any order. Fields
+     * holding commas, quotes or line breaks are double-quoted, quotes doubled (RFC 4180).
+     */
+    CSV("text/csv"),
+
+    /**
+     * One JSON object per line, as the history stream writes it.
+     */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    TransferFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ledger.cache;
+
+/**
+ * Counters of a {@link SegmentedLruCache} since it was created, and its current size.
+ */
+public record CacheStats(long hits, long misses, long evictions, long expirations, long size) {
+
+    /**
+     * Share of lookups that found a live entry; 0 before the first lookup.
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
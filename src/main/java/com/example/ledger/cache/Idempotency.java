@@ -0,0 +1,123 @@
+package com.example.ledger.cache;
+
+import com.example.ledger.exception.IdempotencyKeyReusedException;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs an action at most once per idempotency key and replays its result to retries.
+ *
+ * Results are kept in a {@link SegmentedLruCache}, so a key is remembered until it expires
+ * or is evicted. Requests with a key whose action is still running wait for that run and get
+ * its outcome instead of running it again. Only successful results are remembered: a retry
+ * after a failure runs the action again.
+ *
+ * Each key is bound to a fingerprint of its request; reusing a key for a different request
+ * is rejected with {@link IdempotencyKeyReusedException}.
+ */
+public final class Idempotency<V> {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 100_000;
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+    private final SegmentedLruCache<String, Completed<V>> completed;
+    private final ConcurrentMap<String, Running<V>> running = new ConcurrentHashMap<>();
+    private final LongAdder collapsed = new LongAdder();
+
+    public Idempotency() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TTL);
+    }
+
+    public Idempotency(int maximumSize, Duration ttl) {
+        this.completed = new SegmentedLruCache<>(maximumSize, ttl);
+    }
+
+    public V execute(String key, Object fingerprint, Supplier<V> action) {
+        Completed<V> done = completed.get(key);
+        if (done != null) {
+            return done.valueFor(key, fingerprint);
+        }
+
+        Running<V> mine = new Running<>(fingerprint);
+        Running<V> other = running.putIfAbsent(key, mine);
+        if (other != null) {
+            other.requireSameRequest(key, fingerprint);
+            collapsed.increment();
+            return await(other.result);
+        }
+        try {
+            // The run we missed may have finished between the lookup and the claim.
+            done = completed.peek(key);
+            V value = done != null ? done.valueFor(key, fingerprint) : action.get();
+            if (done == null) {
+                completed.put(key, new Completed<>(fingerprint, value));
+            }
+            mine.result.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(key, mine);
+        }
+    }
+
+    public CacheStats stats() {
+        return completed.stats();
+    }
+
+    /**
+     * Requests that waited for a concurrent run with the same key.
+     */
+    public long collapsed() {
+        return collapsed.sum();
+    }
+
+    /**
+     * Keys whose action is running right now.
+     */
+    public int inFlight() {
+        return running.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Completed<V>(Object fingerprint, V value) {
+
+        V valueFor(String key, Object requestFingerprint) {
+            if (!Objects.equals(fingerprint, requestFingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return value;
+        }
+    }
+
+    private record Running<V>(Object fingerprint, CompletableFuture<V> result) {
+
+        Running(Object fingerprint) {
+            this(fingerprint, new CompletableFuture<>());
+        }
+
+        void requireSameRequest(String key, Object requestFingerprint) {
+            if (!Objects.equals(fingerprint, requestFingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.ledger.cache;
+
+import com.example.ledger.model.HistoryFilter;
+
+import java.time.Duration;
+
+/**
+ * Serialized history pages that can no longer change, kept in a {@link SegmentedLruCache}.
+ *
+ * History is append-only and new transactions come after every existing one, so a page that
+ * came back full ({@code limit} transactions) holds the same transactions from then on,
+ * whatever the filter. Such a page is serialized once and its bytes are written again for
+ * every later request. Pages of more than {@value #MAX_PAGE_SIZE} transactions are not kept,
+ * so the cache is bounded in bytes as well as in entries.
+ */
+public final class PageCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1_000;
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+    public static final int MAX_PAGE_SIZE = 1_000;
+
+    private final SegmentedLruCache<Key, Page> pages;
+
+    public PageCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TTL);
+    }
+
+    public PageCache(int maximumSize, Duration ttl) {
+        this.pages = new SegmentedLruCache<>(maximumSize, ttl);
+    }
+
+    /**
+     * @return the sealed page read with these parameters, or null
+     */
+    public Page get(String accountId, long afterSequence, int limit, HistoryFilter filter) {
+        return pages.get(new Key(accountId, afterSequence, limit, filter));
+    }
+
+    /**
+     * Keeps a page that came back full; other pages are ignored.
+     */
+    public void put(String accountId, long afterSequence, int limit, HistoryFilter filter, Page page) {
+        if (page.size() == limit && limit <= MAX_PAGE_SIZE) {
+            pages.put(new Key(accountId, afterSequence, limit, filter), page);
+        }
+    }
+
+    public CacheStats stats() {
+        return pages.stats();
+    }
+
+    /**
+     * A page as JSON, with the number of transactions it holds and the sequence of the last one.
+     */
+    public record Page(byte[] json, int size, long lastSequence) {
+    }
+
+    private record Key(String accountId, long afterSequence, int limit, HistoryFilter filter) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.ledger.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrent cache bounded by entry count and time-to-live, evicting by segmented LRU.
+ *
+ * New entries go to a probationary segment; a hit there promotes the entry to the protected
+ * segment (80% of the capacity), whose least recent entry drops back to probation when it
+ * is full. Eviction takes the least recent probationary entry, so a burst of keys seen only
+ * once cannot flush out the keys that are read again. Entries expire {@code ttl} after they
+ * were written; expired entries are dropped when they are looked up or reach the tail.
+ *
+ * Keys are spread over independently locked stripes, each holding its share of the capacity.
+ */
+public final class SegmentedLruCache<K, V> {
+
+    private static final int MAX_STRIPES = 16;
+    private static final int MIN_STRIPE_CAPACITY = 64;
+
+    private final Stripe<K, V>[] stripes;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public SegmentedLruCache(int maximumSize, Duration ttl) {
+        this(maximumSize, ttl, System::nanoTime);
+    }
+
+    /**
+     * @param ticker source of nanosecond time, replaceable in tests
+     */
+    @SuppressWarnings("unchecked")
+    SegmentedLruCache(int maximumSize, Duration ttl, LongSupplier ticker) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive.");
+        }
+        int stripeCount = 1;
+        while (stripeCount < MAX_STRIPES && maximumSize / (stripeCount * 2) >= MIN_STRIPE_CAPACITY) {
+            stripeCount *= 2;
+        }
+        this.stripes = new Stripe[stripeCount];
+        int stripeCapacity = (maximumSize + stripeCount - 1) / stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(this, stripeCapacity);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * @return the live value for {@code key}, or null
+     */
+    public V get(K key) {
+        V value = stripeFor(key).get(key, ticker.getAsLong());
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    /**
+     * Same as {@link #get} without counting towards the hit rate, for internal re-checks.
+     */
+    V peek(K key) {
+        return stripeFor(key).get(key, ticker.getAsLong());
+    }
+
+    public void put(K key, V value) {
+        stripeFor(key).put(key, value, ticker.getAsLong());
+    }
+
+    public long size() {
+        long size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size());
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        long expiresAt;
+        boolean protectedSegment;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Circular doubly linked list with a sentinel; most recent first.
+     */
+    private static final class Segment<K, V> {
+        final Node<K, V> head = new Node<>(null);
+        int size;
+
+        Segment() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void addFirst(Node<K, V> node) {
+            node.next = head.next;
+            node.prev = head;
+            head.next.prev = node;
+            head.next = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        Node<K, V> last() {
+            return head.prev == head ? null : head.prev;
+        }
+    }
+
+    private static final class Stripe<K, V> {
+        private final SegmentedLruCache<K, V> cache;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<K, Node<K, V>> nodes = new HashMap<>();
+        private final Segment<K, V> probation = new Segment<>();
+        private final Segment<K, V> protectedSegment = new Segment<>();
+        private final int capacity;
+        private final int protectedCapacity;
+        private volatile int size;
+
+        Stripe(SegmentedLruCache<K, V> cache, int capacity) {
+            this.cache = cache;
+            this.capacity = capacity;
+            this.protectedCapacity = Math.max(1, capacity * 4 / 5);
+        }
+
+        V get(K key, long now) {
+            lock.lock();
+            try {
+                Node<K, V> node = nodes.get(key);
+                if (node == null) {
+                    return null;
+                }
+                if (node.expiresAt - now <= 0) {
+                    unlink(node);
+                    cache.expirations.increment();
+                    return null;
+                }
+                if (node.protectedSegment) {
+                    protectedSegment.remove(node);
+                    protectedSegment.addFirst(node);
+                } else {
+                    promote(node);
+                }
+                return node.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(K key, V value, long now) {
+            long expiresAt = now + cache.ttlNanos;
+            lock.lock();
+            try {
+                Node<K, V> node = nodes.get(key);
+                if (node != null) {
+                    node.value = value;
+                    node.expiresAt = expiresAt;
+                    return;
+                }
+                node = new Node<>(key);
+                node.value = value;
+                node.expiresAt = expiresAt;
+                nodes.put(key, node);
+                probation.addFirst(node);
+                while (nodes.size() > capacity) {
+                    evict(now);
+                }
+                size = nodes.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void promote(Node<K, V> node) {
+            probation.remove(node);
+            node.protectedSegment = true;
+            protectedSegment.addFirst(node);
+            if (protectedSegment.size > protectedCapacity) {
+                Node<K, V> demoted = protectedSegment.last();
+                protectedSegment.remove(demoted);
+                demoted.protectedSegment = false;
+                probation.addFirst(demoted);
+            }
+        }
+
+        private void evict(long now) {
+            Node<K, V> victim = probation.last();
+            if (victim == null) {
+                victim = protectedSegment.last();
+            }
+            unlink(victim);
+            (victim.expiresAt - now <= 0 ? cache.expirations : cache.evictions).increment();
+        }
+
+        private void unlink(Node<K, V> node) {
+            (node.protectedSegment ? protectedSegment : probation).remove(node);
+            nodes.remove(node.key);
+            size = nodes.size();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.ledger.config;
+
+import com.example.ledger.audit.LedgerAuditor;
+import com.example.ledger.bulk.BulkImporter;
+import com.example.ledger.bulk.HistoryExporter;
+import com.example.ledger.cache.CacheStats;
+import com.example.ledger.cache.Idempotency;
+import com.example.ledger.cache.PageCache;
+import com.example.ledger.controller.TransactionPageConverter;
+import com.example.ledger.dto.TransactionResponse;
+import com.example.ledger.feed.ChangeFeed;
+import com.example.ledger.gateway.BinaryGateway;
+import com.example.ledger.id.IdGenerator;
+import com.example.ledger.id.SnowflakeIdGenerator;
+import com.example.ledger.id.UuidIdGenerator;
+import com.example.ledger.journal.SnapshotStore;
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.metrics.LedgerMetrics;
+import com.example.ledger.metrics.MeteredLedgerService;
+import com.example.ledger.metrics.ResponseSizeFilter;
+import com.example.ledger.replication.ReplicationFollower;
+import com.example.ledger.replication.ReplicationLeader;
+import com.example.ledger.service.AuditSupport;
+import com.example.ledger.service.HoldExpiryScheduler;
+import com.example.ledger.service.HoldSupport;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.service.LedgerStatistics;
+import com.example.ledger.service.LockObserver;
+import com.example.ledger.service.ReplicaLedgerService;
+import com.example.ledger.service.SequencedLedgerService;
+import com.example.ledger.service.SnapshotScheduler;
+import com.example.ledger.service.SnapshotSupport;
+import com.example.ledger.store.ColumnarTransactionStore;
+import com.example.ledger.store.HeapTransactionStore;
+import com.example.ledger.store.TieredTransactionStore;
+import com.example.ledger.store.TransactionStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Creates the {@link LedgerService} engine selected by {@code ledger.engine}, and the
+ * journal and snapshots under it when {@code ledger.journal.enabled} and
+ * {@code ledger.snapshot.enabled} are set. With {@code ledger.metrics.enabled} the engine
+ * is timed and its locks observed, and the service other beans get is the metered one.
+ * On a follower ({@code ledger.replication.role=FOLLOWER}) the engine is a read-only
+ * {@link ReplicaLedgerService} fed from the leader instead.
+ */
+@Configuration
+@EnableConfigurationProperties(LedgerProperties.class)
+public class LedgerConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerConfiguration.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "ledger.journal.enabled", havingValue = "true")
+    public TransactionJournal transactionJournal(LedgerProperties properties) throws IOException {
+        LedgerProperties.Journal journal = properties.getJournal();
+        return TransactionJournal.open(journal.getPath(), journal.getSyncPolicy(), journal.getBatchSize(),
+                journal.getSyncInterval());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ledger.snapshot.enabled", havingValue = "true")
+    public SnapshotStore snapshotStore(LedgerProperties properties) {
+        LedgerProperties.Snapshot snapshot = properties.getSnapshot();
+        return new SnapshotStore(snapshot.getPath(), snapshot.getRetained());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ledger.metrics.enabled", havingValue = "true", matchIfMissing = true)
+    public LedgerMetrics ledgerMetrics(MeterRegistry registry) {
+        return new LedgerMetrics(registry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ledger.metrics.enabled", havingValue = "true", matchIfMissing = true)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ResponseSizeFilter responseSizeFilter(MeterRegistry registry) {
+        return new ResponseSizeFilter(registry);
+    }
+
+    @Bean
+    public LedgerService ledgerEngine(LedgerProperties properties, ObjectProvider<TransactionJournal> journal,
+                                      ObjectProvider<SnapshotStore> snapshots, ObjectProvider<LedgerMetrics> metrics) {
+        TransactionJournal transactionJournal = journal.getIfAvailable();
+        SnapshotStore snapshotStore = snapshots.getIfAvailable();
+        Function<String, TransactionStore> stores = transactionStores(properties.getStorage());
+        if (properties.getReplication().getRole() == LedgerProperties.Replication.Role.FOLLOWER) {
+            if (transactionJournal != null) {
+                throw new IllegalStateException("A follower replicates the leader's journal and keeps none "
+                        + "of its own; disable ledger.journal.enabled.");
+            }
+            return new ReplicaLedgerService(stores, properties.getReplication().getReadWait());
+        }
+        IdGenerator ids = idGenerator(properties.getIds());
+        LedgerMetrics ledgerMetrics = metrics.getIfAvailable();
+        LockObserver lockObserver = ledgerMetrics != null ? ledgerMetrics : LockObserver.NONE;
+        return switch (properties.getEngine()) {
+            case LOCKING -> new InMemoryLedgerService(stores, ids, transactionJournal, snapshotStore, lockObserver);
+            case SEQUENCER -> new SequencedLedgerService(properties.getSequencer().getRingSize(), stores, ids,
+                    transactionJournal, snapshotStore, lockObserver);
+        };
+    }
+
+    @Bean
+    @Primary
+    public LedgerService ledgerService(@Qualifier("ledgerEngine") LedgerService engine,
+                                       ObjectProvider<LedgerMetrics> metrics, MeterRegistry registry) {
+        LedgerMetrics ledgerMetrics = metrics.getIfAvailable();
+        if (ledgerMetrics == null) {
+            return engine;
+        }
+        if (engine instanceof LedgerStatistics statistics) {
+            ledgerMetrics.bindStatistics(statistics, registry);
+        }
+        return new MeteredLedgerService(engine, ledgerMetrics);
+    }
+
+    private static IdGenerator idGenerator(LedgerProperties.Ids ids) {
+        return switch (ids.getType()) {
+            case UUID -> new UuidIdGenerator();
+            case SNOWFLAKE -> new SnowflakeIdGenerator(ids.getNode());
+        };
+    }
+
+    private static Function<String, TransactionStore> transactionStores(LedgerProperties.Storage storage) {
+        int scale = storage.getScale();
+        return switch (storage.getType()) {
+            case HEAP -> accountId -> new HeapTransactionStore();
+            case COLUMNAR -> accountId -> new ColumnarTransactionStore(accountId, scale);
+            case TIERED -> TieredTransactionStore.inDirectory(storage.getDirectory(), scale, storage.getHotEntries());
+        };
+    }
+
+    /**
+     * Where the reactive API starts writes. The sequencer engine commits on its own thread,
+     * so writes are handed to it from the event loop; the locking engine waits for account
+     * locks and the journal on the caller's thread, so its writes move to a bounded elastic pool.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public Scheduler ledgerWriteScheduler(LedgerProperties properties) {
+        return properties.getEngine() == LedgerProperties.Engine.SEQUENCER
+                ? Schedulers.immediate()
+                : Schedulers.boundedElastic();
+    }
+
+    @Bean
+    public Idempotency<TransactionResponse> idempotency(LedgerProperties properties) {
+        LedgerProperties.Idempotency idempotency = properties.getIdempotency();
+        return new Idempotency<>(idempotency.getMaximumSize(), idempotency.getTtl());
+    }
+
+    /**
+     * Publishes the idempotency cache's size, hit rate and counters. The stats are read when
+     * the registry is scraped, so nothing is added to the request path.
+     */
+    @Bean
+    public MeterBinder idempotencyMetrics(Idempotency<TransactionResponse> idempotency) {
+        return registry -> {
+            Gauge.builder("ledger.idempotency.size", idempotency, cache -> cache.stats().size())
+                    .description("Idempotency keys currently remembered")
+                    .register(registry);
+            Gauge.builder("ledger.idempotency.hit.rate", idempotency, cache -> cache.stats().hitRate())
+                    .description("Share of keyed requests answered from the cache")
+                    .register(registry);
+            counter(registry, "ledger.idempotency.hits", idempotency, Idempotency::stats, CacheStats::hits);
+            counter(registry, "ledger.idempotency.misses", idempotency, Idempotency::stats, CacheStats::misses);
+            counter(registry, "ledger.idempotency.evictions", idempotency, Idempotency::stats, CacheStats::evictions);
+            counter(registry, "ledger.idempotency.expirations", idempotency, Idempotency::stats,
+                    CacheStats::expirations);
+            FunctionCounter.builder("ledger.idempotency.collapsed", idempotency, Idempotency::collapsed)
+                    .description("Requests that waited for a concurrent request with the same key")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public PageCache pageCache(LedgerProperties properties) {
+        LedgerProperties.PageCache pageCache = properties.getPageCache();
+        return new PageCache(pageCache.getMaximumSize(), pageCache.getTtl());
+    }
+
+    /**
+     * Publishes the history page cache's size, hit rate and counters, read when scraped.
+     */
+    @Bean
+    public MeterBinder pageCacheMetrics(PageCache pageCache) {
+        return registry -> {
+            Gauge.builder("ledger.page.cache.size", pageCache, cache -> cache.stats().size())
+                    .description("Serialized history pages currently cached")
+                    .register(registry);
+            Gauge.builder("ledger.page.cache.hit.rate", pageCache, cache -> cache.stats().hitRate())
+                    .description("Share of paged history reads answered from the cache")
+                    .register(registry);
+            counter(registry, "ledger.page.cache.hits", pageCache, PageCache::stats, CacheStats::hits);
+            counter(registry, "ledger.page.cache.misses", pageCache, PageCache::stats, CacheStats::misses);
+            counter(registry, "ledger.page.cache.evictions", pageCache, PageCache::stats, CacheStats::evictions);
+        };
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, T cache,
+                                    Function<T, CacheStats> stats, ToDoubleFunction<CacheStats> stat) {
+        FunctionCounter.builder(name, cache, c -> stat.applyAsDouble(stats.apply(c))).register(registry);
+    }
+
+    /**
+     * Writes serialized history pages as they are, ahead of the Jackson converter.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer transactionPageConverter() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.add(0, new TransactionPageConverter());
+            }
+        };
+    }
+
+    @Bean
+    public ChangeFeed changeFeed(LedgerService ledgerService, LedgerProperties properties) {
+        LedgerProperties.Feed feed = properties.getFeed();
+        ChangeFeed changeFeed = new ChangeFeed(ledgerService, feed.getBufferSize(), feed.getSlowConsumerPolicy(),
+                feed.getSenderThreads(), feed.getSendTimeout());
+        ledgerService.setTransactionListener(changeFeed);
+        return changeFeed;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ledger.gateway.enabled", havingValue = "true")
+    public BinaryGateway binaryGateway(LedgerService ledgerService, LedgerProperties properties) throws IOException {
+        LedgerProperties.Gateway gateway = properties.getGateway();
+        return new BinaryGateway(ledgerService, new InetSocketAddress(gateway.getPort()), gateway.getWorkerThreads(),
+                gateway.getAmountScale());
+    }
+
+    /**
+     * Ships the journal to followers; a leader needs the journal, as it is the log followers replicate.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ledger.replication.role", havingValue = "LEADER")
+    public ReplicationLeader replicationLeader(@Qualifier("ledgerEngine") LedgerService engine,
+                                               ObjectProvider<TransactionJournal> journal,
+                                               LedgerProperties properties) throws IOException {
+        TransactionJournal transactionJournal = journal.getIfAvailable();
+        if (transactionJournal == null) {
+            throw new IllegalStateException("A replication leader ships its journal; enable ledger.journal.enabled.");
+        }
+        LedgerProperties.Replication replication = properties.getReplication();
+        return new ReplicationLeader(transactionJournal, (LedgerStatistics) engine,
+                new InetSocketAddress(replication.getPort()), replication.getHeartbeat());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ledger.replication.role", havingValue = "FOLLOWER")
+    public ReplicationFollower replicationFollower(@Qualifier("ledgerEngine") LedgerService engine,
+                                                   LedgerProperties properties) {
+        LedgerProperties.Replication replication = properties.getReplication();
+        String leader = replication.getLeader();
+        int colon = leader.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("ledger.replication.leader must be host:port, got " + leader);
+        }
+        InetSocketAddress address = new InetSocketAddress(leader.substring(0, colon),
+                Integer.parseInt(leader.substring(colon + 1)));
+        return new ReplicationFollower((ReplicaLedgerService) engine, address, replication.getReconnectDelay());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ledger.replication.role", havingValue = "FOLLOWER")
+    public MeterBinder replicationMetrics(ReplicationFollower follower) {
+        return registry -> Gauge.builder("ledger.replication.lag", follower, ReplicationFollower::lag)
+                .description("Transactions the follower is behind the leader")
+                .register(registry);
+    }
+
+    @Bean
+    public LedgerAuditor ledgerAuditor(@Qualifier("ledgerEngine") LedgerService engine, LedgerProperties properties) {
+        if (!(engine instanceof AuditSupport auditSupport)) {
+            throw new IllegalStateException("The configured ledger engine does not keep history digests to audit.");
+        }
+        LedgerProperties.Audit audit = properties.getAudit();
+        byte[] key;
+        if (audit.getKey() == null || audit.getKey().isEmpty()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            log.warn("ledger.audit.key is not set; checkpoints are signed with a random key that changes on restart");
+        } else {
+            key = audit.getKey().getBytes(StandardCharsets.UTF_8);
+        }
+        return new LedgerAuditor(auditSupport, key, audit.getParallelism());
+    }
+
+    @Bean
+    public BulkImporter bulkImporter(LedgerService ledgerService, LedgerProperties properties) {
+        LedgerProperties.BulkImport bulkImport = properties.getBulkImport();
+        return new BulkImporter(ledgerService, bulkImport.getBatchSize(), bulkImport.getParallelism());
+    }
+
+    @Bean
+    public HistoryExporter historyExporter(LedgerService ledgerService) {
+        return new HistoryExporter(ledgerService);
+    }
+
+    @Bean
+    public HoldExpiryScheduler holdExpiryScheduler(@Qualifier("ledgerEngine") LedgerService engine,
+                                                   LedgerProperties properties) {
+        if (!(engine instanceof HoldSupport holdSupport)) {
+            throw new IllegalStateException("The configured ledger engine does not keep holds.");
+        }
+        return new HoldExpiryScheduler(holdSupport, properties.getHolds().getExpiryInterval());
+    }
+
+    @Bean
+    public MeterBinder holdMetrics(@Qualifier("ledgerEngine") LedgerService engine) {
+        return registry -> Gauge.builder("ledger.holds.open", (HoldSupport) engine, HoldSupport::openHolds)
+                .description("Holds currently open")
+                .register(registry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ledger.snapshot.enabled", havingValue = "true")
+    public SnapshotScheduler snapshotScheduler(@Qualifier("ledgerEngine") LedgerService engine,
+                                               LedgerProperties properties) {
+        if (!(engine instanceof SnapshotSupport snapshotSupport)) {
+            throw new IllegalStateException("The configured ledger engine does not support snapshots.");
+        }
+        return new SnapshotScheduler(snapshotSupport, properties.getSnapshot().getInterval());
+    }
+}
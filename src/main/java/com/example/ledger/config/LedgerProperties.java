@@ -0,0 +1,648 @@
+package com.example.ledger.config;
+
+import com.example.ledger.bulk.BulkImporter;
+import com.example.ledger.feed.ChangeFeed;
+import com.example.ledger.feed.SlowConsumerPolicy;
+import com.example.ledger.journal.SyncPolicy;
+import com.example.ledger.service.SequencedLedgerService;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Ledger engine settings, bound from the {@code ledger.*} properties.
+ */
+@ConfigurationProperties(prefix = "ledger")
+public class LedgerProperties {
+
+    /**
+     * How writes are serialized: per-account locks, or a single sequencer thread.
+     */
+    public enum Engine {
+        LOCKING,
+        SEQUENCER
+    }
+
+    private Engine engine = Engine.LOCKING;
+    private final Sequencer sequencer = new Sequencer();
+    private final Storage storage = new Storage();
+    private final Ids ids = new Ids();
+    private final Journal journal = new Journal();
+    private final Snapshot snapshot = new Snapshot();
+    private final Idempotency idempotency = new Idempotency();
+    private final PageCache pageCache = new PageCache();
+    private final Metrics metrics = new Metrics();
+    private final Feed feed = new Feed();
+    private final Gateway gateway = new Gateway();
+    private final Replication replication = new Replication();
+    private final Audit audit = new Audit();
+    private final Holds holds = new Holds();
+    private final BulkImport bulkImport = new BulkImport();
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public Sequencer getSequencer() {
+        return sequencer;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public Ids getIds() {
+        return ids;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public PageCache getPageCache() {
+        return pageCache;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Feed getFeed() {
+        return feed;
+    }
+
+    public Gateway getGateway() {
+        return gateway;
+    }
+
+    public Replication getReplication() {
+        return replication;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public Holds getHolds() {
+        return holds;
+    }
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public static class Sequencer {
+        /**
+         * Number of preallocated ring slots; must be a power of two.
+         */
+        private int ringSize = SequencedLedgerService.DEFAULT_RING_SIZE;
+
+        public int getRingSize() {
+            return ringSize;
+        }
+
+        public void setRingSize(int ringSize) {
+            this.ringSize = ringSize;
+        }
+    }
+
+    public static class Ids {
+
+        /**
+         * How transaction ids are issued: random UUIDs, or monotonic 64-bit Snowflake ids.
+         */
+        public enum Type {
+            UUID,
+            SNOWFLAKE
+        }
+
+        private Type type = Type.UUID;
+        /**
+         * Node id embedded in Snowflake ids; must be unique among ledgers issuing ids together.
+         */
+        private int node;
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public int getNode() {
+            return node;
+        }
+
+        public void setNode(int node) {
+            this.node = node;
+        }
+    }
+
+    public static class Storage {
+
+        /**
+         * Where account history is kept: {@link com.example.ledger.store.HeapTransactionStore},
+         * {@link com.example.ledger.store.ColumnarTransactionStore} or
+         * {@link com.example.ledger.store.TieredTransactionStore}.
+         */
+        public enum Type {
+            HEAP,
+            COLUMNAR,
+            TIERED
+        }
+
+        private Type type = Type.HEAP;
+        /**
+         * Decimal places of the fixed-point amounts kept by columnar and tiered storage.
+         */
+        private int scale = 2;
+        /**
+         * Where tiered storage writes its segment files.
+         */
+        private Path directory = Path.of("data", "history");
+        /**
+         * Entries per segment under tiered storage; each account keeps between one and two
+         * segments' worth of recent entries on the heap.
+         */
+        private int hotEntries = 16_384;
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public int getScale() {
+            return scale;
+        }
+
+        public void setScale(int scale) {
+            this.scale = scale;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public int getHotEntries() {
+            return hotEntries;
+        }
+
+        public void setHotEntries(int hotEntries) {
+            this.hotEntries = hotEntries;
+        }
+    }
+
+    public static class Journal {
+        /**
+         * Whether transactions are journaled to disk and replayed on startup.
+         */
+        private boolean enabled = false;
+        private Path path = Path.of("data", "ledger.journal");
+        private SyncPolicy syncPolicy = SyncPolicy.EVERY_WRITE;
+        /**
+         * Records per fsync under {@link SyncPolicy#BATCH}.
+         */
+        private int batchSize = 64;
+        /**
+         * Time between fsyncs under {@link SyncPolicy#INTERVAL}, and the longest a partial
+         * batch waits under {@link SyncPolicy#BATCH}.
+         */
+        private Duration syncInterval = Duration.ofMillis(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public void setPath(Path path) {
+            this.path = path;
+        }
+
+        public SyncPolicy getSyncPolicy() {
+            return syncPolicy;
+        }
+
+        public void setSyncPolicy(SyncPolicy syncPolicy) {
+            this.syncPolicy = syncPolicy;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getSyncInterval() {
+            return syncInterval;
+        }
+
+        public void setSyncInterval(Duration syncInterval) {
+            this.syncInterval = syncInterval;
+        }
+    }
+
+    public static class Snapshot {
+        /**
+         * Whether snapshots are written in the background and used on startup; needs the journal.
+         */
+        private boolean enabled = false;
+        private Path path = Path.of("data", "snapshots");
+        private Duration interval = Duration.ofMinutes(5);
+        /**
+         * Number of snapshot files kept on disk.
+         */
+        private int retained = 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public void setPath(Path path) {
+            this.path = path;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getRetained() {
+            return retained;
+        }
+
+        public void setRetained(int retained) {
+            this.retained = retained;
+        }
+    }
+
+    public static class Idempotency {
+        /**
+         * Number of idempotency keys remembered; the least recently used are evicted first.
+         */
+        private int maximumSize = com.example.ledger.cache.Idempotency.DEFAULT_MAXIMUM_SIZE;
+        /**
+         * How long a key is remembered after its request completed.
+         */
+        private Duration ttl = com.example.ledger.cache.Idempotency.DEFAULT_TTL;
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class PageCache {
+        /**
+         * Number of serialized history pages kept; the least recently used are evicted first.
+         */
+        private int maximumSize = com.example.ledger.cache.PageCache.DEFAULT_MAXIMUM_SIZE;
+        /**
+         * How long a page is kept after it was serialized.
+         */
+        private Duration ttl = com.example.ledger.cache.PageCache.DEFAULT_TTL;
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class Metrics {
+        /**
+         * Whether engine operations are timed and account locks observed.
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Feed {
+        /**
+         * Events buffered per subscriber before the slow-consumer policy applies.
+         */
+        private int bufferSize = 1024;
+        private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.CATCH_UP;
+        /**
+         * Threads writing events to subscribers.
+         */
+        private int senderThreads = 4;
+        /**
+         * Longest a single event may take to write before its subscriber is disconnected.
+         */
+        private Duration sendTimeout = ChangeFeed.DEFAULT_SEND_TIMEOUT;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public SlowConsumerPolicy getSlowConsumerPolicy() {
+            return slowConsumerPolicy;
+        }
+
+        public void setSlowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy) {
+            this.slowConsumerPolicy = slowConsumerPolicy;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public Duration getSendTimeout() {
+            return sendTimeout;
+        }
+
+        public void setSendTimeout(Duration sendTimeout) {
+            this.sendTimeout = sendTimeout;
+        }
+    }
+
+    public static class Gateway {
+        private int port = 9090;
+        /**
+         * Selector threads serving the connections.
+         */
+        private int workerThreads = 1;
+        /**
+         * Decimal places of the fixed-point amounts on the wire; 2 means amounts are in cents.
+         */
+        private int amountScale = 2;
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public int getAmountScale() {
+            return amountScale;
+        }
+
+        public void setAmountScale(int amountScale) {
+            this.amountScale = amountScale;
+        }
+    }
+
+    public static class Replication {
+
+        /**
+         * Part this node plays: a standalone ledger, a leader shipping its journal to
+         * followers, or a read-only follower replicating from a leader.
+         */
+        public enum Role {
+            NONE,
+            LEADER,
+            FOLLOWER
+        }
+
+        private Role role = Role.NONE;
+        /**
+         * Port a leader accepts followers on.
+         */
+        private int port = 9091;
+        /**
+         * {@code host:port} of the leader a follower replicates from.
+         */
+        private String leader = "localhost:9091";
+        /**
+         * Longest time between the leader's status reports, from which followers compute their lag.
+         */
+        private Duration heartbeat = Duration.ofMillis(100);
+        /**
+         * How long a follower waits for an account to reach a read's {@code minSequence}.
+         */
+        private Duration readWait = Duration.ofSeconds(1);
+        /**
+         * Pause before a follower reconnects to the leader.
+         */
+        private Duration reconnectDelay = Duration.ofSeconds(1);
+
+        public Role getRole() {
+            return role;
+        }
+
+        public void setRole(Role role) {
+            this.role = role;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getLeader() {
+            return leader;
+        }
+
+        public void setLeader(String leader) {
+            this.leader = leader;
+        }
+
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+        public Duration getReadWait() {
+            return readWait;
+        }
+
+        public void setReadWait(Duration readWait) {
+            this.readWait = readWait;
+        }
+
+        public Duration getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+        public void setReconnectDelay(Duration reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+        }
+    }
+
+    public static class Audit {
+        /**
+         * Secret checkpoints are signed with (HMAC-SHA256); a random key is used when unset,
+         * so checkpoints cannot be checked across restarts.
+         */
+        private String key;
+        /**
+         * Threads folding history blocks during reconciliation.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Holds {
+        /**
+         * How long a hold lasts when the request does not say.
+         */
+        private Duration defaultTtl = Duration.ofMinutes(15);
+        /**
+         * Longest a hold may be placed for.
+         */
+        private Duration maxTtl = Duration.ofDays(30);
+        /**
+         * How often expired holds are released; a hold outlives its expiry by up to this much.
+         */
+        private Duration expiryInterval = Duration.ofMillis(100);
+
+        public Duration getDefaultTtl() {
+            return defaultTtl;
+        }
+
+        public void setDefaultTtl(Duration defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
+
+        public Duration getMaxTtl() {
+            return maxTtl;
+        }
+
+        public void setMaxTtl(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+
+        public Duration getExpiryInterval() {
+            return expiryInterval;
+        }
+
+        public void setExpiryInterval(Duration expiryInterval) {
+            this.expiryInterval = expiryInterval;
+        }
+    }
+
+    public static class BulkImport {
+        /**
+         * Records recorded per batch: one journal record and sync each.
+         */
+        private int batchSize = BulkImporter.DEFAULT_BATCH_SIZE;
+        /**
+         * Threads parsing batches ahead of the one being recorded.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+}
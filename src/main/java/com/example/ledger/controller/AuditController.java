@@ -0,0 +1,56 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.audit.LedgerAuditor;
+import com.example.ledger.dto.CheckpointResponse;
+import com.example.ledger.dto.RangeProofResponse;
+import com.example.ledger.dto.ReconciliationResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Signed checkpoints, range proofs and reconciliation of the ledger's history.
+ */
+@RestController
+@RequestMapping("/api/ledger")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AuditController {
+
+    private final LedgerAuditor auditor;
+
+    public AuditController(LedgerAuditor auditor) {
+        this.auditor = auditor;
+    }
+
+    /**
+     * Returns the account's transaction count, balance and Merkle root, signed.
+     */
+    @GetMapping("/{accountId}/audit/checkpoint")
+    public ResponseEntity<CheckpointResponse> getCheckpoint(@PathVariable String accountId) {
+        return ResponseEntity.ok(CheckpointResponse.of(auditor.checkpoint(accountId)));
+    }
+
+    /**
+     * Re-hashes the blocks holding transactions {@code from} to {@code to} (sequences,
+     * inclusive) and returns each block's audit path to the root of a fresh checkpoint.
+     */
+    @GetMapping("/{accountId}/audit/proof")
+    public ResponseEntity<RangeProofResponse> getProof(@PathVariable String accountId,
+                                                       @RequestParam long from,
+                                                       @RequestParam long to) {
+        return ResponseEntity.ok(RangeProofResponse.of(auditor.prove(accountId, from, to)));
+    }
+
+    /**
+     * Reconciles every account and reports those whose balance or history does not check out.
+     */
+    @PostMapping("/audit/reconciliation")
+    public ResponseEntity<ReconciliationResponse> reconcile() {
+        return ResponseEntity.ok(ReconciliationResponse.of(auditor.reconcile()));
+    }
+}
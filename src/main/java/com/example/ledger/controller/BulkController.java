@@ -0,0 +1,73 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.bulk.BulkImporter;
+import com.example.ledger.bulk.HistoryExporter;
+import com.example.ledger.bulk.TransferFormat;
+import com.example.ledger.dto.ImportResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Bulk import and export of history, streamed in both directions.
+ */
+@RestController
+@RequestMapping("/api/ledger")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BulkController {
+
+    private final BulkImporter importer;
+    private final HistoryExporter exporter;
+
+    public BulkController(BulkImporter importer, HistoryExporter exporter) {
+        this.importer = importer;
+        this.exporter = exporter;
+    }
+
+    /**
+     * Imports the records of the request body, read as it arrives, after the first
+     * {@code skip}. Answers once every record is durable; if one cannot be imported, the error
+     * tells the {@code importId} and {@code skip} to send the same input again with. Records
+     * already imported under the same {@code importId} are not recorded again.
+     */
+    @PostMapping("/imports")
+    public ResponseEntity<ImportResponse> importHistory(@RequestParam(defaultValue = "NDJSON") TransferFormat format,
+                                                        @RequestParam(defaultValue = "0") long skip,
+                                                        @RequestParam(required = false) String importId,
+                                                        InputStream body) {
+        return ResponseEntity.ok(ImportResponse.of(importer.importFrom(body, format, skip, importId)));
+    }
+
+    /**
+     * Progress of the imports running now.
+     */
+    @GetMapping("/imports")
+    public ResponseEntity<List<ImportResponse>> getRunningImports() {
+        return ResponseEntity.ok(importer.running().stream().map(ImportResponse::of).toList());
+    }
+
+    /**
+     * Streams the account's history in a format the import endpoint reads back.
+     */
+    @GetMapping("/{accountId}/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(@PathVariable String accountId,
+                                                               @RequestParam(defaultValue = "NDJSON") TransferFormat format) {
+        StreamingResponseBody body = outputStream -> exporter.export(List.of(accountId), format, outputStream);
+        String fileName = accountId.replaceAll("[^A-Za-z0-9._-]", "_") + "." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+}
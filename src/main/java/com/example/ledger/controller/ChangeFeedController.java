@@ -0,0 +1,92 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.TransactionEventResponse;
+import com.example.ledger.feed.ChangeFeed;
+import com.example.ledger.feed.FeedEvent;
+import com.example.ledger.feed.FeedSink;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.service.LedgerService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Server-Sent Events feed of committed transactions.
+ */
+@RestController
+@RequestMapping("/api/ledger")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ChangeFeedController {
+
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    static final String EVENT_NAME = "transaction";
+    private static final long NO_TIMEOUT = 0L;
+
+    private final ChangeFeed changeFeed;
+
+    public ChangeFeedController(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId,
+                             @RequestParam(required = false) Long after) {
+        return stream(LedgerService.DEFAULT_ACCOUNT, lastEventId, after);
+    }
+
+    /**
+     * Streams the account's transactions as {@code transaction} events whose id is the
+     * sequence and whose data is the transaction with the balance after it. Starts after the
+     * {@value #LAST_EVENT_ID_HEADER} a reconnecting client sends, or after {@code after};
+     * without either the whole history is sent first. A client that reads too slowly either
+     * catches up from the history or is disconnected, depending on
+     * {@code ledger.feed.slow-consumer-policy}.
+     */
+    @GetMapping(value = "/{accountId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable String accountId,
+                             @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId,
+                             @RequestParam(required = false) Long after) {
+        long from = after != null ? after : 0;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                from = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(LAST_EVENT_ID_HEADER + " must be a sequence number.");
+            }
+        }
+
+        SseEmitter emitter = new SseEmitter(NO_TIMEOUT);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(accountId, from, new EmitterSink(emitter));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        return emitter;
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements FeedSink {
+
+        @Override
+        public void send(FeedEvent event) throws IOException {
+            Transaction transaction = event.transaction();
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(transaction.getSequence()))
+                    .name(EVENT_NAME)
+                    .data(new TransactionEventResponse(transaction.getAmount(), transaction.getType(),
+                            transaction.getTimestamp(), transaction.getId(), transaction.getAccountId(),
+                            transaction.getSequence(), event.balance()), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.config.LedgerProperties;
+import com.example.ledger.dto.AvailabilityResponse;
+import com.example.ledger.dto.CaptureRequest;
+import com.example.ledger.dto.HoldRequest;
+import com.example.ledger.dto.HoldResponse;
+import com.example.ledger.dto.TransactionResponse;
+import com.example.ledger.service.LedgerService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Holds on available balance: placed on an account, then captured into a withdrawal or
+ * released, or released on their own once they expire.
+ */
+@RestController
+@RequestMapping("/api/ledger")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HoldController {
+
+    private final LedgerService ledgerService;
+    private final LedgerProperties.Holds properties;
+
+    public HoldController(LedgerService ledgerService, LedgerProperties properties) {
+        this.ledgerService = ledgerService;
+        this.properties = properties.getHolds();
+    }
+
+    /**
+     * Places a hold for {@code amount}, lasting {@code ttl} or the configured default.
+     */
+    @PostMapping("/{accountId}/holds")
+    public ResponseEntity<HoldResponse> placeHold(@PathVariable String accountId,
+                                                  @Valid @RequestBody HoldRequest request) {
+        Duration ttl = request.getTtl() != null ? request.getTtl() : properties.getDefaultTtl();
+        if (ttl.compareTo(properties.getMaxTtl()) > 0) {
+            throw new IllegalArgumentException("Hold duration may be at most " + properties.getMaxTtl() + ".");
+        }
+        HoldResponse response = HoldResponse.of(ledgerService.placeHold(accountId, request.getAmount(), ttl));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Withdraws the requested amount of the hold, or all of it, and closes the hold.
+     */
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<TransactionResponse> captureHold(@PathVariable String holdId,
+                                                           @RequestBody(required = false) CaptureRequest request) {
+        TransactionResponse response = TransactionResponse.of(
+                ledgerService.captureHold(holdId, request != null ? request.getAmount() : null));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/holds/{holdId}/release")
+    public ResponseEntity<HoldResponse> releaseHold(@PathVariable String holdId) {
+        return ResponseEntity.ok(HoldResponse.of(ledgerService.releaseHold(holdId)));
+    }
+
+    /**
+     * Returns the balance, the amount under open holds and what is left to withdraw. Kept
+     * apart from the balance endpoint, whose responses are versioned by transaction count,
+     * which holds do not change.
+     */
+    @GetMapping("/{accountId}/availableBalance")
+    public ResponseEntity<AvailabilityResponse> getAvailableBalance(@PathVariable String accountId) {
+        return ResponseEntity.ok(AvailabilityResponse.of(ledgerService.getAvailability(accountId)));
+    }
+}
@@ -1,61 +1,473 @@
 package com.example.ledger.controller;
 
+import com.example.ledger.cache.Idempotency;
+import com.example.ledger.cache.PageCache;
 import com.example.ledger.dto.BalanceResponse;
+import com.example.ledger.dto.BatchItemResponse;
+import com.example.ledger.dto.BatchResponse;
+import com.example.ledger.dto.RollupResponse;
 import com.example.ledger.dto.TransactionRequest;
+import com.example.ledger.dto.TransactionJsonWriter;
+import com.example.ledger.dto.TransactionPage;
 import com.example.ledger.dto.TransactionResponse;
+import com.example.ledger.exception.SequenceNotReachedException;
+import com.example.ledger.exception.TransactionNotFoundException;
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.BatchResult;
+import com.example.ledger.model.Granularity;
+import com.example.ledger.model.HistoryFilter;
+import com.example.ledger.model.Rollup;
 import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
+import com.example.ledger.model.TransactionType;
 import com.example.ledger.service.LedgerService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/ledger")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class LedgerController {
 
+    /**
+     * Response header carrying the {@code after} cursor of the next page, when there is one.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /**
+     * Request header naming a write, so that a retried request is answered with the original
+     * result instead of being recorded again.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    static final int MAX_PAGE_SIZE = 10_000;
+    static final int MAX_BATCH_SIZE = 10_000;
+    private static final int STREAM_FLUSH_INTERVAL = 1_000;
+
     private final LedgerService ledgerService;
+    private final Idempotency<TransactionResponse> idempotency;
+    private final PageCache pageCache;
 
     public LedgerController(LedgerService ledgerService) {
+        this(ledgerService, new Idempotency<>(), new PageCache());
+    }
+
+    @Autowired
+    public LedgerController(LedgerService ledgerService, Idempotency<TransactionResponse> idempotency,
+                            PageCache pageCache) {
         this.ledgerService = ledgerService;
+        this.idempotency = idempotency;
+        this.pageCache = pageCache;
     }
 
     @PostMapping("/transaction")
-    public ResponseEntity<TransactionResponse> recordTransaction(@Valid @RequestBody TransactionRequest request) {
+    public ResponseEntity<TransactionResponse> recordTransaction(
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        String accountId = request.getAccountId() != null ? request.getAccountId() : LedgerService.DEFAULT_ACCOUNT;
+        return recordTransaction(accountId, request, idempotencyKey);
+    }
+
+    /**
+     * Records a transaction. With an {@value #IDEMPOTENCY_KEY_HEADER} header the request is
+     * recorded once: a retry with the same key gets the original response without touching the
+     * ledger, a concurrent one waits for it, and the key sent with a different request is
+     * rejected.
+     */
+    @PostMapping("/{accountId}/transaction")
+    public ResponseEntity<TransactionResponse> recordTransaction(
+            @PathVariable String accountId,
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        requireMatchingAccount(accountId, request);
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(record(accountId, request));
+        }
+        Object fingerprint = fingerprint(accountId, request, idempotencyKey);
+        TransactionResponse response = idempotency.execute(idempotencyKey, fingerprint,
+                () -> record(accountId, request));
+        return ResponseEntity.ok(response);
+    }
+
+    static void requireMatchingAccount(String accountId, TransactionRequest request) {
+        if (request.getAccountId() != null && !request.getAccountId().equals(accountId)) {
+            throw new IllegalArgumentException("Account id in the request body does not match the path.");
+        }
+    }
+
+    /**
+     * Checks the idempotency key and returns what it is bound to.
+     */
+    static Object fingerprint(String accountId, TransactionRequest request, String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException(IDEMPOTENCY_KEY_HEADER + " must be 1 to "
+                    + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+        }
+        return new RequestFingerprint(accountId, request.getAmount().stripTrailingZeros(), request.getType());
+    }
+
+    private TransactionResponse record(String accountId, TransactionRequest request) {
         Transaction transaction = ledgerService.recordTransaction(
+                accountId,
                 request.getAmount(),
                 request.getType()
         );
-        TransactionResponse response = toResponse(transaction);
-        return ResponseEntity.ok(response);
+        return toResponse(transaction);
+    }
+
+    /**
+     * Returns the transaction with the given id, whichever account it belongs to.
+     */
+    @GetMapping("/transaction/{id}")
+    public ResponseEntity<TransactionResponse> getTransaction(@PathVariable String id) {
+        Transaction transaction = ledgerService.findTransaction(id)
+                .orElseThrow(() -> new TransactionNotFoundException(id));
+        return ResponseEntity.ok(toResponse(transaction));
+    }
+
+    /**
+     * Records up to {@value #MAX_BATCH_SIZE} transactions in one request, as one unit. Items
+     * without an account id go to the default account. In {@code ATOMIC} mode (the default)
+     * an invalid item fails the request and nothing is recorded; in {@code BEST_EFFORT} mode
+     * invalid items are reported in the response and the rest are recorded.
+     */
+    @PostMapping("/transactions/batch")
+    public ResponseEntity<BatchResponse> recordBatch(@RequestParam(defaultValue = "ATOMIC") BatchMode mode,
+                                                     @RequestBody List<TransactionRequest> requests) {
+        List<TransactionCommand> commands = toCommands(requests);
+        BatchResult result = ledgerService.recordBatch(commands, mode);
+        return ResponseEntity.ok(toBatchResponse(mode, commands, result));
+    }
+
+    static List<TransactionCommand> toCommands(List<TransactionRequest> requests) {
+        if (requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch must hold between 1 and " + MAX_BATCH_SIZE + " transactions.");
+        }
+        List<TransactionCommand> commands = new ArrayList<>(requests.size());
+        for (TransactionRequest request : requests) {
+            String accountId = request.getAccountId() != null ? request.getAccountId() : LedgerService.DEFAULT_ACCOUNT;
+            commands.add(new TransactionCommand(accountId, request.getAmount(), request.getType()));
+        }
+        return commands;
+    }
+
+    static BatchResponse toBatchResponse(BatchMode mode, List<TransactionCommand> commands, BatchResult result) {
+        List<BatchItemResponse> items = new ArrayList<>(commands.size());
+        int recorded = 0;
+        for (int i = 0; i < result.getItems().size(); i++) {
+            BatchResult.Item item = result.getItems().get(i);
+            if (item.isApplied()) {
+                Transaction transaction = item.transaction();
+                items.add(new BatchItemResponse(i, transaction.getAccountId(), transaction.getId(),
+                        transaction.getSequence(), null));
+                recorded++;
+            } else {
+                items.add(new BatchItemResponse(i, commands.get(i).accountId(), null, null, item.error()));
+            }
+        }
+        List<BalanceResponse> balances = result.getAccounts().stream()
+                .map(view -> new BalanceResponse(view.getAccountId(), view.getBalance(), view.getSequence()))
+                .toList();
+        return new BatchResponse(mode, recorded, items.size() - recorded, items, balances);
     }
 
     @GetMapping("/balance")
-    public ResponseEntity<BalanceResponse> getBalance() {
-        BigDecimal currentBalance = ledgerService.getCurrentBalance();
-        return ResponseEntity.ok(new BalanceResponse(currentBalance));
+    public ResponseEntity<BalanceResponse> getBalance(
+            @RequestParam(required = false) Long minSequence,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return getBalance(LedgerService.DEFAULT_ACCOUNT, minSequence, ifNoneMatch);
+    }
+
+    /**
+     * Returns the account's balance. With {@code minSequence} the balance includes at least
+     * that many transactions: a follower waits a while to replicate them and answers 503 if
+     * it cannot, so a client reading its own write from a follower never sees an older state.
+     *
+     * The {@code ETag} is the account's version; a request whose {@code If-None-Match} holds
+     * the current one is answered 304 without reading the account.
+     */
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<BalanceResponse> getBalance(
+            @PathVariable String accountId,
+            @RequestParam(required = false) Long minSequence,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        awaitSequence(accountId, minSequence);
+        String version = etag(ledgerService.getVersion(accountId));
+        if (matches(ifNoneMatch, version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(version).build();
+        }
+        AccountView view = ledgerService.getAccountView(accountId);
+        return ResponseEntity.ok()
+                .eTag(etag(view.getSequence()))
+                .body(new BalanceResponse(accountId, view.getBalance(), view.getSequence()));
     }
 
     @GetMapping("/transactionHistory")
-    public ResponseEntity<List<TransactionResponse>> getTransactionHistory() {
-        List<Transaction> history = ledgerService.getTransactionHistory();
-        List<TransactionResponse> responseList = history.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responseList);
+    public ResponseEntity<List<TransactionResponse>> getTransactionHistory(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long minSequence,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return getTransactionHistory(LedgerService.DEFAULT_ACCOUNT, after, limit, from, to, type, minSequence,
+                ifNoneMatch);
+    }
+
+    /**
+     * Returns the account's history after the {@code after} cursor, optionally restricted to
+     * {@code from <= timestamp < to} and one {@code type}. Without a {@code limit} everything
+     * that matches is returned; with one, a full page carries the cursor of the next page in
+     * the {@value #NEXT_CURSOR_HEADER} header. {@code minSequence} and the {@code ETag} work
+     * as for the balance, except that a full page never changes: its {@code ETag} names the
+     * page, not the account's version, and stays valid while the account grows.
+     *
+     * The page is written by {@link TransactionJsonWriter} straight from the transactions.
+     * The JSON of a full page of up to {@value PageCache#MAX_PAGE_SIZE} transactions is kept
+     * in the {@link PageCache} and written again as is for the next request with the same
+     * parameters; larger pages are written from the transactions every time.
+     */
+    @GetMapping("/{accountId}/transactionHistory")
+    public ResponseEntity<List<TransactionResponse>> getTransactionHistory(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long minSequence,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        requireValidLimit(limit);
+        awaitSequence(accountId, minSequence);
+        String version = etag(ledgerService.getVersion(accountId));
+        if (matches(ifNoneMatch, version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(version).build();
+        }
+        HistoryFilter filter = new HistoryFilter(from, to, type);
+        if (limit != null) {
+            PageCache.Page cached = pageCache.get(accountId, after, limit, filter);
+            if (cached != null) {
+                ResponseEntity.BodyBuilder page = fullPage(accountId, after, limit, filter, cached.lastSequence(),
+                        ifNoneMatch);
+                return page == null ? notModified(accountId, after, limit, filter, cached.lastSequence())
+                        : page.body(new TransactionPage(cached.json(), cached.size(),
+                                () -> ledgerService.getTransactionHistory(accountId, after, limit, filter)));
+            }
+        }
+        List<Transaction> history = ledgerService.getTransactionHistory(
+                accountId, after, limit != null ? limit : Integer.MAX_VALUE, filter);
+        if (limit == null || history.size() < limit) {
+            return ResponseEntity.ok().eTag(version).body(new TransactionPage(history));
+        }
+        long lastSequence = history.get(history.size() - 1).getSequence();
+        ResponseEntity.BodyBuilder page = fullPage(accountId, after, limit, filter, lastSequence, ifNoneMatch);
+        if (page == null) {
+            return notModified(accountId, after, limit, filter, lastSequence);
+        }
+        if (limit > PageCache.MAX_PAGE_SIZE) {
+            return page.body(new TransactionPage(history));
+        }
+        byte[] json = TransactionJsonWriter.toJson(history);
+        pageCache.put(accountId, after, limit, filter, new PageCache.Page(json, history.size(), lastSequence));
+        return page.body(new TransactionPage(json, history.size(), () -> history));
+    }
+
+    /**
+     * Starts the response for a full page, with its own {@code ETag} and the next cursor.
+     *
+     * @return null if {@code ifNoneMatch} already names the page
+     */
+    private ResponseEntity.BodyBuilder fullPage(String accountId, long after, int limit, HistoryFilter filter,
+                                                long lastSequence, String ifNoneMatch) {
+        String tag = pageEtag(after, limit, filter, lastSequence);
+        if (matches(ifNoneMatch, tag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(tag);
+        addNextCursor(response, accountId, lastSequence, filter);
+        return response;
+    }
+
+    /**
+     * 304 for a full page, still carrying the next cursor, which may have appeared since.
+     */
+    private ResponseEntity<List<TransactionResponse>> notModified(String accountId, long after, int limit,
+                                                                  HistoryFilter filter, long lastSequence) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(pageEtag(after, limit, filter, lastSequence));
+        addNextCursor(response, accountId, lastSequence, filter);
+        return response.build();
+    }
+
+    /**
+     * Sets the cursor of the page after a full one ending at {@code lastSequence}, if there is
+     * such a page. Without a filter the account's version tells; otherwise one more
+     * transaction is looked up.
+     */
+    private void addNextCursor(ResponseEntity.BodyBuilder response, String accountId, long lastSequence,
+                               HistoryFilter filter) {
+        boolean more = filter.equals(HistoryFilter.NONE)
+                ? ledgerService.getVersion(accountId) > lastSequence
+                : !ledgerService.getTransactionHistory(accountId, lastSequence, 1, filter).isEmpty();
+        if (more) {
+            response.header(NEXT_CURSOR_HEADER, Long.toString(lastSequence));
+        }
+    }
+
+    static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * {@code ETag} of a full page: the parameters it was read with and its last sequence,
+     * which together fix its content.
+     */
+    static String pageEtag(long after, int limit, HistoryFilter filter, long lastSequence) {
+        StringBuilder tag = new StringBuilder("\"").append(after).append('-').append(limit).append('-')
+                .append(lastSequence);
+        if (!filter.equals(HistoryFilter.NONE)) {
+            tag.append('-').append(filter.from()).append('-').append(filter.to()).append('-').append(filter.type());
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names {@code etag}, weak or strong, or is {@code *}.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits until the account has reached {@code minSequence} on this node, if one is given.
+     */
+    private void awaitSequence(String accountId, Long minSequence) {
+        if (minSequence == null) {
+            return;
+        }
+        if (minSequence < 0) {
+            throw new IllegalArgumentException("Minimum sequence must not be negative.");
+        }
+        if (!ledgerService.awaitSequence(accountId, minSequence)) {
+            throw new SequenceNotReachedException(accountId, minSequence);
+        }
+    }
+
+    static void requireValidLimit(Integer limit) {
+        if (limit != null && (limit <= 0 || limit > MAX_PAGE_SIZE)) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    @GetMapping(value = "/transactionHistory/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTransactionHistory(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type) {
+        return streamTransactionHistory(LedgerService.DEFAULT_ACCOUNT, after, from, to, type);
+    }
+
+    /**
+     * Streams the account's history after the {@code after} cursor as newline-delimited JSON,
+     * with the same filters as the history endpoint. Transactions are written one by one
+     * straight to the response by {@link TransactionJsonWriter}, so memory use does not
+     * depend on the length of the history.
+     */
+    @GetMapping(value = "/{accountId}/transactionHistory/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTransactionHistory(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type) {
+        // The time range is a view over the history; the type is filtered while writing.
+        List<Transaction> history = ledgerService.getTransactionHistory(
+                accountId, after, Integer.MAX_VALUE, new HistoryFilter(from, to, null));
+        StreamingResponseBody body = outputStream -> {
+            try (TransactionJsonWriter writer = new TransactionJsonWriter(outputStream)) {
+                int written = 0;
+                for (Transaction transaction : history) {
+                    if (type != null && transaction.getType() != type) {
+                        continue;
+                    }
+                    writer.writeLine(transaction);
+                    if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<RollupResponse>> getSummary(
+            @RequestParam(defaultValue = "HOUR") Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return getSummary(LedgerService.DEFAULT_ACCOUNT, granularity, from, to);
+    }
+
+    /**
+     * Returns the account's count, deposit and withdrawal totals and closing balance per
+     * {@code granularity} bucket (UTC) starting in {@code [from, to)}. Buckets without
+     * transactions are left out.
+     */
+    @GetMapping("/{accountId}/summary")
+    public ResponseEntity<List<RollupResponse>> getSummary(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "HOUR") Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(toRollupResponses(ledgerService.getSummary(accountId, granularity, from, to)));
+    }
+
+    static List<RollupResponse> toRollupResponses(List<Rollup> rollups) {
+        return rollups.stream()
+                .map(rollup -> new RollupResponse(rollup.getStart(), rollup.getCount(), rollup.getDeposits(),
+                        rollup.getWithdrawals(), rollup.getClosingBalance()))
+                .toList();
+    }
+
+    /**
+     * What an idempotency key is bound to; amounts compare by value, so 10 and 10.00 match.
+     */
+    private record RequestFingerprint(String accountId, BigDecimal amount, TransactionType type) {
     }
 
     /**
      * Converts a Transaction entity to its DTO response format.
      */
-    private TransactionResponse toResponse(Transaction transaction) {
-        return new TransactionResponse(
-                transaction.getAmount(),
-                transaction.getType(),
-                transaction.getTimestamp(),
-                transaction.getId());
+    static TransactionResponse toResponse(Transaction transaction) {
+        return TransactionResponse.of(transaction);
     }
 }
@@ -0,0 +1,244 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.cache.Idempotency;
+import com.example.ledger.dto.BalanceResponse;
+import com.example.ledger.dto.BatchResponse;
+import com.example.ledger.dto.RollupResponse;
+import com.example.ledger.dto.TransactionRequest;
+import com.example.ledger.dto.TransactionResponse;
+import com.example.ledger.exception.SequenceNotReachedException;
+import com.example.ledger.exception.TransactionNotFoundException;
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.Granularity;
+import com.example.ledger.model.HistoryFilter;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.LedgerService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.ledger.controller.LedgerController.IDEMPOTENCY_KEY_HEADER;
+import static com.example.ledger.controller.LedgerController.NEXT_CURSOR_HEADER;
+
+/**
+ * The ledger API on WebFlux, active when the application runs as a reactive web application
+ * (the {@code reactive} profile). Same paths, parameters and responses as
+ * {@link LedgerController}, without holding a thread per request: a write completes its
+ * {@link Mono} when the engine commits it, and history is a {@link Flux} read lazily from the
+ * history view as the client takes it, so a slow client does not buffer its whole history.
+ *
+ * Reads run on the event loop, except those with a {@code minSequence}, which may wait for a
+ * follower to catch up and so run on a bounded elastic thread. Writes start on the
+ * {@code ledgerWriteScheduler}, which is the event loop itself for an engine that commits on
+ * its own thread.
+ */
+@RestController
+@RequestMapping("/api/ledger")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLedgerController {
+
+    private final LedgerService ledgerService;
+    private final Idempotency<TransactionResponse> idempotency;
+    private final Scheduler writeScheduler;
+
+    public ReactiveLedgerController(LedgerService ledgerService) {
+        this(ledgerService, new Idempotency<>(), Schedulers.boundedElastic());
+    }
+
+    @Autowired
+    public ReactiveLedgerController(LedgerService ledgerService, Idempotency<TransactionResponse> idempotency,
+                                    @Qualifier("ledgerWriteScheduler") Scheduler writeScheduler) {
+        this.ledgerService = ledgerService;
+        this.idempotency = idempotency;
+        this.writeScheduler = writeScheduler;
+    }
+
+    @PostMapping("/transaction")
+    public Mono<TransactionResponse> recordTransaction(
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        String accountId = request.getAccountId() != null ? request.getAccountId() : LedgerService.DEFAULT_ACCOUNT;
+        return recordTransaction(accountId, request, idempotencyKey);
+    }
+
+    /**
+     * Records a transaction; the response is sent once it is committed. Requests with an
+     * {@value LedgerController#IDEMPOTENCY_KEY_HEADER} may wait for a concurrent request with
+     * the same key, so they always run on a bounded elastic thread.
+     */
+    @PostMapping("/{accountId}/transaction")
+    public Mono<TransactionResponse> recordTransaction(
+            @PathVariable String accountId,
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        LedgerController.requireMatchingAccount(accountId, request);
+        if (idempotencyKey == null) {
+            return Mono.fromFuture(() -> ledgerService.recordTransactionAsync(
+                            accountId, request.getAmount(), request.getType()))
+                    .subscribeOn(writeScheduler)
+                    .map(LedgerController::toResponse);
+        }
+        Object fingerprint = LedgerController.fingerprint(accountId, request, idempotencyKey);
+        return Mono.fromCallable(() -> idempotency.execute(idempotencyKey, fingerprint,
+                        () -> LedgerController.toResponse(ledgerService.recordTransaction(
+                                accountId, request.getAmount(), request.getType()))))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/transaction/{id}")
+    public Mono<TransactionResponse> getTransaction(@PathVariable String id) {
+        return Mono.fromSupplier(() -> LedgerController.toResponse(ledgerService.findTransaction(id)
+                .orElseThrow(() -> new TransactionNotFoundException(id))));
+    }
+
+    @PostMapping("/transactions/batch")
+    public Mono<BatchResponse> recordBatch(@RequestParam(defaultValue = "ATOMIC") BatchMode mode,
+                                           @RequestBody List<TransactionRequest> requests) {
+        List<TransactionCommand> commands = LedgerController.toCommands(requests);
+        return Mono.fromFuture(() -> ledgerService.recordBatchAsync(commands, mode))
+                .subscribeOn(writeScheduler)
+                .map(result -> LedgerController.toBatchResponse(mode, commands, result));
+    }
+
+    @GetMapping("/balance")
+    public Mono<BalanceResponse> getBalance(@RequestParam(required = false) Long minSequence) {
+        return getBalance(LedgerService.DEFAULT_ACCOUNT, minSequence);
+    }
+
+    /**
+     * Returns the account's balance; {@code minSequence} works as for
+     * {@link LedgerController#getBalance}.
+     */
+    @GetMapping("/{accountId}/balance")
+    public Mono<BalanceResponse> getBalance(@PathVariable String accountId,
+                                            @RequestParam(required = false) Long minSequence) {
+        return awaitSequence(accountId, minSequence).then(Mono.fromSupplier(() -> {
+            AccountView view = ledgerService.getAccountView(accountId);
+            return new BalanceResponse(accountId, view.getBalance(), view.getSequence());
+        }));
+    }
+
+    @GetMapping("/transactionHistory")
+    public Mono<ResponseEntity<Flux<TransactionResponse>>> getTransactionHistory(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long minSequence) {
+        return getTransactionHistory(LedgerService.DEFAULT_ACCOUNT, after, limit, from, to, type, minSequence);
+    }
+
+    /**
+     * Returns the account's history as {@link LedgerController#getTransactionHistory} does,
+     * written as a JSON array element by element.
+     */
+    @GetMapping("/{accountId}/transactionHistory")
+    public Mono<ResponseEntity<Flux<TransactionResponse>>> getTransactionHistory(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long minSequence) {
+        LedgerController.requireValidLimit(limit);
+        return awaitSequence(accountId, minSequence)
+                .then(Mono.fromSupplier(() -> historyPage(accountId, after, limit, new HistoryFilter(from, to, type))));
+    }
+
+    private ResponseEntity<Flux<TransactionResponse>> historyPage(String accountId, long after, Integer limit,
+                                                                  HistoryFilter filter) {
+        List<Transaction> history = ledgerService.getTransactionHistory(
+                accountId, after, limit != null ? limit : Integer.MAX_VALUE, filter);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (limit != null && history.size() == limit) {
+            long nextCursor = history.get(history.size() - 1).getSequence();
+            if (!ledgerService.getTransactionHistory(accountId, nextCursor, 1, filter).isEmpty()) {
+                response.header(NEXT_CURSOR_HEADER, Long.toString(nextCursor));
+            }
+        }
+        return response.body(Flux.fromIterable(history).map(LedgerController::toResponse));
+    }
+
+    @GetMapping(value = "/transactionHistory/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionResponse> streamTransactionHistory(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type) {
+        return streamTransactionHistory(LedgerService.DEFAULT_ACCOUNT, after, from, to, type);
+    }
+
+    /**
+     * Streams the account's history as newline-delimited JSON. Transactions are read from the
+     * history only as fast as the connection takes them.
+     */
+    @GetMapping(value = "/{accountId}/transactionHistory/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionResponse> streamTransactionHistory(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type) {
+        return Flux.defer(() -> Flux.fromIterable(ledgerService.getTransactionHistory(
+                        accountId, after, Integer.MAX_VALUE, new HistoryFilter(from, to, null))))
+                .filter(transaction -> type == null || transaction.getType() == type)
+                .map(LedgerController::toResponse);
+    }
+
+    /**
+     * Completes once the account has reached {@code minSequence} on this node, if one is given.
+     */
+    private Mono<Void> awaitSequence(String accountId, Long minSequence) {
+        if (minSequence == null) {
+            return Mono.empty();
+        }
+        if (minSequence < 0) {
+            return Mono.error(new IllegalArgumentException("Minimum sequence must not be negative."));
+        }
+        // A future rather than subscribeOn: cancelling the wait must not interrupt the thread
+        // that goes on to write the response.
+        return Mono.fromFuture(() -> CompletableFuture.supplyAsync(
+                        () -> ledgerService.awaitSequence(accountId, minSequence),
+                        task -> Schedulers.boundedElastic().schedule(task)))
+                .flatMap(reached -> reached
+                        ? Mono.<Void>empty()
+                        : Mono.error(new SequenceNotReachedException(accountId, minSequence)));
+    }
+
+    @GetMapping("/summary")
+    public Mono<List<RollupResponse>> getSummary(
+            @RequestParam(defaultValue = "HOUR") Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return getSummary(LedgerService.DEFAULT_ACCOUNT, granularity, from, to);
+    }
+
+    @GetMapping("/{accountId}/summary")
+    public Mono<List<RollupResponse>> getSummary(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "HOUR") Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return Mono.fromSupplier(() -> LedgerController.toRollupResponses(
+                ledgerService.getSummary(accountId, granularity, from, to)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.ReplicationStatusResponse;
+import com.example.ledger.replication.ReplicationFollower;
+import com.example.ledger.replication.ReplicationLeader;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.service.LedgerStatistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Reports this node's part in replication and, on a follower, its lag behind the leader.
+ */
+@RestController
+@RequestMapping("/api/ledger")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReplicationController {
+
+    private final LedgerService engine;
+    private final ObjectProvider<ReplicationLeader> leader;
+    private final ObjectProvider<ReplicationFollower> follower;
+
+    public ReplicationController(@Qualifier("ledgerEngine") LedgerService engine,
+                                 ObjectProvider<ReplicationLeader> leader,
+                                 ObjectProvider<ReplicationFollower> follower) {
+        this.engine = engine;
+        this.leader = leader;
+        this.follower = follower;
+    }
+
+    @GetMapping("/replication")
+    public ResponseEntity<ReplicationStatusResponse> getStatus() {
+        long transactions = engine instanceof LedgerStatistics statistics ? statistics.transactionCount() : 0;
+        ReplicationLeader currentLeader = leader.getIfAvailable();
+        if (currentLeader != null) {
+            return ResponseEntity.ok(new ReplicationStatusResponse("LEADER", transactions,
+                    currentLeader.followerCount(), null, null, null, null));
+        }
+        ReplicationFollower currentFollower = follower.getIfAvailable();
+        if (currentFollower != null) {
+            return ResponseEntity.ok(new ReplicationStatusResponse("FOLLOWER", transactions, null,
+                    currentFollower.isConnected(), currentFollower.leaderTransactions(), currentFollower.lag(),
+                    currentFollower.failure()));
+        }
+        return ResponseEntity.ok(new ReplicationStatusResponse("NONE", transactions, null, null, null, null, null));
+    }
+}
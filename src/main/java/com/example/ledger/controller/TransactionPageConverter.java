@@ -0,0 +1,47 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.TransactionPage;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link TransactionPage} with its own JSON writer, or as the JSON it already
+ * holds. Registered ahead of the Jackson converter, which would otherwise take the page for
+ * a list of responses.
+ */
+public class TransactionPageConverter extends AbstractHttpMessageConverter<TransactionPage> {
+
+    public TransactionPageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TransactionPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TransactionPage readInternal(Class<? extends TransactionPage> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Transaction pages are not read", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(TransactionPage page, MediaType contentType) {
+        return page.json() != null ? (long) page.json().length : null;
+    }
+
+    @Override
+    protected void writeInternal(TransactionPage page, HttpOutputMessage outputMessage) throws IOException {
+        page.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.Availability;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO to return an account's balance alongside what is held and what is left to withdraw.
+ */
+public class AvailabilityResponse {
+    private String accountId;
+    private BigDecimal balance;
+    private BigDecimal held;
+    private BigDecimal available;
+    private int openHolds;
+
+    public AvailabilityResponse(String accountId, BigDecimal balance, BigDecimal held, BigDecimal available,
+                                int openHolds) {
+        this.accountId = accountId;
+        this.balance = balance;
+        this.held = held;
+        this.available = available;
+        this.openHolds = openHolds;
+    }
+
+    public static AvailabilityResponse of(Availability availability) {
+        return new AvailabilityResponse(availability.getAccountId(), availability.getBalance(), availability.getHeld(),
+                availability.getAvailable(), availability.getOpenHolds());
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    /**
+     * Sum of the account's open holds.
+     */
+
+    public BigDecimal getHeld() {
+        return held;
+    }
+
+    public void setHeld(BigDecimal held) {
+        this.held = held;
+    }
+
+    /**
+     * Balance less what is held.
+     */
+
+    public BigDecimal getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(BigDecimal available) {
+        this.available = available;
+    }
+
+    public int getOpenHolds() {
+        return openHolds;
+    }
+
+    public void setOpenHolds(int openHolds) {
+        this.openHolds = openHolds;
+    }
+}
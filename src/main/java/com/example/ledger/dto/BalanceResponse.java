@@ -6,10 +6,22 @@ import java.math.BigDecimal;
  * DTO to return the current balance in a clean format.
  */
 public class BalanceResponse {
+    private String accountId;
     private BigDecimal balance;
+    private long sequence;
 
-    public BalanceResponse(BigDecimal balance) {
+    public BalanceResponse(String accountId, BigDecimal balance, long sequence) {
+        this.accountId = accountId;
         this.balance = balance;
+        this.sequence = sequence;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
     }
 
     public BigDecimal getBalance() {
@@ -19,4 +31,15 @@ public class BalanceResponse {
     public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
+
+    /**
+     * Sequence of the last transaction included in the balance.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.example.ledger.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item of a batch: the id and sequence assigned to it, or why it was skipped.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResponse {
+    private int index;
+    private String accountId;
+    private String id;
+    private Long sequence;
+    private String error;
+
+    public BatchItemResponse(int index, String accountId, String id, Long sequence, String error) {
+        this.index = index;
+        this.accountId = accountId;
+        this.id = id;
+        this.sequence = sequence;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Why the item was not recorded; absent for recorded items.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.BatchMode;
+
+import java.util.List;
+
+/**
+ * DTO returned for a batch: per-item outcomes in request order and the resulting balance
+ * of every account the batch touched.
+ */
+public class BatchResponse {
+    private BatchMode mode;
+    private int recorded;
+    private int rejected;
+    private List<BatchItemResponse> items;
+    private List<BalanceResponse> balances;
+
+    public BatchResponse(BatchMode mode, int recorded, int rejected, List<BatchItemResponse> items,
+                         List<BalanceResponse> balances) {
+        this.mode = mode;
+        this.recorded = recorded;
+        this.rejected = rejected;
+        this.items = items;
+        this.balances = balances;
+    }
+
+    public BatchMode getMode() {
+        return mode;
+    }
+
+    public void setMode(BatchMode mode) {
+        this.mode = mode;
+    }
+
+    public int getRecorded() {
+        return recorded;
+    }
+
+    public void setRecorded(int recorded) {
+        this.recorded = recorded;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<BatchItemResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BatchItemResponse> items) {
+        this.items = items;
+    }
+
+    public List<BalanceResponse> getBalances() {
+        return balances;
+    }
+
+    public void setBalances(List<BalanceResponse> balances) {
+        this.balances = balances;
+    }
+}
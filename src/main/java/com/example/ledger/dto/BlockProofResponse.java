@@ -0,0 +1,86 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.audit.RangeProof;
+
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * One block of a range proof: its digest, the audit path from the digest to the checkpoint
+ * root, and whether the block's transactions still hash to the digest.
+ */
+public class BlockProofResponse {
+    private int index;
+    private long firstSequence;
+    private long lastSequence;
+    private String digest;
+    private List<String> path;
+    private boolean intact;
+
+    public BlockProofResponse(int index, long firstSequence, long lastSequence, String digest, List<String> path,
+                              boolean intact) {
+        this.index = index;
+        this.firstSequence = firstSequence;
+        this.lastSequence = lastSequence;
+        this.digest = digest;
+        this.path = path;
+        this.intact = intact;
+    }
+
+    public static BlockProofResponse of(RangeProof.Block block) {
+        HexFormat hex = HexFormat.of();
+        return new BlockProofResponse(block.index(), block.firstSequence(), block.lastSequence(),
+                hex.formatHex(block.digest()), block.path().stream().map(hex::formatHex).toList(), block.intact());
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public long getFirstSequence() {
+        return firstSequence;
+    }
+
+    public void setFirstSequence(long firstSequence) {
+        this.firstSequence = firstSequence;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * Sibling hashes from the block up to the root, in RFC 6962 order.
+     */
+    public List<String> getPath() {
+        return path;
+    }
+
+    public void setPath(List<String> path) {
+        this.path = path;
+    }
+
+    public boolean isIntact() {
+        return intact;
+    }
+
+    public void setIntact(boolean intact) {
+        this.intact = intact;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ledger.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Request to capture a hold; the whole hold is captured when no amount is given.
+ */
+public class CaptureRequest {
+    private BigDecimal amount;
+
+    public CaptureRequest(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public CaptureRequest() {
+
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
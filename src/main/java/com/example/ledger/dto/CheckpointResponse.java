@@ -0,0 +1,110 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.audit.Checkpoint;
+import com.example.ledger.audit.LedgerAuditor;
+
+import java.math.BigDecimal;
+import java.util.HexFormat;
+
+/**
+ * Signed checkpoint of an account; hashes and the signature are hex-encoded.
+ */
+public class CheckpointResponse {
+    private String accountId;
+    private long transactions;
+    private BigDecimal balance;
+    private int blockSize;
+    private int blocks;
+    private String root;
+    private String algorithm;
+    private String signature;
+
+    public CheckpointResponse(String accountId, long transactions, BigDecimal balance, int blockSize, int blocks,
+                              String root, String algorithm, String signature) {
+        this.accountId = accountId;
+        this.transactions = transactions;
+        this.balance = balance;
+        this.blockSize = blockSize;
+        this.blocks = blocks;
+        this.root = root;
+        this.algorithm = algorithm;
+        this.signature = signature;
+    }
+
+    public static CheckpointResponse of(Checkpoint checkpoint) {
+        HexFormat hex = HexFormat.of();
+        return new CheckpointResponse(checkpoint.accountId(), checkpoint.transactions(), checkpoint.balance(),
+                checkpoint.blockSize(), checkpoint.blocks(), hex.formatHex(checkpoint.root()),
+                LedgerAuditor.SIGNATURE_ALGORITHM, hex.formatHex(checkpoint.signature()));
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(long transactions) {
+        this.transactions = transactions;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public int getBlocks() {
+        return blocks;
+    }
+
+    public void setBlocks(int blocks) {
+        this.blocks = blocks;
+    }
+
+    /**
+     * Merkle root over the block digests, RFC 6962 style.
+     */
+    public String getRoot() {
+        return root;
+    }
+
+    public void setRoot(String root) {
+        this.root = root;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * MAC over account id, transactions, balance, block size and root.
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ledger.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Request to place a hold on an account's available balance.
+ */
+public class HoldRequest {
+    @NotNull(message = "Amount is required")
+    private BigDecimal amount;
+    private Duration ttl;
+
+    public HoldRequest(BigDecimal amount, Duration ttl) {
+        this.amount = amount;
+        this.ttl = ttl;
+    }
+
+    public HoldRequest() {
+
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    /**
+     * How long the hold lasts, e.g. {@code PT15M}; optional, the configured default is used when absent.
+     */
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
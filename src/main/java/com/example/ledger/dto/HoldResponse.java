@@ -0,0 +1,71 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.Hold;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO to return a hold.
+ */
+public class HoldResponse {
+    private String id;
+    private String accountId;
+    private BigDecimal amount;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    public HoldResponse(String id, String accountId, BigDecimal amount, LocalDateTime createdAt,
+                        LocalDateTime expiresAt) {
+        this.id = id;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public static HoldResponse of(Hold hold) {
+        return new HoldResponse(hold.getId(), hold.getAccountId(), hold.getAmount(), hold.getCreatedAt(),
+                hold.getExpiresAt());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
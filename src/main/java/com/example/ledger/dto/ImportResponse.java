@@ -0,0 +1,102 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.bulk.ImportProgress;
+import com.example.ledger.bulk.TransferFormat;
+
+/**
+ * DTO to return where a bulk import stands.
+ */
+public class ImportResponse {
+    private String id;
+    private TransferFormat format;
+    private long skipped;
+    private long imported;
+    private long duplicates;
+    private long batches;
+    private long resumeFrom;
+    private long elapsedMillis;
+
+    public ImportResponse(String id, TransferFormat format, long skipped, long imported, long duplicates,
+                          long batches, long resumeFrom, long elapsedMillis) {
+        this.id = id;
+        this.format = format;
+        this.skipped = skipped;
+        this.imported = imported;
+        this.duplicates = duplicates;
+        this.batches = batches;
+        this.resumeFrom = resumeFrom;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public static ImportResponse of(ImportProgress progress) {
+        return new ImportResponse(progress.id(), progress.format(), progress.skipped(), progress.imported(),
+                progress.duplicates(), progress.batches(), progress.resumeFrom(), progress.elapsed().toMillis());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public TransferFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(TransferFormat format) {
+        this.format = format;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public void setBatches(long batches) {
+        this.batches = batches;
+    }
+
+    /**
+     * Records of the input that are in the ledger: the {@code skip} to resume with.
+     */
+    public long getResumeFrom() {
+        return resumeFrom;
+    }
+
+    public void setResumeFrom(long resumeFrom) {
+        this.resumeFrom = resumeFrom;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.audit.ReconciliationReport;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * An account that did not reconcile.
+ */
+public class MismatchResponse {
+    private String accountId;
+    private BigDecimal balance;
+    private BigDecimal historySum;
+    private List<Integer> tamperedBlocks;
+
+    public MismatchResponse(String accountId, BigDecimal balance, BigDecimal historySum, List<Integer> tamperedBlocks) {
+        this.accountId = accountId;
+        this.balance = balance;
+        this.historySum = historySum;
+        this.tamperedBlocks = tamperedBlocks;
+    }
+
+    public static MismatchResponse of(ReconciliationReport.Mismatch mismatch) {
+        return new MismatchResponse(mismatch.accountId(), mismatch.balance(), mismatch.historySum(),
+                mismatch.tamperedBlocks());
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    /**
+     * Deposits less withdrawals over the whole history.
+     */
+    public BigDecimal getHistorySum() {
+        return historySum;
+    }
+
+    public void setHistorySum(BigDecimal historySum) {
+        this.historySum = historySum;
+    }
+
+    /**
+     * Blocks whose transactions no longer hash to their recorded digest.
+     */
+    public List<Integer> getTamperedBlocks() {
+        return tamperedBlocks;
+    }
+
+    public void setTamperedBlocks(List<Integer> tamperedBlocks) {
+        this.tamperedBlocks = tamperedBlocks;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.audit.RangeProof;
+
+import java.util.List;
+
+/**
+ * Proof that a range of an account's transactions belongs to the history a checkpoint signs.
+ */
+public class RangeProofResponse {
+    private long from;
+    private long to;
+    private boolean intact;
+    private CheckpointResponse checkpoint;
+    private List<BlockProofResponse> blocks;
+
+    public RangeProofResponse(long from, long to, boolean intact, CheckpointResponse checkpoint,
+                              List<BlockProofResponse> blocks) {
+        this.from = from;
+        this.to = to;
+        this.intact = intact;
+        this.checkpoint = checkpoint;
+        this.blocks = blocks;
+    }
+
+    public static RangeProofResponse of(RangeProof proof) {
+        return new RangeProofResponse(proof.from(), proof.to(), proof.intact(),
+                CheckpointResponse.of(proof.checkpoint()),
+                proof.blocks().stream().map(BlockProofResponse::of).toList());
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public void setFrom(long from) {
+        this.from = from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public void setTo(long to) {
+        this.to = to;
+    }
+
+    /**
+     * Whether every block of the range checked out.
+     */
+    public boolean isIntact() {
+        return intact;
+    }
+
+    public void setIntact(boolean intact) {
+        this.intact = intact;
+    }
+
+    public CheckpointResponse getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(CheckpointResponse checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public List<BlockProofResponse> getBlocks() {
+        return blocks;
+    }
+
+    public void setBlocks(List<BlockProofResponse> blocks) {
+        this.blocks = blocks;
+    }
+}
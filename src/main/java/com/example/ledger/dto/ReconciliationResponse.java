@@ -0,0 +1,81 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.audit.ReconciliationReport;
+
+import java.util.List;
+
+/**
+ * Outcome of a reconciliation of every account.
+ */
+public class ReconciliationResponse {
+    private int accounts;
+    private long transactions;
+    private long blocks;
+    private long elapsedMillis;
+    private boolean consistent;
+    private List<MismatchResponse> mismatches;
+
+    public ReconciliationResponse(int accounts, long transactions, long blocks, long elapsedMillis, boolean consistent,
+                                  List<MismatchResponse> mismatches) {
+        this.accounts = accounts;
+        this.transactions = transactions;
+        this.blocks = blocks;
+        this.elapsedMillis = elapsedMillis;
+        this.consistent = consistent;
+        this.mismatches = mismatches;
+    }
+
+    public static ReconciliationResponse of(ReconciliationReport report) {
+        return new ReconciliationResponse(report.accounts(), report.transactions(), report.blocks(),
+                report.elapsed().toMillis(), report.consistent(),
+                report.mismatches().stream().map(MismatchResponse::of).toList());
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    public void setAccounts(int accounts) {
+        this.accounts = accounts;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(long transactions) {
+        this.transactions = transactions;
+    }
+
+    public long getBlocks() {
+        return blocks;
+    }
+
+    public void setBlocks(long blocks) {
+        this.blocks = blocks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    public void setConsistent(boolean consistent) {
+        this.consistent = consistent;
+    }
+
+    public List<MismatchResponse> getMismatches() {
+        return mismatches;
+    }
+
+    public void setMismatches(List<MismatchResponse> mismatches) {
+        this.mismatches = mismatches;
+    }
+}
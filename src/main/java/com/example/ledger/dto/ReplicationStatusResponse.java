@@ -0,0 +1,99 @@
+package com.example.ledger.dto;
+
+/**
+ * Replication state of this node.
+ */
+public class ReplicationStatusResponse {
+    private String role;
+    private long transactions;
+    private Integer followers;
+    private Boolean connected;
+    private Long leaderTransactions;
+    private Long lag;
+    private String failure;
+
+    public ReplicationStatusResponse(String role, long transactions, Integer followers, Boolean connected,
+                                     Long leaderTransactions, Long lag, String failure) {
+        this.role = role;
+        this.transactions = transactions;
+        this.followers = followers;
+        this.connected = connected;
+        this.leaderTransactions = leaderTransactions;
+        this.lag = lag;
+        this.failure = failure;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    /**
+     * Transactions this node holds.
+     */
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(long transactions) {
+        this.transactions = transactions;
+    }
+
+    /**
+     * Followers connected to a leader; null on other nodes.
+     */
+    public Integer getFollowers() {
+        return followers;
+    }
+
+    public void setFollowers(Integer followers) {
+        this.followers = followers;
+    }
+
+    /**
+     * Whether a follower is connected to its leader; null on other nodes.
+     */
+    public Boolean getConnected() {
+        return connected;
+    }
+
+    public void setConnected(Boolean connected) {
+        this.connected = connected;
+    }
+
+    /**
+     * Transactions the leader held at its last status report; null except on followers.
+     */
+    public Long getLeaderTransactions() {
+        return leaderTransactions;
+    }
+
+    public void setLeaderTransactions(Long leaderTransactions) {
+        this.leaderTransactions = leaderTransactions;
+    }
+
+    /**
+     * How many transactions a follower is behind its leader; null except on followers.
+     */
+    public Long getLag() {
+        return lag;
+    }
+
+    public void setLag(Long lag) {
+        this.lag = lag;
+    }
+
+    /**
+     * Why a follower stopped following its leader; null while it follows and on other nodes.
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    public void setFailure(String failure) {
+        this.failure = failure;
+    }
+}
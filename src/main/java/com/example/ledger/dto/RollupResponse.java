@@ -0,0 +1,64 @@
+package com.example.ledger.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one bucket of an account summary.
+ */
+public class RollupResponse {
+    private LocalDateTime start;
+    private int count;
+    private BigDecimal deposits;
+    private BigDecimal withdrawals;
+    private BigDecimal closingBalance;
+
+    public RollupResponse(LocalDateTime start, int count, BigDecimal deposits, BigDecimal withdrawals,
+                          BigDecimal closingBalance) {
+        this.start = start;
+        this.count = count;
+        this.deposits = deposits;
+        this.withdrawals = withdrawals;
+        this.closingBalance = closingBalance;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public BigDecimal getDeposits() {
+        return deposits;
+    }
+
+    public void setDeposits(BigDecimal deposits) {
+        this.deposits = deposits;
+    }
+
+    public BigDecimal getWithdrawals() {
+        return withdrawals;
+    }
+
+    public void setWithdrawals(BigDecimal withdrawals) {
+        this.withdrawals = withdrawals;
+    }
+
+    public BigDecimal getClosingBalance() {
+        return closingBalance;
+    }
+
+    public void setClosingBalance(BigDecimal closingBalance) {
+        this.closingBalance = closingBalance;
+    }
+}
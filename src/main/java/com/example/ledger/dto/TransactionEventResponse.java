@@ -0,0 +1,27 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A committed transaction as pushed by the change feed, with its account's balance right after it.
+ */
+public class TransactionEventResponse extends TransactionResponse {
+    private BigDecimal balance;
+
+    public TransactionEventResponse(BigDecimal amount, TransactionType type, LocalDateTime timestamp, String id,
+                                    String accountId, long sequence, BigDecimal balance) {
+        super(amount, type, timestamp, id, accountId, sequence);
+        this.balance = balance;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
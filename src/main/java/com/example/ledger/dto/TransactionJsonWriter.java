@@ -0,0 +1,235 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes transactions as JSON straight from the {@link Transaction}, without a
+ * {@link TransactionResponse} copy or Jackson.
+ *
+ * The output is byte for byte what the application's object mapper writes for the
+ * transaction's {@code TransactionResponse}: the same field order, the amount as
+ * {@code BigDecimal.toString()}, the timestamp in ISO-8601 local date-time form and strings
+ * escaped the same way. Field names and enum values are written from pre-encoded tokens,
+ * numbers and timestamps are encoded digit by digit, and ASCII strings without characters
+ * to escape are copied as they are, so writing a transaction allocates nothing beyond what
+ * {@code BigDecimal.toString()} caches in the amount.
+ *
+ * Every field of a recorded transaction is set, so none is written as null.
+ *
+ * Output is collected in a buffer and handed to the stream when it fills, on
+ * {@link #flush()} and on {@link #close()}. Not thread-safe.
+ */
+public final class TransactionJsonWriter implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 8 * 1024;
+
+    private static final byte[] AMOUNT = ascii("{\"amount\":");
+    private static final byte[][] TYPES = new byte[TransactionType.values().length][];
+    private static final byte[] TIMESTAMP = ascii(",\"timestamp\":\"");
+    private static final byte[] ID = ascii("\",\"id\":\"");
+    private static final byte[] ACCOUNT_ID = ascii("\",\"accountId\":\"");
+    private static final byte[] SEQUENCE = ascii("\",\"sequence\":");
+
+    static {
+        for (TransactionType type : TransactionType.values()) {
+            TYPES[type.ordinal()] = ascii(",\"type\":\"" + type.name() + "\"");
+        }
+    }
+
+    private final OutputStream out;
+    private byte[] buffer = new byte[BUFFER_BYTES];
+    private int position;
+
+    public TransactionJsonWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * The transactions as a JSON array, in memory.
+     */
+    public static byte[] toJson(List<Transaction> transactions) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(2, transactions.size() * 180));
+        try (TransactionJsonWriter writer = new TransactionJsonWriter(bytes)) {
+            writer.writeArray(transactions);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the transactions as a JSON array.
+     */
+    public void writeArray(List<Transaction> transactions) throws IOException {
+        ensure(1);
+        buffer[position++] = '[';
+        for (int i = 0, n = transactions.size(); i < n; i++) {
+            if (i > 0) {
+                ensure(1);
+                buffer[position++] = ',';
+            }
+            write(transactions.get(i));
+        }
+        ensure(1);
+        buffer[position++] = ']';
+    }
+
+    /**
+     * Writes the transaction as a JSON object followed by a newline, for NDJSON.
+     */
+    public void writeLine(Transaction transaction) throws IOException {
+        write(transaction);
+        ensure(1);
+        buffer[position++] = '\n';
+    }
+
+    /**
+     * Writes the transaction as a JSON object.
+     */
+    public void write(Transaction transaction) throws IOException {
+        writeToken(AMOUNT);
+        // The text BigDecimal caches after the first call, and the text Jackson writes.
+        writeAscii(transaction.getAmount().toString());
+        writeToken(TYPES[transaction.getType().ordinal()]);
+        writeToken(TIMESTAMP);
+        writeTimestamp(transaction.getTimestamp());
+        writeToken(ID);
+        writeString(transaction.getId());
+        writeToken(ACCOUNT_ID);
+        writeString(transaction.getAccountId());
+        writeToken(SEQUENCE);
+        ensure(20);
+        writeLong(transaction.getSequence());
+        buffer[position++] = '}';
+    }
+
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            drain();
+        }
+    }
+
+    /**
+     * ISO-8601 local date-time as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} formats it:
+     * seconds always, and a fraction only when there is one, without trailing zeros.
+     */
+    private void writeTimestamp(LocalDateTime timestamp) throws IOException {
+        if (timestamp.getYear() < 0 || timestamp.getYear() > 9999) {
+            // Outside four-digit years the formatter signs and widens the year; rare enough to delegate.
+            writeAscii(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp));
+            return;
+        }
+        ensure(29);
+        writeDigits(timestamp.getYear(), 4);
+        buffer[position++] = '-';
+        writeDigits(timestamp.getMonthValue(), 2);
+        buffer[position++] = '-';
+        writeDigits(timestamp.getDayOfMonth(), 2);
+        buffer[position++] = 'T';
+        writeDigits(timestamp.getHour(), 2);
+        buffer[position++] = ':';
+        writeDigits(timestamp.getMinute(), 2);
+        buffer[position++] = ':';
+        writeDigits(timestamp.getSecond(), 2);
+        int nanos = timestamp.getNano();
+        if (nanos != 0) {
+            int digits = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                digits--;
+            }
+            buffer[position++] = '.';
+            writeDigits(nanos, digits);
+        }
+    }
+
+    private void writeDigits(int value, int digits) {
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    /**
+     * Writes a non-negative number.
+     */
+    private void writeLong(long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    /**
+     * Writes the contents of a JSON string. Printable ASCII without quotes or backslashes is
+     * copied; anything else goes through Jackson's own encoder, so escaping stays identical.
+     */
+    private void writeString(String value) throws IOException {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x7f || c == '"' || c == '\\') {
+                writeToken(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+                return;
+            }
+        }
+        writeAscii(value);
+    }
+
+    private void writeAscii(String value) throws IOException {
+        int length = value.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeToken(byte[] token) throws IOException {
+        ensure(token.length);
+        System.arraycopy(token, 0, buffer, position, token.length);
+        position += token.length;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.length - position >= bytes) {
+            return;
+        }
+        drain();
+        if (buffer.length < bytes) {
+            buffer = new byte[bytes];
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.Transaction;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A page of history written over HTTP by {@link TransactionJsonWriter}, straight from the
+ * transactions, or as JSON serialized before. As a list it holds the page's transactions
+ * as responses, built on first use.
+ */
+public final class TransactionPage extends AbstractList<TransactionResponse> {
+
+    private final byte[] json;
+    private final int size;
+    private final Supplier<List<Transaction>> source;
+    private List<Transaction> transactions;
+
+    /**
+     * A page written from the transactions when the response is sent.
+     */
+    public TransactionPage(List<Transaction> transactions) {
+        this(null, transactions.size(), () -> transactions);
+    }
+
+    /**
+     * @param json   the page as a JSON array
+     * @param size   number of transactions in the page
+     * @param source reads the page's transactions, for callers that use it as a list
+     */
+    public TransactionPage(byte[] json, int size, Supplier<List<Transaction>> source) {
+        this.json = json;
+        this.size = size;
+        this.source = source;
+    }
+
+    /**
+     * The serialized page, or null if it is written from the transactions.
+     */
+    public byte[] json() {
+        return json;
+    }
+
+    /**
+     * Writes the page as a JSON array, leaving the stream open.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (json != null) {
+            out.write(json);
+            return;
+        }
+        TransactionJsonWriter writer = new TransactionJsonWriter(out);
+        writer.writeArray(transactions());
+        writer.flush();
+    }
+
+    @Override
+    public TransactionResponse get(int index) {
+        return TransactionResponse.of(transactions().get(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private List<Transaction> transactions() {
+        if (transactions == null) {
+            transactions = source.get();
+        }
+        return transactions;
+    }
+}
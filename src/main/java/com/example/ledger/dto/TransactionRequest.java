@@ -10,6 +10,10 @@ import java.math.BigDecimal;
  * Represents a transaction request for deposits or withdrawals.
  */
 public class TransactionRequest {
+    /**
+     * Target account; optional, the default account is used when absent.
+     */
+    private String accountId;
     @NotNull(message = "Transaction type is required")
     private TransactionType type;
     @NotNull(message = "Amount is required")
@@ -20,10 +24,23 @@ public class TransactionRequest {
         this.amount = amount;
     }
 
+    public TransactionRequest(String accountId, BigDecimal amount, TransactionType type) {
+        this(amount, type);
+        this.accountId = accountId;
+    }
+
     public TransactionRequest() {
 
     }
 
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
     public TransactionType getType() {
         return type;
     }
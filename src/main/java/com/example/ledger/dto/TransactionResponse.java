@@ -1,5 +1,6 @@
 package com.example.ledger.dto;
 
+import com.example.ledger.model.Transaction;
 import com.example.ledger.model.TransactionType;
 
 import java.math.BigDecimal;
@@ -13,12 +14,27 @@ public class TransactionResponse {
     private TransactionType type;
     private LocalDateTime timestamp;
     private String id;
+    private String accountId;
+    private long sequence;
 
-    public TransactionResponse(BigDecimal amount, TransactionType type, LocalDateTime timestamp, String id) {
+    public TransactionResponse(BigDecimal amount, TransactionType type, LocalDateTime timestamp, String id,
+                               String accountId, long sequence) {
         this.amount = amount;
         this.type = type;
         this.timestamp = timestamp;
         this.id = id;
+        this.accountId = accountId;
+        this.sequence = sequence;
+    }
+
+    public static TransactionResponse of(Transaction transaction) {
+        return new TransactionResponse(
+                transaction.getAmount(),
+                transaction.getType(),
+                transaction.getTimestamp(),
+                transaction.getId(),
+                transaction.getAccountId(),
+                transaction.getSequence());
     }
 
     public BigDecimal getAmount() {
@@ -37,6 +53,17 @@ public class TransactionResponse {
         return id;
     }
 
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Position in the account's history; usable as the {@code after} cursor of the next page.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
@@ -52,4 +79,12 @@ public class TransactionResponse {
     public void setId(String id) {
         this.id = id;
     }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
 }
\ No newline at end of file
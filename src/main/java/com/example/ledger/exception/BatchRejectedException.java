@@ -0,0 +1,32 @@
+package com.example.ledger.exception;
+
+/**
+ * Thrown when an item of an atomic batch cannot be recorded, so none of the batch is.
+ *
+ * This exception is handled in GlobalExceptionHandler to return
+ * a 400 Bad Request response naming the offending item.
+ */
+public class BatchRejectedException extends RuntimeException {
+    private final int index;
+    private final String reason;
+
+    public BatchRejectedException(int index, String reason) {
+        super("Item " + index + ": " + reason);
+        this.index = index;
+        this.reason = reason;
+    }
+
+    /**
+     * Zero-based position of the offending item in the batch.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Why the offending item could not be recorded.
+     */
+    public String getReason() {
+        return reason;
+    }
+}
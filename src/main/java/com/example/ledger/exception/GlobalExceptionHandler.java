@@ -7,6 +7,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -26,6 +29,71 @@ public class GlobalExceptionHandler {
         return buildErrorResponse("Insufficient Balance", ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles lookups of unknown transaction ids.
+     */
+    @ExceptionHandler(TransactionNotFoundException.class)
+    public ResponseEntity<Object> handleTransactionNotFound(TransactionNotFoundException ex) {
+        return buildErrorResponse("Not Found", ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles captures and releases of holds that are not open.
+     */
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<Object> handleHoldNotFound(HoldNotFoundException ex) {
+        return buildErrorResponse("Not Found", ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles atomic batches rejected because of one of their items.
+     */
+    @ExceptionHandler(BatchRejectedException.class)
+    public ResponseEntity<Object> handleBatchRejected(BatchRejectedException ex) {
+        return buildErrorResponse("Batch Rejected", ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles bulk imports stopped by a record that cannot be read or recorded.
+     */
+    @ExceptionHandler(ImportFailedException.class)
+    public ResponseEntity<Object> handleImportFailed(ImportFailedException ex) {
+        return buildErrorResponse("Import Failed", ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles idempotency keys sent again with a different request.
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Object> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        return buildErrorResponse("Idempotency Key Reused", ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    /**
+     * Handles writes sent to a read-only follower.
+     */
+    @ExceptionHandler(ReadOnlyReplicaException.class)
+    public ResponseEntity<Object> handleReadOnlyReplica(ReadOnlyReplicaException ex) {
+        return buildErrorResponse("Read-Only Replica", ex.getMessage(), HttpStatus.FORBIDDEN);
+    }
+
+    /**
+     * Handles reads whose minimum sequence this node has not reached yet.
+     */
+    @ExceptionHandler(SequenceNotReachedException.class)
+    public ResponseEntity<Object> handleSequenceNotReached(SequenceNotReachedException ex) {
+        return buildErrorResponse("Sequence Not Reached", ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handles query and path parameters that do not convert, e.g. an unknown batch mode.
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Object> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        String message = String.format("Invalid value for parameter '%s': '%s'", ex.getName(), ex.getValue());
+        return buildErrorResponse("Invalid Format", message, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles wrong Transaction Types and wrong formatted JSON requests
      */
@@ -54,6 +122,31 @@ public class GlobalExceptionHandler {
         return buildErrorResponse("Validation Failed", errors.toString(), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles validation errors from @Valid annotated DTOs on the reactive stack.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> handleWebExchangeBind(WebExchangeBindException ex) {
+        var errors = ex.getBindingResult().getFieldErrors().stream()
+                .map(e -> e.getField() + ": " + e.getDefaultMessage())
+                .toList();
+        return buildErrorResponse("Validation Failed", errors.toString(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles unreadable bodies and parameters that do not convert on the reactive stack.
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Object> handleServerWebInput(ServerWebInputException ex) {
+        Throwable mostSpecificCause = ex.getMostSpecificCause();
+        if (mostSpecificCause instanceof InvalidFormatException formatException) {
+            String fieldName = formatException.getPath().isEmpty() ? "unknown" : formatException.getPath().get(0).getFieldName();
+            String message = String.format("Invalid value for field '%s': '%s'", fieldName, formatException.getValue());
+            return buildErrorResponse("Invalid Format", message, HttpStatus.BAD_REQUEST);
+        }
+        return buildErrorResponse("Invalid Request", ex.getReason(), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles invalid arguments (e.g., negative or zero amounts).
      */
@@ -0,0 +1,14 @@
+package com.example.ledger.exception;
+
+/**
+ * Thrown when a hold is captured or released that is unknown, or no longer open because it
+ * was captured, released or expired.
+ *
+ * This exception is handled in GlobalExceptionHandler to return
+ * a 404 Not Found response to the client.
+ */
+public class HoldNotFoundException extends RuntimeException {
+    public HoldNotFoundException(String id) {
+        super("No open hold with id " + id + ".");
+    }
+}
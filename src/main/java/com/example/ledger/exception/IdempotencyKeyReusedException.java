@@ -0,0 +1,14 @@
+package com.example.ledger.exception;
+
+/**
+ * Thrown when an idempotency key comes back with a request that differs from the one it
+ * was first used for.
+ *
+ * This exception is handled in GlobalExceptionHandler to return
+ * a 422 Unprocessable Entity response to the client.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key " + key + " was already used for a different request.");
+    }
+}
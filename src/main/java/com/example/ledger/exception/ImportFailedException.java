@@ -0,0 +1,24 @@
+package com.example.ledger.exception;
+
+import com.example.ledger.bulk.ImportProgress;
+
+/**
+ * Thrown when a bulk import stops at a record that cannot be read or recorded. Every batch
+ * before the one holding that record is in the ledger; the rest of the input is not.
+ *
+ * This exception is handled in GlobalExceptionHandler to return
+ * a 400 Bad Request response naming the record and where to resume.
+ */
+public class ImportFailedException extends RuntimeException {
+    private final ImportProgress progress;
+
+    public ImportFailedException(ImportProgress progress, long record, String reason) {
+        super("Record " + record + ": " + reason + " (" + progress.imported() + " records imported; resume with importId="
+                + progress.id() + " and skip=" + progress.resumeFrom() + ")");
+        this.progress = progress;
+    }
+
+    public ImportProgress getProgress() {
+        return progress;
+    }
+}
@@ -8,6 +8,13 @@ package com.example.ledger.exception;
  * a 400 Bad Request response to the client.
  */
 public class InsufficientBalanceException extends RuntimeException {
+
+    /**
+     * Message of a withdrawal the balance does not cover; also the error of such an item in a
+     * best-effort batch.
+     */
+    public static final String WITHDRAWAL = "Insufficient balance for withdrawal.";
+
     public InsufficientBalanceException(String message) {
         super(message);
     }
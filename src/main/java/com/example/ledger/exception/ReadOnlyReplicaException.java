@@ -0,0 +1,13 @@
+package com.example.ledger.exception;
+
+/**
+ * Thrown when a write reaches a follower, which only serves reads replicated from the leader.
+ *
+ * This exception is handled in GlobalExceptionHandler to return
+ * a 403 Forbidden response to the client.
+ */
+public class ReadOnlyReplicaException extends RuntimeException {
+    public ReadOnlyReplicaException() {
+        super("This node is a read-only follower; send writes to the leader.");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ledger.exception;
+
+/**
+ * Thrown when a read asks for a minimum sequence that the account has not reached on this
+ * node in time, e.g. on a follower that has not yet replicated the caller's write.
+ *
+ * This exception is handled in GlobalExceptionHandler to return
+ * a 503 Service Unavailable response to the client.
+ */
+public class SequenceNotReachedException extends RuntimeException {
+    public SequenceNotReachedException(String accountId, long minSequence) {
+        super("Account " + accountId + " has not reached sequence " + minSequence + " on this node.");
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ledger.exception;
+
+/**
+ * Thrown when a transaction is looked up by an id that is not recorded.
+ *
+ * This exception is handled in GlobalExceptionHandler to return
+ * a 404 Not Found response to the client.
+ */
+public class TransactionNotFoundException extends RuntimeException {
+    public TransactionNotFoundException(String id) {
+        super("No transaction with id " + id + ".");
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.ledger.feed;
+
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.service.TransactionListener;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes every committed transaction to the subscribers of its account.
+ *
+ * Writers only offer the event to each subscriber's bounded buffer and never wait: a full
+ * buffer is handled by the {@link SlowConsumerPolicy}. A small pool of sender threads drains
+ * the buffers into the {@link FeedSink}s.
+ *
+ * A send that blocks, e.g. on a client that stopped reading, would hold its sender thread
+ * and starve every other subscriber. A watchdog therefore gives each send a deadline: once a
+ * send has taken longer than {@code sendTimeout}, the subscriber is disconnected and the pool
+ * gets a thread in place of the stuck one, which leaves the pool when the send returns.
+ *
+ * The account history is the source of truth. A subscriber that resumes from a sequence, or
+ * that falls behind under {@link SlowConsumerPolicy#CATCH_UP}, reads what it missed from a
+ * lock-free view of the history and then continues with live events, skipping any it has
+ * already sent. Events therefore reach each subscriber exactly once and in sequence order.
+ */
+public class ChangeFeed implements TransactionListener, AutoCloseable {
+
+    public static final Duration DEFAULT_SEND_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_EVENTS_PER_RUN = 1_024;
+
+    private final LedgerService ledger;
+    private final int bufferSize;
+    private final SlowConsumerPolicy policy;
+    private final long sendTimeoutNanos;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService watchdog;
+    private final ReentrantLock resizeLock = new ReentrantLock();
+    private final ConcurrentMap<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    public ChangeFeed(LedgerService ledger, int bufferSize, SlowConsumerPolicy policy, int senderThreads) {
+        this(ledger, bufferSize, policy, senderThreads, DEFAULT_SEND_TIMEOUT);
+    }
+
+    /**
+     * @param sendTimeout longest a single send may block before its subscriber is disconnected
+     */
+    public ChangeFeed(LedgerService ledger, int bufferSize, SlowConsumerPolicy policy, int senderThreads,
+                      Duration sendTimeout) {
+        this(ledger, bufferSize, policy, sendTimeout,
+                Executors.newFixedThreadPool(senderThreads, new SenderThreads("ledger-feed-")));
+    }
+
+    ChangeFeed(LedgerService ledger, int bufferSize, SlowConsumerPolicy policy, Duration sendTimeout,
+               ExecutorService senders) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive.");
+        }
+        if (sendTimeout.isNegative() || sendTimeout.isZero()) {
+            throw new IllegalArgumentException("Send timeout must be positive.");
+        }
+        this.ledger = ledger;
+        this.bufferSize = bufferSize;
+        this.policy = policy;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.senders = senders;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(new SenderThreads("ledger-feed-watchdog-"));
+        long period = Math.max(TimeUnit.MILLISECONDS.toNanos(1), sendTimeoutNanos / 4);
+        watchdog.scheduleAtFixedRate(this::disconnectStalled, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts delivering the account's transactions after {@code afterSequence} to {@code sink}:
+     * first those already in the history, then each one as it is committed.
+     */
+    public Subscription subscribe(String accountId, long afterSequence, FeedSink sink) {
+        if (afterSequence < 0) {
+            throw new IllegalArgumentException("Sequence must not be negative.");
+        }
+        Subscription subscription = new Subscription(accountId, afterSequence, sink);
+        subscriptions.computeIfAbsent(accountId, id -> new CopyOnWriteArrayList<>()).add(subscription);
+        subscription.schedule();
+        return subscription;
+    }
+
+    /**
+     * Number of open subscriptions across all accounts.
+     */
+    public int subscriberCount() {
+        int count = 0;
+        for (List<Subscription> list : subscriptions.values()) {
+            count += list.size();
+        }
+        return count;
+    }
+
+    @Override
+    public void committed(Transaction transaction, BigDecimal balance) {
+        List<Subscription> list = subscriptions.get(transaction.getAccountId());
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+        FeedEvent event = new FeedEvent(transaction, balance);
+        for (Subscription subscription : list) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Disconnects every subscriber whose send has been blocked for longer than the send
+     * timeout, and gives the pool a thread in place of each stuck one.
+     */
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        for (List<Subscription> list : subscriptions.values()) {
+            for (Subscription subscription : list) {
+                if (subscription.sending && !subscription.stalled
+                        && now - subscription.sendStarted > sendTimeoutNanos) {
+                    subscription.stalled = true;
+                    subscription.closed = true;
+                    list.remove(subscription);
+                    resizeSenders(1);
+                }
+            }
+        }
+    }
+
+    private void resizeSenders(int delta) {
+        if (!(senders instanceof ThreadPoolExecutor pool)) {
+            return;
+        }
+        resizeLock.lock();
+        try {
+            // The core size must never exceed the maximum, so grow the maximum first and shrink it last.
+            if (delta > 0) {
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+            } else {
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+            }
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        watchdog.shutdownNow();
+        senders.shutdownNow();
+        for (List<Subscription> list : subscriptions.values()) {
+            for (Subscription subscription : list) {
+                subscription.sink.close();
+            }
+        }
+        subscriptions.clear();
+    }
+
+    /**
+     * One consumer of one account's transactions. Only one sender thread runs it at a time.
+     */
+    public final class Subscription implements Runnable, AutoCloseable {
+        private final String accountId;
+        private final FeedSink sink;
+        private final ArrayBlockingQueue<FeedEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean lagging = true;
+        private volatile boolean closed;
+        private volatile boolean sending;
+        private volatile boolean stalled;
+        private volatile long sendStarted;
+        private volatile long cursor;
+        private BigDecimal balance;
+
+        private Subscription(String accountId, long afterSequence, FeedSink sink) {
+            this.accountId = accountId;
+            this.sink = sink;
+            this.cursor = afterSequence;
+            this.balance = afterSequence == 0 ? BigDecimal.ZERO : null;
+        }
+
+        /**
+         * Called by writers; never blocks.
+         */
+        private void offer(FeedEvent event) {
+            if (closed || lagging) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                if (policy == SlowConsumerPolicy.DISCONNECT) {
+                    closed = true;
+                } else {
+                    lagging = true;
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                senders.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                int sent = 0;
+                while (!closed && sent < MAX_EVENTS_PER_RUN) {
+                    if (lagging) {
+                        // Clear the flag first: anything committed from now on is buffered again,
+                        // anything before is in the history read below.
+                        lagging = false;
+                        buffer.clear();
+                        sent += catchUp(MAX_EVENTS_PER_RUN - sent);
+                        continue;
+                    }
+                    FeedEvent event = buffer.poll();
+                    if (event == null) {
+                        break;
+                    }
+                    long sequence = event.transaction().getSequence();
+                    if (sequence <= cursor) {
+                        continue;
+                    }
+                    if (sequence != cursor + 1) {
+                        // Writers on other threads committed earlier transactions later; read them from the history.
+                        lagging = true;
+                        continue;
+                    }
+                    send(event);
+                    sent++;
+                }
+            } catch (IOException | RuntimeException e) {
+                closed = true;
+            }
+            if (closed) {
+                remove();
+                return;
+            }
+            scheduled.set(false);
+            // Anything that came in while this run was finishing could not schedule it.
+            if (closed || lagging || !buffer.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Sends up to {@code limit} transactions after the cursor from the history. If more
+         * are left, the subscription stays lagging and continues on its next run.
+         */
+        private int catchUp(int limit) throws IOException {
+            AccountView view = ledger.getAccountView(accountId);
+            List<Transaction> history = view.getTransactions();
+            int size = history.size();
+            if (cursor >= size) {
+                return 0;
+            }
+            if (balance == null) {
+                // Resuming mid-history: walk back from the current balance to the cursor's.
+                BigDecimal atCursor = view.getBalance();
+                for (int i = size - 1; i >= cursor; i--) {
+                    atCursor = atCursor.subtract(delta(history.get(i)));
+                }
+                balance = atCursor;
+            }
+            int start = (int) cursor;
+            int end = (int) Math.min(size, cursor + limit);
+            for (int i = start; i < end; i++) {
+                Transaction transaction = history.get(i);
+                send(new FeedEvent(transaction, balance.add(delta(transaction))));
+            }
+            if (end < size) {
+                lagging = true;
+            }
+            return end - start;
+        }
+
+        private void send(FeedEvent event) throws IOException {
+            sendStarted = System.nanoTime();
+            sending = true;
+            try {
+                sink.send(event);
+            } finally {
+                sending = false;
+                if (stalled) {
+                    // The watchdog replaced this thread while it was stuck; hand the extra one back.
+                    resizeSenders(-1);
+                }
+            }
+            cursor = event.transaction().getSequence();
+            balance = event.balance();
+        }
+
+        private void remove() {
+            List<Subscription> list = subscriptions.get(accountId);
+            if (list != null) {
+                list.remove(this);
+            }
+            sink.close();
+        }
+
+        /**
+         * Sequence of the last event sent.
+         */
+        public long getCursor() {
+            return cursor;
+        }
+
+        /**
+         * Stops delivery; the sink is closed by the sender thread, or right away if idle.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            schedule();
+        }
+    }
+
+    private static BigDecimal delta(Transaction transaction) {
+        return transaction.getType() == TransactionType.DEPOSIT ? transaction.getAmount() : transaction.getAmount().negate();
+    }
+
+    private static final class SenderThreads implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        SenderThreads(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ledger.feed;
+
+import com.example.ledger.model.Transaction;
+
+import java.math.BigDecimal;
+
+/**
+ * A committed transaction and the balance of its account right after it.
+ */
+public record FeedEvent(Transaction transaction, BigDecimal balance) {
+}
@@ -0,0 +1,22 @@
+package com.example.ledger.feed;
+
+import java.io.IOException;
+
+/**
+ * Where a subscription delivers its events, e.g. an SSE connection. Called from one sender
+ * thread at a time.
+ */
+public interface FeedSink {
+
+    /**
+     * Delivers one event; may block while the consumer is slow.
+     *
+     * @throws IOException if the consumer is gone, which ends the subscription
+     */
+    void send(FeedEvent event) throws IOException;
+
+    /**
+     * Ends delivery, e.g. because the subscription was cancelled or the consumer was too slow.
+     */
+    void close();
+}
@@ -0,0 +1,16 @@
+package com.example.ledger.feed;
+
+/**
+ * What happens to a subscriber whose buffer fills up because it reads slower than
+ * transactions are committed.
+ */
+public enum SlowConsumerPolicy {
+    /**
+     * Close the subscription; the client reconnects and resumes from its last event.
+     */
+    DISCONNECT,
+    /**
+     * Drop the buffer and send what was missed from the account history, then go live again.
+     */
+    CATCH_UP
+}
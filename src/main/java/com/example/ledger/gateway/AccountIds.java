@@ -0,0 +1,57 @@
+package com.example.ledger.gateway;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns account ids read off the wire into Strings, returning the same instance for the same
+ * bytes so that a hit allocates nothing. A direct-mapped table: a colliding id replaces the
+ * previous one. Not thread-safe; each gateway worker has its own.
+ */
+final class AccountIds {
+
+    private final String[] table;
+    private final int mask;
+
+    AccountIds(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two.");
+        }
+        this.table = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * The account id in {@code buffer} at {@code offset}, read as US-ASCII without moving the
+     * buffer's position.
+     */
+    String get(ByteBuffer buffer, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + (buffer.get(offset + i) & 0xFF);
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        String cached = table[slot];
+        if (cached != null && matches(cached, buffer, offset, length)) {
+            return cached;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+        }
+        String id = new String(chars);
+        table[slot] = id;
+        return id;
+    }
+
+    private static boolean matches(String id, ByteBuffer buffer, int offset, int length) {
+        if (id.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (id.charAt(i) != (buffer.get(offset + i) & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.ledger.gateway;
+
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.BatchResult;
+import com.example.ledger.model.TransactionCommand;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.LedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.example.ledger.gateway.GatewayProtocol.ACK_BYTES;
+import static com.example.ledger.gateway.GatewayProtocol.REQUEST_HEADER_BYTES;
+
+/**
+ * TCP listener that records transactions sent in the {@link GatewayProtocol} binary format,
+ * for feeds that post many small transactions and cannot afford HTTP and JSON per request.
+ *
+ * An acceptor thread hands connections round-robin to worker threads, each running a
+ * {@link Selector} over its connections. A worker decodes every complete request in what it
+ * read straight from the connection's buffer, records them all as one
+ * {@link BatchMode#BEST_EFFORT} batch, so one read costs one journal sync rather than one per
+ * request, and writes all their acks back with one write. Buffers are allocated per connection
+ * and account ids are cached per worker, so decoding and acking allocate little beyond the
+ * commands themselves. While a connection's acks cannot be written, the worker stops reading
+ * from it, and the client is held back by TCP flow control.
+ */
+public class BinaryGateway implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryGateway.class);
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int ACCOUNT_ID_CACHE_SIZE = 4_096;
+    private static final int MAX_ACKS = BUFFER_BYTES / ACK_BYTES;
+    private static final TransactionType[] TYPES = {TransactionType.DEPOSIT, TransactionType.WITHDRAWAL};
+
+    private final LedgerService ledger;
+    private final int amountScale;
+    private final ServerSocketChannel server;
+    private final int port;
+    private final Worker[] workers;
+    private final Thread acceptor;
+    private volatile boolean running = true;
+
+    /**
+     * Binds to {@code address} and starts accepting connections.
+     *
+     * @param amountScale number of decimal places in the wire amounts
+     */
+    public BinaryGateway(LedgerService ledger, InetSocketAddress address, int workerThreads, int amountScale)
+            throws IOException {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("Worker threads must be positive.");
+        }
+        this.ledger = ledger;
+        this.amountScale = amountScale;
+        this.server = ServerSocketChannel.open();
+        server.bind(address);
+        this.port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        this.workers = new Worker[workerThreads];
+        for (int i = 0; i < workerThreads; i++) {
+            workers[i] = new Worker(Selector.open());
+            Thread thread = new Thread(workers[i], "ledger-gateway-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+        this.acceptor = new Thread(this::accept, "ledger-gateway-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Binary gateway listening on port {}", port);
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        server.close();
+        for (Worker worker : workers) {
+            worker.selector.wakeup();
+        }
+    }
+
+    private void accept() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = server.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                workers[Math.floorMod(next++, workers.length)].add(channel);
+            } catch (AsynchronousCloseException e) {
+                return;
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Binary gateway failed to accept a connection", e);
+                }
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+        private final AccountIds accountIds = new AccountIds(ACCOUNT_ID_CACHE_SIZE);
+
+        Worker(Selector selector) {
+            this.selector = selector;
+        }
+
+        void add(SocketChannel channel) {
+            accepted.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(this::handle);
+                    SocketChannel channel;
+                    while ((channel = accepted.poll()) != null) {
+                        Connection connection = new Connection(channel, accountIds);
+                        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Binary gateway worker stopped", e);
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Connection) key.attachment()).close();
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                    // nothing left to release
+                }
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable() && connection.channel.read(connection.in) < 0) {
+                    connection.close();
+                    return;
+                }
+                connection.process();
+            } catch (IOException | CancelledKeyException e) {
+                connection.close();
+            }
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final AccountIds accountIds;
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final long[] correlationIds = new long[MAX_ACKS];
+        private final byte[] statuses = new byte[MAX_ACKS];
+        private final int[] positions = new int[MAX_ACKS];
+        private final List<TransactionCommand> commands = new ArrayList<>();
+        private SelectionKey key;
+
+        Connection(SocketChannel channel, AccountIds accountIds) {
+            this.channel = channel;
+            this.accountIds = accountIds;
+        }
+
+        /**
+         * Records the buffered requests and writes their acks. Reads are paused while acks
+         * are left unwritten and resume, with any requests still buffered, once they are out.
+         */
+        void process() throws IOException {
+            boolean ackBufferFull;
+            do {
+                ackBufferFull = decode();
+                out.flip();
+                channel.write(out);
+                out.compact();
+            } while (ackBufferFull && out.position() == 0);
+            int ops = out.position() > 0 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+
+        /**
+         * Decodes as many requests as there is room to ack, records them as one batch and
+         * puts their acks in request order.
+         *
+         * @return whether decoding stopped because there was no room for another ack
+         */
+        private boolean decode() {
+            in.flip();
+            int requests = 0;
+            int room = out.remaining() / ACK_BYTES;
+            while (in.remaining() >= REQUEST_HEADER_BYTES && requests < room) {
+                int start = in.position();
+                int accountLength = in.get(start + 1) & 0xFF;
+                if (in.remaining() < REQUEST_HEADER_BYTES + accountLength) {
+                    break;
+                }
+                String accountId = accountLength == 0
+                        ? LedgerService.DEFAULT_ACCOUNT
+                        : accountIds.get(in, start + REQUEST_HEADER_BYTES, accountLength);
+                byte type = in.get(start);
+                long amount = in.getLong(start + 2);
+                correlationIds[requests] = in.getLong(start + 10);
+                if ((type != GatewayProtocol.DEPOSIT && type != GatewayProtocol.WITHDRAWAL) || amount <= 0) {
+                    statuses[requests] = GatewayProtocol.REJECTED;
+                } else {
+                    statuses[requests] = GatewayProtocol.OK;
+                    positions[commands.size()] = requests;
+                    commands.add(new TransactionCommand(accountId, BigDecimal.valueOf(amount, amountScale),
+                            TYPES[type]));
+                }
+                requests++;
+                in.position(start + REQUEST_HEADER_BYTES + accountLength);
+            }
+            boolean full = requests == room;
+            in.compact();
+
+            List<BatchResult.Item> items = record();
+            int recorded = 0;
+            for (int i = 0; i < requests; i++) {
+                byte status = statuses[i];
+                long sequence = 0;
+                if (recorded < commands.size() && positions[recorded] == i) {
+                    BatchResult.Item item = items != null ? items.get(recorded) : null;
+                    if (item == null) {
+                        status = GatewayProtocol.ERROR;
+                    } else if (item.isApplied()) {
+                        sequence = item.transaction().getSequence();
+                    } else {
+                        status = InsufficientBalanceException.WITHDRAWAL.equals(item.error())
+                                ? GatewayProtocol.INSUFFICIENT_BALANCE
+                                : GatewayProtocol.REJECTED;
+                    }
+                    recorded++;
+                }
+                out.putLong(correlationIds[i]).put(status).putLong(sequence);
+            }
+            commands.clear();
+            return full;
+        }
+
+        /**
+         * @return an item per command, or null if the batch as a whole could not be recorded
+         */
+        private List<BatchResult.Item> record() {
+            if (commands.isEmpty()) {
+                return List.of();
+            }
+            try {
+                return ledger.recordBatch(commands, BatchMode.BEST_EFFORT).getItems();
+            } catch (RuntimeException e) {
+                log.warn("Binary gateway failed to record {} transactions", commands.size(), e);
+                return null;
+            }
+        }
+
+        void close() {
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // the connection is gone either way
+            }
+        }
+    }
+}
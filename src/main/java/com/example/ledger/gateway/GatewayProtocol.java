@@ -0,0 +1,60 @@
+package com.example.ledger.gateway;
+
+import com.example.ledger.model.TransactionType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format of the binary gateway. All numbers are big-endian.
+ *
+ * <pre>
+ * request  type:u8  accountLength:u8  amount:i64  correlationId:i64  account:accountLength bytes
+ * ack      correlationId:i64  status:u8  sequence:i64
+ * </pre>
+ *
+ * {@code type} is {@link #DEPOSIT} or {@link #WITHDRAWAL}. {@code amount} is fixed-point with
+ * the gateway's amount scale, e.g. 1050 is 10.50 at scale 2. The account is US-ASCII; an
+ * empty one means the default account. The correlation id is the client's and comes back
+ * unchanged in the ack, which carries the transaction's sequence when {@code status} is
+ * {@link #OK} and 0 otherwise. Requests may be pipelined; acks come back in request order.
+ */
+public final class GatewayProtocol {
+
+    public static final byte DEPOSIT = 0;
+    public static final byte WITHDRAWAL = 1;
+
+    public static final byte OK = 0;
+    public static final byte INSUFFICIENT_BALANCE = 1;
+    /**
+     * Unknown type, amount not positive or invalid account id.
+     */
+    public static final byte REJECTED = 2;
+    public static final byte ERROR = 3;
+
+    public static final int REQUEST_HEADER_BYTES = 18;
+    public static final int ACK_BYTES = 17;
+    public static final int MAX_ACCOUNT_LENGTH = 255;
+
+    private GatewayProtocol() {
+    }
+
+    public static byte typeCode(TransactionType type) {
+        return type == TransactionType.DEPOSIT ? DEPOSIT : WITHDRAWAL;
+    }
+
+    /**
+     * Appends a request to {@code buffer}.
+     *
+     * @param account US-ASCII account id, empty for the default account
+     */
+    public static void putRequest(ByteBuffer buffer, byte type, byte[] account, long amount, long correlationId) {
+        if (account.length > MAX_ACCOUNT_LENGTH) {
+            throw new IllegalArgumentException("Account id must be at most " + MAX_ACCOUNT_LENGTH + " bytes.");
+        }
+        buffer.put(type)
+                .put((byte) account.length)
+                .putLong(amount)
+                .putLong(correlationId)
+                .put(account);
+    }
+}
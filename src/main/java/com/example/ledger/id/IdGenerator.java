@@ -0,0 +1,9 @@
+package com.example.ledger.id;
+
+/**
+ * Issues transaction ids.
+ */
+public interface IdGenerator {
+
+    String next();
+}
@@ -0,0 +1,189 @@
+package com.example.ledger.id;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Maps transaction ids to their owner and position, in open-addressing tables of
+ * primitive arrays: about 24 bytes per slot and no objects per entry, where a
+ * {@code HashMap<String, ...>} costs a few hundred bytes per entry.
+ *
+ * Keys are two longs: the halves of a UUID id, or zero and the value of a Snowflake id.
+ * Other ids are not indexed. The table is split into segments that each take their own
+ * lock for writes; reads are optimistic and only lock if a write got in the way.
+ */
+public final class IdIndex<T> {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    public IdIndex() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Where an id was found: its owner and position there.
+     */
+    public record Entry<T>(T owner, int position) {
+    }
+
+    /**
+     * Indexes {@code id}; ids that are neither UUIDs nor Snowflake ids are ignored.
+     *
+     * @return whether the id was indexed
+     */
+    public boolean put(String id, T owner, int position) {
+        UUID key = key(id);
+        if (key == null) {
+            return false;
+        }
+        long hi = key.getMostSignificantBits();
+        long lo = key.getLeastSignificantBits();
+        long hash = mix(hi, lo);
+        segments[(int) (hash >>> (64 - SEGMENT_BITS))].put(hi, lo, (int) hash, owner, position);
+        return true;
+    }
+
+    /**
+     * Whether {@code id} is a UUID or Snowflake id, the only kinds the index holds.
+     */
+    public static boolean isIndexable(String id) {
+        return key(id) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Entry<T> find(String id) {
+        UUID key = key(id);
+        if (key == null) {
+            return null;
+        }
+        long hi = key.getMostSignificantBits();
+        long lo = key.getLeastSignificantBits();
+        long hash = mix(hi, lo);
+        return (Entry<T>) segments[(int) (hash >>> (64 - SEGMENT_BITS))].find(hi, lo, (int) hash);
+    }
+
+    /**
+     * The key of an id: a canonical UUID as is, a Snowflake id as {@code (0, value)}.
+     * Version 4 UUIDs never have a zero upper half, so the two cannot collide.
+     */
+    private static UUID key(String id) {
+        int length = id.length();
+        if (length > 0 && length <= 19 && Character.isDigit(id.charAt(0))) {
+            try {
+                long value = Long.parseLong(id);
+                return Long.toString(value).equals(id) ? new UUID(0, value) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (length != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.getMostSignificantBits() != 0 && uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long mix(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Table(long[] his, long[] los, Object[] owners, int[] positions) {
+
+        static Table of(int capacity) {
+            return new Table(new long[capacity], new long[capacity], new Object[capacity], new int[capacity]);
+        }
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table = Table.of(INITIAL_CAPACITY);
+        private int size;
+
+        void put(long hi, long lo, int hash, Object owner, int position) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                if ((size + 1) * 10L > current.owners().length * 7L) {
+                    current = resize(current);
+                }
+                if (insert(current, hi, lo, hash, owner, position)) {
+                    size++;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        Entry<Object> find(long hi, long lo, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            Entry<Object> entry = probe(hi, lo, hash);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    entry = probe(hi, lo, hash);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return entry;
+        }
+
+        private Entry<Object> probe(long hi, long lo, int hash) {
+            Table current = table;
+            int mask = current.owners().length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                Object owner = current.owners()[slot];
+                if (owner == null) {
+                    return null;
+                }
+                if (current.his()[slot] == hi && current.los()[slot] == lo) {
+                    return new Entry<>(owner, current.positions()[slot]);
+                }
+            }
+        }
+
+        /**
+         * @return whether a new key was added rather than an existing one replaced
+         */
+        private static boolean insert(Table table, long hi, long lo, int hash, Object owner, int position) {
+            int mask = table.owners().length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                Object existing = table.owners()[slot];
+                if (existing == null || (table.his()[slot] == hi && table.los()[slot] == lo)) {
+                    table.his()[slot] = hi;
+                    table.los()[slot] = lo;
+                    table.positions()[slot] = position;
+                    table.owners()[slot] = owner;
+                    return existing == null;
+                }
+            }
+        }
+
+        private Table resize(Table old) {
+            Table grown = Table.of(old.owners().length * 2);
+            for (int slot = 0; slot < old.owners().length; slot++) {
+                Object owner = old.owners()[slot];
+                if (owner != null) {
+                    long hi = old.his()[slot];
+                    long lo = old.los()[slot];
+                    insert(grown, hi, lo, (int) mix(hi, lo), owner, old.positions()[slot]);
+                }
+            }
+            table = grown;
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ledger.id;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs from {@link UUID#randomUUID()}.
+ */
+public final class UuidIdGenerator implements IdGenerator {
+
+    @Override
+    public String next() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Transaction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A hold being placed or closed, as journaled so that open holds survive a restart. A
+ * capture carries its withdrawal, so that replay closes the hold and applies the
+ * withdrawal together or not at all.
+ *
+ * Layout: kind ordinal, hold id, account id (both length-prefixed UTF-8), amount (scale +
+ * length-prefixed unscaled value), creation and expiry (epoch second + nano, UTC), then for
+ * a capture its withdrawal as a {@link TransactionCodec} encoding.
+ */
+public record HoldRecord(Kind kind, Hold hold, Transaction capture) {
+
+    public enum Kind {
+        PLACED,
+        RELEASED,
+        EXPIRED,
+        CAPTURED
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    public static HoldRecord placed(Hold hold) {
+        return new HoldRecord(Kind.PLACED, hold, null);
+    }
+
+    public static HoldRecord released(Hold hold) {
+        return new HoldRecord(Kind.RELEASED, hold, null);
+    }
+
+    public static HoldRecord expired(Hold hold) {
+        return new HoldRecord(Kind.EXPIRED, hold, null);
+    }
+
+    public static HoldRecord captured(Hold hold, Transaction withdrawal) {
+        return new HoldRecord(Kind.CAPTURED, hold, withdrawal);
+    }
+
+    /**
+     * Upper bound of the encoded size, used to size buffers before encoding.
+     */
+    static int maxEncodedSize(HoldRecord record) {
+        Hold hold = record.hold();
+        return 1
+                + 2 + 3 * hold.getId().length()
+                + 2 + 3 * hold.getAccountId().length()
+                + 4 + 2 + hold.getAmount().unscaledValue().bitLength() / 8 + 1
+                + 2 * (8 + 4)
+                + (record.capture() != null ? TransactionCodec.maxEncodedSize(record.capture()) : 0);
+    }
+
+    static void encode(HoldRecord record, ByteBuffer out) {
+        Hold hold = record.hold();
+        out.put((byte) record.kind().ordinal());
+        TransactionCodec.putString(hold.getId(), out);
+        TransactionCodec.putString(hold.getAccountId(), out);
+        byte[] unscaled = hold.getAmount().unscaledValue().toByteArray();
+        out.putInt(hold.getAmount().scale());
+        out.putShort((short) unscaled.length);
+        out.put(unscaled);
+        putTime(hold.getCreatedAt(), out);
+        putTime(hold.getExpiresAt(), out);
+        if (record.kind() == Kind.CAPTURED) {
+            TransactionCodec.encode(record.capture(), out);
+        }
+    }
+
+    static HoldRecord decode(ByteBuffer in) {
+        int kindOrdinal = in.get();
+        if (kindOrdinal < 0 || kindOrdinal >= KINDS.length) {
+            throw new IllegalArgumentException("Unknown hold record kind " + kindOrdinal);
+        }
+        String id = TransactionCodec.getString(in);
+        String accountId = TransactionCodec.getString(in);
+        int scale = in.getInt();
+        byte[] unscaled = new byte[in.getShort() & 0xFFFF];
+        in.get(unscaled);
+        LocalDateTime createdAt = getTime(in);
+        LocalDateTime expiresAt = getTime(in);
+        Hold hold = new Hold(id, accountId, new BigDecimal(new BigInteger(unscaled), scale), createdAt, expiresAt);
+        Kind kind = KINDS[kindOrdinal];
+        return new HoldRecord(kind, hold, kind == Kind.CAPTURED ? TransactionCodec.decode(in) : null);
+    }
+
+    private static void putTime(LocalDateTime time, ByteBuffer out) {
+        out.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.putInt(time.getNano());
+    }
+
+    private static LocalDateTime getTime(ByteBuffer in) {
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Point-in-time snapshots of every account, each tagged with the journal position it covers.
+ *
+ * A snapshot file is {@code snapshot-<journal position>.snap}: a header, then per account its
+ * id, balance, history and open holds, then a CRC32C of everything before it. Version 1
+ * files, written before holds were kept, are read as having none. Inside an account the
+ * account id and sequence are implied, ids are packed as 16 bytes when they are UUIDs or 8
+ * when they are Snowflake ids, and amounts as a long when the unscaled value fits.
+ *
+ * Snapshots may include transactions past their journal position; replaying the journal
+ * tail skips anything an account already holds.
+ */
+public class SnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final int MAGIC = 0x4C534E50; // "LSNP"
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_HOLDS = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private static final int WITHDRAWAL_FLAG = 1;
+    private static final int UUID_ID_FLAG = 1 << 1;
+    private static final int LONG_AMOUNT_FLAG = 1 << 2;
+    private static final int LONG_ID_FLAG = 1 << 3;
+
+    private final Path directory;
+    private final int retained;
+
+    public SnapshotStore(Path directory, int retained) {
+        this.directory = directory;
+        this.retained = Math.max(1, retained);
+    }
+
+    /**
+     * State of one account as captured for a snapshot. {@code transactions} must not change
+     * while the snapshot is written.
+     */
+    public record AccountState(String accountId, BigDecimal balance, List<Transaction> transactions,
+                               List<Hold> holds) {
+
+        public AccountState(String accountId, BigDecimal balance, List<Transaction> transactions) {
+            this(accountId, balance, transactions, List.of());
+        }
+    }
+
+    /**
+     * Writes a snapshot covering the journal up to {@code journalPosition}, then drops the
+     * oldest snapshots beyond the retained count.
+     */
+    public Path write(long journalPosition, List<AccountState> accounts) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName(journalPosition));
+        Path temp = directory.resolve(fileName(journalPosition) + ".tmp");
+
+        CRC32C crc = new CRC32C();
+        try (OutputStream file = Files.newOutputStream(temp);
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc);
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalPosition);
+            out.writeInt(accounts.size());
+            for (AccountState account : accounts) {
+                writeAccount(account, out);
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        prune();
+        return target;
+    }
+
+    /**
+     * Loads the newest snapshot that passes its checksum and whose every balance matches its
+     * history, and feeds its transactions to {@code consumer}, account by account, in sequence
+     * order. A snapshot is checked through before any of it reaches {@code consumer}, so one
+     * that fails leaves nothing half-restored and the next older one is tried.
+     *
+     * @return the journal position the loaded snapshot covers, or empty if there is none
+     */
+    public OptionalLong loadLatest(Consumer<Transaction> consumer) throws IOException {
+        return loadLatest(Long.MAX_VALUE, consumer);
+    }
+
+    /**
+     * Same as {@link #loadLatest(Consumer)}, skipping snapshots that cover more than
+     * {@code journalEnd}: a journal that lost its unsynced tail in a crash cannot be replayed
+     * from such a position.
+     */
+    public OptionalLong loadLatest(long journalEnd, Consumer<Transaction> consumer) throws IOException {
+        return loadLatest(journalEnd, consumer, hold -> { });
+    }
+
+    /**
+     * Same as {@link #loadLatest(long, Consumer)}, feeding each account's open holds to
+     * {@code holds} after its transactions.
+     */
+    public OptionalLong loadLatest(long journalEnd, Consumer<Transaction> consumer, Consumer<Hold> holds)
+            throws IOException {
+        for (Path snapshot : snapshots()) {
+            if (journalPosition(snapshot) > journalEnd) {
+                log.warn("Skipping snapshot {} past the end of the journal at {}", snapshot, journalEnd);
+                continue;
+            }
+            if (isValid(snapshot)) {
+                return OptionalLong.of(load(snapshot, consumer, holds));
+            }
+            log.warn("Skipping corrupt snapshot {}", snapshot);
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Snapshot files, newest first.
+     */
+    public List<Path> snapshots() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(SnapshotStore::isSnapshotFile)
+                    .sorted(Comparator.comparingLong(SnapshotStore::journalPosition).reversed())
+                    .toList();
+        }
+    }
+
+    private void writeAccount(AccountState account, DataOutputStream out) throws IOException {
+        out.writeUTF(account.accountId());
+        writeDecimal(account.balance(), out);
+        List<Transaction> transactions = account.transactions();
+        out.writeInt(transactions.size());
+        for (Transaction transaction : transactions) {
+            UUID uuid = parseUuid(transaction.getId());
+            long longId = uuid == null ? parseLongId(transaction.getId()) : -1;
+            BigDecimal amount = transaction.getAmount();
+            boolean longAmount = amount.unscaledValue().bitLength() < 64;
+            int flags = (transaction.getType() == TransactionType.WITHDRAWAL ? WITHDRAWAL_FLAG : 0)
+                    | (uuid != null ? UUID_ID_FLAG : 0)
+                    | (longId >= 0 ? LONG_ID_FLAG : 0)
+                    | (longAmount ? LONG_AMOUNT_FLAG : 0);
+            out.writeByte(flags);
+            if (uuid != null) {
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            } else if (longId >= 0) {
+                out.writeLong(longId);
+            } else {
+                out.writeUTF(transaction.getId());
+            }
+            out.writeInt(amount.scale());
+            if (longAmount) {
+                out.writeLong(amount.unscaledValue().longValue());
+            } else {
+                byte[] unscaled = amount.unscaledValue().toByteArray();
+                out.writeShort(unscaled.length);
+                out.write(unscaled);
+            }
+            writeTime(transaction.getTimestamp(), out);
+        }
+        out.writeInt(account.holds().size());
+        for (Hold hold : account.holds()) {
+            out.writeUTF(hold.getId());
+            writeDecimal(hold.getAmount(), out);
+            writeTime(hold.getCreatedAt(), out);
+            writeTime(hold.getExpiresAt(), out);
+        }
+    }
+
+    private long load(Path snapshot, Consumer<Transaction> consumer, Consumer<Hold> holds) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+            int version = readVersion(in, snapshot);
+            long journalPosition = in.readLong();
+            int accounts = in.readInt();
+            for (int a = 0; a < accounts; a++) {
+                String accountId = in.readUTF();
+                BigDecimal expected = readDecimal(in);
+                BigDecimal balance = BigDecimal.ZERO;
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Transaction transaction = readTransaction(accountId, i + 1L, in);
+                    balance = transaction.getType() == TransactionType.DEPOSIT
+                            ? balance.add(transaction.getAmount())
+                            : balance.subtract(transaction.getAmount());
+                    consumer.accept(transaction);
+                }
+                if (balance.compareTo(expected) != 0) {
+                    throw new IOException("Balance of account " + accountId + " in " + snapshot
+                            + " does not match its history");
+                }
+                int open = version > VERSION_WITHOUT_HOLDS ? in.readInt() : 0;
+                for (int i = 0; i < open; i++) {
+                    holds.accept(new Hold(in.readUTF(), accountId, readDecimal(in), readTime(in), readTime(in)));
+                }
+            }
+            return journalPosition;
+        }
+    }
+
+    /**
+     * Whether the checksum matches and every account's balance matches its history.
+     */
+    private boolean isValid(Path snapshot) {
+        if (!checksumMatches(snapshot)) {
+            return false;
+        }
+        try {
+            load(snapshot, transaction -> { }, hold -> { });
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot {} does not add up: {}", snapshot, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean checksumMatches(Path snapshot) {
+        CRC32C crc = new CRC32C();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16)) {
+            long size = Files.size(snapshot);
+            if (size < HEADER_BYTES + 4 + 8) {
+                return false;
+            }
+            DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc));
+            readVersion(in, snapshot);
+            in.readLong();
+            in.skipNBytes(size - HEADER_BYTES - 8);
+            long computed = crc.getValue();
+            return new DataInputStream(file).readLong() == computed;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int readVersion(DataInputStream in, Path snapshot) throws IOException {
+        int version = in.readInt() == MAGIC ? in.readInt() : -1;
+        if (version != VERSION && version != VERSION_WITHOUT_HOLDS) {
+            throw new IOException("Not a ledger snapshot: " + snapshot);
+        }
+        return version;
+    }
+
+    private static Transaction readTransaction(String accountId, long sequence, DataInputStream in) throws IOException {
+        int flags = in.readByte();
+        String id;
+        if ((flags & UUID_ID_FLAG) != 0) {
+            id = new UUID(in.readLong(), in.readLong()).toString();
+        } else if ((flags & LONG_ID_FLAG) != 0) {
+            id = Long.toString(in.readLong());
+        } else {
+            id = in.readUTF();
+        }
+        int scale = in.readInt();
+        BigDecimal amount;
+        if ((flags & LONG_AMOUNT_FLAG) != 0) {
+            amount = BigDecimal.valueOf(in.readLong(), scale);
+        } else {
+            byte[] unscaled = new byte[in.readUnsignedShort()];
+            in.readFully(unscaled);
+            amount = new BigDecimal(new BigInteger(unscaled), scale);
+        }
+        LocalDateTime timestamp = readTime(in);
+        TransactionType type = (flags & WITHDRAWAL_FLAG) != 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT;
+        return new Transaction(id, accountId, sequence, amount, type, timestamp);
+    }
+
+    private static void writeTime(LocalDateTime time, DataOutputStream out) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeDecimal(BigDecimal value, DataOutputStream out) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    /**
+     * Returns the id as a UUID only if it round-trips to exactly the same string.
+     */
+    private static UUID parseUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the id as a non-negative long only if it round-trips to exactly the same string, else -1.
+     */
+    private static long parseLongId(String id) {
+        if (id.isEmpty() || id.length() > 19 || !Character.isDigit(id.charAt(0))) {
+            return -1;
+        }
+        try {
+            long value = Long.parseLong(id);
+            return Long.toString(value).equals(id) ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> snapshots = new ArrayList<>(snapshots());
+        for (int i = retained; i < snapshots.size(); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    private static String fileName(long journalPosition) {
+        return String.format("%s%020d%s", PREFIX, journalPosition, SUFFIX);
+    }
+
+    private static boolean isSnapshotFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long journalPosition(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ledger.journal;
+
+/**
+ * When the journal forces appended records to disk.
+ */
+public enum SyncPolicy {
+    /**
+     * Every write waits until its record is on disk. Concurrent writers share one fsync.
+     */
+    EVERY_WRITE,
+    /**
+     * The writer that completes a batch of records forces it; other writers do not wait.
+     * A background timer also forces a partial batch, so that no record waits longer than
+     * the sync interval to become durable (and to be shipped to followers).
+     */
+    BATCH,
+    /**
+     * A background timer forces the journal at a fixed interval; writers never wait.
+     */
+    INTERVAL
+}
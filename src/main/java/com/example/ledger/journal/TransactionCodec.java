@@ -0,0 +1,80 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary encoding of a {@link Transaction}, shared by the journal and everything that
+ * reads or ships journal records.
+ *
+ * Layout: account id, id (both length-prefixed UTF-8), sequence, type ordinal,
+ * amount (scale + length-prefixed unscaled value) and timestamp (epoch second + nano, UTC).
+ */
+public final class TransactionCodec {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private TransactionCodec() {
+    }
+
+    /**
+     * Upper bound of the encoded size, used to size buffers before encoding.
+     */
+    public static int maxEncodedSize(Transaction transaction) {
+        return 2 + 3 * transaction.getAccountId().length()
+                + 2 + 3 * transaction.getId().length()
+                + 8 + 1
+                + 4 + 2 + transaction.getAmount().unscaledValue().bitLength() / 8 + 1
+                + 8 + 4;
+    }
+
+    public static void encode(Transaction transaction, ByteBuffer out) {
+        putString(transaction.getAccountId(), out);
+        putString(transaction.getId(), out);
+        out.putLong(transaction.getSequence());
+        out.put((byte) transaction.getType().ordinal());
+        BigDecimal amount = transaction.getAmount();
+        byte[] unscaled = amount.unscaledValue().toByteArray();
+        out.putInt(amount.scale());
+        out.putShort((short) unscaled.length);
+        out.put(unscaled);
+        LocalDateTime timestamp = transaction.getTimestamp();
+        out.putLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.putInt(timestamp.getNano());
+    }
+
+    public static Transaction decode(ByteBuffer in) {
+        String accountId = getString(in);
+        String id = getString(in);
+        long sequence = in.getLong();
+        int typeOrdinal = in.get();
+        if (typeOrdinal < 0 || typeOrdinal >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown transaction type " + typeOrdinal);
+        }
+        int scale = in.getInt();
+        byte[] unscaled = new byte[in.getShort() & 0xFFFF];
+        in.get(unscaled);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        return new Transaction(id, accountId, sequence, new BigDecimal(new BigInteger(unscaled), scale),
+                TYPES[typeOrdinal], timestamp);
+    }
+
+    static void putString(String value, ByteBuffer out) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
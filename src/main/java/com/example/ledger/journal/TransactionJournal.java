@@ -0,0 +1,517 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, write-ahead journal of recorded transactions.
+ *
+ * Each record is {@code [int payload length][int CRC32C of payload][payload]}, the payload
+ * being a {@link TransactionCodec} encoding. A batch is one record holding all of its
+ * transactions, marked by {@link #BATCH_FLAG} in the length, so that replay recovers all of
+ * it or none of it. A {@link HoldRecord}, marked by {@link #HOLD_FLAG}, records a hold
+ * being placed or closed. Appends are serialized; forcing to disk is done separately by
+ * {@link #awaitDurable(long)} so that one fsync covers every record appended while the
+ * previous fsync was running (group commit).
+ *
+ * A failed write or fsync leaves it unknown what reached the disk, so the journal fails
+ * stop: from then on every append and sync throws, and the ledger accepts no more writes
+ * until it is restarted and recovers from what replay finds intact.
+ */
+public class TransactionJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionJournal.class);
+
+    static final int HEADER_BYTES = 8;
+    static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+    static final int MAX_BATCH_PAYLOAD_BYTES = 64 * 1024 * 1024;
+    static final int BATCH_FLAG = 1 << 31;
+    static final int HOLD_FLAG = 1 << 30;
+    private static final int FLAGS = BATCH_FLAG | HOLD_FLAG;
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final SyncPolicy policy;
+    private final int batchSize;
+    private final ScheduledExecutorService syncTimer;
+
+    // Explicit locks rather than monitors: both are held across file I/O, which would pin
+    // the carrier of a virtual thread blocked inside a synchronized block.
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(512);
+
+    private volatile long written;
+    private volatile long durable;
+    private volatile long appendedRecords;
+    private volatile long syncedRecords;
+    private volatile IOException failure;
+
+    TransactionJournal(Path path, FileChannel channel, SyncPolicy policy, int batchSize, Duration syncInterval)
+            throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.policy = policy;
+        this.batchSize = Math.max(1, batchSize);
+        this.written = channel.size();
+        this.durable = written;
+        if (policy != SyncPolicy.EVERY_WRITE) {
+            this.syncTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ledger-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalNanos = syncInterval.toNanos();
+            syncTimer.scheduleAtFixedRate(this::syncQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            this.syncTimer = null;
+        }
+    }
+
+    public static TransactionJournal open(Path path, SyncPolicy policy, int batchSize, Duration syncInterval)
+            throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new TransactionJournal(path, channel, policy, batchSize, syncInterval);
+    }
+
+    /**
+     * Feeds every transaction of every intact record to {@code consumer} in journal order.
+     * A partially written or corrupt tail is cut off so that new records are appended right
+     * after the last good one.
+     *
+     * @return the number of transactions replayed
+     */
+    public long replay(Consumer<Transaction> consumer) throws IOException {
+        return replay(0, consumer);
+    }
+
+    /**
+     * Same as {@link #replay(Consumer)}, starting at a record boundary {@code from}. Hold
+     * records are skipped but for the withdrawal of a capture.
+     */
+    public long replay(long from, Consumer<Transaction> consumer) throws IOException {
+        return replay(from, consumer, hold -> { });
+    }
+
+    /**
+     * Same as {@link #replay(long, Consumer)}, feeding hold records to {@code holds} in
+     * journal order as well. A capture reaches {@code holds} before its withdrawal reaches
+     * {@code consumer}.
+     */
+    public long replay(long from, Consumer<Transaction> consumer, Consumer<HoldRecord> holds) throws IOException {
+        appendLock.lock();
+        try {
+            long size = channel.size();
+            if (from > size) {
+                throw new IllegalArgumentException("Replay position " + from + " is past the end of " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+            buffer.flip();
+            long position = from;
+            long filePosition = from;
+            long replayed = 0;
+
+            while (true) {
+                if (buffer.remaining() < HEADER_BYTES) {
+                    filePosition = refill(buffer, filePosition);
+                    if (buffer.remaining() < HEADER_BYTES) {
+                        break;
+                    }
+                }
+                int header = buffer.getInt(buffer.position());
+                int checksum = buffer.getInt(buffer.position() + 4);
+                boolean batch = (header & BATCH_FLAG) != 0;
+                int length = header & ~FLAGS;
+                if (length <= 0 || length > (batch ? MAX_BATCH_PAYLOAD_BYTES : MAX_PAYLOAD_BYTES)) {
+                    break;
+                }
+                if (buffer.remaining() < HEADER_BYTES + length) {
+                    if (buffer.capacity() < HEADER_BYTES + length) {
+                        buffer = ByteBuffer.allocateDirect(HEADER_BYTES + length).put(buffer).flip();
+                    }
+                    filePosition = refill(buffer, filePosition);
+                    if (buffer.remaining() < HEADER_BYTES + length) {
+                        break;
+                    }
+                }
+
+                ByteBuffer payload = buffer.slice(buffer.position() + HEADER_BYTES, length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                HoldRecord hold = null;
+                Transaction[] transactions;
+                try {
+                    if ((header & HOLD_FLAG) != 0) {
+                        hold = HoldRecord.decode(payload);
+                        transactions = hold.capture() != null ? new Transaction[] {hold.capture()} : new Transaction[0];
+                    } else {
+                        transactions = batch ? decodeBatch(payload) : new Transaction[] {TransactionCodec.decode(payload)};
+                    }
+                } catch (RuntimeException e) {
+                    break;
+                }
+                if (hold != null) {
+                    holds.accept(hold);
+                }
+                for (Transaction transaction : transactions) {
+                    consumer.accept(transaction);
+                }
+                buffer.position(buffer.position() + HEADER_BYTES + length);
+                position += HEADER_BYTES + length;
+                replayed += transactions.length;
+            }
+
+            if (position < size) {
+                log.warn("Truncating {} bytes of corrupt or partial journal tail in {} at offset {}",
+                        size - position, path, position);
+                channel.truncate(position);
+                channel.force(true);
+            }
+            written = position;
+            durable = position;
+            appendedRecords = replayed;
+            syncedRecords = replayed;
+            return replayed;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Decodes the complete records at the start of {@code buffer}, such as journal bytes
+     * shipped to a follower, and moves the buffer past them. A partial record at the end is
+     * left in the buffer. Of a hold record only the withdrawal of a capture is decoded, as
+     * holds are not replicated.
+     *
+     * @return the number of transactions decoded
+     * @throws IllegalArgumentException if a record is corrupt
+     */
+    public static int decodeRecords(ByteBuffer buffer, Consumer<Transaction> consumer) {
+        CRC32C checksums = new CRC32C();
+        int decoded = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int header = buffer.getInt(start);
+            boolean batch = (header & BATCH_FLAG) != 0;
+            int length = header & ~FLAGS;
+            if (length <= 0 || length > (batch ? MAX_BATCH_PAYLOAD_BYTES : MAX_PAYLOAD_BYTES)) {
+                throw new IllegalArgumentException("Bad journal record length " + length);
+            }
+            if (buffer.remaining() < HEADER_BYTES + length) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(start + HEADER_BYTES, length);
+            checksums.reset();
+            checksums.update(payload.duplicate());
+            if ((int) checksums.getValue() != buffer.getInt(start + 4)) {
+                throw new IllegalArgumentException("Journal record checksum mismatch");
+            }
+            Transaction[] transactions;
+            if ((header & HOLD_FLAG) != 0) {
+                Transaction capture = HoldRecord.decode(payload).capture();
+                transactions = capture != null ? new Transaction[] {capture} : new Transaction[0];
+            } else {
+                transactions = batch ? decodeBatch(payload) : new Transaction[] {TransactionCodec.decode(payload)};
+            }
+            for (Transaction transaction : transactions) {
+                consumer.accept(transaction);
+            }
+            buffer.position(start + HEADER_BYTES + length);
+            decoded += transactions.length;
+        }
+        return decoded;
+    }
+
+    private static Transaction[] decodeBatch(ByteBuffer payload) {
+        int count = payload.getInt();
+        if (count <= 0 || count > payload.remaining()) {
+            throw new IllegalArgumentException("Bad batch size " + count);
+        }
+        Transaction[] transactions = new Transaction[count];
+        for (int i = 0; i < count; i++) {
+            transactions[i] = TransactionCodec.decode(payload);
+        }
+        if (payload.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes after batch");
+        }
+        return transactions;
+    }
+
+    private long refill(ByteBuffer buffer, long filePosition) throws IOException {
+        buffer.compact();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, filePosition);
+            if (read < 0) {
+                break;
+            }
+            filePosition += read;
+        }
+        buffer.flip();
+        return filePosition;
+    }
+
+    /**
+     * Appends one record. The record is written to the file but not necessarily durable yet;
+     * pass the returned position to {@link #awaitDurable(long)}.
+     *
+     * @return the journal position just after the record
+     */
+    public long append(Transaction transaction) {
+        appendLock.lock();
+        try {
+            requireHealthy();
+            prepareBuffer(TransactionCodec.maxEncodedSize(transaction));
+            TransactionCodec.encode(transaction, writeBuffer);
+            int length = writeBuffer.position() - HEADER_BYTES;
+            if (length > MAX_PAYLOAD_BYTES) {
+                throw new IllegalArgumentException("Transaction is too large to journal.");
+            }
+            return write(length, 0, 1);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Appends a hold record. Durability works as for {@link #append(Transaction)}.
+     *
+     * @return the journal position just after the record
+     */
+    public long append(HoldRecord hold) {
+        appendLock.lock();
+        try {
+            requireHealthy();
+            prepareBuffer(HoldRecord.maxEncodedSize(hold));
+            HoldRecord.encode(hold, writeBuffer);
+            int length = writeBuffer.position() - HEADER_BYTES;
+            if (length > MAX_PAYLOAD_BYTES) {
+                throw new IllegalArgumentException("Hold is too large to journal.");
+            }
+            return write(length, HOLD_FLAG, 1);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Appends the transactions as a single record: after a crash, replay recovers either all
+     * of them or none. Durability works as for {@link #append(Transaction)}.
+     *
+     * @return the journal position just after the record
+     */
+    public long appendBatch(List<Transaction> transactions) {
+        if (transactions.size() == 1) {
+            return append(transactions.get(0));
+        }
+        appendLock.lock();
+        try {
+            requireHealthy();
+            long maxSize = 4;
+            for (Transaction transaction : transactions) {
+                maxSize += TransactionCodec.maxEncodedSize(transaction);
+            }
+            if (maxSize > MAX_BATCH_PAYLOAD_BYTES) {
+                throw new IllegalArgumentException("Batch is too large to journal.");
+            }
+            prepareBuffer((int) maxSize);
+            writeBuffer.putInt(transactions.size());
+            for (Transaction transaction : transactions) {
+                TransactionCodec.encode(transaction, writeBuffer);
+            }
+            return write(writeBuffer.position() - HEADER_BYTES, BATCH_FLAG, transactions.size());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void prepareBuffer(int maxPayloadSize) {
+        int maxSize = HEADER_BYTES + maxPayloadSize;
+        if (writeBuffer.capacity() < maxSize) {
+            writeBuffer = ByteBuffer.allocate(Math.max(maxSize, writeBuffer.capacity() * 2));
+        }
+        writeBuffer.clear();
+        writeBuffer.position(HEADER_BYTES);
+    }
+
+    /**
+     * Frames the payload in the write buffer and writes it out. Called with the append lock held.
+     */
+    private long write(int length, int flags, int transactions) {
+        crc.reset();
+        crc.update(writeBuffer.array(), HEADER_BYTES, length);
+        writeBuffer.putInt(0, length | flags);
+        writeBuffer.putInt(4, (int) crc.getValue());
+        writeBuffer.flip();
+
+        long position = written;
+        try {
+            while (writeBuffer.hasRemaining()) {
+                position += channel.write(writeBuffer, position);
+            }
+        } catch (IOException e) {
+            throw fail("Failed to append to journal " + path, e);
+        } finally {
+            if (writeBuffer.capacity() > READ_BUFFER_BYTES) {
+                writeBuffer = ByteBuffer.allocate(512);
+            }
+        }
+        written = position;
+        appendedRecords += transactions;
+        return position;
+    }
+
+    /**
+     * Applies the sync policy for a record ending at {@code position}. Under
+     * {@link SyncPolicy#EVERY_WRITE} this blocks until the record is on disk.
+     */
+    public void awaitDurable(long position) {
+        requireHealthy();
+        switch (policy) {
+            case EVERY_WRITE -> sync(position);
+            case BATCH -> {
+                if (appendedRecords - syncedRecords >= batchSize) {
+                    sync(position);
+                }
+            }
+            case INTERVAL -> {
+                // forced by the sync timer
+            }
+        }
+    }
+
+    /**
+     * Forces everything appended so far.
+     */
+    public void sync() {
+        sync(written);
+    }
+
+    private void sync(long position) {
+        requireHealthy();
+        if (durable >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            requireHealthy();
+            if (durable >= position) {
+                return;
+            }
+            long target = written;
+            long records = appendedRecords;
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw fail("Failed to sync journal " + path, e);
+            }
+            durable = target;
+            syncedRecords = records;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private UncheckedIOException fail(String message, IOException cause) {
+        if (failure == null) {
+            failure = cause;
+        }
+        return new UncheckedIOException(message, cause);
+    }
+
+    /**
+     * Throws if an earlier write or sync failed, after which the journal accepts no more writes.
+     */
+    public void requireHealthy() {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new UncheckedIOException("Journal " + path + " has failed and accepts no more writes", cause);
+        }
+    }
+
+    private void syncQuietly() {
+        if (failure != null) {
+            return;
+        }
+        try {
+            sync();
+        } catch (UncheckedIOException e) {
+            log.error("Periodic journal sync failed", e);
+        }
+    }
+
+    /**
+     * Reads journal bytes starting at {@code position} into {@code buffer}, e.g. to ship them
+     * to a follower. Below {@link #durablePosition()} the bytes are complete records.
+     *
+     * @return the number of bytes read, or -1 at the end of the file
+     */
+    public int read(long position, ByteBuffer buffer) throws IOException {
+        return channel.read(buffer, position);
+    }
+
+    /**
+     * End of the last appended record.
+     */
+    public long position() {
+        return written;
+    }
+
+    /**
+     * End of the last record known to be on disk.
+     */
+    public long durablePosition() {
+        return durable;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncTimer != null) {
+            syncTimer.shutdownNow();
+        }
+        appendLock.lock();
+        try {
+            if (channel.isOpen()) {
+                try {
+                    if (failure == null) {
+                        channel.force(false);
+                    }
+                } finally {
+                    channel.close();
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.ledger.loadgen;
+
+import com.example.ledger.TinyLedgerApplication;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the HTTP API, with a capacity report.
+ *
+ * Requests are sent at a fixed arrival rate whether or not earlier ones have completed, as
+ * real clients do. Each request's latency runs from the time it was scheduled to be sent,
+ * not from when it was actually sent. A server that stalls then shows up in the percentiles
+ * instead of slowing the generator down (coordinated omission). Latencies go into
+ * HdrHistograms. Service time, from the actual send, is reported next to them.
+ *
+ * The rate steps up through {@code --rates}. For each step the report lists achieved
+ * throughput, counting only responses received within the step, p50/p99/p999/max latency,
+ * errors and dropped requests. The first step that
+ * misses the rate by more than 5%, exceeds the p99 target or drops requests is the
+ * saturation point. The highest rate before it is what the ledger sustains.
+ *
+ * It ships in the application jar and runs from it through the Spring Boot properties
+ * launcher, so it needs nothing but the jar on the load machine:
+ *
+ * <pre>
+ * java -Xmx2g -cp target/ledger-0.0.1-SNAPSHOT.jar -Dloader.main=com.example.ledger.loadgen.LoadGenerator \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher --rates=500,1000,2000,4000 --duration=20
+ * </pre>
+ *
+ * Options, with defaults:
+ * <ul>
+ *     <li>{@code --url=} base URL of a running ledger; empty starts one in this JVM, with
+ *     {@code --engine=LOCKING}</li>
+ *     <li>{@code --rates=250,500,1000,2000,4000,8000} requests per second per step, and
+ *     {@code --duration=20} seconds per step after {@code --warmup=10} seconds at the first rate</li>
+ *     <li>{@code --write-ratio=0.5} share of writes; the rest read the balance, or with
+ *     {@code --history-ratio=0.1} of them a page of 100 transactions</li>
+ *     <li>{@code --withdrawal-ratio=0.3} share of writes that withdraw, of which
+ *     {@code --reject-ratio=0.05} overdraw and are rejected with 400</li>
+ *     <li>{@code --accounts=1000}, {@code --p99=50} target in milliseconds,
+ *     {@code --max-in-flight=10000} beyond which requests are dropped, and
+ *     {@code --report=target/load-report.md}</li>
+ * </ul>
+ *
+ * Rejected withdrawals are expected and count as responses, not errors. Running the ledger in
+ * the same JVM shares its cores with the generator; point {@code --url} at another machine
+ * for numbers to plan capacity with.
+ */
+public class LoadGenerator {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final double RATE_TOLERANCE = 0.95;
+    private static final int HISTORY_PAGE = 100;
+    private static final int PRELOAD_BATCH = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String url = options.getOrDefault("url", "");
+        int[] rates = Arrays.stream(options.getOrDefault("rates", "250,500,1000,2000,4000,8000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Mix mix = new Mix(
+                Double.parseDouble(options.getOrDefault("write-ratio", "0.5")),
+                Double.parseDouble(options.getOrDefault("history-ratio", "0.1")),
+                Double.parseDouble(options.getOrDefault("withdrawal-ratio", "0.3")),
+                Double.parseDouble(options.getOrDefault("reject-ratio", "0.05")));
+        int accounts = Integer.parseInt(options.getOrDefault("accounts", "1000"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "20"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        double p99Target = Double.parseDouble(options.getOrDefault("p99", "50"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "10000"));
+        Path report = Path.of(options.getOrDefault("report", "target/load-report.md"));
+
+        ConfigurableApplicationContext context = null;
+        if (url.isEmpty()) {
+            // devtools is on the test classpath and would restart this main method
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            context = new SpringApplicationBuilder(TinyLedgerApplication.class)
+                    .properties(
+                            "server.port=0",
+                            "logging.level.root=WARN",
+                            "ledger.engine=" + options.getOrDefault("engine", "LOCKING"),
+                            "server.tomcat.max-connections=" + (maxInFlight + 1_000))
+                    .run();
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            Requests requests = new Requests(url + "/api/ledger/", accounts);
+            requests.preload(client);
+
+            Load load = new Load(client, requests, mix, maxInFlight);
+            load.run(rates[0], warmup);
+            List<Step> steps = new ArrayList<>();
+            int saturatedSteps = 0;
+            for (int rate : rates) {
+                Step step = load.run(rate, duration);
+                steps.add(step);
+                System.out.println(step.row(p99Target));
+                // One more step past saturation shows how quickly latency falls apart.
+                if (step.saturated(p99Target) && ++saturatedSteps == 2) {
+                    break;
+                }
+            }
+            String text = report(url, options, mix, p99Target, duration, steps);
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            Files.writeString(report, text);
+            System.out.println();
+            System.out.println(text);
+            System.out.println("Report written to " + report);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static String report(String url, Map<String, String> options, Mix mix, double p99Target,
+                                 int duration, List<Step> steps) {
+        StringBuilder text = new StringBuilder();
+        text.append("# Ledger capacity report\n\n");
+        text.append("- Target: ").append(url).append(options.containsKey("url") ? "" : " (in-process, engine "
+                + options.getOrDefault("engine", "LOCKING") + ", sharing "
+                + Runtime.getRuntime().availableProcessors() + " cores with the generator)").append('\n');
+        text.append("- Run: ").append(LocalDateTime.now().withNano(0)).append(", ").append(duration)
+                .append("s per step, open model, latency from the scheduled send time\n");
+        text.append(String.format("- Mix: %.0f%% writes (%.0f%% of them withdrawals, %.0f%% of those overdrawn), "
+                        + "%.0f%% reads (%.0f%% of them history pages)%n",
+                mix.writeRatio * 100, mix.withdrawalRatio * 100, mix.rejectRatio * 100,
+                (1 - mix.writeRatio) * 100, mix.historyRatio * 100));
+        text.append(String.format("- Saturation: achieved rate below %.0f%% of the target, p99 above %.0fms "
+                + "or dropped requests%n%n", RATE_TOLERANCE * 100, p99Target));
+        text.append("| Target req/s | Achieved req/s | Writes/s | p50 ms | p99 ms | p999 ms | Max ms "
+                + "| Service p99 ms | Rejected | Errors | Dropped | |\n");
+        text.append("|---:|---:|---:|---:|---:|---:|---:|---:|---:|---:|---:|---|\n");
+        Step sustained = null;
+        Step saturation = null;
+        for (Step step : steps) {
+            boolean saturated = step.saturated(p99Target);
+            text.append(String.format("| %,d | %,.0f | %,.0f | %.1f | %.1f | %.1f | %.1f | %.1f | %,d | %,d | %,d | %s |%n",
+                    step.rate, step.achieved(), step.achieved() * mix.writeRatio,
+                    millis(step.latency, 50), millis(step.latency, 99), millis(step.latency, 99.9),
+                    step.latency.getMaxValue() / 1e6, millis(step.service, 99),
+                    step.rejected, step.errors, step.dropped, saturated ? "saturated" : "ok"));
+            if (saturated && saturation == null) {
+                saturation = step;
+            } else if (!saturated && saturation == null) {
+                sustained = step;
+            }
+        }
+        text.append('\n');
+        if (sustained != null) {
+            text.append(String.format("Sustained: %,d req/s (about %,.0f writes/s) with p99 %.1fms.%n",
+                    sustained.rate, sustained.achieved() * mix.writeRatio, millis(sustained.latency, 99)));
+        } else {
+            text.append("Sustained: none of the steps; start lower.\n");
+        }
+        if (saturation != null) {
+            text.append(String.format("Saturation point: %,d req/s, achieved %,.0f with p99 %.1fms.%n",
+                    saturation.rate, saturation.achieved(), millis(saturation.latency, 99)));
+        } else {
+            text.append("Saturation point: not reached; add higher rates.\n");
+        }
+        return text.toString();
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private record Mix(double writeRatio, double historyRatio, double withdrawalRatio, double rejectRatio) {
+    }
+
+    /**
+     * @param completed responses received within the step's {@code seconds}; those the step
+     *                  waited for after it count in the latencies but not in the throughput
+     */
+    private record Step(int rate, int seconds, Histogram latency, Histogram service,
+                        long completed, long rejected, long errors, long dropped) {
+
+        double achieved() {
+            return (double) completed / seconds;
+        }
+
+        boolean saturated(double p99Target) {
+            return achieved() < rate * RATE_TOLERANCE || millis(latency, 99) > p99Target || dropped > 0;
+        }
+
+        String row(double p99Target) {
+            return String.format("%,7d req/s: achieved %,9.0f  p50 %8.1fms  p99 %8.1fms  p999 %8.1fms  "
+                            + "rejected %,d  errors %,d  dropped %,d%s",
+                    rate, achieved(), millis(latency, 50), millis(latency, 99), millis(latency, 99.9),
+                    rejected, errors, dropped, saturated(p99Target) ? "  saturated" : "");
+        }
+    }
+
+    /**
+     * Prebuilt requests, so the generator does not allocate them while sending.
+     */
+    private static final class Requests {
+        private final String base;
+        private final HttpRequest[] deposits;
+        private final HttpRequest[] withdrawals;
+        private final HttpRequest[] overdrafts;
+        private final HttpRequest[] balances;
+        private final HttpRequest[] histories;
+
+        Requests(String base, int accounts) {
+            this.base = base;
+            deposits = new HttpRequest[accounts];
+            withdrawals = new HttpRequest[accounts];
+            overdrafts = new HttpRequest[accounts];
+            balances = new HttpRequest[accounts];
+            histories = new HttpRequest[accounts];
+            for (int i = 0; i < accounts; i++) {
+                String account = base + "load-" + i;
+                deposits[i] = post(account + "/transaction", "{\"amount\": 10.00, \"type\": \"DEPOSIT\"}");
+                withdrawals[i] = post(account + "/transaction", "{\"amount\": 1.00, \"type\": \"WITHDRAWAL\"}");
+                overdrafts[i] = post(account + "/transaction", "{\"amount\": 1000000000.00, \"type\": \"WITHDRAWAL\"}");
+                balances[i] = HttpRequest.newBuilder(URI.create(account + "/balance")).build();
+                histories[i] = HttpRequest.newBuilder(URI.create(account + "/transactionHistory?limit=" + HISTORY_PAGE))
+                        .build();
+            }
+        }
+
+        /**
+         * Funds every account so that regular withdrawals never overdraw it.
+         */
+        void preload(HttpClient client) throws IOException, InterruptedException {
+            for (int from = 0; from < deposits.length; from += PRELOAD_BATCH) {
+                StringBuilder body = new StringBuilder("[");
+                for (int i = from; i < Math.min(deposits.length, from + PRELOAD_BATCH); i++) {
+                    body.append(i == from ? "" : ",")
+                            .append("{\"accountId\": \"load-").append(i).append("\", \"amount\": 1000000.00, \"type\": \"DEPOSIT\"}");
+                }
+                body.append(']');
+                HttpResponse<String> response = client.send(post(base + "transactions/batch", body.toString()),
+                        HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Preloading accounts failed: " + response.body());
+                }
+            }
+        }
+
+        private static HttpRequest post(String uri, String body) {
+            return HttpRequest.newBuilder(URI.create(uri))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+
+    private static final class Load {
+        private final HttpClient client;
+        private final Requests requests;
+        private final Mix mix;
+        private final int maxInFlight;
+
+        Load(HttpClient client, Requests requests, Mix mix, int maxInFlight) {
+            this.client = client;
+            this.requests = requests;
+            this.mix = mix;
+            this.maxInFlight = maxInFlight;
+        }
+
+        /**
+         * Sends {@code rate} requests per second for {@code seconds}, then waits for the
+         * responses. Requests still outstanding after {@link #MAX_LATENCY_NANOS} count as errors.
+         * In-flight requests are counted per step, so one a step gave up on neither counts
+         * against the next step's {@code maxInFlight} nor is taken off its count when it ends.
+         */
+        Step run(int rate, int seconds) throws InterruptedException {
+            Recorder latency = new Recorder(MAX_LATENCY_NANOS, 3);
+            Recorder service = new Recorder(MAX_LATENCY_NANOS, 3);
+            AtomicInteger inFlight = new AtomicInteger();
+            LongAdder completed = new LongAdder();
+            LongAdder rejected = new LongAdder();
+            LongAdder errors = new LongAdder();
+            long dropped = 0;
+            long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(seconds);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (long i = 0; ; i++) {
+                long scheduled = start + i * interval;
+                if (scheduled >= end) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (inFlight.get() >= maxInFlight) {
+                    dropped++;
+                    continue;
+                }
+                int account = random.nextInt(requests.deposits.length);
+                boolean overdraft = false;
+                HttpRequest request;
+                if (random.nextDouble() < mix.writeRatio) {
+                    if (random.nextDouble() < mix.withdrawalRatio) {
+                        overdraft = random.nextDouble() < mix.rejectRatio;
+                        request = overdraft ? requests.overdrafts[account] : requests.withdrawals[account];
+                    } else {
+                        request = requests.deposits[account];
+                    }
+                } else {
+                    request = random.nextDouble() < mix.historyRatio
+                            ? requests.histories[account]
+                            : requests.balances[account];
+                }
+                boolean expectRejection = overdraft;
+                long sent = System.nanoTime();
+                inFlight.incrementAndGet();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            long done = System.nanoTime();
+                            inFlight.decrementAndGet();
+                            int status = error == null ? response.statusCode() : -1;
+                            if (status == 200 || (status == 400 && expectRejection)) {
+                                latency.recordValue(Math.min(done - scheduled, MAX_LATENCY_NANOS));
+                                service.recordValue(Math.min(done - sent, MAX_LATENCY_NANOS));
+                                if (done <= end) {
+                                    completed.increment();
+                                }
+                                if (status == 400) {
+                                    rejected.increment();
+                                }
+                            } else {
+                                errors.increment();
+                            }
+                        });
+            }
+            long drainDeadline = System.nanoTime() + MAX_LATENCY_NANOS;
+            while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+                Thread.sleep(10);
+            }
+            errors.add(inFlight.get());
+            return new Step(rate, seconds, latency.getIntervalHistogram(), service.getIntervalHistogram(),
+                    completed.sum(), rejected.sum(), errors.sum(), dropped);
+        }
+    }
+}
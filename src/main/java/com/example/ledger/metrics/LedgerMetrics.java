@@ -0,0 +1,156 @@
+package com.example.ledger.metrics;
+
+import com.example.ledger.exception.BatchRejectedException;
+import com.example.ledger.exception.HoldNotFoundException;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.LedgerStatistics;
+import com.example.ledger.service.LockObserver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the ledger engine.
+ *
+ * Every timer is registered up front, one per tag combination, and looked up by index on
+ * the hot path, so recording a sample never builds tags or allocates. Operation timers
+ * publish a histogram from 1µs to 10s, from which Prometheus derives p50, p99 and p999
+ * ({@code histogram_quantile}); client-side percentiles would double the cost of a sample.
+ * The lock timers, updated twice per write, keep only count, total and max.
+ */
+public final class LedgerMetrics implements LockObserver {
+
+    /**
+     * How an operation ended.
+     */
+    public enum Outcome {
+        SUCCESS,
+        INSUFFICIENT_BALANCE,
+        REJECTED,
+        ERROR;
+
+        final String tag = name().toLowerCase();
+
+        static Outcome of(RuntimeException e) {
+            if (e instanceof InsufficientBalanceException) {
+                return INSUFFICIENT_BALANCE;
+            }
+            if (e instanceof IllegalArgumentException || e instanceof BatchRejectedException
+                    || e instanceof HoldNotFoundException) {
+                return REJECTED;
+            }
+            return ERROR;
+        }
+    }
+
+    /**
+     * Operations other than recording a single transaction.
+     */
+    public enum Operation {
+        BATCH,
+        BALANCE,
+        ACCOUNT_VIEW,
+        HISTORY,
+        FIND,
+        SUMMARY,
+        PLACE_HOLD,
+        RELEASE_HOLD,
+        AVAILABILITY;
+
+        final String tag = name().toLowerCase();
+    }
+
+    private static final Duration MINIMUM_EXPECTED = Duration.ofNanos(1_000);
+    private static final Duration MAXIMUM_EXPECTED = Duration.ofSeconds(10);
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final Timer[][] records;
+    private final Timer[][] operations;
+    private final Timer lockWait;
+    private final Timer lockHold;
+
+    public LedgerMetrics(MeterRegistry registry) {
+        // The extra row is for requests without a type, which are rejected.
+        records = new Timer[TYPES.length + 1][OUTCOMES.length];
+        for (int t = 0; t <= TYPES.length; t++) {
+            String type = t < TYPES.length ? TYPES[t].name().toLowerCase() : "none";
+            for (Outcome outcome : OUTCOMES) {
+                records[t][outcome.ordinal()] = timer("ledger.transactions.record", "Time to record a transaction")
+                        .tag("type", type)
+                        .tag("outcome", outcome.tag)
+                        .register(registry);
+            }
+        }
+        operations = new Timer[OPERATIONS.length][OUTCOMES.length];
+        for (Operation operation : OPERATIONS) {
+            for (Outcome outcome : OUTCOMES) {
+                operations[operation.ordinal()][outcome.ordinal()] = timer("ledger.operations", "Time of ledger operations")
+                        .tag("operation", operation.tag)
+                        .tag("outcome", outcome.tag)
+                        .register(registry);
+            }
+        }
+        lockWait = Timer.builder("ledger.lock.wait")
+                .description("Time writers waited for an account lock")
+                .register(registry);
+        lockHold = Timer.builder("ledger.lock.hold")
+                .description("Time writers held an account lock")
+                .register(registry);
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MINIMUM_EXPECTED)
+                .maximumExpectedValue(MAXIMUM_EXPECTED);
+    }
+
+    /**
+     * Publishes the engine's account and transaction counts and the heap used per
+     * transaction. They are computed when the registry is scraped.
+     */
+    public void bindStatistics(LedgerStatistics statistics, MeterRegistry registry) {
+        Gauge.builder("ledger.accounts", statistics, LedgerStatistics::accountCount)
+                .description("Accounts in the ledger")
+                .register(registry);
+        Gauge.builder("ledger.transactions", statistics, LedgerStatistics::transactionCount)
+                .description("Transactions held across all accounts")
+                .register(registry);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Gauge.builder("ledger.heap.bytes.per.transaction", statistics, s -> {
+                    long transactions = s.transactionCount();
+                    return transactions == 0 ? 0 : (double) memory.getHeapMemoryUsage().getUsed() / transactions;
+                })
+                .description("Used heap divided by the transactions held; an upper bound, as it includes everything else on the heap")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public void recorded(TransactionType type, Outcome outcome, long nanos) {
+        int row = type != null ? type.ordinal() : TYPES.length;
+        records[row][outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void completed(Operation operation, Outcome outcome, long nanos) {
+        operations[operation.ordinal()][outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void acquired(long waitNanos) {
+        lockWait.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void released(long holdNanos) {
+        lockHold.record(holdNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.ledger.metrics;
+
+import com.example.ledger.metrics.LedgerMetrics.Operation;
+import com.example.ledger.metrics.LedgerMetrics.Outcome;
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.Availability;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.BatchResult;
+import com.example.ledger.model.Granularity;
+import com.example.ledger.model.HistoryFilter;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Rollup;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.service.TransactionListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link LedgerService} that times every call to the engine it wraps, by transaction type
+ * and outcome. Timing takes two clock reads and one pre-registered timer update, with no
+ * allocation.
+ */
+public class MeteredLedgerService implements LedgerService {
+
+    private final LedgerService delegate;
+    private final LedgerMetrics metrics;
+
+    public MeteredLedgerService(LedgerService delegate, LedgerMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * The engine being timed.
+     */
+    public LedgerService getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Transaction recordTransaction(String accountId, BigDecimal amount, TransactionType type) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.recordTransaction(accountId, amount, type);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.recorded(type, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public BatchResult recordBatch(List<TransactionCommand> commands, BatchMode mode) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.recordBatch(commands, mode);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.completed(Operation.BATCH, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Timed from the call until the future completes.
+     */
+    @Override
+    public CompletableFuture<Transaction> recordTransactionAsync(String accountId, BigDecimal amount,
+                                                                 TransactionType type) {
+        long start = System.nanoTime();
+        try {
+            return delegate.recordTransactionAsync(accountId, amount, type).whenComplete((transaction, error) ->
+                    metrics.recorded(type, outcome(error), System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            metrics.recorded(type, Outcome.of(e), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<BatchResult> recordBatchAsync(List<TransactionCommand> commands, BatchMode mode) {
+        long start = System.nanoTime();
+        try {
+            return delegate.recordBatchAsync(commands, mode).whenComplete((result, error) ->
+                    metrics.completed(Operation.BATCH, outcome(error), System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            metrics.completed(Operation.BATCH, Outcome.of(e), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Hold placeHold(String accountId, BigDecimal amount, Duration ttl) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.placeHold(accountId, amount, ttl);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.completed(Operation.PLACE_HOLD, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Timed as a withdrawal.
+     */
+    @Override
+    public Transaction captureHold(String holdId, BigDecimal amount) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.captureHold(holdId, amount);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.recorded(TransactionType.WITHDRAWAL, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Hold releaseHold(String holdId) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.releaseHold(holdId);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.completed(Operation.RELEASE_HOLD, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Availability getAvailability(String accountId) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.getAvailability(accountId);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.completed(Operation.AVAILABILITY, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public BigDecimal getCurrentBalance(String accountId) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.getCurrentBalance(accountId);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.completed(Operation.BALANCE, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public AccountView getAccountView(String accountId) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.getAccountView(accountId);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.completed(Operation.ACCOUNT_VIEW, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long getVersion(String accountId) {
+        return delegate.getVersion(accountId);
+    }
+
+    @Override
+    public boolean awaitSequence(String accountId, long minSequence) {
+        return delegate.awaitSequence(accountId, minSequence);
+    }
+
+    @Override
+    public Optional<Transaction> findTransaction(String id) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.findTransaction(id);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.completed(Operation.FIND, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory(String accountId, long afterSequence, int limit,
+                                                   HistoryFilter filter) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.getTransactionHistory(accountId, afterSequence, limit, filter);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.completed(Operation.HISTORY, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Rollup> getSummary(String accountId, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return delegate.getSummary(accountId, granularity, from, to);
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            metrics.completed(Operation.SUMMARY, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void setTransactionListener(TransactionListener listener) {
+        delegate.setTransactionListener(listener);
+    }
+
+    private static Outcome outcome(Throwable error) {
+        if (error == null) {
+            return Outcome.SUCCESS;
+        }
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof RuntimeException e ? Outcome.of(e) : Outcome.ERROR;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ledger.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Immutable view of an account at one point in its history: the balance and the
+ * transactions both reflect exactly the first {@code sequence} transactions.
+ */
+public class AccountView {
+    private final String accountId;
+    private final long sequence;
+    private final BigDecimal balance;
+    private final List<Transaction> transactions;
+
+    public AccountView(String accountId, long sequence, BigDecimal balance, List<Transaction> transactions) {
+        this.accountId = accountId;
+        this.sequence = sequence;
+        this.balance = balance;
+        this.transactions = transactions;
+    }
+
+    public static AccountView empty(String accountId) {
+        return new AccountView(accountId, 0, BigDecimal.ZERO, List.of());
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Sequence of the last transaction included, 0 for an account without history.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+}
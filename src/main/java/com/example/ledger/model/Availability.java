@@ -0,0 +1,47 @@
+package com.example.ledger.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Ledger and available balance of an account at one point: the ledger balance counts every
+ * recorded transaction, the available balance leaves out what open holds reserve.
+ */
+public class Availability {
+    private final String accountId;
+    private final BigDecimal balance;
+    private final BigDecimal held;
+    private final int openHolds;
+
+    public Availability(String accountId, BigDecimal balance, BigDecimal held, int openHolds) {
+        this.accountId = accountId;
+        this.balance = balance;
+        this.held = held;
+        this.openHolds = openHolds;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Ledger balance.
+     */
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    /**
+     * Total of the open holds.
+     */
+    public BigDecimal getHeld() {
+        return held;
+    }
+
+    public BigDecimal getAvailable() {
+        return balance.subtract(held);
+    }
+
+    public int getOpenHolds() {
+        return openHolds;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ledger.model;
+
+/**
+ * How a batch handles items that cannot be recorded.
+ */
+public enum BatchMode {
+    /**
+     * Any invalid item rejects the whole batch and nothing is recorded.
+     */
+    ATOMIC,
+    /**
+     * Invalid items are reported and skipped; every other item is recorded.
+     */
+    BEST_EFFORT
+}
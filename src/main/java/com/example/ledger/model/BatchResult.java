@@ -0,0 +1,43 @@
+package com.example.ledger.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a recorded batch: one item per submitted command, in submission order, and
+ * the state of every account the batch touched right after it was applied.
+ */
+public class BatchResult {
+    private final List<Item> items;
+    private final List<AccountView> accounts;
+
+    public BatchResult(List<Item> items, List<AccountView> accounts) {
+        this.items = items;
+        this.accounts = accounts;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public List<AccountView> getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Either the recorded transaction or the reason the command was skipped.
+     */
+    public record Item(Transaction transaction, String error) {
+
+        public static Item applied(Transaction transaction) {
+            return new Item(transaction, null);
+        }
+
+        public static Item rejected(String error) {
+            return new Item(null, error);
+        }
+
+        public boolean isApplied() {
+            return transaction != null;
+        }
+    }
+}
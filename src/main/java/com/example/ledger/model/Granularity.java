@@ -0,0 +1,20 @@
+package com.example.ledger.model;
+
+/**
+ * Width of the time buckets of an account summary. Buckets are aligned on UTC.
+ */
+public enum Granularity {
+    MINUTE(60),
+    HOUR(60 * 60),
+    DAY(24 * 60 * 60);
+
+    private final long seconds;
+
+    Granularity(long seconds) {
+        this.seconds = seconds;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+}
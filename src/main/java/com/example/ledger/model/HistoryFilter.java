@@ -0,0 +1,18 @@
+package com.example.ledger.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Restricts a history read to transactions with {@code from <= timestamp < to} and of the
+ * given type. Any of the three may be null, meaning no restriction.
+ */
+public record HistoryFilter(LocalDateTime from, LocalDateTime to, TransactionType type) {
+
+    public static final HistoryFilter NONE = new HistoryFilter(null, null, null);
+
+    public boolean matches(Transaction transaction) {
+        return (from == null || !transaction.getTimestamp().isBefore(from))
+                && (to == null || transaction.getTimestamp().isBefore(to))
+                && (type == null || transaction.getType() == type);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ledger.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Funds of an account reserved until they are captured, released or the hold expires.
+ * While open, the amount is part of the ledger balance but not of the available balance.
+ */
+public class Hold {
+    private final String id;
+    private final String accountId;
+    private final BigDecimal amount;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime expiresAt;
+
+    public Hold(String id, String accountId, BigDecimal amount, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.id = id;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
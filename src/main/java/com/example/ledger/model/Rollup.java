@@ -0,0 +1,47 @@
+package com.example.ledger.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Activity of an account during one time bucket. Buckets without transactions have no rollup.
+ */
+public class Rollup {
+    private final LocalDateTime start;
+    private final int count;
+    private final BigDecimal deposits;
+    private final BigDecimal withdrawals;
+    private final BigDecimal closingBalance;
+
+    public Rollup(LocalDateTime start, int count, BigDecimal deposits, BigDecimal withdrawals,
+                  BigDecimal closingBalance) {
+        this.start = start;
+        this.count = count;
+        this.deposits = deposits;
+        this.withdrawals = withdrawals;
+        this.closingBalance = closingBalance;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public BigDecimal getDeposits() {
+        return deposits;
+    }
+
+    public BigDecimal getWithdrawals() {
+        return withdrawals;
+    }
+
+    /**
+     * Balance after the last transaction of the bucket.
+     */
+    public BigDecimal getClosingBalance() {
+        return closingBalance;
+    }
+}
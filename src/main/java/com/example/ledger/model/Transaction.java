@@ -6,21 +6,49 @@ import java.util.UUID;
 
 public class Transaction {
     private final String id;
+    private final String accountId;
+    private final long sequence;
     private final BigDecimal amount;
     private final TransactionType type;
     private final LocalDateTime timestamp;
 
-    public Transaction(BigDecimal amount, TransactionType type) {
-        this.id = UUID.randomUUID().toString();
+    public Transaction(String accountId, long sequence, BigDecimal amount, TransactionType type) {
+        this(accountId, sequence, amount, type, LocalDateTime.now());
+    }
+
+    public Transaction(String accountId, long sequence, BigDecimal amount, TransactionType type,
+                       LocalDateTime timestamp) {
+        this(UUID.randomUUID().toString(), accountId, sequence, amount, type, timestamp);
+    }
+
+    /**
+     * Rebuilds a transaction that was already recorded, e.g. when replaying the journal.
+     */
+    public Transaction(String id, String accountId, long sequence, BigDecimal amount, TransactionType type,
+                       LocalDateTime timestamp) {
+        this.id = id;
+        this.accountId = accountId;
+        this.sequence = sequence;
         this.amount = amount;
         this.type = type;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
     }
 
     public String getId() {
         return id;
     }
 
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Position of this transaction in its account's history, starting at 1.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
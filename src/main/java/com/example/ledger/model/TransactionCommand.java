@@ -0,0 +1,24 @@
+package com.example.ledger.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A deposit or withdrawal to record, as submitted in a batch.
+ *
+ * @param timestamp time the transaction originally happened, kept as is, e.g. when importing
+ *                  history; null to stamp it when it is recorded
+ * @param id        id to record the transaction under, a UUID or Snowflake id not yet in the
+ *                  ledger, e.g. the original id of imported history; null to issue a new one
+ */
+public record TransactionCommand(String accountId, BigDecimal amount, TransactionType type, LocalDateTime timestamp,
+                                 String id) {
+
+    public TransactionCommand(String accountId, BigDecimal amount, TransactionType type) {
+        this(accountId, amount, type, null, null);
+    }
+
+    public TransactionCommand(String accountId, BigDecimal amount, TransactionType type, LocalDateTime timestamp) {
+        this(accountId, amount, type, timestamp, null);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.ledger.replication;
+
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.service.ReplicaLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+/**
+ * Keeps a {@link ReplicaLedgerService} up to date with a {@link ReplicationLeader}.
+ *
+ * A single thread connects to the leader, decodes the journal records it ships and applies
+ * them in order. It remembers how far into the leader's journal it has applied and resumes
+ * from there after a lost connection, retrying every {@code reconnectDelay}. Should the
+ * shipped bytes ever fail to decode or apply, it starts over from the beginning of the
+ * journal; the replica skips what it already holds, once it has checked that the ids match.
+ *
+ * The follower stops for good, with a {@link #failure()}, when the replica cannot follow this
+ * leader: when the leader rejects its resume position as past the end of its journal, or
+ * when the log replayed from the beginning still does not apply, e.g. because the replica
+ * holds different transactions under the same sequences. A replica that diverged from its
+ * leader has to be rebuilt; it is not quietly kept serving reads.
+ */
+public class ReplicationFollower implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationFollower.class);
+
+    private static final int BUFFER_BYTES = 512 * 1024;
+
+    private final ReplicaLedgerService replica;
+    private final InetSocketAddress leader;
+    private final long reconnectDelayMillis;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private volatile Socket socket;
+    private volatile long position;
+    private volatile long leaderTransactions;
+    private volatile String failure;
+
+    public ReplicationFollower(ReplicaLedgerService replica, InetSocketAddress leader, Duration reconnectDelay) {
+        this.replica = replica;
+        this.leader = leader;
+        this.reconnectDelayMillis = reconnectDelay.toMillis();
+        this.thread = new Thread(this::run, "ledger-replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Offset in the leader's journal up to which transactions have been applied.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Transactions the leader held at its last status report.
+     */
+    public long leaderTransactions() {
+        return leaderTransactions;
+    }
+
+    /**
+     * Why this follower stopped following its leader, or null while it follows.
+     */
+    public String failure() {
+        return failure;
+    }
+
+    /**
+     * How many transactions this follower is behind the leader, as of the leader's last
+     * status report.
+     */
+    public long lag() {
+        return Math.max(0, leaderTransactions - replica.transactionCount());
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        ByteBuffer records = ByteBuffer.allocate(BUFFER_BYTES);
+        while (running) {
+            long from = position;
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(leader);
+                connection.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+                out.writeLong(position);
+                out.flush();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), BUFFER_BYTES));
+                connected = true;
+                log.info("Replicating from {} at journal position {}", leader, position);
+                records.clear();
+                while (running) {
+                    byte type = in.readByte();
+                    if (type == ReplicationProtocol.RECORDS) {
+                        records = receive(in, records);
+                    } else if (type == ReplicationProtocol.STATUS) {
+                        leaderTransactions = in.readLong();
+                        in.readLong();
+                    } else if (type == ReplicationProtocol.REJECTED) {
+                        fail("Leader " + leader + " rejected journal position " + position
+                                + ", past the end of its journal at " + in.readLong(), null);
+                    } else {
+                        throw new IOException("Unknown replication frame " + type);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Replication from {} interrupted: {}", leader, e.toString());
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                if (from == 0) {
+                    fail("Replicated journal from " + leader + " does not apply from its beginning", e);
+                } else {
+                    log.error("Replicated journal from {} does not apply, starting over", leader, e);
+                    position = 0;
+                }
+            } finally {
+                connected = false;
+            }
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void fail(String reason, Exception cause) {
+        log.error("Replication stopped: {}; this replica must be rebuilt", reason, cause);
+        failure = reason;
+        running = false;
+    }
+
+    /**
+     * Appends a frame's journal bytes to the pending ones and applies every complete record.
+     *
+     * @return the buffer holding what is left of a partial record
+     */
+    private ByteBuffer receive(DataInputStream in, ByteBuffer records) throws IOException {
+        int length = in.readInt();
+        if (records.remaining() < length) {
+            records = ByteBuffer.allocate(Math.max(records.capacity() * 2, records.position() + length))
+                    .put(records.flip());
+        }
+        in.readFully(records.array(), records.position(), length);
+        records.position(records.position() + length);
+        records.flip();
+        int start = records.position();
+        TransactionJournal.decodeRecords(records, replica::apply);
+        position += records.position() - start;
+        records.compact();
+        return records;
+    }
+}
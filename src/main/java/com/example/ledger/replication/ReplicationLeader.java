@@ -0,0 +1,158 @@
+package com.example.ledger.replication;
+
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.service.LedgerStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ships the leader's journal to followers over {@link ReplicationProtocol}.
+ *
+ * The journal already is the ordered log of every write, batches included, so followers are
+ * sent its bytes as they are: each follower gets a sender thread that reads the journal from
+ * the follower's resume position up to the durable position and writes what it read in one
+ * frame. Nothing is encoded or buffered per follower beyond one read buffer, and a follower
+ * that reconnects resumes where it left off. An idle sender polls the durable position with
+ * a backoff capped at {@value #MAX_IDLE_PARK_MICROS} microseconds.
+ */
+public class ReplicationLeader implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationLeader.class);
+
+    private static final int READ_BUFFER_BYTES = 256 * 1024;
+    private static final int MAX_IDLE_PARK_MICROS = 1_000;
+
+    private final TransactionJournal journal;
+    private final LedgerStatistics statistics;
+    private final long heartbeatNanos;
+    private final ServerSocket server;
+    private final Thread acceptor;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger senders = new AtomicInteger();
+    private volatile boolean running = true;
+
+    /**
+     * Binds to {@code address} and starts accepting followers.
+     *
+     * @param statistics the leader's engine, whose transaction count followers compare to theirs
+     * @param heartbeat  longest time between status frames
+     */
+    public ReplicationLeader(TransactionJournal journal, LedgerStatistics statistics, InetSocketAddress address,
+                             Duration heartbeat) throws IOException {
+        this.journal = journal;
+        this.statistics = statistics;
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.server = new ServerSocket();
+        server.bind(address);
+        this.acceptor = new Thread(this::accept, "ledger-replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Replication leader listening on port {}", getPort());
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Number of followers currently connected.
+     */
+    public int followerCount() {
+        return followers.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        server.close();
+        for (Socket follower : followers) {
+            follower.close();
+        }
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Thread sender = new Thread(() -> serve(socket), "ledger-replication-sender-" + senders.incrementAndGet());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Replication leader failed to accept a follower", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        followers.add(socket);
+        try (socket) {
+            long position = new DataInputStream(socket.getInputStream()).readLong();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(),
+                    READ_BUFFER_BYTES + Integer.BYTES + 1));
+            long end = journal.position();
+            if (position < 0 || position > end) {
+                log.warn("Follower {} asked to resume at {}, past the end of the journal at {}",
+                        socket.getRemoteSocketAddress(), position, end);
+                out.writeByte(ReplicationProtocol.REJECTED);
+                out.writeLong(end);
+                out.flush();
+                return;
+            }
+            log.info("Follower {} connected at journal position {}", socket.getRemoteSocketAddress(), position);
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            long lastStatus = 0;
+            long idleParkMicros = 0;
+            while (running) {
+                long durable = journal.durablePosition();
+                if (position < durable) {
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), durable - position));
+                    while (buffer.hasRemaining() && journal.read(position + buffer.position(), buffer) >= 0) {
+                        // read up to the durable position, which is on disk
+                    }
+                    out.writeByte(ReplicationProtocol.RECORDS);
+                    out.writeInt(buffer.position());
+                    out.write(buffer.array(), 0, buffer.position());
+                    position += buffer.position();
+                    idleParkMicros = 0;
+                }
+                long now = System.nanoTime();
+                if (now - lastStatus >= heartbeatNanos) {
+                    out.writeByte(ReplicationProtocol.STATUS);
+                    out.writeLong(statistics.transactionCount());
+                    out.writeLong(durable);
+                    lastStatus = now;
+                }
+                out.flush();
+                if (position >= journal.durablePosition()) {
+                    idleParkMicros = Math.min(MAX_IDLE_PARK_MICROS, Math.max(10, idleParkMicros * 2));
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(idleParkMicros));
+                }
+            }
+        } catch (SocketException e) {
+            log.info("Follower {} disconnected", socket.getRemoteSocketAddress());
+        } catch (IOException e) {
+            log.warn("Replication to follower {} failed", socket.getRemoteSocketAddress(), e);
+        } finally {
+            followers.remove(socket);
+        }
+    }
+}
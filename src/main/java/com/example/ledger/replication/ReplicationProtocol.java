@@ -0,0 +1,33 @@
+package com.example.ledger.replication;
+
+/**
+ * Stream protocol between a {@link ReplicationLeader} and its {@link ReplicationFollower}s,
+ * big-endian over a plain TCP connection.
+ *
+ * A follower opens with its resume position: the offset in the leader's journal up to which
+ * it has applied the log, 0 for a fresh follower. The leader then sends frames, each starting
+ * with a type byte:
+ * <pre>
+ * RECORDS  type u8 | length i32 | journal bytes (the next run of the journal)
+ * STATUS   type u8 | leader transaction count i64 | leader journal position i64
+ * REJECTED type u8 | leader journal position i64
+ * </pre>
+ * A record may be split across two RECORDS frames; the follower keeps the partial tail until
+ * the rest arrives.
+ * Records are shipped once durable on the leader, so a follower never holds a transaction the
+ * leader could lose in a crash. A status frame is sent at least every heartbeat interval and
+ * lets an idle follower report its lag.
+ *
+ * A resume position past the end of the leader's journal means the follower holds a log the
+ * leader does not, e.g. it followed another leader. The leader then sends a single REJECTED
+ * frame with its journal position instead, and closes the connection.
+ */
+public final class ReplicationProtocol {
+
+    public static final byte RECORDS = 1;
+    public static final byte STATUS = 2;
+    public static final byte REJECTED = 3;
+
+    private ReplicationProtocol() {
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.ledger.service;
+
+import com.example.ledger.audit.HistoryDigest;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.id.IdGenerator;
+import com.example.ledger.id.IdIndex;
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.Availability;
+import com.example.ledger.model.Balance;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.store.TransactionStore;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Balance and history of a single account.
+ *
+ * Writes are not thread-safe on their own: the owning service serializes them with
+ * {@link #lock()}. An explicit lock rather than the monitor, because a batch holds the locks
+ * of several accounts at once, taken in {@link #ORDER}. Reads are lock-free: after each write
+ * the account publishes an immutable {@link State} (balance, history size and held amount),
+ * and readers build their view from it.
+ *
+ * Open holds reserve part of the balance: withdrawals and new holds are checked against the
+ * balance less the held amount, while the balance itself only moves when a hold is captured.
+ */
+final class Account {
+
+    /**
+     * Order in which the locks of several accounts are taken, so that batches cannot deadlock.
+     */
+    static final Comparator<Account> ORDER = Comparator.comparing(Account::getId);
+
+    private static final State EMPTY = new State(BigDecimal.ZERO, 0, BigDecimal.ZERO, 0);
+
+    private final String id;
+    private final Balance balance = new Balance();
+    private final TransactionStore transactions;
+    private final IdGenerator ids;
+    private final IdIndex<Account> index;
+    private final Rollups rollups = new Rollups();
+    private final HistoryDigest digest;
+    private LocalDateTime lastTimestamp = LocalDateTime.MIN;
+    private Map<String, OpenHold> holds;
+    private BigDecimal held = BigDecimal.ZERO;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lockedAt;
+    private volatile State state = EMPTY;
+
+    /**
+     * @param ids issues the ids of new transactions
+     * @param index id index shared by all accounts, updated as transactions are applied
+     */
+    Account(String id, TransactionStore transactions, IdGenerator ids, IdIndex<Account> index) {
+        this.id = id;
+        this.transactions = transactions;
+        this.ids = ids;
+        this.index = index;
+        this.digest = new HistoryDigest(id);
+    }
+
+    /**
+     * Checks the balance and builds the next transaction without changing any state,
+     * so it can be journaled before it is applied.
+     */
+    Transaction prepare(BigDecimal amount, TransactionType type) {
+        return prepare(amount, type, balance.getAmount(), transactions.size(), lastTimestamp, null, null);
+    }
+
+    /**
+     * Same as {@link #prepare(BigDecimal, TransactionType)} for a transaction that will be
+     * applied after others already prepared: {@code balanceBefore}, {@code sequenceBefore} and
+     * {@code timestampBefore} are the balance, last sequence and last timestamp once those are
+     * applied. A given {@code timestamp} is kept, and must not be before {@code timestampBefore};
+     * when null the transaction is stamped now. A given {@code transactionId} is kept as well;
+     * when null a new one is issued.
+     */
+    Transaction prepare(BigDecimal amount, TransactionType type, BigDecimal balanceBefore, long sequenceBefore,
+                        LocalDateTime timestampBefore, LocalDateTime timestamp, String transactionId) {
+        if (type == TransactionType.WITHDRAWAL && amount.compareTo(balanceBefore.subtract(held)) > 0) {
+            throw new InsufficientBalanceException(InsufficientBalanceException.WITHDRAWAL);
+        }
+
+        // Keep timestamps in history order even if the clock steps back; range reads rely on it.
+        if (timestamp == null) {
+            LocalDateTime now = LocalDateTime.now();
+            timestamp = now.isBefore(timestampBefore) ? timestampBefore : now;
+        } else if (timestamp.isBefore(timestampBefore)) {
+            throw new IllegalArgumentException("Timestamp " + timestamp + " is before the account's last transaction at "
+                    + timestampBefore + ".");
+        }
+        return new Transaction(transactionId != null ? transactionId : ids.next(), id, sequenceBefore + 1,
+                transactions.normalize(amount), type, timestamp);
+    }
+
+    LocalDateTime lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Appends an already validated transaction to the history and moves the balance.
+     */
+    void apply(Transaction transaction) {
+        transactions.append(transaction);
+
+        if (transaction.getType() == TransactionType.DEPOSIT) {
+            balance.deposit(transaction.getAmount());
+        } else if (transaction.getType() == TransactionType.WITHDRAWAL) {
+            balance.withdraw(transaction.getAmount());
+        }
+
+        int position = transactions.size() - 1;
+        index.put(transaction.getId(), this, position);
+        rollups.add(transaction, position, balance.getAmount());
+        digest.append(transaction);
+        lastTimestamp = transaction.getTimestamp();
+        publish();
+    }
+
+    /**
+     * Builds a hold reserving {@code amount} of the available balance for {@code ttl},
+     * checked against the balance less what is already held; like {@link #prepare}, it
+     * changes nothing.
+     */
+    Hold prepareHold(String holdId, BigDecimal amount, Duration ttl) {
+        BigDecimal normalized = transactions.normalize(amount);
+        if (normalized.compareTo(balance.getAmount().subtract(held)) > 0) {
+            throw new InsufficientBalanceException("Insufficient available balance for hold.");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return new Hold(holdId, id, normalized, now, now.plus(ttl));
+    }
+
+    /**
+     * Opens a hold, built by {@link #prepareHold} or restored, and schedules its expiry at
+     * {@code deadlineNanos} ({@link System#nanoTime()} scale) on {@code expiry}.
+     */
+    void hold(Hold hold, long deadlineNanos, TimingWheel<String> expiry) {
+        if (holds == null) {
+            holds = new HashMap<>();
+        }
+        holds.put(hold.getId(), new OpenHold(hold, expiry.schedule(hold.getId(), deadlineNanos)));
+        held = held.add(hold.getAmount());
+        publish();
+    }
+
+    /**
+     * The open hold with the given id, or null.
+     */
+    OpenHold openHold(String holdId) {
+        return holds != null ? holds.get(holdId) : null;
+    }
+
+    /**
+     * The open holds; call with the lock held.
+     */
+    List<Hold> openHolds() {
+        if (holds == null) {
+            return List.of();
+        }
+        List<Hold> open = new ArrayList<>(holds.size());
+        for (OpenHold hold : holds.values()) {
+            open.add(hold.hold());
+        }
+        return open;
+    }
+
+    /**
+     * Builds the withdrawal capturing {@code amount} of an open hold, checked as if the hold
+     * were already released; like {@link #prepare}, it changes nothing.
+     */
+    Transaction prepareCapture(OpenHold hold, BigDecimal amount) {
+        if (transactions.normalize(amount).compareTo(hold.hold().getAmount()) > 0) {
+            throw new IllegalArgumentException("Capture amount exceeds the hold.");
+        }
+        return prepare(amount, TransactionType.WITHDRAWAL, balance.getAmount().add(hold.hold().getAmount()),
+                transactions.size(), lastTimestamp, null, null);
+    }
+
+    /**
+     * Closes a hold, returning its amount to the available balance, and cancels its expiry.
+     */
+    void releaseHold(OpenHold hold, TimingWheel<String> expiry) {
+        unhold(hold, expiry);
+        publish();
+    }
+
+    /**
+     * Closes a hold and applies the withdrawal capturing it, built by {@link #prepareCapture},
+     * publishing both at once so that no reader sees the hold released but not yet withdrawn.
+     */
+    void capture(OpenHold hold, Transaction transaction, TimingWheel<String> expiry) {
+        unhold(hold, expiry);
+        apply(transaction);
+    }
+
+    private void unhold(OpenHold hold, TimingWheel<String> expiry) {
+        expiry.cancel(hold.expiry());
+        holds.remove(hold.hold().getId());
+        held = held.subtract(hold.hold().getAmount());
+    }
+
+    private void publish() {
+        state = new State(balance.getAmount(), transactions.size(), held, holds != null ? holds.size() : 0);
+    }
+
+    /**
+     * Balance as of the last published write; safe to call without the lock.
+     */
+    BigDecimal currentBalance() {
+        return state.balance();
+    }
+
+    /**
+     * Balance and holds as of the last published write; safe to call without the lock.
+     */
+    Availability availability() {
+        State current = state;
+        return new Availability(id, current.balance(), current.held(), current.openHolds());
+    }
+
+    /**
+     * Number of transactions as of the last published write; safe to call without the lock.
+     */
+    long version() {
+        return state.size();
+    }
+
+    /**
+     * Balance and history as of the last published write; safe to call without the lock.
+     */
+    AccountView view() {
+        State current = state;
+        return new AccountView(id, current.size(), current.balance(), transactions.view(current.size()));
+    }
+
+    /**
+     * Applies a transaction that was recorded before. Transactions the account already
+     * holds are skipped once their ids are checked to match; a different id, or a gap in the
+     * sequence, means the source is inconsistent.
+     *
+     * @throws IllegalStateException if the source is inconsistent with the history
+     *
+     * @return whether the transaction was applied
+     */
+    boolean restore(Transaction transaction) {
+        long expected = transactions.size() + 1L;
+        if (transaction.getSequence() < expected) {
+            String held = transactions.view(transactions.size()).get((int) (transaction.getSequence() - 1)).getId();
+            if (!held.equals(transaction.getId())) {
+                throw new IllegalStateException("Transaction " + transaction.getSequence() + " of account " + id
+                        + " is " + held + ", not " + transaction.getId());
+            }
+            return false;
+        }
+        if (transaction.getSequence() > expected) {
+            throw new IllegalStateException("Missing transactions before sequence " + transaction.getSequence()
+                    + " of account " + id);
+        }
+        apply(transaction);
+        return true;
+    }
+
+    /**
+     * Rollups and time index of the history; safe to read without the lock.
+     */
+    Rollups rollups() {
+        return rollups;
+    }
+
+    /**
+     * Digests of the history as of the last applied transaction; call with the lock held.
+     */
+    HistoryDigest.Snapshot digests() {
+        return digest.snapshot();
+    }
+
+    /**
+     * Sequence of the last applied transaction; call with the lock held.
+     */
+    long lastSequence() {
+        return transactions.size();
+    }
+
+    /**
+     * Lock serializing writes to this account.
+     */
+    ReentrantLock lock() {
+        return lock;
+    }
+
+    /**
+     * Takes {@link #lock()} and tells {@code observer} how long that took; {@link #unlock}
+     * then tells it how long the lock was held.
+     */
+    void lock(LockObserver observer) {
+        if (observer == LockObserver.NONE) {
+            lock.lock();
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        lockedAt = System.nanoTime();
+        observer.acquired(lockedAt - start);
+    }
+
+    void unlock(LockObserver observer) {
+        if (observer != LockObserver.NONE) {
+            observer.released(System.nanoTime() - lockedAt);
+        }
+        lock.unlock();
+    }
+
+    /**
+     * Number of transactions published to readers.
+     */
+    int size() {
+        return state.size();
+    }
+
+    String getId() {
+        return id;
+    }
+
+    private record State(BigDecimal balance, int size, BigDecimal held, int openHolds) {
+    }
+
+    /**
+     * An open hold and its pending expiry.
+     */
+    record OpenHold(Hold hold, TimingWheel.Timeout<String> expiry) {
+    }
+
+    static void requireValid(String accountId, BigDecimal amount) {
+        if (accountId == null || accountId.isBlank()) {
+            throw new IllegalArgumentException("Account id is required.");
+        }
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than zero.");
+        }
+    }
+
+    static void requireValid(String accountId) {
+        if (accountId == null || accountId.isBlank()) {
+            throw new IllegalArgumentException("Account id is required.");
+        }
+    }
+}
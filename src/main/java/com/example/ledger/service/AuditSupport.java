@@ -0,0 +1,23 @@
+package com.example.ledger.service;
+
+import com.example.ledger.audit.AuditSnapshot;
+
+import java.util.List;
+
+/**
+ * Implemented by engines that keep a {@link com.example.ledger.audit.HistoryDigest} of every
+ * account's history.
+ */
+public interface AuditSupport {
+
+    /**
+     * Ids of every account, in no particular order.
+     */
+    List<String> accountIds();
+
+    /**
+     * Balance, history and digests of an account, consistent with each other. Holds the
+     * account's write lock only to copy the digests; empty for an account that does not exist.
+     */
+    AuditSnapshot auditSnapshot(String accountId);
+}
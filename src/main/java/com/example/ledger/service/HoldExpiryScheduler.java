@@ -0,0 +1,44 @@
+package com.example.ledger.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases expired holds on a background thread at a fixed interval. One task serves every
+ * hold, however many are open; each run only touches the holds that expired since the last.
+ */
+public class HoldExpiryScheduler implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+
+    private final ScheduledExecutorService executor;
+
+    public HoldExpiryScheduler(HoldSupport ledger, Duration interval) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                int released = ledger.expireHolds(System.nanoTime());
+                if (released > 0) {
+                    log.debug("Released {} expired holds", released);
+                }
+            } catch (RuntimeException e) {
+                log.error("Hold expiry failed", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
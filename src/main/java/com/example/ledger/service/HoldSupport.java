@@ -0,0 +1,20 @@
+package com.example.ledger.service;
+
+/**
+ * Implemented by engines that keep holds on their accounts' balances.
+ */
+public interface HoldSupport {
+
+    /**
+     * Releases, in the calling thread, every hold whose expiry has passed at {@code nowNanos}
+     * ({@link System#nanoTime()} scale).
+     *
+     * @return number of holds released
+     */
+    int expireHolds(long nowNanos);
+
+    /**
+     * Number of holds currently open.
+     */
+    int openHolds();
+}
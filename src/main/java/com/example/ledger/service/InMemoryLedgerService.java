@@ -1,52 +1,239 @@
 package com.example.ledger.service;
 
-import com.example.ledger.exception.InsufficientBalanceException;
-import com.example.ledger.model.Balance;
+import com.example.ledger.audit.AuditSnapshot;
+import com.example.ledger.id.IdGenerator;
+import com.example.ledger.id.UuidIdGenerator;
+import com.example.ledger.journal.SnapshotStore;
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.Availability;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.BatchResult;
+import com.example.ledger.model.Granularity;
+import com.example.ledger.model.HistoryFilter;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Rollup;
 import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
 import com.example.ledger.model.TransactionType;
-import org.springframework.stereotype.Service;
+import com.example.ledger.store.TransactionStore;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
-@Service
-public class InMemoryLedgerService implements LedgerService{
+/**
+ * Keeps every account in memory and serializes access per account, so writes to
+ * different accounts never wait on each other.
+ *
+ * When a {@link TransactionJournal} is given, the accounts are rebuilt from it on
+ * construction and every transaction, and every hold placed or closed, is journaled before
+ * it is applied. With a {@link SnapshotStore} as well, recovery starts from the newest
+ * snapshot and only replays the journal after it.
+ *
+ * A write is applied before its fsync completes. If the fsync fails, the journal fails
+ * stop: the write is reported as failed and every later write is rejected, so a retry cannot
+ * record it a second time; a restart recovers whatever reached the disk.
+ */
+public class InMemoryLedgerService implements LedgerService, LedgerStatistics, SnapshotSupport, AuditSupport,
+        HoldSupport {
 
-    private final List<Transaction> transactions = new ArrayList<>();
-    private final Balance balance = new Balance();
+    private final Accounts accounts;
+    private final TransactionJournal journal;
+    private final SnapshotStore snapshots;
+
+    public InMemoryLedgerService() {
+        this(null);
+    }
+
+    public InMemoryLedgerService(TransactionJournal journal) {
+        this(journal, null);
+    }
+
+    public InMemoryLedgerService(TransactionJournal journal, SnapshotStore snapshots) {
+        this(Accounts.HEAP_STORES, journal, snapshots);
+    }
+
+    public InMemoryLedgerService(Function<String, TransactionStore> stores, TransactionJournal journal,
+                                 SnapshotStore snapshots) {
+        this(stores, new UuidIdGenerator(), journal, snapshots);
+    }
+
+    public InMemoryLedgerService(Function<String, TransactionStore> stores, IdGenerator ids,
+                                 TransactionJournal journal, SnapshotStore snapshots) {
+        this(stores, ids, journal, snapshots, LockObserver.NONE);
+    }
+
+    /**
+     * @param stores creates the history store of each new account from its id
+     * @param ids issues the ids of new transactions
+     * @param lockObserver told the wait and hold times of account locks
+     */
+    public InMemoryLedgerService(Function<String, TransactionStore> stores, IdGenerator ids,
+                                 TransactionJournal journal, SnapshotStore snapshots, LockObserver lockObserver) {
+        if (snapshots != null && journal == null) {
+            throw new IllegalArgumentException("Snapshots require a journal.");
+        }
+        this.accounts = new Accounts(stores, ids, lockObserver);
+        this.journal = journal;
+        this.snapshots = snapshots;
+        if (journal != null) {
+            accounts.recover(journal, snapshots);
+        }
+    }
 
     @Override
-    public synchronized Transaction recordTransaction(BigDecimal amount, TransactionType type) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Amount must be greater than zero.");
+    public Transaction recordTransaction(String accountId, BigDecimal amount, TransactionType type) {
+        Account.requireValid(accountId, amount);
+
+        Account account = accounts.getOrCreate(accountId);
+        Transaction transaction;
+        BigDecimal balance;
+        long journalPosition = 0;
+        accounts.lock(account);
+        try {
+            transaction = account.prepare(amount, type);
+            if (journal != null) {
+                journalPosition = journal.append(transaction);
+            }
+            account.apply(transaction);
+            balance = account.currentBalance();
+        } finally {
+            accounts.unlock(account);
         }
 
-        if (type == TransactionType.WITHDRAWAL && amount.compareTo(balance.getAmount()) > 0) {
-            throw new InsufficientBalanceException("Insufficient balance for withdrawal.");
+        // Wait for the fsync outside the account lock, so that one fsync can cover
+        // the writes other threads journaled in the meantime.
+        if (journal != null) {
+            journal.awaitDurable(journalPosition);
         }
+        accounts.committed(transaction, balance);
+        return transaction;
+    }
 
-        Transaction transaction = new Transaction(amount, type);
+    @Override
+    public BatchResult recordBatch(List<TransactionCommand> commands, BatchMode mode) {
+        Accounts.RecordedBatch batch = accounts.recordBatch(commands, mode, journal);
+        if (batch.journalPosition() > 0) {
+            journal.awaitDurable(batch.journalPosition());
+        }
+        accounts.committed(batch);
+        return batch.result();
+    }
 
-        transactions.add(transaction);
+    @Override
+    public Hold placeHold(String accountId, BigDecimal amount, Duration ttl) {
+        Accounts.HoldUpdate placed = accounts.placeHold(accountId, amount, ttl, journal);
+        if (placed.journalPosition() > 0) {
+            journal.awaitDurable(placed.journalPosition());
+        }
+        return placed.hold();
+    }
 
-        if (type == TransactionType.DEPOSIT) {
-            balance.deposit(amount);
-        } else if (type == TransactionType.WITHDRAWAL) {
-            balance.withdraw(amount);
+    @Override
+    public Transaction captureHold(String holdId, BigDecimal amount) {
+        Accounts.CapturedHold captured = accounts.captureHold(holdId, amount, journal);
+        if (captured.journalPosition() > 0) {
+            journal.awaitDurable(captured.journalPosition());
         }
+        accounts.committed(captured.transaction(), captured.balance());
+        return captured.transaction();
+    }
 
-        return transaction;
+    @Override
+    public Hold releaseHold(String holdId) {
+        Accounts.HoldUpdate released = accounts.releaseHold(holdId, journal);
+        if (released.journalPosition() > 0) {
+            journal.awaitDurable(released.journalPosition());
+        }
+        return released.hold();
+    }
+
+    @Override
+    public Availability getAvailability(String accountId) {
+        return accounts.availability(accountId);
     }
 
     @Override
-    public synchronized BigDecimal getCurrentBalance() {
-        return balance.getAmount();
+    public BigDecimal getCurrentBalance(String accountId) {
+        return accounts.currentBalance(accountId);
     }
 
     @Override
-    public synchronized List<Transaction> getTransactionHistory() {
-        return Collections.unmodifiableList(transactions);
+    public AccountView getAccountView(String accountId) {
+        return accounts.view(accountId);
+    }
+
+    @Override
+    public long getVersion(String accountId) {
+        return accounts.version(accountId);
+    }
+
+    @Override
+    public Optional<Transaction> findTransaction(String id) {
+        return accounts.find(id);
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory(String accountId, long afterSequence, int limit,
+                                                   HistoryFilter filter) {
+        return accounts.history(accountId, afterSequence, limit, filter);
+    }
+
+    @Override
+    public List<Rollup> getSummary(String accountId, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        return accounts.summary(accountId, granularity, from, to);
+    }
+
+    @Override
+    public void setTransactionListener(TransactionListener listener) {
+        accounts.setListener(listener);
+    }
+
+    @Override
+    public int accountCount() {
+        return accounts.size();
+    }
+
+    @Override
+    public long transactionCount() {
+        return accounts.transactionCount();
+    }
+
+    @Override
+    public List<String> accountIds() {
+        return accounts.ids();
+    }
+
+    @Override
+    public AuditSnapshot auditSnapshot(String accountId) {
+        return accounts.audit(accountId);
+    }
+
+    @Override
+    public int expireHolds(long nowNanos) {
+        return accounts.expireHolds(nowNanos, journal);
+    }
+
+    @Override
+    public int openHolds() {
+        return accounts.openHolds();
+    }
+
+    @Override
+    public long writeSnapshot() {
+        if (snapshots == null) {
+            throw new IllegalStateException("Snapshots are not configured.");
+        }
+        try {
+            return accounts.writeSnapshot(journal, snapshots);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot", e);
+        }
     }
 }
@@ -1,13 +1,163 @@
 package com.example.ledger.service;
 
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.Availability;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.BatchResult;
+import com.example.ledger.model.Granularity;
+import com.example.ledger.model.HistoryFilter;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Rollup;
 import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
 import com.example.ledger.model.TransactionType;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface LedgerService {
-    Transaction recordTransaction(BigDecimal amount, TransactionType type);
-    BigDecimal getCurrentBalance();
-    List<Transaction> getTransactionHistory();
+
+    /**
+     * Account used by the endpoints and callers that do not name an account.
+     */
+    String DEFAULT_ACCOUNT = "default";
+
+    Transaction recordTransaction(String accountId, BigDecimal amount, TransactionType type);
+    BigDecimal getCurrentBalance(String accountId);
+
+    /**
+     * Records the commands as one unit: no other write to the accounts involved lands in
+     * between, and the whole batch is made durable together.
+     *
+     * @throws com.example.ledger.exception.BatchRejectedException if {@code mode} is
+     *         {@link BatchMode#ATOMIC} and a command cannot be recorded; nothing is recorded then
+     */
+    BatchResult recordBatch(List<TransactionCommand> commands, BatchMode mode);
+
+    /**
+     * Same as {@link #recordTransaction(String, BigDecimal, TransactionType)}, completing the
+     * future once the transaction is committed. The default records on the calling thread; an
+     * engine that commits on a thread of its own returns right away. An invalid request may
+     * throw or fail the future.
+     */
+    default CompletableFuture<Transaction> recordTransactionAsync(String accountId, BigDecimal amount,
+                                                                  TransactionType type) {
+        return CompletableFuture.completedFuture(recordTransaction(accountId, amount, type));
+    }
+
+    /**
+     * Same as {@link #recordBatch}, completing the future once the batch is committed.
+     */
+    default CompletableFuture<BatchResult> recordBatchAsync(List<TransactionCommand> commands, BatchMode mode) {
+        return CompletableFuture.completedFuture(recordBatch(commands, mode));
+    }
+
+    /**
+     * Balance and history of the account at one point in time. Reading it never blocks
+     * writers, and the view does not change afterwards.
+     */
+    AccountView getAccountView(String accountId);
+
+    /**
+     * Version of the account: the number of transactions it holds, which only grows. Every
+     * read of the account (balance, history, summaries) is the same for the same version, so
+     * callers can use it to tell whether anything changed. Engines read it without building
+     * a view.
+     */
+    default long getVersion(String accountId) {
+        return getAccountView(accountId).getSequence();
+    }
+
+    /**
+     * Whether the account has reached {@code minSequence}, for reads that must see a write
+     * acknowledged by another node. The default only checks, since an engine that takes
+     * writes already holds every transaction it acknowledged; a follower waits a while for
+     * replication to catch up.
+     */
+    default boolean awaitSequence(String accountId, long minSequence) {
+        return getAccountView(accountId).getSequence() >= minSequence;
+    }
+
+    /**
+     * Looks a transaction of any account up by its id.
+     */
+    Optional<Transaction> findTransaction(String id);
+
+    /**
+     * Immutable history of the account as of the time of the call.
+     */
+    default List<Transaction> getTransactionHistory(String accountId) {
+        return getAccountView(accountId).getTransactions();
+    }
+
+    /**
+     * Up to {@code limit} transactions of the account that come after {@code afterSequence},
+     * as a view over the history rather than a copy.
+     */
+    default List<Transaction> getTransactionHistory(String accountId, long afterSequence, int limit) {
+        return getTransactionHistory(accountId, afterSequence, limit, HistoryFilter.NONE);
+    }
+
+    /**
+     * Same as {@link #getTransactionHistory(String, long, int)}, keeping only transactions that
+     * pass {@code filter}. A time range is found without scanning the history.
+     */
+    List<Transaction> getTransactionHistory(String accountId, long afterSequence, int limit, HistoryFilter filter);
+
+    /**
+     * Per-bucket activity of the account for buckets starting in {@code [from, to)}, from
+     * rollups kept up to date on every write. Null bounds are open.
+     */
+    List<Rollup> getSummary(String accountId, Granularity granularity, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Reserves {@code amount} of the account's available balance until the hold is captured,
+     * released, or expires after {@code ttl}. Holds are not transactions: they leave the
+     * balance, history and version of the account as they are.
+     *
+     * @throws com.example.ledger.exception.InsufficientBalanceException if the available
+     *         balance is short of {@code amount}
+     */
+    Hold placeHold(String accountId, BigDecimal amount, Duration ttl);
+
+    /**
+     * Withdraws {@code amount} of an open hold, or all of it when null, and closes the hold;
+     * what is not captured becomes available again. The withdrawal is committed like any other.
+     *
+     * @throws com.example.ledger.exception.HoldNotFoundException if the hold is not open
+     */
+    Transaction captureHold(String holdId, BigDecimal amount);
+
+    /**
+     * Closes an open hold without moving any funds.
+     *
+     * @throws com.example.ledger.exception.HoldNotFoundException if the hold is not open
+     */
+    Hold releaseHold(String holdId);
+
+    /**
+     * Balance of the account, the amount under open holds and what is left to withdraw.
+     */
+    Availability getAvailability(String accountId);
+
+    /**
+     * Registers the listener told about every committed transaction, replacing the previous one.
+     */
+    void setTransactionListener(TransactionListener listener);
+
+    default Transaction recordTransaction(BigDecimal amount, TransactionType type) {
+        return recordTransaction(DEFAULT_ACCOUNT, amount, type);
+    }
+
+    default BigDecimal getCurrentBalance() {
+        return getCurrentBalance(DEFAULT_ACCOUNT);
+    }
+
+    default List<Transaction> getTransactionHistory() {
+        return getTransactionHistory(DEFAULT_ACCOUNT);
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.ledger.service;
+
+/**
+ * Size of an engine's ledger, read without taking any lock.
+ */
+public interface LedgerStatistics {
+
+    int accountCount();
+
+    /**
+     * Transactions held across all accounts.
+     */
+    long transactionCount();
+}
@@ -0,0 +1,27 @@
+package com.example.ledger.service;
+
+/**
+ * Told how long writers waited for an account lock and how long they held it.
+ *
+ * Called on the write path with the lock held or about to be released, so implementations
+ * must be cheap and must not allocate.
+ */
+public interface LockObserver {
+
+    /**
+     * Observer that is never called; with it the engines skip reading the clock.
+     */
+    LockObserver NONE = new LockObserver() {
+        @Override
+        public void acquired(long waitNanos) {
+        }
+
+        @Override
+        public void released(long holdNanos) {
+        }
+    };
+
+    void acquired(long waitNanos);
+
+    void released(long holdNanos);
+}
@@ -0,0 +1,209 @@
+package com.example.ledger.service;
+
+import com.example.ledger.audit.AuditSnapshot;
+import com.example.ledger.exception.ReadOnlyReplicaException;
+import com.example.ledger.id.UuidIdGenerator;
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.Availability;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.BatchResult;
+import com.example.ledger.model.Granularity;
+import com.example.ledger.model.HistoryFilter;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Rollup;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.store.TransactionStore;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Read-only ledger of a follower, holding the transactions replicated from the leader.
+ *
+ * Replicated transactions come in through {@link #apply(Transaction)} on a single thread, in
+ * the leader's journal order, and reads are served from the same lock-free views as on the
+ * leader. Writes are rejected. {@link #awaitSequence} waits up to {@code readWait} for an
+ * account to catch up, so a client that passes the sequence of its own write reads it back.
+ */
+public class ReplicaLedgerService implements LedgerService, LedgerStatistics, AuditSupport, HoldSupport {
+
+    private final Accounts accounts;
+    private final long readWaitNanos;
+    // Explicit lock rather than a monitor: readers wait on it, possibly from virtual threads.
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition applied = waitLock.newCondition();
+    private volatile int waiters;
+    private volatile long appliedCount;
+
+    public ReplicaLedgerService(Duration readWait) {
+        this(Accounts.HEAP_STORES, readWait);
+    }
+
+    /**
+     * @param stores creates the history store of each new account from its id
+     * @param readWait how long {@link #awaitSequence} waits for an account to catch up
+     */
+    public ReplicaLedgerService(Function<String, TransactionStore> stores, Duration readWait) {
+        this.accounts = new Accounts(stores, new UuidIdGenerator(), LockObserver.NONE);
+        this.readWaitNanos = readWait.toNanos();
+    }
+
+    /**
+     * Applies a replicated transaction and tells the listener about it. Transactions already
+     * held are skipped, so a follower may be sent a stretch of the log again.
+     */
+    public void apply(Transaction transaction) {
+        if (!accounts.restore(transaction)) {
+            return;
+        }
+        appliedCount++;
+        accounts.committed(transaction, accounts.get(transaction.getAccountId()).currentBalance());
+        if (waiters > 0) {
+            waitLock.lock();
+            try {
+                applied.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean awaitSequence(String accountId, long minSequence) {
+        if (reached(accountId, minSequence)) {
+            return true;
+        }
+        long remaining = readWaitNanos;
+        waitLock.lock();
+        waiters++;
+        try {
+            while (!reached(accountId, minSequence)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = applied.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiters--;
+            waitLock.unlock();
+        }
+    }
+
+    private boolean reached(String accountId, long minSequence) {
+        return accounts.view(accountId).getSequence() >= minSequence;
+    }
+
+    @Override
+    public Transaction recordTransaction(String accountId, BigDecimal amount, TransactionType type) {
+        throw new ReadOnlyReplicaException();
+    }
+
+    @Override
+    public BatchResult recordBatch(List<TransactionCommand> commands, BatchMode mode) {
+        throw new ReadOnlyReplicaException();
+    }
+
+    @Override
+    public Hold placeHold(String accountId, BigDecimal amount, Duration ttl) {
+        throw new ReadOnlyReplicaException();
+    }
+
+    @Override
+    public Transaction captureHold(String holdId, BigDecimal amount) {
+        throw new ReadOnlyReplicaException();
+    }
+
+    @Override
+    public Hold releaseHold(String holdId) {
+        throw new ReadOnlyReplicaException();
+    }
+
+    /**
+     * Holds are not replicated, so nothing is ever held on a follower.
+     */
+    @Override
+    public Availability getAvailability(String accountId) {
+        return accounts.availability(accountId);
+    }
+
+    @Override
+    public int expireHolds(long nowNanos) {
+        return accounts.expireHolds(nowNanos, null);
+    }
+
+    @Override
+    public int openHolds() {
+        return accounts.openHolds();
+    }
+
+    @Override
+    public BigDecimal getCurrentBalance(String accountId) {
+        return accounts.currentBalance(accountId);
+    }
+
+    @Override
+    public AccountView getAccountView(String accountId) {
+        return accounts.view(accountId);
+    }
+
+    @Override
+    public long getVersion(String accountId) {
+        return accounts.version(accountId);
+    }
+
+    @Override
+    public Optional<Transaction> findTransaction(String id) {
+        return accounts.find(id);
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory(String accountId, long afterSequence, int limit,
+                                                   HistoryFilter filter) {
+        return accounts.history(accountId, afterSequence, limit, filter);
+    }
+
+    @Override
+    public List<Rollup> getSummary(String accountId, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        return accounts.summary(accountId, granularity, from, to);
+    }
+
+    @Override
+    public void setTransactionListener(TransactionListener listener) {
+        accounts.setListener(listener);
+    }
+
+    @Override
+    public int accountCount() {
+        return accounts.size();
+    }
+
+    /**
+     * Transactions applied so far; kept as a counter, as followers read it for every lag report.
+     */
+    @Override
+    public long transactionCount() {
+        return appliedCount;
+    }
+
+    @Override
+    public List<String> accountIds() {
+        return accounts.ids();
+    }
+
+    @Override
+    public AuditSnapshot auditSnapshot(String accountId) {
+        return accounts.audit(accountId);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Granularity;
+import com.example.ledger.model.Rollup;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-minute, per-hour and per-day rollups of an account, maintained as transactions are
+ * applied. The minute buckets also record where they start in the history, which makes
+ * them the time index used to find a range of the history by binary search.
+ *
+ * Writes follow the owning account's lock. Reads are lock-free: buckets are immutable and
+ * the bucket being filled is replaced, never changed in place.
+ */
+final class Rollups {
+
+    private final Series minutes = new Series(Granularity.MINUTE);
+    private final Series hours = new Series(Granularity.HOUR);
+    private final Series days = new Series(Granularity.DAY);
+    private long lastSecond = Long.MIN_VALUE;
+
+    /**
+     * Adds a transaction applied at {@code position} (0-based) that left {@code balance} behind.
+     */
+    void add(Transaction transaction, int position, BigDecimal balance) {
+        // Timestamps only go backwards if the clock does; such a transaction is counted in
+        // the bucket of its predecessor so that buckets stay in history order.
+        lastSecond = Math.max(lastSecond, transaction.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        minutes.add(lastSecond, transaction, position, balance);
+        hours.add(lastSecond, transaction, position, balance);
+        days.add(lastSecond, transaction, position, balance);
+    }
+
+    /**
+     * Rollups with a bucket start in {@code [from, to)}; null bounds are open.
+     */
+    List<Rollup> range(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        Series series = switch (granularity) {
+            case MINUTE -> minutes;
+            case HOUR -> hours;
+            case DAY -> days;
+        };
+        int size = series.size;
+        Bucket[] buckets = series.buckets;
+        int first = from == null ? 0 : series.firstEndingAfter(buckets, size, toSecond(from) - 1 + granularity.getSeconds());
+        int last = to == null ? size : series.firstEndingAfter(buckets, size, toSecond(to) - 1 + granularity.getSeconds());
+        List<Rollup> rollups = new ArrayList<>(Math.max(0, last - first));
+        for (int i = first; i < last; i++) {
+            rollups.add(buckets[i].toRollup());
+        }
+        return rollups;
+    }
+
+    /**
+     * Position of the first transaction in {@code history} at or after {@code time}, or the
+     * size of {@code history} if there is none. Binary search over the minute buckets, then
+     * within the one minute that holds {@code time}.
+     */
+    int firstAtOrAfter(LocalDateTime time, List<Transaction> history) {
+        int size = minutes.size;
+        Bucket[] buckets = minutes.buckets;
+        int index = minutes.firstEndingAfter(buckets, size, toSecond(time));
+        if (index == size) {
+            return history.size();
+        }
+        Bucket bucket = buckets[index];
+        int low = Math.min(bucket.firstPosition, history.size());
+        int high = Math.min(bucket.firstPosition + bucket.count, history.size());
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (history.get(middle).getTimestamp().isBefore(time)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long toSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private record Bucket(long start, int firstPosition, int count, BigDecimal deposits, BigDecimal withdrawals,
+                          BigDecimal closingBalance) {
+
+        Bucket plus(Transaction transaction, BigDecimal balance) {
+            boolean deposit = transaction.getType() == TransactionType.DEPOSIT;
+            return new Bucket(start, firstPosition, count + 1,
+                    deposit ? deposits.add(transaction.getAmount()) : deposits,
+                    deposit ? withdrawals : withdrawals.add(transaction.getAmount()),
+                    balance);
+        }
+
+        Rollup toRollup() {
+            return new Rollup(LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC), count, deposits, withdrawals,
+                    closingBalance);
+        }
+    }
+
+    /**
+     * Buckets of one granularity in time order. The array is published before the size,
+     * so a reader that reads the size first always finds that many buckets.
+     */
+    private static final class Series {
+        private final long width;
+        private volatile Bucket[] buckets = new Bucket[16];
+        private volatile int size;
+
+        Series(Granularity granularity) {
+            this.width = granularity.getSeconds();
+        }
+
+        void add(long second, Transaction transaction, int position, BigDecimal balance) {
+            long start = Math.floorDiv(second, width) * width;
+            Bucket[] current = buckets;
+            int count = size;
+            if (count > 0 && current[count - 1].start() == start) {
+                current[count - 1] = current[count - 1].plus(transaction, balance);
+                return;
+            }
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count * 2);
+                buckets = current;
+            }
+            current[count] = new Bucket(start, position, 0, BigDecimal.ZERO, BigDecimal.ZERO, balance)
+                    .plus(transaction, balance);
+            size = count + 1;
+        }
+
+        /**
+         * Index of the first bucket whose end is after {@code second}.
+         */
+        int firstEndingAfter(Bucket[] buckets, int size, long second) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (buckets[middle].start() + width <= second) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package com.example.ledger.service;
+
+import com.example.ledger.audit.AuditSnapshot;
+import com.example.ledger.id.IdGenerator;
+import com.example.ledger.id.UuidIdGenerator;
+import com.example.ledger.journal.SnapshotStore;
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.Availability;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.BatchResult;
+import com.example.ledger.model.Granularity;
+import com.example.ledger.model.HistoryFilter;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Rollup;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.store.TransactionStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer ledger engine.
+ *
+ * Callers publish write requests into a preallocated ring buffer and wait on a future;
+ * a batch takes a single slot.
+ * One sequencer thread drains the ring in batches, applies every request in ring order
+ * and completes the futures once the whole batch is applied. Writers therefore never
+ * contend on an account monitor; they only claim a ring slot.
+ *
+ * With a {@link TransactionJournal}, the sequencer journals every request of a batch and
+ * forces the journal once before completing the batch's futures. If that fails, the whole
+ * batch fails and the journal rejects every later write (see {@link TransactionJournal}).
+ *
+ * Holds are the exception: placing, capturing and releasing one takes the account lock, and
+ * journals the update, on the caller's thread, as it must check and reserve the available
+ * balance at once, and the sequencer may wait for that lock for the length of one such update.
+ */
+public class SequencedLedgerService implements LedgerService, LedgerStatistics, SnapshotSupport, AuditSupport,
+        HoldSupport, AutoCloseable {
+
+    public static final int DEFAULT_RING_SIZE = 1 << 16;
+    private static final int MAX_BATCH = 1024;
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+    private static final long CLOSE_WAIT_MILLIS = 1_000;
+
+    private final Accounts accounts;
+    private final TransactionJournal journal;
+    private final SnapshotStore snapshots;
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+    private volatile boolean sleeping;
+    private volatile boolean running = true;
+    private volatile boolean abandoned;
+    private final Thread sequencer;
+
+    public SequencedLedgerService() {
+        this(DEFAULT_RING_SIZE);
+    }
+
+    public SequencedLedgerService(int ringSize) {
+        this(ringSize, null);
+    }
+
+    public SequencedLedgerService(int ringSize, TransactionJournal journal) {
+        this(ringSize, journal, null);
+    }
+
+    public SequencedLedgerService(int ringSize, TransactionJournal journal, SnapshotStore snapshots) {
+        this(ringSize, Accounts.HEAP_STORES, journal, snapshots);
+    }
+
+    public SequencedLedgerService(int ringSize, Function<String, TransactionStore> stores,
+                                  TransactionJournal journal, SnapshotStore snapshots) {
+        this(ringSize, stores, new UuidIdGenerator(), journal, snapshots);
+    }
+
+    public SequencedLedgerService(int ringSize, Function<String, TransactionStore> stores, IdGenerator ids,
+                                  TransactionJournal journal, SnapshotStore snapshots) {
+        this(ringSize, stores, ids, journal, snapshots, LockObserver.NONE);
+    }
+
+    /**
+     * @param stores creates the history store of each new account from its id
+     * @param ids issues the ids of new transactions
+     * @param lockObserver told the wait and hold times of account locks
+     */
+    public SequencedLedgerService(int ringSize, Function<String, TransactionStore> stores, IdGenerator ids,
+                                  TransactionJournal journal, SnapshotStore snapshots, LockObserver lockObserver) {
+        if (ringSize <= 0 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two.");
+        }
+        if (snapshots != null && journal == null) {
+            throw new IllegalArgumentException("Snapshots require a journal.");
+        }
+        this.accounts = new Accounts(stores, ids, lockObserver);
+        this.journal = journal;
+        this.snapshots = snapshots;
+        if (journal != null) {
+            accounts.recover(journal, snapshots);
+        }
+        this.ring = new Slot[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = ringSize - 1;
+        this.sequencer = new Thread(this::runSequencer, "ledger-sequencer");
+        this.sequencer.setDaemon(true);
+        this.sequencer.start();
+    }
+
+    @Override
+    public Transaction recordTransaction(String accountId, BigDecimal amount, TransactionType type) {
+        try {
+            return submit(accountId, amount, type).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Transaction> recordTransactionAsync(String accountId, BigDecimal amount,
+                                                                 TransactionType type) {
+        return submit(accountId, amount, type);
+    }
+
+    /**
+     * Publishes a write request and returns a future completed by the sequencer thread.
+     */
+    public CompletableFuture<Transaction> submit(String accountId, BigDecimal amount, TransactionType type) {
+        Account.requireValid(accountId, amount);
+        CompletableFuture<Transaction> future = new CompletableFuture<>();
+        Slot slot = claim();
+        slot.accountId = accountId;
+        slot.amount = amount;
+        slot.type = type;
+        slot.future = future;
+        publish(slot, future);
+        return future;
+    }
+
+    /**
+     * Claims the next ring slot, waiting while the ring is full. The caller fills it in and
+     * hands it to {@link #publish}.
+     */
+    private Slot claim() {
+        if (!running) {
+            throw new IllegalStateException("Ledger is shut down.");
+        }
+        long sequence = claimed.incrementAndGet();
+        while (sequence - consumed > ring.length) {
+            if (!sequencer.isAlive()) {
+                throw new IllegalStateException("Ledger is shut down.");
+            }
+            LockSupport.parkNanos(1_000);
+        }
+        Slot slot = ring[(int) sequence & mask];
+        slot.position = sequence;
+        return slot;
+    }
+
+    private void publish(Slot slot, CompletableFuture<?> future) {
+        slot.published = slot.position;
+        if (sleeping) {
+            LockSupport.unpark(sequencer);
+        }
+        if (!sequencer.isAlive()) {
+            future.completeExceptionally(new IllegalStateException("Ledger is shut down."));
+        }
+    }
+
+    @Override
+    public BatchResult recordBatch(List<TransactionCommand> commands, BatchMode mode) {
+        try {
+            return submitBatch(commands, mode).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<BatchResult> recordBatchAsync(List<TransactionCommand> commands, BatchMode mode) {
+        return submitBatch(commands, mode);
+    }
+
+    /**
+     * Publishes a whole batch into a single ring slot, so the sequencer applies it as one step.
+     */
+    public CompletableFuture<BatchResult> submitBatch(List<TransactionCommand> commands, BatchMode mode) {
+        CompletableFuture<BatchResult> future = new CompletableFuture<>();
+        Slot slot = claim();
+        slot.commands = commands;
+        slot.mode = mode;
+        slot.batchFuture = future;
+        publish(slot, future);
+        return future;
+    }
+
+    @Override
+    public Hold placeHold(String accountId, BigDecimal amount, Duration ttl) {
+        Accounts.HoldUpdate placed = accounts.placeHold(accountId, amount, ttl, journal);
+        if (placed.journalPosition() > 0) {
+            journal.awaitDurable(placed.journalPosition());
+        }
+        return placed.hold();
+    }
+
+    @Override
+    public Transaction captureHold(String holdId, BigDecimal amount) {
+        Accounts.CapturedHold captured = accounts.captureHold(holdId, amount, journal);
+        if (captured.journalPosition() > 0) {
+            journal.awaitDurable(captured.journalPosition());
+        }
+        accounts.committed(captured.transaction(), captured.balance());
+        return captured.transaction();
+    }
+
+    @Override
+    public Hold releaseHold(String holdId) {
+        Accounts.HoldUpdate released = accounts.releaseHold(holdId, journal);
+        if (released.journalPosition() > 0) {
+            journal.awaitDurable(released.journalPosition());
+        }
+        return released.hold();
+    }
+
+    @Override
+    public Availability getAvailability(String accountId) {
+        return accounts.availability(accountId);
+    }
+
+    @Override
+    public BigDecimal getCurrentBalance(String accountId) {
+        return accounts.currentBalance(accountId);
+    }
+
+    @Override
+    public AccountView getAccountView(String accountId) {
+        return accounts.view(accountId);
+    }
+
+    @Override
+    public long getVersion(String accountId) {
+        return accounts.version(accountId);
+    }
+
+    @Override
+    public Optional<Transaction> findTransaction(String id) {
+        return accounts.find(id);
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory(String accountId, long afterSequence, int limit,
+                                                   HistoryFilter filter) {
+        return accounts.history(accountId, afterSequence, limit, filter);
+    }
+
+    @Override
+    public List<Rollup> getSummary(String accountId, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        return accounts.summary(accountId, granularity, from, to);
+    }
+
+    @Override
+    public void setTransactionListener(TransactionListener listener) {
+        accounts.setListener(listener);
+    }
+
+    @Override
+    public int accountCount() {
+        return accounts.size();
+    }
+
+    @Override
+    public long transactionCount() {
+        return accounts.transactionCount();
+    }
+
+    @Override
+    public List<String> accountIds() {
+        return accounts.ids();
+    }
+
+    @Override
+    public AuditSnapshot auditSnapshot(String accountId) {
+        return accounts.audit(accountId);
+    }
+
+    @Override
+    public int expireHolds(long nowNanos) {
+        return accounts.expireHolds(nowNanos, journal);
+    }
+
+    @Override
+    public int openHolds() {
+        return accounts.openHolds();
+    }
+
+    @Override
+    public long writeSnapshot() {
+        if (snapshots == null) {
+            throw new IllegalStateException("Snapshots are not configured.");
+        }
+        try {
+            return accounts.writeSnapshot(journal, snapshots);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot", e);
+        }
+    }
+
+    /**
+     * Stops accepting writes, lets the sequencer drain what was already published and waits for it.
+     *
+     * A slot claimed but left unpublished for longer than {@value #CLOSE_WAIT_MILLIS} ms stops
+     * the drain there. Whatever the sequencer did not take, including slots published after
+     * it stopped looking, fails with "Ledger is shut down." rather than leaving its caller
+     * waiting.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(sequencer);
+        sequencer.join(CLOSE_WAIT_MILLIS);
+        if (sequencer.isAlive()) {
+            abandoned = true;
+            LockSupport.unpark(sequencer);
+            sequencer.join();
+        }
+
+        IllegalStateException shutDown = new IllegalStateException("Ledger is shut down.");
+        long last = Math.min(claimed.get(), consumed + ring.length);
+        for (long position = consumed + 1; position <= last; position++) {
+            Slot slot = ring[(int) position & mask];
+            if (slot.published == position) {
+                slot.error = shutDown;
+                slot.complete(accounts);
+            }
+        }
+    }
+
+    private void runSequencer() {
+        long next = 0;
+        int idle = 0;
+        while (true) {
+            int available = 0;
+            while (available < MAX_BATCH && ring[(int) (next + available) & mask].published == next + available) {
+                available++;
+            }
+
+            if (available == 0) {
+                if (!running && (claimed.get() < next || abandoned)) {
+                    return;
+                }
+                if (++idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    sleeping = true;
+                    if (ring[(int) next & mask].published != next) {
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+                continue;
+            }
+            idle = 0;
+
+            long journalPosition = 0;
+            for (int i = 0; i < available; i++) {
+                journalPosition = Math.max(journalPosition, apply(ring[(int) (next + i) & mask]));
+            }
+            if (journal != null && journalPosition > 0) {
+                commit(next, available, journalPosition);
+            }
+            for (int i = 0; i < available; i++) {
+                ring[(int) (next + i) & mask].complete(accounts);
+            }
+
+            next += available;
+            consumed = next - 1;
+        }
+    }
+
+    /**
+     * Runs on the sequencer thread only. The account lock is uncontended for writes but
+     * hold updates; otherwise it only orders the update against snapshot capture. Readers
+     * never take it.
+     *
+     * @return the journal position after this request's record, or 0 if nothing was journaled
+     */
+    private long apply(Slot slot) {
+        try {
+            if (slot.commands != null) {
+                slot.batch = accounts.recordBatch(slot.commands, slot.mode, journal);
+                return slot.batch.journalPosition();
+            }
+            Account account = accounts.getOrCreate(slot.accountId);
+            accounts.lock(account);
+            try {
+                Transaction transaction = account.prepare(slot.amount, slot.type);
+                long journalPosition = journal != null ? journal.append(transaction) : 0;
+                account.apply(transaction);
+                slot.result = transaction;
+                slot.balance = account.currentBalance();
+                return journalPosition;
+            } finally {
+                accounts.unlock(account);
+            }
+        } catch (RuntimeException e) {
+            slot.error = e;
+            return 0;
+        }
+    }
+
+    /**
+     * Makes the whole batch durable with one sync; if that fails every write of the batch fails.
+     */
+    private void commit(long first, int count, long journalPosition) {
+        try {
+            journal.awaitDurable(journalPosition);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < count; i++) {
+                Slot slot = ring[(int) (first + i) & mask];
+                if (slot.error == null) {
+                    slot.error = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * A single write, or a batch when {@code commands} is set.
+     */
+    private static final class Slot {
+        volatile long published = -1;
+        long position;
+        String accountId;
+        BigDecimal amount;
+        TransactionType type;
+        CompletableFuture<Transaction> future;
+        Transaction result;
+        BigDecimal balance;
+        List<TransactionCommand> commands;
+        BatchMode mode;
+        CompletableFuture<BatchResult> batchFuture;
+        Accounts.RecordedBatch batch;
+        RuntimeException error;
+
+        /**
+         * Tells the listener about what this slot committed, then completes its future.
+         */
+        void complete(Accounts accounts) {
+            if (commands != null) {
+                if (error == null) {
+                    accounts.committed(batch);
+                }
+                complete(batchFuture, batch != null ? batch.result() : null);
+            } else {
+                if (error == null) {
+                    accounts.committed(result, balance);
+                }
+                complete(future, result);
+            }
+            accountId = null;
+            amount = null;
+            type = null;
+            future = null;
+            result = null;
+            balance = null;
+            commands = null;
+            mode = null;
+            batchFuture = null;
+            batch = null;
+            error = null;
+        }
+
+        private <T> void complete(CompletableFuture<T> pending, T value) {
+            if (error != null) {
+                pending.completeExceptionally(error);
+            } else {
+                pending.complete(value);
+            }
+        }
+    }
+}
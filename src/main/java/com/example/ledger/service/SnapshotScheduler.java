@@ -0,0 +1,41 @@
+package com.example.ledger.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes snapshots on a background thread at a fixed interval.
+ */
+public class SnapshotScheduler implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotScheduler.class);
+
+    private final ScheduledExecutorService executor;
+
+    public SnapshotScheduler(SnapshotSupport ledger, Duration interval) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                long position = ledger.writeSnapshot();
+                log.info("Wrote ledger snapshot at journal position {}", position);
+            } catch (RuntimeException e) {
+                log.error("Ledger snapshot failed", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
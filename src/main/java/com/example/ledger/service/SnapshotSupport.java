@@ -0,0 +1,14 @@
+package com.example.ledger.service;
+
+/**
+ * Implemented by engines that can persist a point-in-time snapshot of their accounts.
+ */
+public interface SnapshotSupport {
+
+    /**
+     * Writes a snapshot in the calling thread.
+     *
+     * @return the journal position the snapshot covers
+     */
+    long writeSnapshot();
+}
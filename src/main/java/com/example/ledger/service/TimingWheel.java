@@ -0,0 +1,231 @@
+package com.example.ledger.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel: expires any number of timeouts with O(1) work each to schedule,
+ * cancel and expire, instead of a task or heap entry per timeout.
+ *
+ * Time is counted in ticks of {@code tick} since the wheel was created. There are
+ * {@value #LEVELS} wheels of {@value #SLOTS} slots; a slot of level {@code L} spans
+ * {@code 64^L} ticks, so together they cover 2^36 ticks (about 21 years at 10 ms). A timeout
+ * goes into the lowest level whose span reaches its deadline, and each time the level below
+ * has gone round once, the next slot of a level is emptied into the levels below (cascaded).
+ * A timeout is cascaded at most once per level, so expiring it is amortized O(1), and
+ * {@link #advance} only ever looks at one slot per level per tick. While the lower levels are
+ * empty it skips straight to the next tick that cascades into them, so catching up over a
+ * long stretch costs the timeouts in it, not its length in ticks. Deadlines beyond the top
+ * level wait in its farthest slot and are placed again each time it comes round.
+ *
+ * Deadlines are rounded up to the next tick: a timeout never expires early, and at most one
+ * tick, plus however late {@link #advance} is called, after its deadline.
+ *
+ * Thread-safe, under a {@link ReentrantLock} rather than the monitor so that a virtual thread
+ * scheduling or cancelling a hold does not pin its carrier. {@link #advance} returns what
+ * expired instead of running callbacks, so that callers act on expired timeouts without
+ * holding the wheel's lock.
+ */
+public final class TimingWheel<T> {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 6;
+
+    private final long tickNanos;
+    private final long origin;
+    private final Timeout<T>[][] wheels;
+    private final int[] counts = new int[LEVELS];
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tick        resolution of deadlines
+     * @param originNanos {@link System#nanoTime()} the wheel counts ticks from
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tick, long originNanos) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive.");
+        }
+        this.tickNanos = tick.toNanos();
+        this.origin = originNanos;
+        this.wheels = new Timeout[LEVELS][SLOTS];
+        for (Timeout<T>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = Timeout.head();
+            }
+        }
+    }
+
+    /**
+     * Schedules {@code value} to expire at {@code deadlineNanos} ({@link System#nanoTime()}
+     * scale); a deadline already passed expires on the next {@link #advance}.
+     */
+    public Timeout<T> schedule(T value, long deadlineNanos) {
+        lock.lock();
+        try {
+            long deadlineTick = Math.max(currentTick + 1,
+                    Math.floorDiv(deadlineNanos - origin + tickNanos - 1, tickNanos));
+            Timeout<T> timeout = new Timeout<>(value, deadlineTick);
+            insert(timeout);
+            size++;
+            return timeout;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a timeout that has not expired yet.
+     *
+     * @return false if it had already expired or been cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        lock.lock();
+        try {
+            if (timeout.next == null) {
+                return false;
+            }
+            unlink(timeout);
+            size--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowNanos} and returns the values of the timeouts that
+     * expired, in deadline order.
+     */
+    public List<T> advance(long nowNanos) {
+        long target = Math.floorDiv(nowNanos - origin, tickNanos);
+        List<T> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (currentTick < target) {
+                if (size == 0) {
+                    currentTick = target;
+                    break;
+                }
+                currentTick = skipEmpty(target) + 1;
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                        cascade(wheels[level][(int) (currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1)]);
+                    }
+                }
+                Timeout<T> head = wheels[0][(int) currentTick & (SLOTS - 1)];
+                for (Timeout<T> timeout = head.next; timeout != head; timeout = head.next) {
+                    unlink(timeout);
+                    size--;
+                    expired.add(timeout.value);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The tick before the next one at which anything can expire or cascade, up to {@code target}:
+     * with levels below {@code L} empty, that is the next multiple of {@code 64^L}.
+     */
+    private long skipEmpty(long target) {
+        int level = 0;
+        while (level < LEVELS - 1 && counts[level] == 0) {
+            level++;
+        }
+        if (level == 0) {
+            return currentTick;
+        }
+        long span = 1L << (SLOT_BITS * level);
+        long next = (currentTick / span + 1) * span;
+        return Math.max(currentTick, Math.min(target, next) - 1);
+    }
+
+    private void cascade(Timeout<T> head) {
+        for (Timeout<T> timeout = head.next; timeout != head; timeout = head.next) {
+            unlink(timeout);
+            insert(timeout);
+        }
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        counts[timeout.level]--;
+        timeout.unlink();
+    }
+
+    private void insert(Timeout<T> timeout) {
+        long deadline = timeout.deadlineTick;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            if ((deadline >>> shift) - (currentTick >>> shift) < SLOTS) {
+                place(timeout, level, (int) (deadline >>> shift) & (SLOTS - 1));
+                return;
+            }
+        }
+        int shift = SLOT_BITS * (LEVELS - 1);
+        place(timeout, LEVELS - 1, (int) ((currentTick >>> shift) + SLOTS - 1) & (SLOTS - 1));
+    }
+
+    private void place(Timeout<T> timeout, int level, int slot) {
+        timeout.level = level;
+        counts[level]++;
+        wheels[level][slot].append(timeout);
+    }
+
+    /**
+     * A scheduled value; a node of the circular list of its slot.
+     */
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+        private int level;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private static <T> Timeout<T> head() {
+            Timeout<T> head = new Timeout<>(null, -1);
+            head.previous = head;
+            head.next = head;
+            return head;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        private void append(Timeout<T> timeout) {
+            timeout.previous = previous;
+            timeout.next = this;
+            previous.next = timeout;
+            previous = timeout;
+        }
+
+        private void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = null;
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.ledger.service;
+
+import com.example.ledger.model.Transaction;
+
+import java.math.BigDecimal;
+
+/**
+ * Told about every transaction once it is committed: applied and, with a journal, made
+ * durable as far as the sync policy requires.
+ *
+ * Called on the writing thread after the account lock is released, so it must return
+ * quickly and never block. Transactions of one account written by different threads may
+ * arrive out of sequence order.
+ */
+@FunctionalInterface
+public interface TransactionListener {
+
+    TransactionListener NONE = (transaction, balance) -> {
+    };
+
+    /**
+     * @param balance the account's balance right after this transaction
+     */
+    void committed(Transaction transaction, BigDecimal balance);
+}
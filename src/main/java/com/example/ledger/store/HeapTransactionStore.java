@@ -0,0 +1,88 @@
+package com.example.ledger.store;
+
+import com.example.ledger.model.Transaction;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * {@link TransactionStore} keeping {@link Transaction} objects on the heap, in fixed-size
+ * chunks so that appending never copies or moves existing entries.
+ *
+ * The first chunk starts with room for {@value #FIRST_CHUNK_SIZE} entries and doubles up to
+ * {@value #CHUNK_SIZE}, so an account with a short history does not cost a full chunk. A
+ * grown chunk goes into a copy of the chunk table, leaving the one views captured untouched.
+ */
+public final class HeapTransactionStore implements TransactionStore {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int FIRST_CHUNK_SIZE = 16;
+
+    private volatile Transaction[][] chunks = new Transaction[1][];
+    private volatile int size;
+
+    @Override
+    public void append(Transaction transaction) {
+        int index = size;
+        int chunk = index >>> CHUNK_BITS;
+        Transaction[][] current = chunks;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            chunks = current;
+        }
+        int row = index & CHUNK_MASK;
+        Transaction[] rows = current[chunk];
+        if (rows == null) {
+            rows = new Transaction[chunk == 0 ? FIRST_CHUNK_SIZE : CHUNK_SIZE];
+            current[chunk] = rows;
+        } else if (row == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+            current = current.clone();
+            current[chunk] = rows;
+            chunks = current;
+        }
+        rows[row] = transaction;
+        size = index + 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<Transaction> view(int length) {
+        if (length < 0 || length > size) {
+            throw new IndexOutOfBoundsException(length);
+        }
+        Transaction[][] snapshot = chunks;
+        return new View(snapshot, length);
+    }
+
+    private static final class View extends AbstractList<Transaction> implements RandomAccess {
+        private final Transaction[][] chunks;
+        private final int size;
+
+        View(Transaction[][] chunks, int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.ledger.store;
+
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Immutable file of sealed history entries, read through a read-only memory mapping.
+ *
+ * Entries are stored column by column like {@link ColumnarTransactionStore}: amount in minor
+ * units, timestamp in epoch nanoseconds, id as two longs and the type. Each column is packed
+ * with frame-of-reference encoding: the header holds the column's minimum and every entry
+ * keeps only its distance from it, in as few whole bytes as the segment's widest distance
+ * needs. A column with a single value takes no bytes at all, which is the case for the upper
+ * id column under Snowflake ids and for the type column of a run of deposits. Entries stay
+ * fixed-width, so an entry is found by arithmetic and decoded with a handful of absolute reads
+ * from the mapping, without decompressing a block or copying anything.
+ *
+ * The header, little-endian:
+ * <pre>
+ *  0  int    magic "LSEG"
+ *  4  byte   version
+ *  8  int    entry count
+ * 12  int    amount scale
+ * 16  long   sequence of the first entry
+ * 24  long   earliest timestamp (epoch nanoseconds)
+ * 32  long   latest timestamp
+ * 40  long[] minimum of each column
+ * 80  byte[] width of each column in bytes
+ * </pre>
+ * followed by the columns. The file ends with padding so that any entry can be read with a
+ * single 8-byte load and a mask.
+ */
+final class Segment {
+
+    private static final int MAGIC = 0x4745534C;
+    private static final byte VERSION = 1;
+
+    private static final int AMOUNT = 0;
+    private static final int NANOS = 1;
+    private static final int ID_HIGH = 2;
+    private static final int ID_LOW = 3;
+    private static final int TYPE = 4;
+    private static final int COLUMNS = 5;
+
+    private static final int COUNT_OFFSET = 8;
+    private static final int SCALE_OFFSET = 12;
+    private static final int FIRST_SEQUENCE_OFFSET = 16;
+    private static final int BASE_OFFSET = 40;
+    private static final int WIDTH_OFFSET = BASE_OFFSET + COLUMNS * Long.BYTES;
+    private static final int HEADER_BYTES = 88;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int scale;
+    private final long firstSequence;
+    private final long[] base = new long[COLUMNS];
+    private final int[] offset = new int[COLUMNS];
+    private final int[] width = new int[COLUMNS];
+    private final long[] mask = new long[COLUMNS];
+
+    private Segment(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION) {
+            throw new IllegalStateException("Not a history segment");
+        }
+        this.count = buffer.getInt(COUNT_OFFSET);
+        this.scale = buffer.getInt(SCALE_OFFSET);
+        this.firstSequence = buffer.getLong(FIRST_SEQUENCE_OFFSET);
+        int position = HEADER_BYTES;
+        for (int column = 0; column < COLUMNS; column++) {
+            base[column] = buffer.getLong(BASE_OFFSET + column * Long.BYTES);
+            width[column] = buffer.get(WIDTH_OFFSET + column);
+            mask[column] = width[column] == Long.BYTES ? -1L : (1L << (width[column] * Byte.SIZE)) - 1;
+            offset[column] = position;
+            position += count * width[column];
+        }
+        if (buffer.capacity() < position + Long.BYTES) {
+            throw new IllegalStateException("Truncated history segment");
+        }
+    }
+
+    /**
+     * Writes {@code count} entries of {@code source}, starting at {@code from}, to a new file
+     * and maps it.
+     *
+     * @param source entries addressed by position, in chunks of {@code 1 << chunkBits}
+     */
+    static Segment write(Path file, Transaction[][] source, int chunkBits, int from, int count, int scale)
+            throws IOException {
+        long[][] values = new long[COLUMNS][count];
+        int chunkMask = (1 << chunkBits) - 1;
+        for (int i = 0; i < count; i++) {
+            int index = from + i;
+            Transaction transaction = source[index >>> chunkBits][index & chunkMask];
+            UUID id = ColumnarTransactionStore.packId(transaction.getId());
+            values[AMOUNT][i] = transaction.getAmount().setScale(scale).unscaledValue().longValueExact();
+            values[NANOS][i] = ColumnarTransactionStore.epochNanos(transaction.getTimestamp());
+            values[ID_HIGH][i] = id.getMostSignificantBits();
+            values[ID_LOW][i] = id.getLeastSignificantBits();
+            values[TYPE][i] = transaction.getType().ordinal();
+        }
+
+        long[] minimum = new long[COLUMNS];
+        long[] maximum = new long[COLUMNS];
+        int[] widths = new int[COLUMNS];
+        int bytes = HEADER_BYTES;
+        for (int column = 0; column < COLUMNS; column++) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (long value : values[column]) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            minimum[column] = min;
+            maximum[column] = max;
+            widths[column] = (Long.SIZE - Long.numberOfLeadingZeros(max - min) + Byte.SIZE - 1) / Byte.SIZE;
+            bytes += count * widths[column];
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(bytes + Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).put(VERSION).put(new byte[3]).putInt(count).putInt(scale)
+                .putLong(from + 1L).putLong(minimum[NANOS]).putLong(maximum[NANOS]);
+        for (int column = 0; column < COLUMNS; column++) {
+            out.putLong(minimum[column]);
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            out.put((byte) widths[column]);
+        }
+        out.position(HEADER_BYTES);
+        for (int column = 0; column < COLUMNS; column++) {
+            int columnWidth = widths[column];
+            for (long value : values[column]) {
+                long distance = value - minimum[column];
+                for (int b = 0; b < columnWidth; b++) {
+                    out.put((byte) (distance >>> (b * Byte.SIZE)));
+                }
+            }
+        }
+        out.clear();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            return new Segment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Maps an existing segment file.
+     */
+    static Segment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Segment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    Transaction get(int row, String accountId) {
+        long high = value(ID_HIGH, row);
+        long low = value(ID_LOW, row);
+        return new Transaction(
+                ColumnarTransactionStore.unpackId(high, low),
+                accountId,
+                firstSequence + row,
+                BigDecimal.valueOf(value(AMOUNT, row), scale),
+                TYPES[(int) value(TYPE, row)],
+                ColumnarTransactionStore.timestamp(value(NANOS, row)));
+    }
+
+    private long value(int column, int row) {
+        int columnWidth = width[column];
+        if (columnWidth == 0) {
+            return base[column];
+        }
+        return base[column] + (buffer.getLong(offset[column] + row * columnWidth) & mask[column]);
+    }
+}
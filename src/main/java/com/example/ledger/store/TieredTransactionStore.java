@@ -0,0 +1,211 @@
+package com.example.ledger.store;
+
+import com.example.ledger.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * {@link TransactionStore} keeping only the recent tail of the history on the heap and the
+ * rest in memory-mapped {@link Segment} files, so heap use per account stays flat however
+ * long the history grows.
+ *
+ * New entries are appended to heap chunks as in {@link HeapTransactionStore}, the first of
+ * which starts small and doubles up to {@value #CHUNK_SIZE} entries. Once the hot
+ * tail holds twice the segment size, its oldest segment's worth of entries is written to an
+ * immutable file, mapped read-only and dropped from the heap, so the heap keeps between one
+ * and two segments of entries. Sealing runs on the appending thread, which is the single
+ * writer. Views read positions below the sealed count from the segments and the rest from
+ * the chunks they captured, so a view taken before a seal keeps reading the entries it saw.
+ *
+ * Segment files are derived from the journal and snapshots, which remain the durable
+ * record: they are not synced, and the files of a previous run are deleted on startup.
+ */
+public final class TieredTransactionStore implements TransactionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredTransactionStore.class);
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int FIRST_CHUNK_SIZE = 16;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final String accountId;
+    private final int scale;
+    private final Path directory;
+    private final int segmentSize;
+    private volatile Tiers tiers = new Tiers(new Segment[0], new Transaction[1][]);
+    private volatile int size;
+    private int nextSealAt;
+
+    /**
+     * @param directory   where this account's segment files go; created on the first seal
+     * @param hotEntries  entries per segment, rounded up to a multiple of {@value #CHUNK_SIZE}
+     */
+    public TieredTransactionStore(String accountId, int scale, Path directory, int hotEntries) {
+        if (hotEntries <= 0) {
+            throw new IllegalArgumentException("Hot entries must be positive.");
+        }
+        this.accountId = accountId;
+        this.scale = scale;
+        this.directory = directory;
+        this.segmentSize = (hotEntries + CHUNK_MASK) & ~CHUNK_MASK;
+        this.nextSealAt = 2 * segmentSize;
+    }
+
+    /**
+     * Stores for all accounts under {@code directory}, one numbered subdirectory each. Segment
+     * files left there by a previous run are deleted first.
+     */
+    public static Function<String, TransactionStore> inDirectory(Path directory, int scale, int hotEntries) {
+        deleteSegments(directory);
+        AtomicInteger accounts = new AtomicInteger();
+        return accountId -> new TieredTransactionStore(accountId, scale,
+                directory.resolve(Integer.toString(accounts.incrementAndGet())), hotEntries);
+    }
+
+    private static void deleteSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> accounts = Files.list(directory)) {
+            for (Path account : accounts.filter(path -> path.getFileName().toString().matches("\\d+")).toList()) {
+                try (Stream<Path> files = Files.list(account)) {
+                    for (Path file : files.filter(path -> path.toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                        Files.delete(file);
+                    }
+                }
+                Files.deleteIfExists(account);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not clear history segments in " + directory, e);
+        }
+    }
+
+    @Override
+    public BigDecimal normalize(BigDecimal amount) {
+        return ColumnarTransactionStore.toScale(amount, scale);
+    }
+
+    @Override
+    public void append(Transaction transaction) {
+        ColumnarTransactionStore.packId(transaction.getId());
+        normalize(transaction.getAmount());
+
+        int index = size;
+        int chunk = index >>> CHUNK_BITS;
+        Tiers current = tiers;
+        if (chunk == current.chunks.length) {
+            current = new Tiers(current.segments, Arrays.copyOf(current.chunks, current.chunks.length * 2));
+            tiers = current;
+        }
+        int row = index & CHUNK_MASK;
+        Transaction[] rows = current.chunks[chunk];
+        if (rows == null) {
+            rows = new Transaction[chunk == 0 ? FIRST_CHUNK_SIZE : CHUNK_SIZE];
+            current.chunks[chunk] = rows;
+        } else if (row == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+            Transaction[][] chunks = current.chunks.clone();
+            chunks[chunk] = rows;
+            current = new Tiers(current.segments, chunks);
+            tiers = current;
+        }
+        rows[row] = transaction;
+        size = index + 1;
+        if (size - current.sealed(segmentSize) >= nextSealAt) {
+            seal(current);
+        }
+    }
+
+    private void seal(Tiers current) {
+        int from = current.sealed(segmentSize);
+        Segment segment;
+        try {
+            Files.createDirectories(directory);
+            segment = Segment.write(directory.resolve((from + 1L) + SEGMENT_SUFFIX),
+                    current.chunks, CHUNK_BITS, from, segmentSize, scale);
+        } catch (IOException | RuntimeException e) {
+            // The entries stay on the heap; try again a segment later.
+            nextSealAt += segmentSize;
+            log.warn("Could not seal history of account {} at {}", accountId, from + 1, e);
+            return;
+        }
+        Segment[] segments = Arrays.copyOf(current.segments, current.segments.length + 1);
+        segments[current.segments.length] = segment;
+        Transaction[][] chunks = current.chunks.clone();
+        Arrays.fill(chunks, from >>> CHUNK_BITS, (from + segmentSize) >>> CHUNK_BITS, null);
+        tiers = new Tiers(segments, chunks);
+        nextSealAt = 2 * segmentSize;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of entries held in segment files rather than on the heap.
+     */
+    public int sealedSize() {
+        return tiers.sealed(segmentSize);
+    }
+
+    @Override
+    public List<Transaction> view(int length) {
+        if (length < 0 || length > size) {
+            throw new IndexOutOfBoundsException(length);
+        }
+        return new View(tiers, length);
+    }
+
+    private record Tiers(Segment[] segments, Transaction[][] chunks) {
+
+        int sealed(int segmentSize) {
+            return segments.length * segmentSize;
+        }
+    }
+
+    private final class View extends AbstractList<Transaction> implements RandomAccess {
+        private final Segment[] segments;
+        private final Transaction[][] chunks;
+        private final int sealed;
+        private final int size;
+
+        View(Tiers tiers, int size) {
+            this.segments = tiers.segments;
+            this.chunks = tiers.chunks;
+            this.sealed = Math.min(tiers.sealed(segmentSize), size);
+            this.size = size;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            if (index < sealed) {
+                return segments[index / segmentSize].get(index % segmentSize, accountId);
+            }
+            return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ledger.store;
+
+import com.example.ledger.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Append-only history of one account.
+ *
+ * There is a single writer at a time (the owner of the account lock). Appended entries never
+ * change, and the size is published with release semantics, so {@link #view(int)} of a prefix
+ * can be read from any thread without the lock while appends continue.
+ */
+public interface TransactionStore {
+
+    void append(Transaction transaction);
+
+    int size();
+
+    /**
+     * Immutable view of the first {@code length} entries.
+     */
+    List<Transaction> view(int length);
+
+    /**
+     * Brings an amount into the form the store keeps, so a transaction reads back exactly as
+     * it was recorded. Rejects amounts the store cannot represent.
+     */
+    default BigDecimal normalize(BigDecimal amount) {
+        return amount;
+    }
+}
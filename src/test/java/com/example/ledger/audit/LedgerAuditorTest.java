@@ -0,0 +1,194 @@
+package com.example.ledger.audit;
+
+import com.example.ledger.journal.SyncPolicy;
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.store.ColumnarTransactionStore;
+import com.example.ledger.store.HeapTransactionStore;
+import com.example.ledger.store.TransactionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerAuditorTest {
+
+    private static final byte[] KEY = "audit-key".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<Integer, Transaction> tampered = new ConcurrentHashMap<>();
+    private final InMemoryLedgerService ledger = new InMemoryLedgerService(
+            accountId -> "mallory".equals(accountId) ? new TamperableStore(tampered) : new HeapTransactionStore(),
+            null, null);
+    private final LedgerAuditor auditor = new LedgerAuditor(ledger, KEY, 2);
+
+    @AfterEach
+    void tearDown() {
+        auditor.close();
+    }
+
+    @Test
+    void reconcilesAnUntouchedLedger() {
+        record(ledger, "alice", 2500);
+        record(ledger, "bob", 1024);
+        record(ledger, "carol", 1);
+
+        ReconciliationReport report = auditor.reconcile();
+
+        assertTrue(report.consistent(), () -> report.mismatches().toString());
+        assertEquals(3, report.accounts());
+        assertEquals(3525, report.transactions());
+        assertEquals(3 + 1 + 1, report.blocks());
+    }
+
+    @Test
+    void reportsChangedHistoryAndTheBlocksHoldingIt() {
+        record(ledger, "alice", 100);
+        record(ledger, "mallory", 3000);
+        Transaction original = ledger.getAccountView("mallory").getTransactions().get(1500);
+        tampered.put(1500, new Transaction(original.getId(), original.getAccountId(), original.getSequence(),
+                original.getAmount().add(BigDecimal.ONE), original.getType(), original.getTimestamp()));
+
+        ReconciliationReport report = auditor.reconcile();
+
+        assertEquals(1, report.mismatches().size());
+        ReconciliationReport.Mismatch mismatch = report.mismatches().get(0);
+        assertEquals("mallory", mismatch.accountId());
+        assertEquals(List.of(1), mismatch.tamperedBlocks());
+        assertEquals(0, mismatch.balance().add(BigDecimal.ONE).compareTo(mismatch.historySum()));
+
+        RangeProof proof = auditor.prove("mallory", 1000, 2100);
+        assertFalse(proof.intact());
+        assertEquals(List.of(true, false, true), proof.blocks().stream().map(RangeProof.Block::intact).toList());
+        assertTrue(auditor.prove("mallory", 2049, 3000).intact());
+    }
+
+    @Test
+    void provesARangeAgainstTheCheckpointRoot() {
+        record(ledger, "alice", 5000);
+
+        RangeProof proof = auditor.prove("alice", 2000, 4500);
+
+        assertTrue(proof.intact());
+        Checkpoint checkpoint = proof.checkpoint();
+        assertEquals(5000, checkpoint.transactions());
+        assertEquals(5, checkpoint.blocks());
+        assertEquals(List.of(1, 2, 3, 4), proof.blocks().stream().map(RangeProof.Block::index).toList());
+        RangeProof.Block last = proof.blocks().get(3);
+        assertEquals(4097, last.firstSequence());
+        assertEquals(5000, last.lastSequence());
+        for (RangeProof.Block block : proof.blocks()) {
+            assertTrue(MerkleTree.verify(block.digest(), block.index(), checkpoint.blocks(), block.path(),
+                    checkpoint.root()));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> auditor.prove("alice", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> auditor.prove("alice", 10, 5001));
+        assertThrows(IllegalArgumentException.class, () -> auditor.prove("alice", 20, 10));
+    }
+
+    @Test
+    void checkpointCommitsToTheHistoryAndIsSignedWithTheKey() {
+        record(ledger, "alice", 1500);
+
+        Checkpoint checkpoint = auditor.checkpoint("alice");
+
+        List<Transaction> history = ledger.getAccountView("alice").getTransactions();
+        MerkleTree expected = new MerkleTree();
+        expected.add(BlockDigest.of("alice", 0, history.subList(0, 1024)));
+        expected.add(BlockDigest.of("alice", 1, history.subList(1024, 1500)));
+        assertArrayEquals(expected.root(), checkpoint.root());
+        assertEquals(0, checkpoint.balance().compareTo(ledger.getCurrentBalance("alice")));
+        assertArrayEquals(checkpoint.signature(), auditor.checkpoint("alice").signature());
+
+        try (LedgerAuditor other = new LedgerAuditor(ledger, "other-key".getBytes(StandardCharsets.UTF_8), 1)) {
+            assertArrayEquals(checkpoint.root(), other.checkpoint("alice").root());
+            assertFalse(Arrays.equals(checkpoint.signature(), other.checkpoint("alice").signature()));
+        }
+
+        ledger.recordTransaction("alice", BigDecimal.ONE, TransactionType.DEPOSIT);
+        Checkpoint next = auditor.checkpoint("alice");
+        assertEquals(1501, next.transactions());
+        assertFalse(Arrays.equals(checkpoint.root(), next.root()));
+    }
+
+    @Test
+    void digestsAreRebuiltTheSameFromTheJournalAndColumnarStorage(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        byte[] root;
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            InMemoryLedgerService written = new InMemoryLedgerService(journal);
+            record(written, "alice", 1100);
+            try (LedgerAuditor writtenAuditor = new LedgerAuditor(written, KEY, 1)) {
+                root = writtenAuditor.checkpoint("alice").root();
+            }
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            InMemoryLedgerService replayed = new InMemoryLedgerService(
+                    accountId -> new ColumnarTransactionStore(accountId, 2), journal, null);
+            try (LedgerAuditor replayedAuditor = new LedgerAuditor(replayed, KEY, 1)) {
+                assertArrayEquals(root, replayedAuditor.checkpoint("alice").root());
+                assertTrue(replayedAuditor.reconcile().consistent());
+            }
+        }
+    }
+
+    private static void record(InMemoryLedgerService ledger, String accountId, int count) {
+        for (int i = 0; i < count; i++) {
+            ledger.recordTransaction(accountId, BigDecimal.valueOf(100 + i % 37, 2),
+                    i % 5 == 4 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT);
+        }
+    }
+
+    /**
+     * Heap history whose reads return replacements for some positions, as if edited in place.
+     */
+    private static final class TamperableStore implements TransactionStore {
+
+        private final HeapTransactionStore delegate = new HeapTransactionStore();
+        private final Map<Integer, Transaction> replacements;
+
+        TamperableStore(Map<Integer, Transaction> replacements) {
+            this.replacements = replacements;
+        }
+
+        @Override
+        public void append(Transaction transaction) {
+            delegate.append(transaction);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public List<Transaction> view(int length) {
+            List<Transaction> view = delegate.view(length);
+            return new AbstractList<>() {
+                @Override
+                public Transaction get(int index) {
+                    return replacements.getOrDefault(index, view.get(index));
+                }
+
+                @Override
+                public int size() {
+                    return view.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ledger.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerkleTreeTest {
+
+    @Test
+    void rootMatchesTheRecursiveDefinitionAtEverySize() {
+        MerkleTree tree = new MerkleTree();
+        List<byte[]> leaves = new ArrayList<>();
+        assertArrayEquals(MerkleTree.sha256().digest(), tree.root());
+
+        for (int size = 1; size <= 70; size++) {
+            byte[] leaf = leaf(size);
+            leaves.add(leaf);
+            tree.add(leaf);
+
+            assertEquals(size, tree.size());
+            assertArrayEquals(reference(leaves), tree.root(), "root of " + size + " leaves");
+        }
+    }
+
+    @Test
+    void everyLeafIsProvenAndNothingElse() {
+        MerkleTree tree = new MerkleTree();
+        for (int size = 1; size <= 40; size++) {
+            tree.add(leaf(size));
+            byte[] root = tree.root();
+            for (int index = 0; index < size; index++) {
+                List<byte[]> path = tree.path(index);
+                assertTrue(path.size() <= 64 - Long.numberOfLeadingZeros(size - 1L));
+                assertTrue(MerkleTree.verify(tree.leaf(index), index, size, path, root));
+
+                assertFalse(MerkleTree.verify(leaf(1000 + index), index, size, path, root));
+                if (size > 1) {
+                    assertFalse(MerkleTree.verify(tree.leaf(index), (index + 1) % size, size, path, root));
+                }
+            }
+            assertFalse(MerkleTree.verify(tree.leaf(0), size, size, List.of(), root));
+        }
+    }
+
+    @Test
+    void copyIsIndependentOfLaterAppends() {
+        MerkleTree tree = new MerkleTree();
+        for (int i = 0; i < 5; i++) {
+            tree.add(leaf(i));
+        }
+        MerkleTree copy = tree.copy();
+        byte[] root = copy.root();
+
+        tree.add(leaf(5));
+
+        assertEquals(5, copy.size());
+        assertArrayEquals(root, copy.root());
+        assertFalse(MessageDigest.isEqual(root, tree.root()));
+    }
+
+    /**
+     * MTH from RFC 6962, section 2.1, over leaf hashes.
+     */
+    private static byte[] reference(List<byte[]> leaves) {
+        if (leaves.size() == 1) {
+            return leaves.get(0);
+        }
+        int split = Integer.highestOneBit(leaves.size() - 1);
+        return MerkleTree.node(reference(leaves.subList(0, split)), reference(leaves.subList(split, leaves.size())));
+    }
+
+    private static byte[] leaf(int i) {
+        return MerkleTree.sha256().digest(("leaf-" + i).getBytes());
+    }
+}
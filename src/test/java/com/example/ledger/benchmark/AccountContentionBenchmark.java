@@ -0,0 +1,70 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write throughput of {@link InMemoryLedgerService} as the thread count goes up.
+ *
+ * With {@code accounts=shared} every thread writes the same account and serializes on its lock;
+ * with {@code accounts=perThread} each thread owns an account and should scale with cores.
+ * {@link #main} runs both layouts at 1, 2, 4 and 8 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountContentionBenchmark {
+
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"shared", "perThread"})
+    public String accounts;
+
+    LedgerService ledgerService;
+    final AtomicInteger nextAccount = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ledgerService = new InMemoryLedgerService();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadAccount {
+        String accountId;
+
+        @Setup(Level.Trial)
+        public void setUp(AccountContentionBenchmark benchmark) {
+            accountId = "shared".equals(benchmark.accounts)
+                    ? LedgerService.DEFAULT_ACCOUNT
+                    : "account-" + benchmark.nextAccount.getAndIncrement();
+        }
+    }
+
+    @Benchmark
+    public Object deposit(ThreadAccount thread) {
+        return ledgerService.recordTransaction(thread.accountId, AMOUNT, TransactionType.DEPOSIT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            Options options = new OptionsBuilder()
+                    .include(AccountContentionBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ledger.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of keeping a running balance with {@link BigDecimal} against fixed-point arithmetic
+ * on {@code long} minor units (what the columnar store keeps), over the same amounts at two
+ * decimal places. Both fold {@value #AMOUNTS} mixed deposits and withdrawals per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AmountArithmeticBenchmark {
+
+    private static final int AMOUNTS = 1024;
+    private static final int SCALE = 2;
+
+    BigDecimal[] decimals;
+    long[] minorUnits;
+    boolean[] withdrawals;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        decimals = new BigDecimal[AMOUNTS];
+        minorUnits = new long[AMOUNTS];
+        withdrawals = new boolean[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            long units = 1 + random.nextInt(1_000_000);
+            minorUnits[i] = units;
+            decimals[i] = BigDecimal.valueOf(units, SCALE);
+            withdrawals[i] = random.nextInt(4) == 0;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal balance = BigDecimal.ZERO;
+        for (int i = 0; i < AMOUNTS; i++) {
+            balance = withdrawals[i] ? balance.subtract(decimals[i]) : balance.add(decimals[i]);
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public long fixedPoint() {
+        long balance = 0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            balance = withdrawals[i] ? Math.subtractExact(balance, minorUnits[i]) : Math.addExact(balance, minorUnits[i]);
+        }
+        return balance;
+    }
+
+    /**
+     * Fixed-point arithmetic plus converting the result back to a {@link BigDecimal}, as a
+     * response would need.
+     */
+    @Benchmark
+    public BigDecimal fixedPointToDecimal() {
+        return BigDecimal.valueOf(fixedPoint(), SCALE);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.TinyLedgerApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end ingest rate over HTTP: one {@code POST /transaction} per deposit against
+ * {@code POST /transactions/batch} carrying {@value #BATCH_SIZE} deposits.
+ *
+ * Scores are transactions per millisecond for both methods. The application runs in the
+ * benchmark JVM on a random port; {@code sync=EVERY_WRITE} turns the journal on with an
+ * fsync per request, where batching also saves fsyncs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class BatchIngestBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String DEPOSIT = "{\"amount\": 1.00, \"type\": \"DEPOSIT\"}";
+
+    @Param({"locking", "sequencer"})
+    public String engine;
+
+    @Param({"off", "EVERY_WRITE"})
+    public String sync;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    HttpRequest single;
+    HttpRequest batch;
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger-ingest");
+        context = new SpringApplicationBuilder(TinyLedgerApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "ledger.engine=" + ("sequencer".equals(engine) ? "SEQUENCER" : "LOCKING"),
+                        "ledger.journal.enabled=" + !"off".equals(sync),
+                        "ledger.journal.sync-policy=" + ("off".equals(sync) ? "EVERY_WRITE" : sync),
+                        "ledger.journal.path=" + directory.resolve("ledger.journal"),
+                        "ledger.snapshot.enabled=false")
+                .run();
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/ledger";
+
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            body.append(i == 0 ? "" : ",").append(DEPOSIT);
+        }
+        body.append(']');
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        single = post(base + "/transaction", DEPOSIT);
+        batch = post(base + "/transactions/batch", body.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public int single() throws Exception {
+        return send(single);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int batch() throws Exception {
+        return send(batch);
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private static HttpRequest post(String uri, String json) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
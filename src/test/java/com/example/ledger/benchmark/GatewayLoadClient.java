@@ -0,0 +1,194 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.gateway.BinaryGateway;
+import com.example.ledger.gateway.GatewayProtocol;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.service.SequencedLedgerService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator for the {@link BinaryGateway}: messages per second and ack latency.
+ *
+ * Each connection runs on its own thread and keeps {@code depth} deposits in flight. Every
+ * ack read is answered with a new request, and all requests for one read go out in one
+ * write. Latency is from the write of a request to the read of its ack. Without a target
+ * address the gateway is started in this JVM on the given engine.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath com.example.ledger.benchmark.GatewayLoadClient 4 128 20 localhost:9090"
+ * </pre>
+ *
+ * Arguments: connections (4), requests in flight per connection (128), seconds (20) and the
+ * gateway's {@code host:port}, or {@code locking} / {@code sequencer} for an embedded gateway
+ * on that engine ({@code locking}). Each connection deposits to 100 accounts of its own.
+ * The first fifth of the run warms up and is not measured.
+ */
+public class GatewayLoadClient {
+
+    private static final int ACCOUNTS_PER_CONNECTION = 100;
+    private static final int MAX_SAMPLES_PER_CONNECTION = 10_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 128;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        String target = args.length > 3 ? args[3] : "locking";
+
+        LedgerService ledger = null;
+        BinaryGateway gateway = null;
+        InetSocketAddress address;
+        if (target.contains(":")) {
+            int colon = target.lastIndexOf(':');
+            address = new InetSocketAddress(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1)));
+        } else {
+            ledger = "sequencer".equals(target) ? new SequencedLedgerService() : new InMemoryLedgerService();
+            gateway = new BinaryGateway(ledger, new InetSocketAddress("localhost", 0), 1, 2);
+            address = new InetSocketAddress("localhost", gateway.getPort());
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(seconds) / 5;
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        List<Connection> clients = new ArrayList<>(connections);
+        List<Thread> threads = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            Connection client = new Connection(i, address, depth, measureFrom, deadline);
+            Thread thread = new Thread(client, "gateway-client-" + i);
+            clients.add(client);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long count = 0;
+        long errors = 0;
+        for (Connection client : clients) {
+            count += client.sampled;
+            errors += client.errors;
+        }
+        long[] latencies = new long[(int) Math.min(count, Integer.MAX_VALUE - 8)];
+        int offset = 0;
+        for (Connection client : clients) {
+            System.arraycopy(client.samples, 0, latencies, offset, client.sampled);
+            offset += client.sampled;
+        }
+        Arrays.sort(latencies);
+        double measuredSeconds = seconds - seconds / 5.0;
+        System.out.printf("%s: %d connections x %d in flight: %,d msg/s  p50 %s  p99 %s  p999 %s  max %s"
+                        + "  errors %,d%n",
+                target, connections, depth, (long) (count / measuredSeconds), micros(latencies, 0.5),
+                micros(latencies, 0.99), micros(latencies, 0.999), micros(latencies, 1.0), errors);
+
+        if (gateway != null) {
+            gateway.close();
+        }
+        if (ledger instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static String micros(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return "-";
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return String.format("%.0fus", sorted[Math.max(0, index)] / 1e3);
+    }
+
+    private static final class Connection implements Runnable {
+        private final InetSocketAddress address;
+        private final int depth;
+        private final long measureFrom;
+        private final long deadline;
+        private final byte[][] accounts = new byte[ACCOUNTS_PER_CONNECTION][];
+        private final long[] sentAt;
+        private final long[] samples = new long[MAX_SAMPLES_PER_CONNECTION];
+        private int sampled;
+        private long errors;
+        private long nextCorrelationId;
+
+        Connection(int index, InetSocketAddress address, int depth, long measureFrom, long deadline) {
+            this.address = address;
+            this.depth = depth;
+            this.measureFrom = measureFrom;
+            this.deadline = deadline;
+            this.sentAt = new long[depth];
+            for (int i = 0; i < ACCOUNTS_PER_CONNECTION; i++) {
+                accounts[i] = ("gateway-" + index + "-" + i).getBytes(StandardCharsets.US_ASCII);
+            }
+        }
+
+        @Override
+        public void run() {
+            ByteBuffer out = ByteBuffer.allocateDirect(depth * (GatewayProtocol.REQUEST_HEADER_BYTES
+                    + GatewayProtocol.MAX_ACCOUNT_LENGTH));
+            ByteBuffer in = ByteBuffer.allocateDirect(depth * GatewayProtocol.ACK_BYTES);
+            try (SocketChannel channel = SocketChannel.open(address)) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                long now = System.nanoTime();
+                for (int i = 0; i < depth; i++) {
+                    send(out, now);
+                }
+                flush(channel, out);
+                long inFlight = depth;
+                while (inFlight > 0) {
+                    if (channel.read(in) < 0) {
+                        throw new IOException("Gateway closed the connection");
+                    }
+                    in.flip();
+                    now = System.nanoTime();
+                    boolean sending = now < deadline;
+                    while (in.remaining() >= GatewayProtocol.ACK_BYTES) {
+                        long correlationId = in.getLong();
+                        byte status = in.get();
+                        in.getLong();
+                        long sent = sentAt[(int) (correlationId % depth)];
+                        if (status != GatewayProtocol.OK) {
+                            errors++;
+                        } else if (sent >= measureFrom && sampled < samples.length) {
+                            samples[sampled++] = now - sent;
+                        }
+                        if (sending) {
+                            send(out, now);
+                        } else {
+                            inFlight--;
+                        }
+                    }
+                    in.compact();
+                    flush(channel, out);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void send(ByteBuffer out, long now) {
+            long correlationId = nextCorrelationId++;
+            sentAt[(int) (correlationId % depth)] = now;
+            byte[] account = accounts[(int) (correlationId % ACCOUNTS_PER_CONNECTION)];
+            GatewayProtocol.putRequest(out, GatewayProtocol.DEPOSIT, account, 1 + correlationId % 100, correlationId);
+        }
+
+        private static void flush(SocketChannel channel, ByteBuffer out) throws IOException {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            out.clear();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.id.IdGenerator;
+import com.example.ledger.id.IdIndex;
+import com.example.ledger.id.SnowflakeIdGenerator;
+import com.example.ledger.id.UuidIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing a transaction id and of looking one up in an {@link IdIndex} holding
+ * {@code indexed} ids, for random UUIDs against Snowflake ids.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class IdBenchmark {
+
+    @Param({"uuid", "snowflake"})
+    public String ids;
+
+    @Param({"1000000"})
+    public int indexed;
+
+    IdGenerator generator;
+    IdIndex<Object> index;
+    String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = "snowflake".equals(ids) ? new SnowflakeIdGenerator(0) : new UuidIdGenerator();
+        index = new IdIndex<>();
+        keys = new String[indexed];
+        Object owner = new Object();
+        for (int i = 0; i < indexed; i++) {
+            keys[i] = generator.next();
+            index.put(keys[i], owner, i);
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public Object lookup() {
+        return index.find(keys[ThreadLocalRandom.current().nextInt(indexed)]);
+    }
+}
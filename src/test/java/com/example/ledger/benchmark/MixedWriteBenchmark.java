@@ -0,0 +1,119 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.id.UuidIdGenerator;
+import com.example.ledger.metrics.LedgerMetrics;
+import com.example.ledger.metrics.MeteredLedgerService;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.service.LockObserver;
+import com.example.ledger.service.SequencedLedgerService;
+import com.example.ledger.store.HeapTransactionStore;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code recordTransaction} throughput with a mixed load: every fourth write is a withdrawal.
+ * Accounts start with a balance large enough that no withdrawal is rejected. With
+ * {@code metrics=on} the engine is timed and its locks observed into a Prometheus registry,
+ * as in the application; {@code -prof gc} shows that this adds no allocation.
+ *
+ * {@link #main} runs every engine and account layout at 1, 4 and 16 threads and writes one
+ * JSON result file per thread count to {@code target}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MixedWriteBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000000");
+    private static final int MAX_THREADS = 16;
+
+    @Param({"locking", "sequencer"})
+    public String engine;
+
+    @Param({"shared", "perThread"})
+    public String accounts;
+
+    @Param({"off", "on"})
+    public String metrics;
+
+    LedgerService ledgerService;
+    final AtomicInteger nextAccount = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LedgerMetrics ledgerMetrics = "on".equals(metrics)
+                ? new LedgerMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT))
+                : null;
+        LockObserver lockObserver = ledgerMetrics != null ? ledgerMetrics : LockObserver.NONE;
+        ledgerService = "sequencer".equals(engine)
+                ? new SequencedLedgerService(SequencedLedgerService.DEFAULT_RING_SIZE, accountId -> new HeapTransactionStore(),
+                        new UuidIdGenerator(), null, null, lockObserver)
+                : new InMemoryLedgerService(accountId -> new HeapTransactionStore(), new UuidIdGenerator(),
+                        null, null, lockObserver);
+        if (ledgerMetrics != null) {
+            ledgerService = new MeteredLedgerService(ledgerService, ledgerMetrics);
+        }
+        ledgerService.recordTransaction(LedgerService.DEFAULT_ACCOUNT, OPENING_BALANCE, TransactionType.DEPOSIT);
+        for (int i = 0; i < MAX_THREADS; i++) {
+            ledgerService.recordTransaction("account-" + i, OPENING_BALANCE, TransactionType.DEPOSIT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        LedgerService engine = ledgerService instanceof MeteredLedgerService metered ? metered.getDelegate() : ledgerService;
+        if (engine instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadAccount {
+        String accountId;
+        int writes;
+
+        @Setup(Level.Trial)
+        public void setUp(MixedWriteBenchmark benchmark) {
+            accountId = "shared".equals(benchmark.accounts)
+                    ? LedgerService.DEFAULT_ACCOUNT
+                    : "account-" + benchmark.nextAccount.getAndIncrement() % MAX_THREADS;
+        }
+
+        TransactionType nextType() {
+            return (++writes & 3) == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT;
+        }
+    }
+
+    @Benchmark
+    public Object record(ThreadAccount thread) {
+        return ledgerService.recordTransaction(thread.accountId, AMOUNT, thread.nextType());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 4, 16}) {
+            Options options = new OptionsBuilder()
+                    .include(MixedWriteBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-MixedWriteBenchmark-" + threads + "t.json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.service.SequencedLedgerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read latency of {@code getCurrentBalance} and of a {@code getTransactionHistory} page while
+ * another thread keeps writing to the same account.
+ *
+ * Each group pairs one writer with three readers; the writer's score is reported alongside,
+ * so a read path that slows writes down shows up too. The account is preloaded with
+ * {@code history} transactions and the page is read from its middle.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ReadUnderWriteBenchmark {
+
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"locking", "sequencer"})
+    public String engine;
+
+    @Param({"100000"})
+    public int history;
+
+    LedgerService ledgerService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ledgerService = "sequencer".equals(engine) ? new SequencedLedgerService() : new InMemoryLedgerService();
+        for (int i = 0; i < history; i++) {
+            ledgerService.recordTransaction(AMOUNT, TransactionType.DEPOSIT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (ledgerService instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    @Group("balance")
+    @GroupThreads(3)
+    public Object balance() {
+        return ledgerService.getCurrentBalance();
+    }
+
+    @Benchmark
+    @Group("balance")
+    @GroupThreads(1)
+    public Object balanceWriter() {
+        return ledgerService.recordTransaction(AMOUNT, TransactionType.DEPOSIT);
+    }
+
+    @Benchmark
+    @Group("history")
+    @GroupThreads(3)
+    public Object historyPage() {
+        return ledgerService.getTransactionHistory(LedgerService.DEFAULT_ACCOUNT, history / 2, PAGE_SIZE);
+    }
+
+    @Benchmark
+    @Group("history")
+    @GroupThreads(1)
+    public Object historyWriter() {
+        return ledgerService.recordTransaction(AMOUNT, TransactionType.DEPOSIT);
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.TinyLedgerApplication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Leader and followers as separate JVMs on this machine: write throughput on the leader,
+ * read throughput spread over the followers, read-your-writes and replication lag.
+ *
+ * Starts a leader with its journal in a temporary directory and {@code followers} follower
+ * processes, each on ports of its own. Writer threads deposit to the leader; reader threads
+ * read balances round-robin from the followers, passing the sequence of the last write to
+ * the account as {@code minSequence}, so every read must see it. A monitor polls each
+ * follower's {@code /api/ledger/replication} for its lag in transactions. The first fifth
+ * of the run warms up and is not measured.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath com.example.ledger.benchmark.ReplicationLoadTest 2 20 4 8"
+ * </pre>
+ *
+ * Arguments: followers (2), seconds (20), writer threads (4) and reader threads (8). Node
+ * output goes to {@code target/replication-*.log}.
+ */
+public class ReplicationLoadTest {
+
+    private static final int ACCOUNTS = 100;
+    private static final Pattern SEQUENCE = Pattern.compile("\"sequence\":(\\d+)");
+    private static final Pattern LAG = Pattern.compile("\"lag\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        int followerCount = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int writers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int readers = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        Path data = Files.createTempDirectory("ledger-replication");
+        int replicationPort = freePort();
+        List<Process> nodes = new ArrayList<>();
+        try {
+            int leaderPort = freePort();
+            nodes.add(start("leader", leaderPort,
+                    "--ledger.journal.enabled=true",
+                    "--ledger.journal.path=" + data.resolve("leader.journal"),
+                    "--ledger.journal.sync-policy=INTERVAL",
+                    "--ledger.replication.role=LEADER",
+                    "--ledger.replication.port=" + replicationPort));
+            int[] followerPorts = new int[followerCount];
+            for (int i = 0; i < followerCount; i++) {
+                followerPorts[i] = freePort();
+                nodes.add(start("follower-" + (i + 1), followerPorts[i],
+                        "--ledger.replication.role=FOLLOWER",
+                        "--ledger.replication.leader=localhost:" + replicationPort));
+            }
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            awaitUp(client, leaderPort);
+            for (int port : followerPorts) {
+                awaitUp(client, port);
+            }
+            run(client, leaderPort, followerPorts, seconds, writers, readers);
+        } finally {
+            for (Process node : nodes) {
+                node.destroy();
+            }
+            for (Process node : nodes) {
+                node.waitFor(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static void run(HttpClient client, int leaderPort, int[] followerPorts, int seconds, int writers,
+                            int readers) throws Exception {
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(seconds) / 5;
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLongArray lastSequence = new AtomicLongArray(ACCOUNTS);
+        AtomicLong writes = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong staleReads = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long[][] readLatencies = new long[readers][];
+        int[] readSamples = new int[readers];
+        List<Long> lags = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(start(() -> {
+                for (long n = 0; System.nanoTime() < deadline; n++) {
+                    int account = (int) ((n * writers + writer) % ACCOUNTS);
+                    try {
+                        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                                        URI.create("http://localhost:" + leaderPort + "/api/ledger/account-" + account
+                                                + "/transaction"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":1.00,\"type\":\"DEPOSIT\"}"))
+                                .build(), HttpResponse.BodyHandlers.ofString());
+                        Matcher sequence = SEQUENCE.matcher(response.body());
+                        if (response.statusCode() != 200 || !sequence.find()) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        lastSequence.accumulateAndGet(account, Long.parseLong(sequence.group(1)), Math::max);
+                        if (System.nanoTime() >= measureFrom) {
+                            writes.incrementAndGet();
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            int reader = r;
+            readLatencies[r] = new long[5_000_000];
+            threads.add(start(() -> {
+                for (long n = 0; System.nanoTime() < deadline; n++) {
+                    int account = (int) ((n * 7 + reader) % ACCOUNTS);
+                    int port = followerPorts[(int) ((n + reader) % followerPorts.length)];
+                    long minSequence = lastSequence.get(account);
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + port + "/api/ledger/account-" + account
+                                        + "/balance?minSequence=" + minSequence)).build(),
+                                HttpResponse.BodyHandlers.ofString());
+                        long latency = System.nanoTime() - sent;
+                        Matcher sequence = SEQUENCE.matcher(response.body());
+                        if (response.statusCode() == 503) {
+                            staleReads.incrementAndGet();
+                        } else if (response.statusCode() != 200 || !sequence.find()
+                                || Long.parseLong(sequence.group(1)) < minSequence) {
+                            errors.incrementAndGet();
+                        } else if (sent >= measureFrom) {
+                            reads.incrementAndGet();
+                            if (readSamples[reader] < readLatencies[reader].length) {
+                                readLatencies[reader][readSamples[reader]++] = latency;
+                            }
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(200);
+            if (System.nanoTime() < measureFrom) {
+                continue;
+            }
+            for (int port : followerPorts) {
+                Matcher lag = LAG.matcher(get(client, port, "/api/ledger/replication"));
+                if (lag.find()) {
+                    lags.add(Long.parseLong(lag.group(1)));
+                }
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] latencies = new long[Arrays.stream(readSamples).sum()];
+        int offset = 0;
+        for (int r = 0; r < readers; r++) {
+            System.arraycopy(readLatencies[r], 0, latencies, offset, readSamples[r]);
+            offset += readSamples[r];
+        }
+        Arrays.sort(latencies);
+        long[] sortedLags = lags.stream().mapToLong(Long::longValue).sorted().toArray();
+        double measured = seconds * 0.8;
+        System.out.printf("%d followers, %d writers, %d readers, %d cores%n", followerPorts.length, writers, readers,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("writes on leader:       %,d/s%n", (long) (writes.get() / measured));
+        System.out.printf("reads on followers:     %,d/s (%,d/s per follower)  p50 %.2fms  p99 %.2fms%n",
+                (long) (reads.get() / measured), (long) (reads.get() / measured / followerPorts.length),
+                millis(latencies, 0.5), millis(latencies, 0.99));
+        System.out.printf("read-your-writes:       %,d reads timed out waiting for their sequence, %,d errors%n",
+                staleReads.get(), errors.get());
+        System.out.printf("replication lag:        p50 %d  p99 %d  max %d transactions (%d samples)%n",
+                percentile(sortedLags, 0.5), percentile(sortedLags, 0.99), percentile(sortedLags, 1.0),
+                sortedLags.length);
+    }
+
+    private static Thread start(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.start();
+        return thread;
+    }
+
+    private static Process start(String name, int port, String... properties) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx512m",
+                "-Dspring.devtools.restart.enabled=false",
+                "-cp", System.getProperty("java.class.path"),
+                TinyLedgerApplication.class.getName(),
+                "--server.port=" + port));
+        command.addAll(List.of(properties));
+        Path log = Path.of("target", "replication-" + name + ".log");
+        Files.createDirectories(log.getParent());
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private static void awaitUp(HttpClient client, int port) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline) {
+            if (!get(client, port, "/api/ledger/replication").isEmpty()) {
+                return;
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Node on port " + port + " did not start; see target/replication-*.log");
+    }
+
+    private static String get(HttpClient client, int port, String path) {
+        try {
+            return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+        } catch (IOException e) {
+            return "";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : percentile(sorted, quantile) / 1e6;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)];
+    }
+}
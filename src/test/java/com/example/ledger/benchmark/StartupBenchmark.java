@@ -0,0 +1,85 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.journal.SnapshotStore;
+import com.example.ledger.journal.SyncPolicy;
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to rebuild the ledger on startup from the journal alone against a snapshot plus
+ * the journal tail written after it.
+ *
+ * The setup writes {@code transactions} journal records (a snapshot is taken
+ * {@code tailSize} records before the end), so the 10M case needs a large heap and a
+ * few GB of disk: {@code -jvmArgs -Xmx12g}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int transactions;
+
+    @Param({"10000"})
+    public int tailSize;
+
+    @Param({"journal", "snapshot"})
+    public String recovery;
+
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger-startup");
+        SnapshotStore snapshots = new SnapshotStore(directory.resolve("snapshots"), 1);
+        try (TransactionJournal journal = open()) {
+            InMemoryLedgerService ledger = new InMemoryLedgerService(journal, snapshots);
+            BigDecimal amount = new BigDecimal("12.34");
+            for (int i = 0; i < transactions; i++) {
+                ledger.recordTransaction("account-" + (i % 16), amount, TransactionType.DEPOSIT);
+                if (i == transactions - tailSize) {
+                    ledger.writeSnapshot();
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object recover() throws IOException {
+        SnapshotStore snapshots = "snapshot".equals(recovery)
+                ? new SnapshotStore(directory.resolve("snapshots"), 1)
+                : null;
+        try (TransactionJournal journal = open()) {
+            return new InMemoryLedgerService(journal, snapshots);
+        }
+    }
+
+    private TransactionJournal open() throws IOException {
+        return TransactionJournal.open(directory.resolve("ledger.journal"), SyncPolicy.INTERVAL, 1,
+                Duration.ofSeconds(1));
+    }
+}
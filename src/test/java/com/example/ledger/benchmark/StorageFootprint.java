@@ -0,0 +1,118 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.store.ColumnarTransactionStore;
+import com.example.ledger.store.HeapTransactionStore;
+import com.example.ledger.store.TieredTransactionStore;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+
+/**
+ * Memory footprint and GC cost of heap, columnar and tiered history storage.
+ *
+ * Fills one ledger with {@code transactions} deposits spread over {@code accounts} accounts
+ * (one by default), then reports heap and direct memory per transaction and per account (and memory-mapped bytes for tiered storage, which writes its segments to a
+ * temporary directory), the time of a full GC with the history live, and the pauses of the young
+ * collections caused by a fixed amount of short-lived garbage allocated on top of it.
+ * Run one storage type per JVM so the numbers do not mix:
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-Xmx8g -XX:MaxDirectMemorySize=4g -cp %classpath com.example.ledger.benchmark.StorageFootprint columnar 10000000"
+ * </pre>
+ *
+ * Many accounts with short histories show the fixed cost of an account rather than of a
+ * transaction, e.g. {@code columnar 1000000 100000} for 100,000 accounts of 10 transactions.
+ */
+public class StorageFootprint {
+
+    public static void main(String[] args) throws IOException {
+        String storage = args.length > 0 ? args[0] : "heap";
+        int transactions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int accounts = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        String[] accountIds = new String[accounts];
+        for (int a = 0; a < accounts; a++) {
+            accountIds[a] = accounts == 1 ? LedgerService.DEFAULT_ACCOUNT : "account-" + a;
+        }
+
+        long heapBefore = usedHeapAfterGc();
+        long directBefore = directMemory();
+        long mappedBefore = bufferPoolMemory("mapped");
+
+        LedgerService ledger = switch (storage) {
+            case "columnar" ->
+                    new InMemoryLedgerService(accountId -> new ColumnarTransactionStore(accountId, 2), null, null);
+            case "tiered" -> new InMemoryLedgerService(TieredTransactionStore.inDirectory(
+                    Files.createTempDirectory("ledger-history"), 2, 16_384), null, null);
+            default -> new InMemoryLedgerService(accountId -> new HeapTransactionStore(), null, null);
+        };
+        BigDecimal amount = new BigDecimal("12.34");
+        for (int i = 0; i < transactions; i++) {
+            ledger.recordTransaction(accountIds[i % accounts], amount, TransactionType.DEPOSIT);
+        }
+
+        long gcCountBefore = totalCollections();
+        long gcTimeBefore = totalCollectionMillis();
+        long fullGcStart = System.nanoTime();
+        long heapAfter = usedHeapAfterGc();
+        long fullGcMillis = (System.nanoTime() - fullGcStart) / 1_000_000;
+        long directAfter = directMemory();
+        long mappedAfter = bufferPoolMemory("mapped");
+
+        long churnCollections = totalCollections();
+        long churnMillis = totalCollectionMillis();
+        long sink = 0;
+        for (int i = 0; i < 50_000_000; i++) {
+            sink += new byte[128].length;
+        }
+        churnCollections = totalCollections() - churnCollections;
+        churnMillis = totalCollectionMillis() - churnMillis;
+
+        System.out.printf("storage=%s transactions=%,d accounts=%,d%n", storage, transactions, accounts);
+        System.out.printf("heap bytes/transaction:   %.1f (%.0f per account)%n",
+                (heapAfter - heapBefore) / (double) transactions, (heapAfter - heapBefore) / (double) accounts);
+        System.out.printf("direct bytes/transaction: %.1f (%.0f per account)%n",
+                (directAfter - directBefore) / (double) transactions, (directAfter - directBefore) / (double) accounts);
+        System.out.printf("mapped bytes/transaction: %.1f%n", (mappedAfter - mappedBefore) / (double) transactions);
+        System.out.printf("full GC with live history: %d ms%n", fullGcMillis);
+        System.out.printf("young GCs under churn: %d collections, %d ms total, %.2f ms avg%n",
+                churnCollections, churnMillis, churnCollections == 0 ? 0.0 : churnMillis / (double) churnCollections);
+        System.out.printf("(collections during fill: %d, %d ms; checksum %d, balance %s)%n",
+                gcCountBefore, gcTimeBefore, sink, ledger.getCurrentBalance(accountIds[0]));
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directMemory() {
+        return bufferPoolMemory("direct");
+    }
+
+    private static long bufferPoolMemory(String name) {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals(name))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private static long totalCollections() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long totalCollectionMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.dto.TransactionJsonWriter;
+import com.example.ledger.dto.TransactionResponse;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serialize a history response. {@code jackson} is the previous path: copy every
+ * transaction into a {@link TransactionResponse} and serialize the list with the object
+ * mapper the application uses. {@code writer} writes the transactions directly with
+ * {@link TransactionJsonWriter}. Both produce the same bytes, and output goes to a
+ * discarding stream, so only serialization is measured. Run with {@code -prof gc} for
+ * bytes allocated per operation ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class TransactionJsonBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    ObjectMapper objectMapper;
+    List<Transaction> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        transactions = new ArrayList<>(entries);
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 9, 0);
+        for (int i = 0; i < entries; i++) {
+            transactions.add(new Transaction(
+                    UUID.randomUUID().toString(),
+                    "account-" + i % 16,
+                    i + 1L,
+                    BigDecimal.valueOf(1 + i % 100_000, 2),
+                    i % 4 == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT,
+                    start.plusNanos(i * 1_000_000L)));
+        }
+    }
+
+    @Benchmark
+    public void jackson() throws IOException {
+        List<TransactionResponse> responses = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            responses.add(TransactionResponse.of(transaction));
+        }
+        objectMapper.writeValue(OutputStream.nullOutputStream(), responses);
+    }
+
+    @Benchmark
+    public void writer() throws IOException {
+        TransactionJsonWriter writer = new TransactionJsonWriter(OutputStream.nullOutputStream());
+        writer.writeArray(transactions);
+        writer.flush();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.TinyLedgerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servlet stack (Spring MVC on Tomcat) against the reactive stack (WebFlux on Netty, the
+ * {@code reactive} profile) on the same engine, at increasing numbers of connections.
+ *
+ * Each connection records a deposit and then reads the balance, back to back. For every
+ * stack and connection count the test prints requests per second per core, p50/p99/p999
+ * latency and the number of server threads handling requests. The last line per stack is the
+ * most connections per core it served with p99 under {@code p99Millis}. The first fifth of
+ * each run warms up and is not measured.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-Xmx2g -cp %classpath com.example.ledger.benchmark.WebStackLoadTest 1000,4000,10000 20 LOCKING 100"
+ * </pre>
+ *
+ * Arguments: comma-separated connection counts (1000,4000,10000), seconds per run (20),
+ * engine (LOCKING or SEQUENCER) and the p99 target in milliseconds (100). The client runs in
+ * the same JVM and shares its cores. It is closed-loop, so latencies leave out time a request
+ * would have waited to be sent under a fixed arrival rate.
+ */
+public class WebStackLoadTest {
+
+    private static final int ACCOUNTS = 1_000;
+    private static final int MAX_SAMPLES = 20_000_000;
+    private static final Map<String, List<String>> SERVER_THREAD_PREFIXES = Map.of(
+            "servlet", List.of("http-nio-"),
+            "reactive", List.of("reactor-http-", "boundedElastic-"));
+
+    public static void main(String[] args) throws Exception {
+        int[] connectionCounts = Arrays.stream((args.length > 0 ? args[0] : "1000,4000,10000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String engine = args.length > 2 ? args[2] : "LOCKING";
+        double p99Target = args.length > 3 ? Double.parseDouble(args[3]) : 100;
+        // devtools is on the test classpath and would restart this main method
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (String stack : List.of("servlet", "reactive")) {
+            int best = 0;
+            for (int connections : connectionCounts) {
+                Result result = run(stack, engine, connections, seconds);
+                System.out.printf("%-8s %,6d conn  %,8d req/s/core  p50 %7.1fms  p99 %7.1fms  p999 %7.1fms"
+                                + "  server threads %,d  errors %,d%n",
+                        stack, connections, result.throughput / cores, result.p50, result.p99, result.p999,
+                        result.serverThreads, result.errors);
+                if (result.p99 <= p99Target && result.errors == 0) {
+                    best = connections;
+                }
+            }
+            System.out.printf("%-8s %,d connections per core with p99 <= %.0fms (%d cores, %s engine)%n",
+                    stack, best / cores, p99Target, cores, engine);
+        }
+    }
+
+    private static Result run(String stack, String engine, int connections, int seconds) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TinyLedgerApplication.class)
+                .profiles("reactive".equals(stack) ? new String[]{"reactive"} : new String[0])
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "ledger.engine=" + engine,
+                        "server.tomcat.max-connections=" + (connections + 1_000),
+                        "server.tomcat.accept-count=" + connections)
+                .run();
+        try {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/ledger/";
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            long now = System.nanoTime();
+            long measureFrom = now + TimeUnit.SECONDS.toNanos(seconds) / 5;
+            Load load = new Load(client, base, measureFrom, now + TimeUnit.SECONDS.toNanos(seconds));
+            List<CompletableFuture<Void>> loops = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                loops.add(load.loop(i % ACCOUNTS, true));
+            }
+            CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).get(seconds + 120L, TimeUnit.SECONDS);
+            return load.result(seconds - seconds / 5.0, serverThreads(stack));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static int serverThreads(String stack) {
+        List<String> prefixes = SERVER_THREAD_PREFIXES.get(stack);
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && prefixes.stream().anyMatch(thread.getName()::startsWith))
+                .count();
+    }
+
+    private record Result(long throughput, double p50, double p99, double p999, int serverThreads, long errors) {
+    }
+
+    private static final class Load {
+        private final HttpClient client;
+        private final HttpRequest[] deposits = new HttpRequest[ACCOUNTS];
+        private final HttpRequest[] balances = new HttpRequest[ACCOUNTS];
+        private final long measureFrom;
+        private final long deadline;
+        private final long[] samples = new long[MAX_SAMPLES];
+        private final AtomicInteger sampled = new AtomicInteger();
+        private final AtomicLong errors = new AtomicLong();
+
+        Load(HttpClient client, String base, long measureFrom, long deadline) {
+            this.client = client;
+            for (int i = 0; i < ACCOUNTS; i++) {
+                deposits[i] = HttpRequest.newBuilder(URI.create(base + "account-" + i + "/transaction"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"amount\": 1.00, \"type\": \"DEPOSIT\"}"))
+                        .build();
+                balances[i] = HttpRequest.newBuilder(URI.create(base + "account-" + i + "/balance")).build();
+            }
+            this.measureFrom = measureFrom;
+            this.deadline = deadline;
+        }
+
+        CompletableFuture<Void> loop(int account, boolean write) {
+            if (System.nanoTime() >= deadline) {
+                return CompletableFuture.completedFuture(null);
+            }
+            long start = System.nanoTime();
+            HttpRequest request = write ? deposits[account] : balances[account];
+            return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else if (start >= measureFrom) {
+                            int index = sampled.getAndIncrement();
+                            if (index < samples.length) {
+                                samples[index] = System.nanoTime() - start;
+                            }
+                        }
+                        return null;
+                    })
+                    .thenCompose(ignored -> loop(account, !write));
+        }
+
+        Result result(double measuredSeconds, int serverThreads) {
+            int count = Math.min(sampled.get(), samples.length);
+            long[] latencies = Arrays.copyOf(samples, count);
+            Arrays.sort(latencies);
+            return new Result((long) (count / measuredSeconds), millis(latencies, 0.5), millis(latencies, 0.99),
+                    millis(latencies, 0.999), serverThreads, errors.get());
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
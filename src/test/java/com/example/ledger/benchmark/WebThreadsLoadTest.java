@@ -0,0 +1,188 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.TinyLedgerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and tail latency of {@code GET /balance} while slow clients download the full
+ * history, with request handling on Tomcat's platform-thread pool against virtual threads.
+ *
+ * Each mode starts the application in this JVM. {@code slowClients} connections keep
+ * fetching the history and read it slowly, which keeps a request thread busy for each of
+ * them; all other connections send balance requests back to back. With 200 platform
+ * threads, balance requests queue behind the downloads once there are more slow clients
+ * than threads. Virtual threads need Java 21; on older JVMs the virtual mode is skipped.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-Xmx2g -cp %classpath com.example.ledger.benchmark.WebThreadsLoadTest 10000 400 30"
+ * </pre>
+ *
+ * Arguments: concurrent connections (10000), slow clients (400), seconds per mode (30).
+ * The client is closed-loop, so latencies are per request as sent and do not include time a
+ * request would have waited to be sent under a fixed arrival rate.
+ */
+public class WebThreadsLoadTest {
+
+    private static final int HISTORY_SIZE = 20_000;
+    private static final int SLOW_READ_BYTES = 8 * 1024;
+    private static final long SLOW_READ_PAUSE_MILLIS = 50;
+    private static final int MAX_SAMPLES = 20_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int slowClients = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        // devtools is on the test classpath and would restart this main method
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        run("platform", connections, slowClients, seconds);
+        if (Runtime.version().feature() >= 21) {
+            run("virtual", connections, slowClients, seconds);
+        } else {
+            System.out.println("virtual: skipped, needs Java 21+ (running " + Runtime.version() + ")");
+        }
+    }
+
+    private static void run(String mode, int connections, int slowClients, int seconds) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TinyLedgerApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                        "server.tomcat.max-connections=" + (connections + 1_000),
+                        "server.tomcat.accept-count=" + connections)
+                .run();
+        try {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/ledger";
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            preload(client, base);
+
+            Load load = new Load(client, base, System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds));
+            List<Thread> slow = new ArrayList<>(slowClients);
+            for (int i = 0; i < slowClients; i++) {
+                Thread thread = new Thread(load::downloadSlowly, "slow-client-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                slow.add(thread);
+            }
+            List<CompletableFuture<Void>> loops = new ArrayList<>();
+            for (int i = slowClients; i < connections; i++) {
+                loops.add(load.balanceLoop());
+            }
+            CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).get(seconds + 120L, TimeUnit.SECONDS);
+            for (Thread thread : slow) {
+                thread.join();
+            }
+            load.report(mode, seconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void preload(HttpClient client, String base) throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 1_000; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"amount\": 1.00, \"type\": \"DEPOSIT\"}");
+        }
+        body.append(']');
+        HttpRequest batch = HttpRequest.newBuilder(URI.create(base + "/transactions/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        for (int i = 0; i < HISTORY_SIZE / 1_000; i++) {
+            client.send(batch, HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    private static final class Load {
+        private final HttpClient client;
+        private final HttpRequest balance;
+        private final HttpRequest history;
+        private final long deadline;
+        private final long[] samples = new long[MAX_SAMPLES];
+        private final AtomicInteger sampled = new AtomicInteger();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong downloads = new AtomicLong();
+
+        Load(HttpClient client, String base, long deadline) {
+            this.client = client;
+            this.balance = HttpRequest.newBuilder(URI.create(base + "/balance")).build();
+            this.history = HttpRequest.newBuilder(URI.create(base + "/transactionHistory")).build();
+            this.deadline = deadline;
+        }
+
+        CompletableFuture<Void> balanceLoop() {
+            if (System.nanoTime() >= deadline) {
+                return CompletableFuture.completedFuture(null);
+            }
+            long start = System.nanoTime();
+            return client.sendAsync(balance, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else {
+                            int index = sampled.getAndIncrement();
+                            if (index < samples.length) {
+                                samples[index] = System.nanoTime() - start;
+                            }
+                        }
+                        return null;
+                    })
+                    .thenCompose(ignored -> balanceLoop());
+        }
+
+        void downloadSlowly() {
+            byte[] buffer = new byte[SLOW_READ_BYTES];
+            while (System.nanoTime() < deadline) {
+                try (InputStream body = client.send(history, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+                    while (body.read(buffer) >= 0 && System.nanoTime() < deadline) {
+                        Thread.sleep(SLOW_READ_PAUSE_MILLIS);
+                    }
+                    downloads.incrementAndGet();
+                } catch (IOException e) {
+                    errors.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        void report(String mode, int seconds) {
+            int count = Math.min(sampled.get(), samples.length);
+            long[] latencies = Arrays.copyOf(samples, count);
+            Arrays.sort(latencies);
+            System.out.printf("%-8s balance: %,d req/s  p50 %s  p99 %s  p999 %s  max %s  errors %,d  downloads %,d%n",
+                    mode, count / seconds, millis(latencies, 0.5), millis(latencies, 0.99), millis(latencies, 0.999),
+                    millis(latencies, 1.0), errors.get(), downloads.get());
+        }
+
+        private static String millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return "-";
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return String.format("%.1fms", sorted[Math.max(0, index)] / 1e6);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.service.SequencedLedgerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of the locking engine against the single-writer sequencer, with every
+ * thread hitting the same account (the worst case for the locking engine).
+ *
+ * Run with {@code -t 4} or {@code -t 16} to see how each engine behaves under contention;
+ * {@code -prof gc} shows the per-write allocation of each path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class WriteEngineBenchmark {
+
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"locking", "sequencer"})
+    public String engine;
+
+    LedgerService ledgerService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ledgerService = "sequencer".equals(engine) ? new SequencedLedgerService() : new InMemoryLedgerService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (ledgerService instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public Object deposit() {
+        return ledgerService.recordTransaction(AMOUNT, TransactionType.DEPOSIT);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.ledger.bulk;
+
+import com.example.ledger.exception.ImportFailedException;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkImporterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2019, 1, 1, 0, 0);
+
+    private LedgerService ledger;
+    private BulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new InMemoryLedgerService();
+        importer = new BulkImporter(ledger, 64, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importer.close();
+    }
+
+    @Test
+    void csvRecordsAreImportedInOrderWithTheirTimestamps() {
+        StringBuilder csv = new StringBuilder("timestamp,amount,type,accountId,note\n");
+        for (int i = 0; i < 5_000; i++) {
+            csv.append(START.plusSeconds(i)).append(',').append(i % 7 + 1).append(".25,DEPOSIT,account-")
+                    .append(i % 3).append(",\"a, \"\"quoted\"\" note\"\n");
+            if (i % 1000 == 999) {
+                csv.append('\n');
+            }
+        }
+
+        ImportProgress progress = importer.importFrom(input(csv.toString()), TransferFormat.CSV, 0);
+
+        assertEquals(5_000, progress.imported());
+        assertEquals(79, progress.batches());
+        assertEquals(5_000, progress.resumeFrom());
+        List<Transaction> history = ledger.getTransactionHistory("account-1");
+        assertEquals(1_667, history.size());
+        for (int i = 0; i < history.size(); i++) {
+            Transaction transaction = history.get(i);
+            assertEquals(i + 1, transaction.getSequence());
+            assertEquals(START.plusSeconds(3L * i + 1), transaction.getTimestamp());
+            assertEquals(new BigDecimal((3 * i + 1) % 7 + 1 + ".25"), transaction.getAmount());
+        }
+        assertTrue(importer.running().isEmpty());
+    }
+
+    @Test
+    void importStopsAtARecordGoingBackInTimeAndResumesFromItsBatch() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime timestamp = i == 150 ? START : START.plusMinutes(i);
+            ndjson.append(line("alice", TransactionType.DEPOSIT, "1.00", timestamp));
+        }
+
+        ImportFailedException failure = assertThrows(ImportFailedException.class, () ->
+                importer.importFrom(input(ndjson.toString()), TransferFormat.NDJSON, 0));
+
+        assertTrue(failure.getMessage().startsWith("Record 151: Timestamp"), failure.getMessage());
+        assertEquals(128, failure.getProgress().resumeFrom());
+        assertEquals(128, ledger.getVersion("alice"));
+
+        String fixed = ndjson.toString().replace(START.toString() + "\"", START.plusMinutes(150) + "\"");
+        ImportProgress resumed = importer.importFrom(input(fixed), TransferFormat.NDJSON, 128);
+        assertEquals(172, resumed.imported());
+        assertEquals(300, ledger.getVersion("alice"));
+        assertEquals(START.plusMinutes(299), ledger.getTransactionHistory("alice").get(299).getTimestamp());
+    }
+
+    @Test
+    void invalidRecordsAndOverdraftsAreReportedWithTheirRecordNumber() {
+        String ndjson = line("alice", TransactionType.DEPOSIT, "10", START)
+                + "{\"accountId\":\"alice\",\"type\":\"DEPOSIT\",\"amount\":-1,\"timestamp\":\"2019-01-01T00:01:00\"}\n";
+        ImportFailedException invalid = assertThrows(ImportFailedException.class, () ->
+                importer.importFrom(input(ndjson), TransferFormat.NDJSON, 0, "history"));
+        assertEquals("Record 2: Amount must be greater than zero. (0 records imported; resume with importId=history"
+                + " and skip=0)", invalid.getMessage());
+        assertEquals(0, ledger.getVersion("alice"));
+
+        String overdraft = line("alice", TransactionType.DEPOSIT, "10", START)
+                + line("alice", TransactionType.WITHDRAWAL, "10.01", START.plusMinutes(1));
+        ImportFailedException rejected = assertThrows(ImportFailedException.class, () ->
+                importer.importFrom(input(overdraft), TransferFormat.NDJSON, 0));
+        assertTrue(rejected.getMessage().startsWith("Record 2: Insufficient balance"), rejected.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                importer.importFrom(input("accountId,amount,timestamp\n"), TransferFormat.CSV, 0));
+    }
+
+    @Test
+    void resendingAnImportRecordsNothingTwiceAndKeepsSourceIds() {
+        String sourceId = "6f1c2a4e-3b7d-4c8e-9a0f-5d2e1b3c4a5f";
+        StringBuilder ndjson = new StringBuilder(line("alice", TransactionType.DEPOSIT, "5", START)
+                .replace("ignored", sourceId));
+        for (int i = 1; i < 200; i++) {
+            ndjson.append(line("alice", TransactionType.DEPOSIT, "1", START.plusMinutes(i)));
+        }
+        String head = ndjson.substring(0, ndjson.indexOf("\n", ndjson.indexOf("\n") + 1) + 1);
+        importer.importFrom(input(head), TransferFormat.NDJSON, 0, "history");
+
+        ImportProgress resent = importer.importFrom(input(ndjson.toString()), TransferFormat.NDJSON, 0, "history");
+
+        assertEquals(198, resent.imported());
+        assertEquals(2, resent.duplicates());
+        assertEquals(200, resent.resumeFrom());
+        assertEquals(200, ledger.getVersion("alice"));
+        assertEquals(new BigDecimal("204"), ledger.getCurrentBalance("alice"));
+        assertEquals(1, ledger.findTransaction(sourceId).orElseThrow().getSequence());
+        assertEquals(BulkImporter.recordId("history", 2),
+                ledger.getTransactionHistory("alice").get(1).getId());
+
+        ImportProgress again = importer.importFrom(input(ndjson.toString()), TransferFormat.NDJSON, 0, "history");
+        assertEquals(0, again.imported());
+        assertEquals(200, again.duplicates());
+        assertEquals(200, ledger.getVersion("alice"));
+    }
+
+    private static String line(String accountId, TransactionType type, String amount, LocalDateTime timestamp) {
+        return "{\"accountId\":\"" + accountId + "\",\"type\":\"" + type + "\",\"amount\":" + amount
+                + ",\"timestamp\":\"" + timestamp + "\",\"id\":\"ignored\"}\n";
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
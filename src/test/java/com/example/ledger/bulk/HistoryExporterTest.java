@@ -0,0 +1,72 @@
+package com.example.ledger.bulk;
+
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.service.SequencedLedgerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryExporterTest {
+
+    @Test
+    void exportsAreImportedBackAsTheyWere(@TempDir Path dir) throws Exception {
+        LedgerService source = new InMemoryLedgerService();
+        int count = HistoryExporter.PAGE_SIZE + 123;
+        for (int i = 0; i < count; i++) {
+            source.recordTransaction(i % 2 == 0 ? "alice" : "bob, \"the builder\"", BigDecimal.valueOf(i % 50 + 1, 2),
+                    TransactionType.DEPOSIT);
+        }
+        source.recordTransaction("alice", BigDecimal.ONE, TransactionType.WITHDRAWAL);
+        List<String> accounts = List.of("alice", "bob, \"the builder\"");
+        HistoryExporter exporter = new HistoryExporter(source);
+
+        for (TransferFormat format : TransferFormat.values()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(count + 1, exporter.export(accounts, format, out));
+
+            try (SequencedLedgerService target = new SequencedLedgerService(1024);
+                 BulkImporter importer = new BulkImporter(target, 1000, 2)) {
+                importer.importFrom(new ByteArrayInputStream(out.toByteArray()), format, 0);
+                for (String accountId : accounts) {
+                    assertSameHistory(source.getTransactionHistory(accountId), target.getTransactionHistory(accountId));
+                    assertEquals(source.getCurrentBalance(accountId), target.getCurrentBalance(accountId));
+                }
+            }
+        }
+
+        Path file = dir.resolve("alice.csv");
+        assertEquals(count / 2 + 2, exporter.export(List.of("alice"), TransferFormat.CSV, file));
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(HistoryExporter.CSV_HEADER, lines.get(0));
+        assertEquals(count / 2 + 3, lines.size());
+        assertFalse(Files.exists(dir.resolve("alice.csv.tmp")));
+
+        try (InputStream in = Files.newInputStream(file);
+             BulkImporter importer = new BulkImporter(new InMemoryLedgerService(), 500, 1)) {
+            assertEquals(count / 2 + 2, importer.importFrom(in, TransferFormat.CSV, 0).imported());
+        }
+    }
+
+    private static void assertSameHistory(List<Transaction> expected, List<Transaction> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getSequence(), actual.get(i).getSequence());
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).getAmount(), actual.get(i).getAmount());
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+        }
+    }
+}
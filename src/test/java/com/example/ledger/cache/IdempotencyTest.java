@@ -0,0 +1,84 @@
+package com.example.ledger.cache;
+
+import com.example.ledger.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyTest {
+
+    @Test
+    void replaysTheFirstResult() {
+        Idempotency<String> idempotency = new Idempotency<>(100, Duration.ofHours(1));
+        AtomicInteger runs = new AtomicInteger();
+
+        String first = idempotency.execute("key", "request", () -> "result-" + runs.incrementAndGet());
+        String retry = idempotency.execute("key", "request", () -> "result-" + runs.incrementAndGet());
+
+        assertEquals("result-1", first);
+        assertEquals("result-1", retry);
+        assertEquals(1, runs.get());
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotency.execute("key", "other request", () -> "never"));
+    }
+
+    @Test
+    void failuresAreNotRemembered() {
+        Idempotency<String> idempotency = new Idempotency<>(100, Duration.ofHours(1));
+
+        assertThrows(IllegalStateException.class, () -> idempotency.execute("key", "request", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("ok", idempotency.execute("key", "request", () -> "ok"));
+        assertEquals(0, idempotency.inFlight());
+    }
+
+    @Test
+    void concurrentRequestsWithTheSameKeyRunOnce() throws Exception {
+        Idempotency<Integer> idempotency = new Idempotency<>(100, Duration.ofHours(1));
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        results.add(executor.submit(() -> idempotency.execute("key", "request", () -> {
+            started.countDown();
+            await(release);
+            return runs.incrementAndGet();
+        })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> idempotency.execute("key", "request", runs::incrementAndGet)));
+        }
+        while (idempotency.collapsed() < 7) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertEquals(1, result.get());
+        }
+        assertEquals(1, runs.get());
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
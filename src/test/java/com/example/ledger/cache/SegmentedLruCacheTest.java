@@ -0,0 +1,61 @@
+package com.example.ledger.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedLruCacheTest {
+
+    @Test
+    void evictsKeysSeenOnceBeforeKeysReadAgain() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>(10, Duration.ofHours(1));
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, "hot" + i);
+            cache.get(i);
+        }
+
+        for (int i = 100; i < 200; i++) {
+            cache.put(i, "cold" + i);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("hot" + i, cache.get(i));
+        }
+        assertNull(cache.get(100));
+        assertEquals(10, cache.size());
+        assertEquals(95, cache.stats().evictions());
+    }
+
+    @Test
+    void entriesExpireAfterTheirTtl() {
+        AtomicLong now = new AtomicLong();
+        SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(100, Duration.ofSeconds(10), now::get);
+        cache.put("a", "1");
+
+        now.set(Duration.ofSeconds(9).toNanos());
+        assertEquals("1", cache.get("a"));
+        now.set(Duration.ofSeconds(10).toNanos());
+        assertNull(cache.get("a"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.expirations());
+        assertEquals(0, stats.size());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void largeCachesSpreadKeysOverStripes() {
+        SegmentedLruCache<Integer, Integer> cache = new SegmentedLruCache<>(10_000, Duration.ofHours(1));
+        for (int i = 0; i < 20_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= 10_000);
+        assertEquals(19_999, cache.get(19_999));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.config.LedgerProperties;
+import com.example.ledger.dto.AvailabilityResponse;
+import com.example.ledger.dto.CaptureRequest;
+import com.example.ledger.dto.HoldRequest;
+import com.example.ledger.dto.HoldResponse;
+import com.example.ledger.dto.TransactionResponse;
+import com.example.ledger.exception.HoldNotFoundException;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldControllerTest {
+
+    private LedgerService service;
+    private HoldController controller;
+
+    @BeforeEach
+    void setUp() {
+        service = new InMemoryLedgerService();
+        controller = new HoldController(service, new LedgerProperties());
+        service.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+    }
+
+    @Test
+    void testHoldIsPlacedCapturedAndReflectedInTheAvailableBalance() {
+        ResponseEntity<HoldResponse> placed = controller.placeHold("alice", new HoldRequest(BigDecimal.valueOf(60), null));
+        assertEquals(HttpStatus.CREATED, placed.getStatusCode());
+        HoldResponse hold = placed.getBody();
+        assertEquals(15, ChronoUnit.MINUTES.between(hold.getCreatedAt(), hold.getExpiresAt()));
+
+        AvailabilityResponse availability = controller.getAvailableBalance("alice").getBody();
+        assertEquals(BigDecimal.valueOf(40), availability.getAvailable());
+        assertEquals(BigDecimal.valueOf(60), availability.getHeld());
+
+        TransactionResponse capture = controller.captureHold(hold.getId(), new CaptureRequest(BigDecimal.TEN)).getBody();
+        assertEquals(TransactionType.WITHDRAWAL, capture.getType());
+        assertEquals(BigDecimal.valueOf(90), controller.getAvailableBalance("alice").getBody().getAvailable());
+        assertThrows(HoldNotFoundException.class, () -> controller.releaseHold(hold.getId()));
+    }
+
+    @Test
+    void testHoldLongerThanTheMaximumIsRejected() {
+        assertThrows(IllegalArgumentException.class, () ->
+                controller.placeHold("alice", new HoldRequest(BigDecimal.ONE, Duration.ofDays(31))));
+
+        HoldResponse hold = controller.placeHold("alice", new HoldRequest(BigDecimal.ONE, Duration.ofDays(1))).getBody();
+        assertEquals(hold.getId(), controller.releaseHold(hold.getId()).getBody().getId());
+        assertEquals(0, controller.getAvailableBalance("alice").getBody().getOpenHolds());
+    }
+}
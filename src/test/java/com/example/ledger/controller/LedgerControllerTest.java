@@ -2,25 +2,47 @@ package com.example.ledger.controller;
 
 
 import com.example.ledger.TestUtils;
+import com.example.ledger.cache.Idempotency;
+import com.example.ledger.cache.PageCache;
 import com.example.ledger.dto.BalanceResponse;
+import com.example.ledger.dto.BatchResponse;
+import com.example.ledger.dto.RollupResponse;
+import com.example.ledger.dto.TransactionPage;
 import com.example.ledger.dto.TransactionRequest;
 import com.example.ledger.dto.TransactionResponse;
+import com.example.ledger.exception.BatchRejectedException;
+import com.example.ledger.exception.IdempotencyKeyReusedException;
+import com.example.ledger.exception.TransactionNotFoundException;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.Granularity;
 import com.example.ledger.model.Transaction;
 import com.example.ledger.model.TransactionType;
 import com.example.ledger.service.InMemoryLedgerService;
 import com.example.ledger.service.LedgerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 
 class LedgerControllerTest {
@@ -43,7 +65,7 @@ class LedgerControllerTest {
     void testValidDeposit() throws Exception {
         TransactionRequest request = loadRequest("valid_deposit.json");
 
-        ResponseEntity<TransactionResponse> response = controller.recordTransaction(request);
+        ResponseEntity<TransactionResponse> response = controller.recordTransaction(request, null);
 
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(request.getAmount(), response.getBody().getAmount());
@@ -55,8 +77,8 @@ class LedgerControllerTest {
         TransactionRequest deposit = loadRequest("valid_deposit.json");
         TransactionRequest withdrawal = loadRequest("valid_withdrawal.json");
 
-        controller.recordTransaction(deposit);  // Ensure balance exists
-        ResponseEntity<TransactionResponse> response = controller.recordTransaction(withdrawal);
+        controller.recordTransaction(deposit, null);  // Ensure balance exists
+        ResponseEntity<TransactionResponse> response = controller.recordTransaction(withdrawal, null);
 
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(withdrawal.getAmount(), response.getBody().getAmount());
@@ -69,22 +91,23 @@ class LedgerControllerTest {
         TransactionRequest withdrawal = objectMapper.readValue(TestUtils.loadJson("valid_withdrawal.json"), TransactionRequest.class);
 
         // Act - record transactions
-        controller.recordTransaction(deposit);
-        controller.recordTransaction(withdrawal);
+        controller.recordTransaction(deposit, null);
+        controller.recordTransaction(withdrawal, null);
 
         // Call balance API
-        ResponseEntity<BalanceResponse> response = controller.getBalance();
+        ResponseEntity<BalanceResponse> response = controller.getBalance(null, null);
 
         // Assert
         BigDecimal expectedBalance = deposit.getAmount().subtract(withdrawal.getAmount());
 
         assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
         assertEquals(expectedBalance, response.getBody().getBalance());
+        assertEquals(2, response.getBody().getSequence());
     }
 
     @Test
     void testGetBalanceWithNoTransactions() {
-        ResponseEntity<BalanceResponse> response = controller.getBalance();
+        ResponseEntity<BalanceResponse> response = controller.getBalance(null, null);
 
         assertEquals(HttpStatus.OK.value(), response.getStatusCodeValue());
         assertEquals(BigDecimal.ZERO, response.getBody().getBalance());
@@ -94,14 +117,14 @@ class LedgerControllerTest {
     void testTransactionHistoryIsReturnedCorrectly() throws Exception {
         // First add a deposit
         TransactionRequest depositRequest = objectMapper.readValue(TestUtils.loadJson("valid_deposit.json"), TransactionRequest.class);
-        controller.recordTransaction(depositRequest);
+        controller.recordTransaction(depositRequest, null);
 
         // Then add a withdrawal
         TransactionRequest withdrawalRequest = objectMapper.readValue(TestUtils.loadJson("valid_withdrawal.json"), TransactionRequest.class);
-        controller.recordTransaction(withdrawalRequest);
+        controller.recordTransaction(withdrawalRequest, null);
 
         // Fetch history
-        ResponseEntity<List<TransactionResponse>> response = controller.getTransactionHistory();
+        ResponseEntity<List<TransactionResponse>> response = controller.getTransactionHistory(0, null, null, null, null, null, null);
 
         // Assertions
         assertEquals(200, response.getStatusCodeValue());
@@ -113,4 +136,264 @@ class LedgerControllerTest {
         assertEquals(TransactionType.DEPOSIT, first.getType());
         assertEquals(BigDecimal.valueOf(100), first.getAmount());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAccountScopedEndpoints() throws Exception {
+        TransactionRequest deposit = loadRequest("valid_deposit.json");
+
+        ResponseEntity<TransactionResponse> response = controller.recordTransaction("alice", deposit, null);
+
+        assertEquals("alice", response.getBody().getAccountId());
+        assertEquals(deposit.getAmount(), controller.getBalance("alice", null, null).getBody().getBalance());
+        assertEquals(1, controller.getTransactionHistory("alice", 0, null, null, null, null, null, null).getBody().size());
+        assertEquals(BigDecimal.ZERO, controller.getBalance(null, null).getBody().getBalance());
+    }
+
+    @Test
+    void testAccountIdInRequestBodyIsUsed() {
+        TransactionRequest deposit = new TransactionRequest("bob", BigDecimal.TEN, TransactionType.DEPOSIT);
+
+        controller.recordTransaction(deposit, null);
+
+        assertEquals(BigDecimal.TEN, controller.getBalance("bob", null, null).getBody().getBalance());
+    }
+
+    @Test
+    void testMismatchedAccountIdIsRejected() {
+        TransactionRequest deposit = new TransactionRequest("bob", BigDecimal.TEN, TransactionType.DEPOSIT);
+
+        assertThrows(IllegalArgumentException.class, () -> controller.recordTransaction("alice", deposit, null));
+    }
+
+    @Test
+    void testTransactionHistoryPagesFollowTheCursor() {
+        for (int i = 1; i <= 5; i++) {
+            controller.recordTransaction(new TransactionRequest(BigDecimal.valueOf(i), TransactionType.DEPOSIT), null);
+        }
+
+        ResponseEntity<List<TransactionResponse>> first = controller.getTransactionHistory(0, 2, null, null, null, null, null);
+        assertEquals(2, first.getBody().size());
+        assertEquals("2", first.getHeaders().getFirst(LedgerController.NEXT_CURSOR_HEADER));
+
+        ResponseEntity<List<TransactionResponse>> second = controller.getTransactionHistory(2, 2, null, null, null, null, null);
+        assertEquals(3, second.getBody().get(0).getSequence());
+        assertEquals("4", second.getHeaders().getFirst(LedgerController.NEXT_CURSOR_HEADER));
+
+        ResponseEntity<List<TransactionResponse>> last = controller.getTransactionHistory(4, 2, null, null, null, null, null);
+        assertEquals(1, last.getBody().size());
+        assertEquals(BigDecimal.valueOf(5), last.getBody().get(0).getAmount());
+        assertNull(last.getHeaders().getFirst(LedgerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testFullLastPageHasNoNextCursor() {
+        controller.recordTransaction(new TransactionRequest(BigDecimal.ONE, TransactionType.DEPOSIT), null);
+        controller.recordTransaction(new TransactionRequest(BigDecimal.ONE, TransactionType.DEPOSIT), null);
+
+        ResponseEntity<List<TransactionResponse>> page = controller.getTransactionHistory(0, 2, null, null, null, null, null);
+
+        assertEquals(2, page.getBody().size());
+        assertNull(page.getHeaders().getFirst(LedgerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testInvalidPageSizeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> controller.getTransactionHistory(0, 0, null, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> controller.getTransactionHistory(-1, 10, null, null, null, null, null));
+    }
+
+    @Test
+    void testHistoryStreamIsNewlineDelimitedJson() throws Exception {
+        controller.recordTransaction("alice", new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT), null);
+        controller.recordTransaction("alice", new TransactionRequest(BigDecimal.ONE, TransactionType.WITHDRAWAL), null);
+        controller.recordTransaction("alice", new TransactionRequest(BigDecimal.ONE, TransactionType.WITHDRAWAL), null);
+
+        StreamingResponseBody body = controller.streamTransactionHistory("alice", 1, null, null, null).getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        TransactionResponse second = objectMapper.findAndRegisterModules().readValue(lines[0], TransactionResponse.class);
+        assertEquals(2, second.getSequence());
+        assertEquals(TransactionType.WITHDRAWAL, second.getType());
+    }
+
+    @Test
+    void testBatchReportsItemsAndResultingBalances() {
+        List<TransactionRequest> batch = List.of(
+                new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT),
+                new TransactionRequest("alice", BigDecimal.ONE, TransactionType.WITHDRAWAL),
+                new TransactionRequest(BigDecimal.valueOf(3), TransactionType.WITHDRAWAL)
+        );
+
+        BatchResponse response = controller.recordBatch(BatchMode.BEST_EFFORT, batch).getBody();
+
+        assertEquals(2, response.getRecorded());
+        assertEquals(1, response.getRejected());
+        assertEquals("Insufficient balance for withdrawal.", response.getItems().get(1).getError());
+        assertEquals(2L, response.getItems().get(2).getSequence());
+        assertNotNull(response.getItems().get(0).getId());
+        BalanceResponse balance = response.getBalances().stream()
+                .filter(b -> b.getAccountId().equals(LedgerService.DEFAULT_ACCOUNT))
+                .findFirst().orElseThrow();
+        assertEquals(BigDecimal.valueOf(7), balance.getBalance());
+        assertEquals(2, balance.getSequence());
+    }
+
+    @Test
+    void testAtomicBatchIsRejectedAsAWhole() {
+        List<TransactionRequest> batch = List.of(
+                new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT),
+                new TransactionRequest(null, TransactionType.DEPOSIT)
+        );
+
+        BatchRejectedException exception = assertThrows(BatchRejectedException.class, () ->
+                controller.recordBatch(BatchMode.ATOMIC, batch));
+
+        assertEquals("Item 1: Amount is required.", exception.getMessage());
+        assertEquals(BigDecimal.ZERO, controller.getBalance(null, null).getBody().getBalance());
+        assertThrows(IllegalArgumentException.class, () -> controller.recordBatch(BatchMode.ATOMIC, List.of()));
+    }
+
+    @Test
+    void testHistoryTypeFilterPagesByCursor() {
+        for (int i = 0; i < 3; i++) {
+            controller.recordTransaction(new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT), null);
+            controller.recordTransaction(new TransactionRequest(BigDecimal.ONE, TransactionType.WITHDRAWAL), null);
+        }
+
+        ResponseEntity<List<TransactionResponse>> first =
+                controller.getTransactionHistory(0, 2, null, null, TransactionType.WITHDRAWAL, null, null);
+        ResponseEntity<List<TransactionResponse>> second =
+                controller.getTransactionHistory(4, 2, null, null, TransactionType.WITHDRAWAL, null, null);
+
+        assertEquals(List.of(2L, 4L), first.getBody().stream().map(TransactionResponse::getSequence).toList());
+        assertEquals("4", first.getHeaders().getFirst(LedgerController.NEXT_CURSOR_HEADER));
+        assertEquals(List.of(6L), second.getBody().stream().map(TransactionResponse::getSequence).toList());
+        assertNull(second.getHeaders().getFirst(LedgerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testSummaryReturnsCurrentBucket() {
+        controller.recordTransaction(new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT), null);
+        controller.recordTransaction(new TransactionRequest(BigDecimal.ONE, TransactionType.WITHDRAWAL), null);
+
+        List<RollupResponse> days = controller.getSummary(Granularity.DAY, null, null).getBody();
+
+        assertEquals(1, days.size());
+        assertEquals(2, days.get(0).getCount());
+        assertEquals(BigDecimal.TEN, days.get(0).getDeposits());
+        assertEquals(BigDecimal.ONE, days.get(0).getWithdrawals());
+        assertEquals(BigDecimal.valueOf(9), days.get(0).getClosingBalance());
+    }
+
+    @Test
+    void testTransactionIsFetchedById() {
+        TransactionResponse recorded = controller.recordTransaction(
+                "alice", new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT), null).getBody();
+
+        TransactionResponse fetched = controller.getTransaction(recorded.getId()).getBody();
+
+        assertEquals("alice", fetched.getAccountId());
+        assertEquals(recorded.getSequence(), fetched.getSequence());
+        assertThrows(TransactionNotFoundException.class, () -> controller.getTransaction("missing"));
+    }
+
+    @Test
+    void testRetryWithIdempotencyKeyIsNotRecordedAgain() {
+        TransactionRequest deposit = new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT);
+        TransactionResponse first = controller.recordTransaction("alice", deposit, "key-1").getBody();
+
+        TransactionResponse retry = controller.recordTransaction(
+                "alice", new TransactionRequest(new BigDecimal("10.00"), TransactionType.DEPOSIT), "key-1").getBody();
+
+        assertEquals(first.getId(), retry.getId());
+        assertEquals(BigDecimal.TEN, controller.getBalance("alice", null, null).getBody().getBalance());
+        assertEquals(1, controller.getTransactionHistory("alice", 0, null, null, null, null, null, null).getBody().size());
+    }
+
+    @Test
+    void testIdempotencyKeyReusedForDifferentRequestIsRejected() {
+        controller.recordTransaction("alice", new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT), "key-1");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> controller.recordTransaction(
+                "alice", new TransactionRequest(BigDecimal.ONE, TransactionType.DEPOSIT), "key-1"));
+        assertThrows(IdempotencyKeyReusedException.class, () -> controller.recordTransaction(
+                "bob", new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT), "key-1"));
+        assertThrows(IllegalArgumentException.class, () -> controller.recordTransaction(
+                "alice", new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT), " "));
+    }
+
+    @Test
+    void testBalanceIsNotModifiedUntilTheAccountChanges() {
+        controller.recordTransaction("alice", new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT), null);
+        ResponseEntity<BalanceResponse> first = controller.getBalance("alice", null, null);
+        String etag = first.getHeaders().getETag();
+
+        ResponseEntity<BalanceResponse> unchanged = controller.getBalance("alice", null, "W/" + etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertEquals(etag, unchanged.getHeaders().getETag());
+        assertNull(unchanged.getBody());
+
+        controller.recordTransaction("alice", new TransactionRequest(BigDecimal.ONE, TransactionType.DEPOSIT), null);
+        ResponseEntity<BalanceResponse> changed = controller.getBalance("alice", null, etag);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertEquals(new BigDecimal("11"), changed.getBody().getBalance());
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getTransactionHistory("alice", 0, null, null, null, null,
+                null, changed.getHeaders().getETag()).getStatusCode());
+    }
+
+    @Test
+    void testFullHistoryPagesAreWrittenFromTheCache() throws Exception {
+        PageCache pageCache = new PageCache();
+        LedgerService service = new InMemoryLedgerService();
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        controller = new LedgerController(service, new Idempotency<>(), pageCache);
+        for (int i = 1; i <= 3; i++) {
+            controller.recordTransaction(new TransactionRequest(BigDecimal.valueOf(i), TransactionType.DEPOSIT), null);
+        }
+
+        ResponseEntity<List<TransactionResponse>> first = controller.getTransactionHistory(0, 2, null, null, null, null, null);
+        controller.recordTransaction(new TransactionRequest(BigDecimal.TEN, TransactionType.DEPOSIT), null);
+        ResponseEntity<List<TransactionResponse>> again = controller.getTransactionHistory(0, 2, null, null, null, null, null);
+        ResponseEntity<List<TransactionResponse>> partial = controller.getTransactionHistory(2, 4, null, null, null, null, null);
+
+        assertEquals(1, pageCache.stats().hits());
+        assertEquals(1, pageCache.stats().size());
+        TransactionPage page = (TransactionPage) again.getBody();
+        assertArrayEquals(((TransactionPage) first.getBody()).json(), page.json());
+        assertEquals(mapper.writeValueAsString(new ArrayList<>(first.getBody())),
+                new String(page.json(), StandardCharsets.UTF_8));
+        assertEquals(2, page.get(1).getSequence());
+        assertEquals("2", again.getHeaders().getFirst(LedgerController.NEXT_CURSOR_HEADER));
+        assertEquals(first.getHeaders().getETag(), again.getHeaders().getETag());
+        assertNotEquals(LedgerController.etag(service.getVersion(LedgerService.DEFAULT_ACCOUNT)),
+                again.getHeaders().getETag());
+        assertEquals(2, partial.getBody().size());
+
+        controller.recordTransaction(new TransactionRequest(BigDecimal.ONE, TransactionType.DEPOSIT), null);
+        ResponseEntity<List<TransactionResponse>> unchanged = controller.getTransactionHistory(0, 2, null, null, null,
+                null, first.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertEquals("2", unchanged.getHeaders().getFirst(LedgerController.NEXT_CURSOR_HEADER));
+
+        ResponseEntity<List<TransactionResponse>> large = controller.getTransactionHistory(
+                "big", 0, PageCache.MAX_PAGE_SIZE + 1, null, null, null, null, null);
+        assertEquals(0, large.getBody().size());
+        for (int i = 0; i <= PageCache.MAX_PAGE_SIZE; i++) {
+            service.recordTransaction("big", BigDecimal.ONE, TransactionType.DEPOSIT);
+        }
+        large = controller.getTransactionHistory("big", 0, PageCache.MAX_PAGE_SIZE + 1, null, null, null, null, null);
+        assertNull(((TransactionPage) large.getBody()).json());
+        assertEquals(PageCache.MAX_PAGE_SIZE + 1, large.getBody().size());
+        assertEquals(1, pageCache.stats().size());
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        new TransactionPageConverter().write(page, MediaType.APPLICATION_JSON, output);
+        assertArrayEquals(page.json(), output.getBodyAsBytes());
+        assertEquals(page.json().length, output.getHeaders().getContentLength());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.ledger.controller;
+
+import com.example.ledger.dto.BalanceResponse;
+import com.example.ledger.dto.TransactionResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"ledger.engine=SEQUENCER", "spring.devtools.restart.enabled=false"})
+@ActiveProfiles("reactive")
+class ReactiveLedgerControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void servesTheLedgerApiOnWebFlux() {
+        assertFalse(context.containsBean("ledgerController"));
+
+        TransactionResponse deposit = client.post().uri("/api/ledger/reactive/transaction")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"amount\": 100.00, \"type\": \"DEPOSIT\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TransactionResponse.class).returnResult().getResponseBody();
+        assertNotNull(deposit);
+        assertEquals(1, deposit.getSequence());
+        client.post().uri("/api/ledger/reactive/transaction")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"amount\": 30.00, \"type\": \"WITHDRAWAL\"}")
+                .exchange()
+                .expectStatus().isOk();
+
+        BalanceResponse balance = client.get().uri("/api/ledger/reactive/balance")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BalanceResponse.class).returnResult().getResponseBody();
+        assertNotNull(balance);
+        assertEquals(0, new BigDecimal("70").compareTo(balance.getBalance()));
+
+        client.get().uri("/api/ledger/reactive/transactionHistory?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(LedgerController.NEXT_CURSOR_HEADER, "1")
+                .expectBodyList(TransactionResponse.class).hasSize(1);
+
+        List<TransactionResponse> streamed = client.get().uri("/api/ledger/reactive/transactionHistory/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(TransactionResponse.class).getResponseBody().collectList().block();
+        assertNotNull(streamed);
+        assertEquals(List.of(1L, 2L), streamed.stream().map(TransactionResponse::getSequence).toList());
+    }
+
+    @Test
+    void reportsErrorsLikeTheServletStack() {
+        client.post().uri("/api/ledger/broke/transaction")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"amount\": 10.00, \"type\": \"WITHDRAWAL\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Insufficient Balance");
+
+        client.post().uri("/api/ledger/broke/transaction")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"type\": \"DEPOSIT\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Validation Failed");
+
+        client.post().uri("/api/ledger/broke/transaction")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"amount\": 10.00, \"type\": \"GIFT\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Invalid Format");
+
+        client.get().uri("/api/ledger/broke/transactionHistory?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Invalid Request");
+    }
+
+    @Test
+    void readsWaitForMinSequence() {
+        client.post().uri("/api/ledger/waiting/transaction")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"amount\": 5.00, \"type\": \"DEPOSIT\"}")
+                .exchange()
+                .expectStatus().isOk();
+
+        client.get().uri("/api/ledger/waiting/balance?minSequence=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.sequence").isEqualTo(1);
+        client.get().uri("/api/ledger/waiting/transactionHistory?minSequence=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TransactionResponse.class).hasSize(1);
+
+        client.get().uri("/api/ledger/waiting/balance?minSequence=2")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody().jsonPath("$.error").isEqualTo("Sequence Not Reached");
+        client.get().uri("/api/ledger/waiting/transactionHistory?minSequence=-1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.ledger.dto;
+
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionJsonWriterTest {
+
+    // Configured as Spring Boot configures the application's mapper.
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void writesWhatJacksonWritesForTheResponse() throws Exception {
+        List<Transaction> transactions = List.of(
+                transaction("alice", new BigDecimal("10.50"), LocalDateTime.of(2024, 3, 1, 9, 0)),
+                transaction("bob", new BigDecimal("1E+3"), LocalDateTime.of(2024, 3, 1, 9, 0, 5, 500_000_000)),
+                transaction("carol", new BigDecimal("0.0000001"), LocalDateTime.of(1999, 12, 31, 23, 59, 59, 1)),
+                transaction("quote\"back\\slash\ttab", BigDecimal.ONE, LocalDateTime.of(2024, 1, 1, 0, 0, 0, 120_000)),
+                transaction("kontø-€-💶", new BigDecimal("123456789012345678901234.5"),
+                        LocalDateTime.of(12024, 6, 15, 12, 30)));
+
+        for (Transaction transaction : transactions) {
+            assertEquals(jackson(transaction), written(List.of(transaction)).replaceAll("^\\[|]$", ""));
+        }
+        assertEquals(objectMapper.writeValueAsString(transactions.stream().map(TransactionResponse::of).toList()),
+                written(transactions));
+    }
+
+    @Test
+    void writesRandomTransactionsAsJacksonDoes() throws Exception {
+        Random random = new Random(42);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            LocalDateTime timestamp = LocalDateTime.of(1 + random.nextInt(9999), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    random.nextInt(4) == 0 ? 0 : random.nextInt(1_000_000_000));
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(Integer.MAX_VALUE), random.nextInt(12) - 2);
+            transactions.add(new Transaction("id-" + random.nextLong(), "account-" + i % 7, i + 1L, amount,
+                    random.nextBoolean() ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL, timestamp));
+        }
+
+        assertEquals(objectMapper.writeValueAsString(transactions.stream().map(TransactionResponse::of).toList()),
+                written(transactions));
+        assertEquals("[]", written(List.of()));
+    }
+
+    @Test
+    void writesOneObjectPerLine() throws Exception {
+        Transaction first = transaction("alice", BigDecimal.TEN, LocalDateTime.of(2024, 3, 1, 9, 0));
+        Transaction second = transaction("alice", BigDecimal.ONE, LocalDateTime.of(2024, 3, 1, 9, 1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (TransactionJsonWriter writer = new TransactionJsonWriter(out)) {
+            writer.writeLine(first);
+            writer.writeLine(second);
+        }
+
+        assertEquals(jackson(first) + "\n" + jackson(second) + "\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    private String jackson(Transaction transaction) throws Exception {
+        return objectMapper.writeValueAsString(TransactionResponse.of(transaction));
+    }
+
+    private static String written(List<Transaction> transactions) {
+        return new String(TransactionJsonWriter.toJson(transactions), StandardCharsets.UTF_8);
+    }
+
+    private static Transaction transaction(String accountId, BigDecimal amount, LocalDateTime timestamp) {
+        return new Transaction("tx-" + accountId.length(), accountId, 7, amount, TransactionType.DEPOSIT, timestamp);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.ledger.feed;
+
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private InMemoryLedgerService ledger;
+    private ChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new InMemoryLedgerService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    void sendsHistoryThenLiveTransactionsWithBalances() throws Exception {
+        feed = new ChangeFeed(ledger, 16, SlowConsumerPolicy.DISCONNECT, 2);
+        ledger.setTransactionListener(feed);
+        ledger.recordTransaction("acc", new BigDecimal("100"), TransactionType.DEPOSIT);
+        RecordingSink sink = new RecordingSink(3);
+
+        feed.subscribe("acc", 0, sink);
+        ledger.recordTransaction("acc", new BigDecimal("30"), TransactionType.WITHDRAWAL);
+        ledger.recordTransaction("other", new BigDecimal("5"), TransactionType.DEPOSIT);
+        ledger.recordTransaction("acc", new BigDecimal("7.50"), TransactionType.DEPOSIT);
+
+        assertTrue(sink.received.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1L, 2L, 3L), sink.sequences());
+        assertEquals(List.of(new BigDecimal("100"), new BigDecimal("70"), new BigDecimal("77.50")), sink.balances());
+    }
+
+    @Test
+    void resumesAfterTheGivenSequence() throws Exception {
+        feed = new ChangeFeed(ledger, 16, SlowConsumerPolicy.DISCONNECT, 1);
+        ledger.setTransactionListener(feed);
+        for (int i = 1; i <= 5; i++) {
+            ledger.recordTransaction("acc", BigDecimal.valueOf(i), TransactionType.DEPOSIT);
+        }
+        RecordingSink sink = new RecordingSink(2);
+
+        feed.subscribe("acc", 3, sink);
+
+        assertTrue(sink.received.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(4L, 5L), sink.sequences());
+        assertEquals(List.of(new BigDecimal("10"), new BigDecimal("15")), sink.balances());
+    }
+
+    @Test
+    void slowConsumerCatchesUpWithoutGapsOrDuplicates() throws Exception {
+        feed = new ChangeFeed(ledger, 4, SlowConsumerPolicy.CATCH_UP, 2);
+        ledger.setTransactionListener(feed);
+        int writers = 4;
+        int perWriter = 500;
+        RecordingSink sink = new RecordingSink(writers * perWriter) {
+            @Override
+            public void send(FeedEvent event) {
+                if (event.transaction().getSequence() % 100 == 0) {
+                    sleep(5);
+                }
+                super.send(event);
+            }
+        };
+        feed.subscribe("acc", 0, sink);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<?>> futures = new CopyOnWriteArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    ledger.recordTransaction("acc", BigDecimal.ONE, TransactionType.DEPOSIT);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertTrue(sink.received.await(10, TimeUnit.SECONDS));
+        List<Long> sequences = sink.sequences();
+        assertEquals(writers * perWriter, sequences.size());
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i + 1, sequences.get(i));
+            assertEquals(0, BigDecimal.valueOf(i + 1).compareTo(sink.balances().get(i)));
+        }
+        assertFalse(sink.closed);
+    }
+
+    @Test
+    void slowConsumerIsDisconnectedWithoutBlockingWriters() throws Exception {
+        feed = new ChangeFeed(ledger, 2, SlowConsumerPolicy.DISCONNECT, 1);
+        ledger.setTransactionListener(feed);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(1) {
+            @Override
+            public void send(FeedEvent event) {
+                sending.countDown();
+                await(release);
+                super.send(event);
+            }
+        };
+        ledger.recordTransaction("acc", BigDecimal.ONE, TransactionType.DEPOSIT);
+        feed.subscribe("acc", 0, sink);
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 100; i++) {
+            ledger.recordTransaction("acc", BigDecimal.ONE, TransactionType.DEPOSIT);
+        }
+        release.countDown();
+
+        assertTrue(sink.closedLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, feed.subscriberCount());
+        assertEquals(List.of(1L), sink.sequences());
+    }
+
+    @Test
+    void blockedSendIsCutOffWithoutHoldingUpOtherSubscribers() throws Exception {
+        feed = new ChangeFeed(ledger, 16, SlowConsumerPolicy.CATCH_UP, 1, Duration.ofMillis(100));
+        ledger.setTransactionListener(feed);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink stalled = new RecordingSink(1) {
+            @Override
+            public void send(FeedEvent event) {
+                await(release);
+                super.send(event);
+            }
+        };
+        RecordingSink fast = new RecordingSink(20);
+        ledger.recordTransaction("stalled", BigDecimal.ONE, TransactionType.DEPOSIT);
+        feed.subscribe("stalled", 0, stalled);
+        feed.subscribe("fast", 0, fast);
+
+        for (int i = 0; i < 20; i++) {
+            ledger.recordTransaction("fast", BigDecimal.ONE, TransactionType.DEPOSIT);
+        }
+
+        assertTrue(fast.received.await(5, TimeUnit.SECONDS));
+        assertFalse(fast.closed);
+        assertEquals(1, feed.subscriberCount());
+        release.countDown();
+        assertTrue(stalled.closedLatch.await(5, TimeUnit.SECONDS));
+    }
+
+    private static class RecordingSink implements FeedSink {
+        final List<FeedEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+        final CountDownLatch closedLatch = new CountDownLatch(1);
+        volatile boolean closed;
+
+        RecordingSink(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(FeedEvent event) {
+            events.add(event);
+            received.countDown();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            closedLatch.countDown();
+        }
+
+        List<Long> sequences() {
+            return events.stream().map(event -> event.transaction().getSequence()).toList();
+        }
+
+        List<BigDecimal> balances() {
+            return events.stream().map(FeedEvent::balance).toList();
+        }
+
+        static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        static void await(CountDownLatch latch) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
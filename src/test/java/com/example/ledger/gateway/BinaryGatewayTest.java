@@ -0,0 +1,116 @@
+package com.example.ledger.gateway;
+
+import com.example.ledger.service.InMemoryLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryGatewayTest {
+
+    private static final byte[] ALICE = "alice".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DEFAULT = new byte[0];
+
+    private InMemoryLedgerService ledger;
+    private BinaryGateway gateway;
+    private SocketChannel client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ledger = new InMemoryLedgerService();
+        gateway = new BinaryGateway(ledger, new InetSocketAddress("localhost", 0), 2, 2);
+        client = SocketChannel.open(new InetSocketAddress("localhost", gateway.getPort()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        gateway.close();
+    }
+
+    @Test
+    void acksPipelinedRequestsInOrder() throws IOException {
+        ByteBuffer requests = ByteBuffer.allocate(1024);
+        GatewayProtocol.putRequest(requests, GatewayProtocol.DEPOSIT, ALICE, 1050, 101);
+        GatewayProtocol.putRequest(requests, GatewayProtocol.WITHDRAWAL, ALICE, 2000, 102);
+        GatewayProtocol.putRequest(requests, GatewayProtocol.DEPOSIT, ALICE, 0, 103);
+        GatewayProtocol.putRequest(requests, (byte) 7, ALICE, 100, 104);
+        GatewayProtocol.putRequest(requests, GatewayProtocol.WITHDRAWAL, ALICE, 50, 105);
+        GatewayProtocol.putRequest(requests, GatewayProtocol.DEPOSIT, DEFAULT, 100, 106);
+        write(requests);
+
+        ByteBuffer acks = read(6);
+        assertAck(acks, 101, GatewayProtocol.OK, 1);
+        assertAck(acks, 102, GatewayProtocol.INSUFFICIENT_BALANCE, 0);
+        assertAck(acks, 103, GatewayProtocol.REJECTED, 0);
+        assertAck(acks, 104, GatewayProtocol.REJECTED, 0);
+        assertAck(acks, 105, GatewayProtocol.OK, 2);
+        assertAck(acks, 106, GatewayProtocol.OK, 1);
+        assertEquals(new BigDecimal("10.00"), ledger.getCurrentBalance("alice"));
+        assertEquals(new BigDecimal("1.00"), ledger.getCurrentBalance());
+    }
+
+    @Test
+    void handlesRequestsSplitAcrossReadsAndMoreAcksThanFitInOneWrite() throws Exception {
+        ByteBuffer split = ByteBuffer.allocate(64);
+        GatewayProtocol.putRequest(split, GatewayProtocol.DEPOSIT, ALICE, 1, 1);
+        split.flip();
+        write(split.slice(0, 7));
+        Thread.sleep(50);
+        write(split.slice(7, split.limit() - 7));
+        assertAck(read(1), 1, GatewayProtocol.OK, 1);
+
+        int count = 20_000;
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            ByteBuffer requests = ByteBuffer.allocate(count * (GatewayProtocol.REQUEST_HEADER_BYTES + ALICE.length));
+            for (int i = 0; i < count; i++) {
+                GatewayProtocol.putRequest(requests, GatewayProtocol.DEPOSIT, ALICE, 1, 2 + i);
+            }
+            try {
+                write(requests);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        ByteBuffer acks = read(count);
+        writer.get();
+        for (int i = 0; i < count; i++) {
+            assertAck(acks, 2 + i, GatewayProtocol.OK, 2 + i);
+        }
+        assertEquals(0, new BigDecimal("200.01").compareTo(ledger.getCurrentBalance("alice")));
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        if (buffer.position() > 0) {
+            buffer.flip();
+        }
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+    }
+
+    private ByteBuffer read(int acks) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(acks * GatewayProtocol.ACK_BYTES);
+        while (buffer.hasRemaining()) {
+            if (client.read(buffer) < 0) {
+                fail("Gateway closed the connection");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void assertAck(ByteBuffer acks, long correlationId, byte status, long sequence) {
+        assertEquals(correlationId, acks.getLong());
+        assertEquals(status, acks.get());
+        assertEquals(sequence, acks.getLong());
+    }
+}
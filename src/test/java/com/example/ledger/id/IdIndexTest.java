@@ -0,0 +1,68 @@
+package com.example.ledger.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdIndexTest {
+
+    @Test
+    void findsUuidAndSnowflakeIdsAcrossResizes() {
+        IdIndex<String> index = new IdIndex<>();
+        List<String> uuids = new ArrayList<>();
+        SnowflakeIdGenerator snowflakes = new SnowflakeIdGenerator(3);
+        List<String> longIds = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            uuids.add(UUID.randomUUID().toString());
+            longIds.add(snowflakes.next());
+            assertTrue(index.put(uuids.get(i), "uuid", i));
+            assertTrue(index.put(longIds.get(i), "snowflake", i));
+        }
+
+        for (int i = 0; i < 50_000; i += 997) {
+            assertEquals(new IdIndex.Entry<>("uuid", i), index.find(uuids.get(i)));
+            assertEquals(new IdIndex.Entry<>("snowflake", i), index.find(longIds.get(i)));
+        }
+        assertNull(index.find(UUID.randomUUID().toString()));
+        assertNull(index.find("42"));
+    }
+
+    @Test
+    void idsOfOtherShapesAreNotIndexed() {
+        IdIndex<String> index = new IdIndex<>();
+
+        assertFalse(index.put("not-an-id", "owner", 0));
+        assertFalse(index.put("007", "owner", 0));
+        assertFalse(index.put(UUID.randomUUID().toString().toUpperCase(), "owner", 0));
+        assertNull(index.find("not-an-id"));
+        assertNull(index.find(""));
+    }
+
+    @Test
+    void readersSeeEveryIdOnceItIsPut() throws Exception {
+        IdIndex<String> index = new IdIndex<>();
+        SnowflakeIdGenerator ids = new SnowflakeIdGenerator(0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    String id = ids.next();
+                    index.put(id, "owner", i);
+                    assertEquals(i, index.find(id).position());
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.ledger.id;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void idsIncreaseAndCarryTheNode() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5);
+        long previous = generator.nextLong();
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextLong();
+            assertTrue(next > previous);
+            assertEquals(5, (next >>> 12) & SnowflakeIdGenerator.MAX_NODE);
+            previous = next;
+        }
+        long millis = (previous >>> 22) + SnowflakeIdGenerator.EPOCH_MILLIS;
+        assertTrue(Math.abs(millis - System.currentTimeMillis()) < 60_000);
+    }
+
+    @Test
+    void nodeMustFitTenBits() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static SnapshotStore.AccountState account(String accountId, Transaction... transactions) {
+        BigDecimal balance = BigDecimal.ZERO;
+        for (Transaction transaction : transactions) {
+            balance = transaction.getType() == TransactionType.DEPOSIT
+                    ? balance.add(transaction.getAmount())
+                    : balance.subtract(transaction.getAmount());
+        }
+        return new SnapshotStore.AccountState(accountId, balance, List.of(transactions));
+    }
+
+    @Test
+    void loadReturnsWhatWasWritten() throws Exception {
+        SnapshotStore store = new SnapshotStore(dir, 2);
+        Transaction deposit = new Transaction("alice", 1, new BigDecimal("100.50"), TransactionType.DEPOSIT);
+        Transaction withdrawal = new Transaction("custom-id", "alice", 2, new BigDecimal("1e40"),
+                TransactionType.WITHDRAWAL, LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6));
+        Transaction big = new Transaction("alice", 3, new BigDecimal("2e40"), TransactionType.DEPOSIT);
+        Transaction snowflake = new Transaction("7203418725582848005", "alice", 4, BigDecimal.ONE,
+                TransactionType.DEPOSIT, LocalDateTime.of(2024, 1, 2, 3, 4, 6));
+        store.write(123, List.of(account("alice", deposit, withdrawal, big, snowflake), account("bob")));
+
+        List<Transaction> loaded = new ArrayList<>();
+        OptionalLong position = store.loadLatest(loaded::add);
+
+        assertEquals(OptionalLong.of(123), position);
+        assertEquals(4, loaded.size());
+        assertEquals(deposit.getId(), loaded.get(0).getId());
+        assertEquals(deposit.getAmount(), loaded.get(0).getAmount());
+        assertEquals(deposit.getTimestamp(), loaded.get(0).getTimestamp());
+        assertEquals("custom-id", loaded.get(1).getId());
+        assertEquals(2, loaded.get(1).getSequence());
+        assertEquals(withdrawal.getAmount(), loaded.get(1).getAmount());
+        assertEquals(TransactionType.WITHDRAWAL, loaded.get(1).getType());
+        assertEquals(withdrawal.getTimestamp(), loaded.get(1).getTimestamp());
+        assertEquals("7203418725582848005", loaded.get(3).getId());
+    }
+
+    @Test
+    void corruptNewestSnapshotFallsBackToOlderOne() throws Exception {
+        SnapshotStore store = new SnapshotStore(dir, 2);
+        Transaction deposit = new Transaction("alice", 1, BigDecimal.TEN, TransactionType.DEPOSIT);
+        store.write(10, List.of(account("alice", deposit)));
+        Path newest = store.write(20, List.of(account("alice", deposit)));
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 30);
+        }
+
+        assertEquals(OptionalLong.of(10), store.loadLatest(transaction -> { }));
+    }
+
+    @Test
+    void snapshotWithAMismatchedBalanceIsSkippedBeforeAnythingIsLoaded() throws Exception {
+        SnapshotStore store = new SnapshotStore(dir, 2);
+        Transaction deposit = new Transaction("alice", 1, BigDecimal.TEN, TransactionType.DEPOSIT);
+        Transaction another = new Transaction("bob", 1, BigDecimal.ONE, TransactionType.DEPOSIT);
+        store.write(10, List.of(account("alice", deposit)));
+        store.write(20, List.of(account("alice", deposit),
+                new SnapshotStore.AccountState("bob", BigDecimal.TEN, List.of(another))));
+
+        List<Transaction> loaded = new ArrayList<>();
+        assertEquals(OptionalLong.of(10), store.loadLatest(loaded::add));
+        assertEquals(List.of(deposit.getId()), loaded.stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    void onlyTheRetainedNumberOfSnapshotsIsKept() throws Exception {
+        SnapshotStore store = new SnapshotStore(dir, 2);
+        for (long position = 1; position <= 4; position++) {
+            store.write(position, List.of());
+        }
+
+        List<Path> snapshots = store.snapshots();
+        assertEquals(2, snapshots.size());
+        assertTrue(snapshots.get(0).getFileName().toString().endsWith("4.snap"));
+    }
+
+    @Test
+    void emptyDirectoryHasNoSnapshot() throws Exception {
+        assertTrue(new SnapshotStore(dir.resolve("missing"), 2).loadLatest(transaction -> { }).isEmpty());
+    }
+}
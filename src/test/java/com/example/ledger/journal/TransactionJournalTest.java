@@ -0,0 +1,257 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private TransactionJournal open(SyncPolicy policy) throws IOException {
+        return TransactionJournal.open(dir.resolve("ledger.journal"), policy, 4, Duration.ofMillis(5));
+    }
+
+    private static Transaction transaction(long sequence, String amount) {
+        return new Transaction("acc", sequence, new BigDecimal(amount), TransactionType.DEPOSIT);
+    }
+
+    @Test
+    void replayReturnsAppendedTransactionsInOrder() throws Exception {
+        Transaction first = transaction(1, "100.25");
+        Transaction second = new Transaction("acc", 2, new BigDecimal("40"), TransactionType.WITHDRAWAL);
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            journal.awaitDurable(journal.append(first));
+            journal.awaitDurable(journal.append(second));
+            assertEquals(journal.position(), journal.durablePosition());
+        }
+
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            assertEquals(2, journal.replay(replayed::add));
+        }
+
+        assertEquals(2, replayed.size());
+        Transaction restored = replayed.get(0);
+        assertEquals(first.getId(), restored.getId());
+        assertEquals(first.getAccountId(), restored.getAccountId());
+        assertEquals(first.getSequence(), restored.getSequence());
+        assertEquals(first.getAmount(), restored.getAmount());
+        assertEquals(first.getType(), restored.getType());
+        assertEquals(first.getTimestamp(), restored.getTimestamp());
+        assertEquals(TransactionType.WITHDRAWAL, replayed.get(1).getType());
+    }
+
+    @Test
+    void partiallyWrittenTailIsTruncated() throws Exception {
+        long goodEnd;
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            journal.append(transaction(1, "10"));
+            goodEnd = journal.append(transaction(2, "20"));
+        }
+        try (FileChannel channel = FileChannel.open(dir.resolve("ledger.journal"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 1, 2, 3}), goodEnd);
+        }
+
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            assertEquals(2, journal.replay(transaction -> { }));
+            assertEquals(goodEnd, Files.size(dir.resolve("ledger.journal")));
+
+            journal.append(transaction(3, "30"));
+        }
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            assertEquals(3, journal.replay(transaction -> { }));
+        }
+    }
+
+    @Test
+    void corruptRecordEndsReplay() throws Exception {
+        long firstEnd;
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            firstEnd = journal.append(transaction(1, "10"));
+            journal.append(transaction(2, "20"));
+        }
+        try (FileChannel channel = FileChannel.open(dir.resolve("ledger.journal"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), firstEnd + 12);
+        }
+
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            assertEquals(1, journal.replay(transaction -> { }));
+            assertEquals(firstEnd, Files.size(dir.resolve("ledger.journal")));
+        }
+    }
+
+    @Test
+    void batchRecordIsReplayedWholeOrNotAtAll() throws Exception {
+        long firstEnd;
+        long batchEnd;
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            firstEnd = journal.append(transaction(1, "1"));
+            batchEnd = journal.appendBatch(List.of(transaction(2, "2"), transaction(3, "3"), transaction(4, "4")));
+        }
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            assertEquals(4, journal.replay(replayed::add));
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L), replayed.stream().map(Transaction::getSequence).toList());
+
+        try (FileChannel channel = FileChannel.open(dir.resolve("ledger.journal"), StandardOpenOption.WRITE)) {
+            channel.truncate(batchEnd - 5);
+        }
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            assertEquals(1, journal.replay(transaction -> { }));
+            assertEquals(firstEnd, Files.size(dir.resolve("ledger.journal")));
+        }
+    }
+
+    @Test
+    void holdRecordsAreReplayedAndOnlyCapturesAreShipped() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Hold placed = new Hold("h1", "acc", new BigDecimal("4.50"), now, now.plusMinutes(5));
+        Transaction withdrawal = new Transaction("acc", 2, new BigDecimal("4.50"), TransactionType.WITHDRAWAL);
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            journal.append(transaction(1, "10"));
+            journal.append(HoldRecord.placed(placed));
+            journal.awaitDurable(journal.append(HoldRecord.captured(placed, withdrawal)));
+        }
+
+        List<Transaction> replayed = new ArrayList<>();
+        List<HoldRecord> holds = new ArrayList<>();
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            assertEquals(2, journal.replay(0, replayed::add, holds::add));
+        }
+        assertEquals(List.of(HoldRecord.Kind.PLACED, HoldRecord.Kind.CAPTURED), holds.stream().map(HoldRecord::kind).toList());
+        assertEquals("h1", holds.get(0).hold().getId());
+        assertEquals(new BigDecimal("4.50"), holds.get(0).hold().getAmount());
+        assertEquals(now.plusMinutes(5), holds.get(0).hold().getExpiresAt());
+        assertEquals(withdrawal.getId(), replayed.get(1).getId());
+
+        List<Transaction> shipped = new ArrayList<>();
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(dir.resolve("ledger.journal")));
+        assertEquals(2, TransactionJournal.decodeRecords(records, shipped::add));
+        assertFalse(records.hasRemaining());
+        assertEquals(withdrawal.getId(), shipped.get(1).getId());
+    }
+
+    @Test
+    void batchLargerThanTheReadBufferIsReplayed() throws Exception {
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 1; i <= 20_000; i++) {
+            batch.add(transaction(i, "1"));
+        }
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            journal.append(transaction(1, "1"));
+            journal.appendBatch(batch);
+            journal.append(transaction(2, "1"));
+        }
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            assertEquals(20_002, journal.replay(transaction -> { }));
+        }
+    }
+
+    @Test
+    void batchPolicySyncsOnceABatchIsComplete() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(dir.resolve("ledger.journal"), SyncPolicy.BATCH, 4,
+                Duration.ofMinutes(1))) {
+            for (int i = 1; i <= 3; i++) {
+                journal.awaitDurable(journal.append(transaction(i, "1")));
+            }
+            assertEquals(0, journal.durablePosition());
+
+            long end = journal.append(transaction(4, "1"));
+            journal.awaitDurable(end);
+            assertEquals(end, journal.durablePosition());
+        }
+    }
+
+    @Test
+    void batchPolicySyncsAPartialBatchWithinTheInterval() throws Exception {
+        try (TransactionJournal journal = open(SyncPolicy.BATCH)) {
+            long end = journal.append(transaction(1, "1"));
+            journal.awaitDurable(end);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (journal.durablePosition() < end && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(end, journal.durablePosition());
+        }
+    }
+
+    @Test
+    void intervalPolicySyncsInTheBackground() throws Exception {
+        try (TransactionJournal journal = open(SyncPolicy.INTERVAL)) {
+            long end = journal.append(transaction(1, "1"));
+            journal.awaitDurable(end);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (journal.durablePosition() < end && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(end, journal.durablePosition());
+        }
+    }
+
+    @Test
+    void failedSyncRejectsEveryLaterWrite() throws Exception {
+        FailingSyncChannel channel = FailingSyncChannel.open(dir.resolve("ledger.journal"));
+        try (TransactionJournal journal = channel.journal()) {
+            journal.awaitDurable(journal.append(transaction(1, "1")));
+            channel.failSyncs();
+
+            long end = journal.append(transaction(2, "1"));
+            assertThrows(UncheckedIOException.class, () -> journal.awaitDurable(end));
+            assertTrue(journal.durablePosition() < end);
+
+            assertThrows(UncheckedIOException.class, () -> journal.append(transaction(3, "1")));
+            assertThrows(UncheckedIOException.class, () -> journal.appendBatch(
+                    List.of(transaction(3, "1"), transaction(4, "1"))));
+            assertThrows(UncheckedIOException.class, journal::sync);
+            assertEquals(end, journal.position());
+        }
+    }
+
+    @Test
+    void concurrentWritersAreAllDurable() throws Exception {
+        int writers = 8;
+        int perWriter = 200;
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            ExecutorService executor = Executors.newFixedThreadPool(writers);
+            for (int w = 0; w < writers; w++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        long position = journal.append(transaction(i + 1, "1"));
+                        journal.awaitDurable(position);
+                        assertTrue(journal.durablePosition() >= position);
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        try (TransactionJournal journal = open(SyncPolicy.EVERY_WRITE)) {
+            assertEquals(writers * perWriter, journal.replay(transaction -> { }));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.ledger.metrics;
+
+import com.example.ledger.exception.HoldNotFoundException;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.id.UuidIdGenerator;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import com.example.ledger.store.HeapTransactionStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeteredLedgerServiceTest {
+
+    private MeterRegistry registry;
+    private LedgerService ledger;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        LedgerMetrics metrics = new LedgerMetrics(registry);
+        InMemoryLedgerService engine = new InMemoryLedgerService(
+                accountId -> new HeapTransactionStore(), new UuidIdGenerator(),
+                null, null, metrics);
+        metrics.bindStatistics(engine, registry);
+        ledger = new MeteredLedgerService(engine, metrics);
+    }
+
+    @Test
+    void recordsAreTimedByTypeAndOutcome() {
+        ledger.recordTransaction(BigDecimal.TEN, TransactionType.DEPOSIT);
+        ledger.recordTransaction(BigDecimal.ONE, TransactionType.DEPOSIT);
+        ledger.recordTransaction(BigDecimal.ONE, TransactionType.WITHDRAWAL);
+        assertThrows(InsufficientBalanceException.class,
+                () -> ledger.recordTransaction(BigDecimal.valueOf(100), TransactionType.WITHDRAWAL));
+        assertThrows(IllegalArgumentException.class,
+                () -> ledger.recordTransaction(BigDecimal.ZERO, TransactionType.DEPOSIT));
+
+        assertEquals(2, records("deposit", "success"));
+        assertEquals(1, records("withdrawal", "success"));
+        assertEquals(1, records("withdrawal", "insufficient_balance"));
+        assertEquals(1, records("deposit", "rejected"));
+    }
+
+    @Test
+    void lockTimesAndLedgerSizeArePublished() {
+        ledger.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+        ledger.recordTransaction("bob", BigDecimal.TEN, TransactionType.DEPOSIT);
+        ledger.recordTransaction("bob", BigDecimal.ONE, TransactionType.WITHDRAWAL);
+        ledger.getTransactionHistory("bob", 0, 10);
+
+        assertEquals(3, registry.get("ledger.lock.wait").timer().count());
+        assertEquals(3, registry.get("ledger.lock.hold").timer().count());
+        assertEquals(1, registry.get("ledger.operations").tag("operation", "history").tag("outcome", "success")
+                .timer().count());
+        assertEquals(2, registry.get("ledger.accounts").gauge().value());
+        assertEquals(3, registry.get("ledger.transactions").gauge().value());
+        assertTrue(registry.get("ledger.heap.bytes.per.transaction").gauge().value() > 0);
+    }
+
+    @Test
+    void holdsAreTimed() {
+        ledger.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+        Hold hold = ledger.placeHold("alice", BigDecimal.ONE, Duration.ofMinutes(5));
+        assertThrows(InsufficientBalanceException.class,
+                () -> ledger.placeHold("alice", BigDecimal.TEN, Duration.ofMinutes(5)));
+        ledger.getAvailability("alice");
+        ledger.releaseHold(hold.getId());
+        assertThrows(HoldNotFoundException.class, () -> ledger.releaseHold(hold.getId()));
+
+        assertEquals(1, operations("place_hold", "success"));
+        assertEquals(1, operations("place_hold", "insufficient_balance"));
+        assertEquals(1, operations("availability", "success"));
+        assertEquals(1, operations("release_hold", "success"));
+        assertEquals(1, operations("release_hold", "rejected"));
+    }
+
+    private long operations(String operation, String outcome) {
+        return registry.get("ledger.operations").tag("operation", operation).tag("outcome", outcome).timer().count();
+    }
+
+    private long records(String type, String outcome) {
+        return registry.get("ledger.transactions.record").tag("type", type).tag("outcome", outcome).timer().count();
+    }
+}
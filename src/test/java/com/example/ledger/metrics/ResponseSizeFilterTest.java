@@ -0,0 +1,37 @@
+package com.example.ledger.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResponseSizeFilterTest {
+
+    @Test
+    void recordsBytesWrittenPerRoute() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ResponseSizeFilter filter = new ResponseSizeFilter(registry);
+        byte[] body = "{\"balance\":10}".getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/ledger/alice/balance");
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/ledger/{accountId}/balance");
+                res.getOutputStream().write(body);
+            });
+        }
+
+        DistributionSummary summary = registry.get(ResponseSizeFilter.METRIC)
+                .tag("uri", "/api/ledger/{accountId}/balance")
+                .tag("method", "GET")
+                .summary();
+        assertEquals(2, summary.count());
+        assertEquals(2.0 * body.length, summary.totalAmount());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.ledger.replication;
+
+import com.example.ledger.controller.LedgerController;
+import com.example.ledger.exception.ReadOnlyReplicaException;
+import com.example.ledger.exception.SequenceNotReachedException;
+import com.example.ledger.journal.SyncPolicy;
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.ReplicaLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+
+    @TempDir
+    Path dir;
+
+    private TransactionJournal journal;
+    private InMemoryLedgerService leaderLedger;
+    private ReplicationLeader leader;
+    private ReplicaLedgerService replica;
+    private ReplicationFollower follower;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = TransactionJournal.open(dir.resolve("ledger.journal"), SyncPolicy.EVERY_WRITE, 1, Duration.ZERO);
+        leaderLedger = new InMemoryLedgerService(journal);
+        leader = new ReplicationLeader(journal, leaderLedger, new InetSocketAddress("localhost", 0),
+                Duration.ofMillis(20));
+        replica = new ReplicaLedgerService(Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (follower != null) {
+            follower.close();
+        }
+        leader.close();
+        journal.close();
+    }
+
+    private ReplicationFollower follow() {
+        return new ReplicationFollower(replica, new InetSocketAddress("localhost", leader.getPort()),
+                Duration.ofMillis(20));
+    }
+
+    @Test
+    void followerServesTheLeadersWritesAndReportsItsLag() throws Exception {
+        leaderLedger.recordTransaction("alice", new BigDecimal("100"), TransactionType.DEPOSIT);
+        follower = follow();
+        leaderLedger.recordBatch(List.of(
+                new TransactionCommand("alice", new BigDecimal("30"), TransactionType.WITHDRAWAL),
+                new TransactionCommand("bob", new BigDecimal("5"), TransactionType.DEPOSIT)), BatchMode.ATOMIC);
+        Transaction last = leaderLedger.recordTransaction("alice", new BigDecimal("0.5"), TransactionType.DEPOSIT);
+
+        assertTrue(replica.awaitSequence("alice", last.getSequence()));
+        assertTrue(replica.awaitSequence("bob", 1));
+        assertEquals(new BigDecimal("70.5"), replica.getCurrentBalance("alice"));
+        assertEquals(leaderLedger.getCurrentBalance("bob"), replica.getCurrentBalance("bob"));
+        assertEquals(last.getId(), replica.getTransactionHistory("alice").get(2).getId());
+        assertEquals("alice", replica.findTransaction(last.getId()).orElseThrow().getAccountId());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while ((follower.leaderTransactions() != 4 || follower.position() != journal.durablePosition())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(4, follower.leaderTransactions());
+        assertEquals(0, follower.lag());
+        assertEquals(journal.durablePosition(), follower.position());
+        assertEquals(1, leader.followerCount());
+        assertThrows(ReadOnlyReplicaException.class, () ->
+                replica.recordTransaction("alice", BigDecimal.ONE, TransactionType.DEPOSIT));
+    }
+
+    @Test
+    void followerStartingOverSkipsWhatTheReplicaHolds() throws Exception {
+        follower = follow();
+        for (int i = 0; i < 1_000; i++) {
+            leaderLedger.recordTransaction("alice", BigDecimal.ONE, TransactionType.DEPOSIT);
+        }
+        assertTrue(replica.awaitSequence("alice", 1_000));
+        follower.close();
+
+        leaderLedger.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+        follower = follow();
+
+        assertTrue(replica.awaitSequence("alice", 1_001));
+        assertEquals(1_001, replica.transactionCount());
+        assertEquals(new BigDecimal("1010"), replica.getCurrentBalance("alice"));
+    }
+
+    @Test
+    void leaderRejectsAPositionPastTheEndOfItsJournal() throws Exception {
+        leaderLedger.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+        try (Socket socket = new Socket("localhost", leader.getPort())) {
+            new DataOutputStream(socket.getOutputStream()).writeLong(journal.position() + 1);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            assertEquals(ReplicationProtocol.REJECTED, in.readByte());
+            assertEquals(journal.position(), in.readLong());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void followerStopsWhenTheLeaderRejectsItsPosition() throws Exception {
+        try (ServerSocket otherLeader = new ServerSocket(0)) {
+            follower = new ReplicationFollower(replica, new InetSocketAddress("localhost", otherLeader.getLocalPort()),
+                    Duration.ofMillis(20));
+            try (Socket socket = otherLeader.accept()) {
+                new DataInputStream(socket.getInputStream()).readLong();
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeByte(ReplicationProtocol.REJECTED);
+                out.writeLong(0);
+                out.flush();
+
+                awaitFailure();
+            }
+        }
+        assertTrue(follower.failure().contains("rejected journal position"), follower.failure());
+        assertFalse(follower.isConnected());
+    }
+
+    @Test
+    void followerStopsWhenTheReplicaHoldsOtherTransactions() throws Exception {
+        replica.apply(new Transaction("alice", 1, BigDecimal.ONE, TransactionType.DEPOSIT));
+        leaderLedger.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+
+        follower = follow();
+
+        awaitFailure();
+        assertTrue(follower.failure().contains("does not apply"), follower.failure());
+        assertEquals(BigDecimal.ONE, replica.getCurrentBalance("alice"));
+    }
+
+    private void awaitFailure() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (follower.failure() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(follower.failure());
+    }
+
+    @Test
+    void readsWithAMinimumSequenceFailWhenTheFollowerCannotCatchUp() {
+        ReplicaLedgerService disconnected = new ReplicaLedgerService(Duration.ofMillis(50));
+        LedgerController controller = new LedgerController(disconnected);
+
+        assertFalse(disconnected.awaitSequence("alice", 1));
+        assertThrows(SequenceNotReachedException.class, () -> controller.getBalance("alice", 1L, null));
+        assertThrows(IllegalArgumentException.class, () -> controller.getBalance("alice", -1L, null));
+        assertEquals(BigDecimal.ZERO, controller.getBalance("alice", 0L, null).getBody().getBalance());
+        assertThrows(ReadOnlyReplicaException.class, () ->
+                disconnected.recordBatch(List.of(), BatchMode.BEST_EFFORT));
+    }
+}
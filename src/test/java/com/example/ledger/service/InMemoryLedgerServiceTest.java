@@ -2,15 +2,44 @@ package com.example.ledger.service;
 
 import com.example.ledger.TestUtils;
 import com.example.ledger.dto.TransactionRequest;
+import com.example.ledger.exception.BatchRejectedException;
+import com.example.ledger.exception.HoldNotFoundException;
 import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.id.SnowflakeIdGenerator;
+import com.example.ledger.journal.FailingSyncChannel;
+import com.example.ledger.journal.SnapshotStore;
+import com.example.ledger.journal.SyncPolicy;
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.model.AccountView;
+import com.example.ledger.model.Availability;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.BatchResult;
+import com.example.ledger.model.Granularity;
+import com.example.ledger.model.HistoryFilter;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Rollup;
 import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
 import com.example.ledger.model.TransactionType;
+import com.example.ledger.store.ColumnarTransactionStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -86,4 +115,493 @@ class InMemoryLedgerServiceTest {
         );
         assertEquals("Amount must be greater than zero.", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void accountsKeepSeparateBalancesAndHistories() {
+        ledgerService.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+        ledgerService.recordTransaction("bob", BigDecimal.valueOf(30), TransactionType.DEPOSIT);
+        ledgerService.recordTransaction("alice", BigDecimal.valueOf(40), TransactionType.WITHDRAWAL);
+
+        assertEquals(BigDecimal.valueOf(60), ledgerService.getCurrentBalance("alice"));
+        assertEquals(BigDecimal.valueOf(30), ledgerService.getCurrentBalance("bob"));
+        assertEquals(2, ledgerService.getTransactionHistory("alice").size());
+        assertEquals("bob", ledgerService.getTransactionHistory("bob").get(0).getAccountId());
+        assertEquals(BigDecimal.ZERO, ledgerService.getCurrentBalance());
+    }
+
+    @Test
+    void withdrawalIsCheckedAgainstItsOwnAccount() {
+        ledgerService.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+
+        assertThrows(InsufficientBalanceException.class, () ->
+                ledgerService.recordTransaction("bob", BigDecimal.valueOf(10), TransactionType.WITHDRAWAL)
+        );
+    }
+
+    @Test
+    void unknownAccountHasZeroBalanceAndNoHistory() {
+        assertEquals(BigDecimal.ZERO, ledgerService.getCurrentBalance("nobody"));
+        assertTrue(ledgerService.getTransactionHistory("nobody").isEmpty());
+    }
+
+    @Test
+    void blankAccountIdThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () ->
+                ledgerService.recordTransaction(" ", BigDecimal.TEN, TransactionType.DEPOSIT)
+        );
+        assertEquals("Account id is required.", exception.getMessage());
+    }
+
+    @Test
+    void concurrentWritesToManyAccountsAreAllApplied() throws Exception {
+        int accounts = 8;
+        int perAccount = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool(accounts);
+        for (int a = 0; a < accounts; a++) {
+            String accountId = "account-" + a;
+            executor.submit(() -> {
+                for (int i = 0; i < perAccount; i++) {
+                    ledgerService.recordTransaction(accountId, BigDecimal.ONE, TransactionType.DEPOSIT);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (int a = 0; a < accounts; a++) {
+            assertEquals(BigDecimal.valueOf(perAccount), ledgerService.getCurrentBalance("account-" + a));
+            assertEquals(perAccount, ledgerService.getTransactionHistory("account-" + a).size());
+        }
+    }
+
+    @Test
+    void journaledTransactionsSurviveRestart(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        Transaction first;
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            LedgerService journaled = new InMemoryLedgerService(journal);
+            first = journaled.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+            journaled.recordTransaction("alice", BigDecimal.valueOf(30), TransactionType.WITHDRAWAL);
+            journaled.recordTransaction("bob", BigDecimal.valueOf(5), TransactionType.DEPOSIT);
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            LedgerService restarted = new InMemoryLedgerService(journal);
+
+            assertEquals(BigDecimal.valueOf(70), restarted.getCurrentBalance("alice"));
+            assertEquals(BigDecimal.valueOf(5), restarted.getCurrentBalance("bob"));
+            assertEquals(first.getId(), restarted.getTransactionHistory("alice").get(0).getId());
+
+            Transaction next = restarted.recordTransaction("alice", BigDecimal.ONE, TransactionType.DEPOSIT);
+            assertEquals(3, next.getSequence());
+        }
+    }
+
+    @Test
+    void failedSyncFailsTheWriteAndEveryLaterOne(@TempDir Path dir) throws Exception {
+        FailingSyncChannel channel = FailingSyncChannel.open(dir.resolve("ledger.journal"));
+        try (TransactionJournal journal = channel.journal()) {
+            LedgerService journaled = new InMemoryLedgerService(journal);
+            journaled.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+            channel.failSyncs();
+
+            assertThrows(UncheckedIOException.class, () ->
+                    journaled.recordTransaction("alice", BigDecimal.TEN, TransactionType.WITHDRAWAL));
+            assertThrows(UncheckedIOException.class, () ->
+                    journaled.recordTransaction("alice", BigDecimal.TEN, TransactionType.WITHDRAWAL));
+            assertThrows(UncheckedIOException.class, () -> journaled.recordBatch(
+                    List.of(new TransactionCommand("bob", BigDecimal.ONE, TransactionType.DEPOSIT)), BatchMode.ATOMIC));
+            assertThrows(UncheckedIOException.class, () ->
+                    journaled.placeHold("alice", BigDecimal.ONE, Duration.ofMinutes(1)));
+            assertEquals(2, journaled.getTransactionHistory("alice").size());
+        }
+    }
+
+    @Test
+    void restartLoadsSnapshotAndReplaysJournalTail(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        SnapshotStore snapshots = new SnapshotStore(dir.resolve("snapshots"), 2);
+        long snapshotPosition;
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            InMemoryLedgerService journaled = new InMemoryLedgerService(journal, snapshots);
+            journaled.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+            journaled.recordTransaction("bob", BigDecimal.valueOf(7), TransactionType.DEPOSIT);
+            snapshotPosition = journaled.writeSnapshot();
+            journaled.recordTransaction("alice", BigDecimal.valueOf(30), TransactionType.WITHDRAWAL);
+        }
+        assertEquals(1, snapshots.snapshots().size());
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            assertTrue(journal.position() > snapshotPosition);
+            LedgerService restarted = new InMemoryLedgerService(journal, snapshots);
+
+            assertEquals(BigDecimal.valueOf(70), restarted.getCurrentBalance("alice"));
+            assertEquals(BigDecimal.valueOf(7), restarted.getCurrentBalance("bob"));
+            List<Transaction> history = restarted.getTransactionHistory("alice");
+            assertEquals(2, history.size());
+            assertEquals(2, history.get(1).getSequence());
+        }
+    }
+
+    @Test
+    void snapshotCoversOnlyTheDurableJournal(@TempDir Path dir) throws Exception {
+        SnapshotStore snapshots = new SnapshotStore(dir.resolve("snapshots"), 2);
+        try (TransactionJournal journal = TransactionJournal.open(dir.resolve("ledger.journal"), SyncPolicy.BATCH,
+                100, Duration.ofMillis(10))) {
+            InMemoryLedgerService journaled = new InMemoryLedgerService(journal, snapshots);
+            journaled.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+            assertEquals(0, journal.durablePosition());
+
+            long snapshotPosition = journaled.writeSnapshot();
+            assertEquals(journal.position(), snapshotPosition);
+            assertEquals(journal.position(), journal.durablePosition());
+        }
+    }
+
+    @Test
+    void recoverySkipsSnapshotsPastTheEndOfTheJournal(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        SnapshotStore snapshots = new SnapshotStore(dir.resolve("snapshots"), 2);
+        long olderPosition;
+        long newerPosition;
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            InMemoryLedgerService journaled = new InMemoryLedgerService(journal, snapshots);
+            journaled.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+            olderPosition = journaled.writeSnapshot();
+            journaled.recordTransaction("alice", BigDecimal.valueOf(5), TransactionType.DEPOSIT);
+            newerPosition = journaled.writeSnapshot();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(olderPosition + 3);
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            assertTrue(journal.position() < newerPosition);
+            LedgerService restarted = new InMemoryLedgerService(journal, snapshots);
+
+            assertEquals(BigDecimal.valueOf(100), restarted.getCurrentBalance("alice"));
+            assertEquals(olderPosition, journal.position());
+            Transaction next = restarted.recordTransaction("alice", BigDecimal.ONE, TransactionType.DEPOSIT);
+            assertEquals(2, next.getSequence());
+        }
+    }
+
+    @Test
+    void snapshotsRequireAJournal(@TempDir Path dir) {
+        assertThrows(IllegalArgumentException.class, () ->
+                new InMemoryLedgerService(null, new SnapshotStore(dir, 1))
+        );
+    }
+
+    @Test
+    void historyIsAFixedSnapshotThatLaterWritesDoNotChange() {
+        ledgerService.recordTransaction(BigDecimal.TEN, TransactionType.DEPOSIT);
+        List<Transaction> history = ledgerService.getTransactionHistory();
+
+        ledgerService.recordTransaction(BigDecimal.ONE, TransactionType.DEPOSIT);
+
+        assertEquals(1, history.size());
+        assertEquals(2, ledgerService.getTransactionHistory().size());
+        assertThrows(UnsupportedOperationException.class, () -> history.add(history.get(0)));
+    }
+
+    @Test
+    void accountViewBalanceMatchesItsHistoryWhileWritesContinue() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                ledgerService.recordTransaction("alice", BigDecimal.ONE, TransactionType.DEPOSIT);
+            }
+        });
+
+        while (!writer.isDone()) {
+            AccountView view = ledgerService.getAccountView("alice");
+            BigDecimal sum = BigDecimal.ZERO;
+            for (Transaction transaction : view.getTransactions()) {
+                sum = sum.add(transaction.getAmount());
+            }
+            assertEquals(view.getBalance(), sum);
+            assertEquals(view.getSequence(), view.getTransactions().size());
+        }
+        writer.get();
+        executor.shutdown();
+        assertEquals(20_000, ledgerService.getAccountView("alice").getSequence());
+    }
+
+    @Test
+    void atomicBatchIsRecordedAgainstRunningBalances() {
+        BatchResult result = ledgerService.recordBatch(List.of(
+                new TransactionCommand("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT),
+                new TransactionCommand("alice", BigDecimal.valueOf(80), TransactionType.WITHDRAWAL),
+                new TransactionCommand("bob", BigDecimal.valueOf(5), TransactionType.DEPOSIT)
+        ), BatchMode.ATOMIC);
+
+        assertTrue(result.getItems().stream().allMatch(BatchResult.Item::isApplied));
+        assertEquals(2, result.getItems().get(1).transaction().getSequence());
+        assertEquals(BigDecimal.valueOf(20), ledgerService.getCurrentBalance("alice"));
+        assertEquals(List.of("alice", "bob"), result.getAccounts().stream().map(AccountView::getAccountId).toList());
+        assertEquals(BigDecimal.valueOf(20), result.getAccounts().get(0).getBalance());
+    }
+
+    @Test
+    void rejectedAtomicBatchRecordsNothing() {
+        ledgerService.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+
+        BatchRejectedException exception = assertThrows(BatchRejectedException.class, () ->
+                ledgerService.recordBatch(List.of(
+                        new TransactionCommand("bob", BigDecimal.ONE, TransactionType.DEPOSIT),
+                        new TransactionCommand("alice", BigDecimal.valueOf(11), TransactionType.WITHDRAWAL)
+                ), BatchMode.ATOMIC)
+        );
+
+        assertEquals(1, exception.getIndex());
+        assertEquals(BigDecimal.ZERO, ledgerService.getCurrentBalance("bob"));
+        assertEquals(1, ledgerService.getTransactionHistory("alice").size());
+    }
+
+    @Test
+    void bestEffortBatchSkipsInvalidItems() {
+        BatchResult result = ledgerService.recordBatch(List.of(
+                new TransactionCommand("alice", BigDecimal.TEN, TransactionType.DEPOSIT),
+                new TransactionCommand("alice", BigDecimal.valueOf(11), TransactionType.WITHDRAWAL),
+                new TransactionCommand("alice", BigDecimal.ZERO, TransactionType.DEPOSIT),
+                new TransactionCommand("alice", BigDecimal.valueOf(4), TransactionType.WITHDRAWAL)
+        ), BatchMode.BEST_EFFORT);
+
+        assertEquals("Insufficient balance for withdrawal.", result.getItems().get(1).error());
+        assertEquals("Amount must be greater than zero.", result.getItems().get(2).error());
+        assertEquals(2, result.getItems().get(3).transaction().getSequence());
+        assertEquals(BigDecimal.valueOf(6), ledgerService.getCurrentBalance("alice"));
+    }
+
+    @Test
+    void journaledBatchSurvivesRestart(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            LedgerService journaled = new InMemoryLedgerService(journal);
+            journaled.recordTransaction("alice", BigDecimal.ONE, TransactionType.DEPOSIT);
+            journaled.recordBatch(List.of(
+                    new TransactionCommand("alice", BigDecimal.TEN, TransactionType.DEPOSIT),
+                    new TransactionCommand("bob", BigDecimal.valueOf(3), TransactionType.DEPOSIT)
+            ), BatchMode.ATOMIC);
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            LedgerService restarted = new InMemoryLedgerService(journal);
+
+            assertEquals(BigDecimal.valueOf(11), restarted.getCurrentBalance("alice"));
+            assertEquals(BigDecimal.valueOf(3), restarted.getCurrentBalance("bob"));
+        }
+    }
+
+    @Test
+    void timeRangeAndRollupsFollowTransactionTimestamps(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        LocalDateTime nine = LocalDateTime.of(2024, 3, 1, 9, 0);
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            long sequence = 0;
+            for (int minute = 0; minute < 120; minute += 15) {
+                journal.append(new Transaction("alice", ++sequence, BigDecimal.TEN, TransactionType.DEPOSIT,
+                        nine.plusMinutes(minute)));
+                journal.append(new Transaction("alice", ++sequence, BigDecimal.ONE, TransactionType.WITHDRAWAL,
+                        nine.plusMinutes(minute).plusSeconds(30)));
+            }
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            LedgerService restored = new InMemoryLedgerService(journal);
+
+            List<Transaction> nineToTen = restored.getTransactionHistory("alice", 0, Integer.MAX_VALUE,
+                    new HistoryFilter(nine, nine.plusHours(1), null));
+            assertEquals(8, nineToTen.size());
+            assertEquals(nine, nineToTen.get(0).getTimestamp());
+
+            List<Transaction> deposits = restored.getTransactionHistory("alice", 0, Integer.MAX_VALUE,
+                    new HistoryFilter(nine.plusMinutes(15).plusSeconds(1), nine.plusMinutes(46), TransactionType.DEPOSIT));
+            assertEquals(List.of(5L, 7L), deposits.stream().map(Transaction::getSequence).toList());
+
+            List<Rollup> hours = restored.getSummary("alice", Granularity.HOUR, null, null);
+            assertEquals(2, hours.size());
+            assertEquals(nine.plusHours(1), hours.get(1).getStart());
+            assertEquals(8, hours.get(0).getCount());
+            assertEquals(BigDecimal.valueOf(40), hours.get(0).getDeposits());
+            assertEquals(BigDecimal.valueOf(4), hours.get(0).getWithdrawals());
+            assertEquals(BigDecimal.valueOf(72), hours.get(1).getClosingBalance());
+
+            List<Rollup> minutes = restored.getSummary("alice", Granularity.MINUTE, nine.plusMinutes(30), nine.plusMinutes(60));
+            assertEquals(List.of(nine.plusMinutes(30), nine.plusMinutes(45)), minutes.stream().map(Rollup::getStart).toList());
+            assertEquals(BigDecimal.valueOf(36), minutes.get(1).getClosingBalance());
+        }
+    }
+
+    @Test
+    void transactionsAreFoundByIdAfterRestart(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        Transaction bobs;
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            LedgerService journaled = new InMemoryLedgerService(journal);
+            journaled.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+            bobs = journaled.recordTransaction("bob", BigDecimal.ONE, TransactionType.DEPOSIT);
+            assertEquals(bobs.getSequence(), journaled.findTransaction(bobs.getId()).orElseThrow().getSequence());
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            LedgerService restarted = new InMemoryLedgerService(journal);
+
+            Transaction found = restarted.findTransaction(bobs.getId()).orElseThrow();
+            assertEquals("bob", found.getAccountId());
+            assertEquals(bobs.getTimestamp(), found.getTimestamp());
+            assertTrue(restarted.findTransaction(UUID.randomUUID().toString()).isEmpty());
+        }
+    }
+
+    @Test
+    void snowflakeIdsAreMonotonicAndWorkWithColumnarStorage() {
+        LedgerService snowflake = new InMemoryLedgerService(accountId -> new ColumnarTransactionStore(accountId, 2),
+                new SnowflakeIdGenerator(1), null, null);
+
+        Transaction first = snowflake.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+        Transaction second = snowflake.recordTransaction("alice", BigDecimal.ONE, TransactionType.WITHDRAWAL);
+
+        assertTrue(Long.parseLong(second.getId()) > Long.parseLong(first.getId()));
+        assertEquals(second.getId(), snowflake.getTransactionHistory("alice").get(1).getId());
+        assertEquals(new BigDecimal("1.00"), snowflake.findTransaction(second.getId()).orElseThrow().getAmount());
+    }
+
+    @Test
+    void holdsReduceTheAvailableBalanceOnly() {
+        ledgerService.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+
+        Hold hold = ledgerService.placeHold("alice", BigDecimal.valueOf(70), Duration.ofMinutes(5));
+
+        Availability availability = ledgerService.getAvailability("alice");
+        assertEquals(BigDecimal.valueOf(100), availability.getBalance());
+        assertEquals(BigDecimal.valueOf(70), availability.getHeld());
+        assertEquals(BigDecimal.valueOf(30), availability.getAvailable());
+        assertEquals(1, availability.getOpenHolds());
+        assertEquals(1, ledgerService.getVersion("alice"));
+        assertEquals("alice", hold.getAccountId());
+
+        assertThrows(InsufficientBalanceException.class, () ->
+                ledgerService.recordTransaction("alice", BigDecimal.valueOf(31), TransactionType.WITHDRAWAL));
+        assertThrows(InsufficientBalanceException.class, () ->
+                ledgerService.placeHold("alice", BigDecimal.valueOf(31), Duration.ofMinutes(5)));
+        ledgerService.recordTransaction("alice", BigDecimal.valueOf(30), TransactionType.WITHDRAWAL);
+        assertEquals(BigDecimal.ZERO, ledgerService.getAvailability("alice").getAvailable());
+    }
+
+    @Test
+    void capturingAHoldWithdrawsFromItAndReleasesTheRest() {
+        ledgerService.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+        Hold hold = ledgerService.placeHold("alice", BigDecimal.valueOf(70), Duration.ofMinutes(5));
+
+        assertThrows(IllegalArgumentException.class, () -> ledgerService.captureHold(hold.getId(), BigDecimal.valueOf(71)));
+        Transaction capture = ledgerService.captureHold(hold.getId(), BigDecimal.valueOf(50));
+
+        assertEquals(TransactionType.WITHDRAWAL, capture.getType());
+        assertEquals(2, capture.getSequence());
+        assertEquals(BigDecimal.valueOf(50), ledgerService.getCurrentBalance("alice"));
+        assertEquals(BigDecimal.ZERO, ledgerService.getAvailability("alice").getHeld());
+        assertThrows(HoldNotFoundException.class, () -> ledgerService.captureHold(hold.getId(), null));
+        assertThrows(HoldNotFoundException.class, () -> ledgerService.releaseHold(hold.getId()));
+    }
+
+    @Test
+    void releasedAndExpiredHoldsFreeTheirAmount() {
+        InMemoryLedgerService engine = new InMemoryLedgerService();
+        engine.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+        Hold released = engine.placeHold("alice", BigDecimal.valueOf(40), Duration.ofMinutes(5));
+        engine.placeHold("alice", BigDecimal.valueOf(60), Duration.ofMillis(20));
+        assertEquals(BigDecimal.ZERO, engine.getAvailability("alice").getAvailable());
+
+        engine.releaseHold(released.getId());
+        assertEquals(BigDecimal.valueOf(40), engine.getAvailability("alice").getAvailable());
+
+        assertEquals(0, engine.expireHolds(System.nanoTime()));
+        assertEquals(1, engine.expireHolds(System.nanoTime() + Duration.ofSeconds(1).toNanos()));
+        assertEquals(BigDecimal.valueOf(100), engine.getAvailability("alice").getAvailable());
+        assertEquals(0, engine.openHolds());
+    }
+
+    @Test
+    void holdsNeedAFundedAccountAndAPositiveDuration() {
+        assertThrows(InsufficientBalanceException.class, () ->
+                ledgerService.placeHold("nobody", BigDecimal.ONE, Duration.ofMinutes(5)));
+        ledgerService.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+        assertThrows(IllegalArgumentException.class, () ->
+                ledgerService.placeHold("alice", BigDecimal.ONE, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () ->
+                ledgerService.placeHold("alice", BigDecimal.valueOf(-1), Duration.ofMinutes(5)));
+        assertEquals(0, ledgerService.getAvailability("nobody").getOpenHolds());
+    }
+
+    @Test
+    void capturedHoldsAreJournaled(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            LedgerService journaled = new InMemoryLedgerService(journal);
+            journaled.recordTransaction("alice", BigDecimal.TEN, TransactionType.DEPOSIT);
+            Hold hold = journaled.placeHold("alice", BigDecimal.valueOf(4), Duration.ofMinutes(5));
+            journaled.captureHold(hold.getId(), null);
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            LedgerService restarted = new InMemoryLedgerService(journal);
+            assertEquals(BigDecimal.valueOf(6), restarted.getCurrentBalance("alice"));
+            assertEquals(BigDecimal.ZERO, restarted.getAvailability("alice").getHeld());
+        }
+    }
+
+    @Test
+    void openHoldsSurviveARestart(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        Hold kept;
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            InMemoryLedgerService journaled = new InMemoryLedgerService(journal);
+            journaled.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+            kept = journaled.placeHold("alice", BigDecimal.valueOf(30), Duration.ofMinutes(5));
+            Hold released = journaled.placeHold("alice", BigDecimal.valueOf(20), Duration.ofMinutes(5));
+            journaled.placeHold("alice", BigDecimal.valueOf(10), Duration.ofMillis(20));
+            journaled.releaseHold(released.getId());
+            Thread.sleep(50);
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            InMemoryLedgerService restarted = new InMemoryLedgerService(journal);
+            Availability availability = restarted.getAvailability("alice");
+            assertEquals(BigDecimal.valueOf(30), availability.getHeld());
+            assertEquals(1, availability.getOpenHolds());
+            assertThrows(InsufficientBalanceException.class, () ->
+                    restarted.recordTransaction("alice", BigDecimal.valueOf(71), TransactionType.WITHDRAWAL));
+            restarted.captureHold(kept.getId(), null);
+            assertEquals(BigDecimal.valueOf(70), restarted.getCurrentBalance("alice"));
+            assertEquals(0, restarted.openHolds());
+        }
+    }
+
+    @Test
+    void openHoldsAreKeptInSnapshots(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        SnapshotStore snapshots = new SnapshotStore(dir.resolve("snapshots"), 2);
+        Hold before;
+        Hold after;
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            InMemoryLedgerService journaled = new InMemoryLedgerService(journal, snapshots);
+            journaled.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+            before = journaled.placeHold("alice", BigDecimal.valueOf(30), Duration.ofMinutes(5));
+            Hold closed = journaled.placeHold("alice", BigDecimal.valueOf(20), Duration.ofMinutes(5));
+            journaled.writeSnapshot();
+            journaled.releaseHold(closed.getId());
+            after = journaled.placeHold("alice", BigDecimal.valueOf(40), Duration.ofMinutes(5));
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(path, SyncPolicy.EVERY_WRITE, 1, Duration.ofMillis(10))) {
+            InMemoryLedgerService restarted = new InMemoryLedgerService(journal, snapshots);
+            assertEquals(BigDecimal.valueOf(70), restarted.getAvailability("alice").getHeld());
+            assertEquals(2, restarted.openHolds());
+            restarted.releaseHold(before.getId());
+            restarted.releaseHold(after.getId());
+            assertEquals(BigDecimal.ZERO, restarted.getAvailability("alice").getHeld());
+        }
+    }
+}
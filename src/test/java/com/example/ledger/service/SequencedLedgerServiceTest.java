@@ -0,0 +1,182 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exception.BatchRejectedException;
+import com.example.ledger.exception.InsufficientBalanceException;
+import com.example.ledger.journal.FailingSyncChannel;
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.model.BatchMode;
+import com.example.ledger.model.BatchResult;
+import com.example.ledger.model.Hold;
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionCommand;
+import com.example.ledger.model.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequencedLedgerServiceTest {
+
+    private SequencedLedgerService ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = new SequencedLedgerService(8);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ledgerService.close();
+    }
+
+    @Test
+    void depositAndWithdrawalMoveTheBalance() {
+        ledgerService.recordTransaction(BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+        Transaction withdrawal = ledgerService.recordTransaction(BigDecimal.valueOf(40), TransactionType.WITHDRAWAL);
+
+        assertEquals(TransactionType.WITHDRAWAL, withdrawal.getType());
+        assertEquals(BigDecimal.valueOf(60), ledgerService.getCurrentBalance());
+        assertEquals(2, ledgerService.getTransactionHistory().size());
+    }
+
+    @Test
+    void rejectedWithdrawalIsRethrownToTheCaller() {
+        ledgerService.recordTransaction(BigDecimal.TEN, TransactionType.DEPOSIT);
+
+        Exception exception = assertThrows(InsufficientBalanceException.class, () ->
+                ledgerService.recordTransaction(BigDecimal.valueOf(11), TransactionType.WITHDRAWAL)
+        );
+
+        assertEquals("Insufficient balance for withdrawal.", exception.getMessage());
+        assertEquals(1, ledgerService.getTransactionHistory().size());
+    }
+
+    @Test
+    void invalidAmountIsRejectedBeforePublishing() {
+        assertThrows(IllegalArgumentException.class, () ->
+                ledgerService.recordTransaction(BigDecimal.ZERO, TransactionType.DEPOSIT)
+        );
+    }
+
+    @Test
+    void concurrentWritersWrapTheRingWithoutLosingRequests() throws Exception {
+        int writers = 8;
+        int perWriter = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        for (int w = 0; w < writers; w++) {
+            String accountId = "account-" + (w % 2);
+            executor.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    ledgerService.recordTransaction(accountId, BigDecimal.ONE, TransactionType.DEPOSIT);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        BigDecimal expected = BigDecimal.valueOf(writers / 2 * perWriter);
+        assertEquals(expected, ledgerService.getCurrentBalance("account-0"));
+        assertEquals(expected, ledgerService.getCurrentBalance("account-1"));
+        List<Transaction> history = ledgerService.getTransactionHistory("account-0");
+        assertEquals(writers / 2 * perWriter, history.size());
+    }
+
+    @Test
+    void failedSyncFailsTheBatchAndEveryLaterWrite(@TempDir Path dir) throws Exception {
+        FailingSyncChannel channel = FailingSyncChannel.open(dir.resolve("ledger.journal"));
+        try (TransactionJournal journal = channel.journal();
+             SequencedLedgerService journaled = new SequencedLedgerService(8, journal)) {
+            journaled.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+            channel.failSyncs();
+
+            assertThrows(UncheckedIOException.class, () ->
+                    journaled.recordTransaction("alice", BigDecimal.TEN, TransactionType.WITHDRAWAL));
+            assertThrows(UncheckedIOException.class, () ->
+                    journaled.recordTransaction("alice", BigDecimal.TEN, TransactionType.WITHDRAWAL));
+            assertEquals(2, journaled.getTransactionHistory("alice").size());
+        }
+    }
+
+    @Test
+    void writesAfterCloseAreRejected() throws Exception {
+        ledgerService.close();
+
+        assertThrows(IllegalStateException.class, () ->
+                ledgerService.recordTransaction(BigDecimal.ONE, TransactionType.DEPOSIT)
+        );
+    }
+
+    @Test
+    void closeLeavesNoWriterWaiting() throws Exception {
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<?>> submitted = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            submitted.add(executor.submit(() -> {
+                while (true) {
+                    try {
+                        ledgerService.recordTransaction("alice", BigDecimal.ONE, TransactionType.DEPOSIT);
+                    } catch (IllegalStateException e) {
+                        assertEquals("Ledger is shut down.", e.getMessage());
+                        return;
+                    }
+                }
+            }));
+        }
+        Thread.sleep(50);
+
+        ledgerService.close();
+
+        for (Future<?> writer : submitted) {
+            writer.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(BigDecimal.valueOf(ledgerService.getVersion("alice")), ledgerService.getCurrentBalance("alice"));
+    }
+
+    @Test
+    void batchIsAppliedAsOneStepAndRejectionIsRethrown() {
+        BatchResult result = ledgerService.recordBatch(List.of(
+                new TransactionCommand("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT),
+                new TransactionCommand("alice", BigDecimal.valueOf(40), TransactionType.WITHDRAWAL)
+        ), BatchMode.ATOMIC);
+
+        assertEquals(BigDecimal.valueOf(60), result.getAccounts().get(0).getBalance());
+        assertThrows(BatchRejectedException.class, () ->
+                ledgerService.recordBatch(List.of(
+                        new TransactionCommand("alice", BigDecimal.ONE, TransactionType.DEPOSIT),
+                        new TransactionCommand("alice", BigDecimal.valueOf(100), TransactionType.WITHDRAWAL)
+                ), BatchMode.ATOMIC)
+        );
+        assertEquals(BigDecimal.valueOf(60), ledgerService.getCurrentBalance("alice"));
+        assertEquals(3, ledgerService.recordTransaction("alice", BigDecimal.ONE, TransactionType.DEPOSIT).getSequence());
+    }
+
+    @Test
+    void holdsAreCheckedAgainstWritesFromTheSequencer() {
+        ledgerService.recordTransaction("alice", BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+        Hold hold = ledgerService.placeHold("alice", BigDecimal.valueOf(80), Duration.ofMinutes(5));
+
+        assertThrows(InsufficientBalanceException.class, () ->
+                ledgerService.recordTransaction("alice", BigDecimal.valueOf(21), TransactionType.WITHDRAWAL));
+        Transaction capture = ledgerService.captureHold(hold.getId(), null);
+        ledgerService.recordTransaction("alice", BigDecimal.valueOf(20), TransactionType.WITHDRAWAL);
+
+        assertEquals(2, capture.getSequence());
+        assertEquals(BigDecimal.ZERO, ledgerService.getCurrentBalance("alice"));
+        assertEquals(0, ledgerService.openHolds());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ledger.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = Duration.ofMillis(10).toNanos();
+
+    @Test
+    void timeoutsExpireNeitherEarlyNorMoreThanATickLate() {
+        TimingWheel<Long> wheel = new TimingWheel<>(Duration.ofNanos(TICK), 0);
+        Random random = new Random(42);
+        int count = 20_000;
+        for (int i = 0; i < count; i++) {
+            // Spread over every level: up to about 2^31 ticks.
+            long deadline = (long) (Math.pow(2, random.nextDouble() * 31) * TICK);
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<Long> expired = new ArrayList<>();
+        long now = 0;
+        while (wheel.size() > 0) {
+            now += TICK * (1 + random.nextInt(1 << random.nextInt(20)));
+            for (long deadline : wheel.advance(now)) {
+                assertTrue(deadline <= now, "expired early");
+                expired.add(deadline);
+            }
+        }
+        assertEquals(count, expired.size());
+
+        TimingWheel<Long> stepped = new TimingWheel<>(Duration.ofNanos(TICK), 0);
+        long deadline = 1_000 * TICK + 1;
+        stepped.schedule(deadline, deadline);
+        for (now = 0; stepped.size() > 0; now += TICK) {
+            for (long value : stepped.advance(now)) {
+                assertTrue(value <= now && now <= value + TICK);
+            }
+        }
+    }
+
+    @Test
+    void cancelledTimeoutsNeverExpire() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofNanos(TICK), 0);
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 5 * TICK);
+        wheel.schedule("kept", 5 * TICK);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertEquals(List.of(), wheel.advance(4 * TICK));
+        assertEquals(List.of("kept"), wheel.advance(5 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofNanos(TICK), 0);
+        wheel.advance(100 * TICK);
+        wheel.schedule("late", 3 * TICK);
+
+        assertEquals(List.of("late"), wheel.advance(101 * TICK));
+    }
+
+    @Test
+    void deadlinesBeyondTheWheelAreKept() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofNanos(1), 0);
+        long far = 1L << 40;
+        wheel.schedule("far", far);
+        wheel.schedule("near", 10);
+
+        assertEquals(List.of("near"), wheel.advance(far / 2));
+        assertEquals(List.of(), wheel.advance(far - 1));
+        assertEquals(List.of("far"), wheel.advance(far));
+    }
+}
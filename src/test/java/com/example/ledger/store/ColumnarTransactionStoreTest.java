@@ -0,0 +1,102 @@
+package com.example.ledger.store;
+
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTransactionStoreTest {
+
+    @Test
+    void entriesReadBackAsRecorded() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore("alice", 2);
+        String id = UUID.randomUUID().toString();
+        LocalDateTime timestamp = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123_456_789);
+        store.append(new Transaction(id, "alice", 1, new BigDecimal("12.50"), TransactionType.WITHDRAWAL, timestamp));
+
+        Transaction read = store.view(1).get(0);
+
+        assertEquals(id, read.getId());
+        assertEquals("alice", read.getAccountId());
+        assertEquals(1, read.getSequence());
+        assertEquals(new BigDecimal("12.50"), read.getAmount());
+        assertEquals(TransactionType.WITHDRAWAL, read.getType());
+        assertEquals(timestamp, read.getTimestamp());
+    }
+
+    @Test
+    void viewsSpanChunksAndIgnoreLaterAppends() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore("alice", 2);
+        for (int i = 1; i <= 10_000; i++) {
+            store.append(new Transaction("alice", i, BigDecimal.valueOf(i), TransactionType.DEPOSIT));
+        }
+        List<Transaction> view = store.view(store.size());
+
+        store.append(new Transaction("alice", 10_001, BigDecimal.ONE, TransactionType.DEPOSIT));
+
+        assertEquals(10_000, view.size());
+        assertEquals(new BigDecimal("9999.00"), view.get(9_998).getAmount());
+        assertEquals(9_999, view.get(9_998).getSequence());
+        assertEquals(10_001, store.size());
+    }
+
+    @Test
+    void viewsKeepTheirEntriesWhileTheFirstChunkGrows() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore("alice", 2);
+        List<Transaction> appended = new ArrayList<>();
+        List<List<Transaction>> views = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            TransactionType type = i % 3 == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT;
+            Transaction transaction = new Transaction("alice", i, BigDecimal.valueOf(i, 2), type);
+            store.append(transaction);
+            appended.add(transaction);
+            views.add(store.view(store.size()));
+        }
+
+        for (List<Transaction> view : views) {
+            for (int i = 0; i < view.size(); i++) {
+                Transaction expected = appended.get(i);
+                Transaction read = view.get(i);
+                assertEquals(expected.getId(), read.getId());
+                assertEquals(expected.getAmount(), read.getAmount());
+                assertEquals(expected.getType(), read.getType());
+                assertEquals(expected.getTimestamp(), read.getTimestamp());
+            }
+        }
+    }
+
+    @Test
+    void amountsAreNormalizedToTheConfiguredScale() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore("alice", 2);
+
+        assertEquals(new BigDecimal("100.00"), store.normalize(new BigDecimal("100")));
+        assertThrows(IllegalArgumentException.class, () -> store.normalize(new BigDecimal("0.001")));
+        assertThrows(IllegalArgumentException.class, () -> store.normalize(new BigDecimal("1e30")));
+    }
+
+    @Test
+    void ledgerOnColumnarStorageKeepsBalanceAndHistory() {
+        LedgerService ledger = new InMemoryLedgerService(
+                accountId -> new ColumnarTransactionStore(accountId, 2), null, null);
+
+        Transaction deposit = ledger.recordTransaction("alice", new BigDecimal("10.5"), TransactionType.DEPOSIT);
+        ledger.recordTransaction("alice", new BigDecimal("0.25"), TransactionType.WITHDRAWAL);
+
+        assertEquals(new BigDecimal("10.50"), deposit.getAmount());
+        assertEquals(new BigDecimal("10.25"), ledger.getCurrentBalance("alice"));
+        List<Transaction> history = ledger.getTransactionHistory("alice");
+        assertEquals(deposit.getId(), history.get(0).getId());
+        assertEquals(new BigDecimal("0.25"), history.get(1).getAmount());
+        assertThrows(IllegalArgumentException.class, () ->
+                ledger.recordTransaction("alice", new BigDecimal("0.001"), TransactionType.DEPOSIT));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.ledger.store;
+
+import com.example.ledger.model.Transaction;
+import com.example.ledger.model.TransactionType;
+import com.example.ledger.service.InMemoryLedgerService;
+import com.example.ledger.service.LedgerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredTransactionStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 30, 0, 123_456_789);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void entriesReadBackAsRecordedAcrossTiers() {
+        TieredTransactionStore store = new TieredTransactionStore("alice", 2, directory, 4_096);
+        List<Transaction> recorded = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String id = i % 3 == 0 ? UUID.randomUUID().toString() : Long.toString(1_000_000_000_000L + i);
+            Transaction transaction = new Transaction(id, "alice", i + 1, BigDecimal.valueOf(i * 37L + 1, 2),
+                    i % 5 == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT, START.plusNanos(i * 1_001L));
+            store.append(transaction);
+            recorded.add(transaction);
+        }
+
+        assertEquals(12_288, store.sealedSize());
+        List<Transaction> view = store.view(store.size());
+        for (int i = 0; i < recorded.size(); i++) {
+            Transaction expected = recorded.get(i);
+            Transaction read = view.get(i);
+            assertEquals(expected.getId(), read.getId());
+            assertEquals("alice", read.getAccountId());
+            assertEquals(i + 1, read.getSequence());
+            assertEquals(expected.getAmount(), read.getAmount());
+            assertEquals(expected.getType(), read.getType());
+            assertEquals(expected.getTimestamp(), read.getTimestamp());
+        }
+    }
+
+    @Test
+    void viewsTakenBeforeSealingKeepReadingTheirEntries() {
+        TieredTransactionStore store = new TieredTransactionStore("alice", 2, directory, 4_096);
+        for (int i = 1; i < 8_192; i++) {
+            store.append(new Transaction("alice", i, BigDecimal.valueOf(i * 100L, 2), TransactionType.DEPOSIT));
+        }
+        List<Transaction> before = store.view(store.size());
+
+        store.append(new Transaction("alice", 8_192, BigDecimal.ONE, TransactionType.DEPOSIT));
+
+        assertEquals(4_096, store.sealedSize());
+        assertEquals(new BigDecimal("100.00"), before.get(99).getAmount());
+        assertEquals(new BigDecimal("100.00"), store.view(store.size()).get(99).getAmount());
+        assertEquals(8_191, before.size());
+    }
+
+    @Test
+    void segmentsArePackedAndSelfDescribing() throws IOException {
+        TieredTransactionStore store = new TieredTransactionStore("alice", 2, directory, 4_096);
+        for (int i = 1; i <= 8_192; i++) {
+            store.append(new Transaction(Long.toString(5_000_000_000L + i), "alice", i,
+                    new BigDecimal("12.34"), TransactionType.DEPOSIT, START.plusNanos(i * 1_000_000L)));
+        }
+
+        Path file = directory.resolve("1.seg");
+        Segment segment = Segment.open(file);
+        assertEquals(4_096, segment.count());
+        assertEquals(1, segment.firstSequence());
+        assertEquals("5000000100", segment.get(99, "alice").getId());
+        // constant amount and type, 2-byte id distances and 4-byte timestamp distances
+        assertTrue(Files.size(file) < 4_096 * 8, "segment is " + Files.size(file) + " bytes");
+    }
+
+    @Test
+    void ledgerOnTieredStorageKeepsBalanceAndHistory() {
+        Function<String, TransactionStore> stores = TieredTransactionStore.inDirectory(directory, 2, 4_096);
+        LedgerService ledger = new InMemoryLedgerService(stores, null, null);
+
+        for (int i = 0; i < 10_000; i++) {
+            ledger.recordTransaction("alice", new BigDecimal("1.5"), TransactionType.DEPOSIT);
+        }
+        ledger.recordTransaction("alice", new BigDecimal("0.25"), TransactionType.WITHDRAWAL);
+
+        assertEquals(new BigDecimal("14999.75"), ledger.getCurrentBalance("alice"));
+        List<Transaction> history = ledger.getTransactionHistory("alice");
+        assertEquals(10_001, history.size());
+        assertEquals(new BigDecimal("1.50"), history.get(0).getAmount());
+        assertEquals(new BigDecimal("0.25"), history.get(10_000).getAmount());
+        assertTrue(Files.exists(directory.resolve("1").resolve("1.seg")));
+        assertThrows(IllegalArgumentException.class, () ->
+                ledger.recordTransaction("alice", new BigDecimal("0.001"), TransactionType.DEPOSIT));
+
+        TieredTransactionStore.inDirectory(directory, 2, 4_096);
+        assertFalse(Files.exists(directory.resolve("1")));
+    }
+}